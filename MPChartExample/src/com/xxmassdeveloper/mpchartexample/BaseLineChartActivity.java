@@ -68,7 +68,6 @@ public class BaseLineChartActivity extends DemoBase implements OnChartValueSelec
 
     mChart = (BaseLineChart) findViewById(R.id.chart1);
 
-    mChart.setValuePadding(mPadding);
     mChart.setUnit("$");
     mChart.setDrawUnitsInChart(true);
     mChart.setOffsets(0, 20, 0, 0);
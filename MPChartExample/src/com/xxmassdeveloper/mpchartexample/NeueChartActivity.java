@@ -48,7 +48,6 @@ public class NeueChartActivity extends DemoBase implements OnChartValueSelectedL
     final Resources r = getResources();
 
     mChart = (LineChart) findViewById(R.id.chart1);
-    mChart.setValuePadding(1);
     mChart.setUnit("$");
     mChart.setOffsets(0, 0, 0, 0);
     mChart.setStartAtZero(false);
@@ -1,10 +1,13 @@
 package com.github.mikephil.charting.charts;
 
 import com.github.mikephil.charting.data.BarDataSet;
+import com.github.mikephil.charting.data.ChartData;
 import com.github.mikephil.charting.data.DataSet;
 import com.github.mikephil.charting.data.Entry;
+import com.github.mikephil.charting.data.MinMaxPyramid;
 import com.github.mikephil.charting.utils.Legend;
 import com.github.mikephil.charting.utils.MulticolorDrawingSpec;
+import com.github.mikephil.charting.utils.RectBatch;
 
 import android.content.Context;
 import android.graphics.Color;
@@ -13,8 +16,10 @@ import android.graphics.Paint;
 import android.graphics.Path;
 import android.graphics.RectF;
 import android.util.AttributeSet;
+import android.util.Log;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 
 /**
  * Chart that draws bars.
@@ -48,6 +53,24 @@ public class BarChart extends BarLineChartBase<BarDataSet> {
    */
   private boolean mDrawHighlightArrow = false;
 
+  /**
+   * reducers for merging the bars of one bin: the envelope from the
+   * smallest to the largest value (and zero), the sum or the mean of the
+   * values
+   */
+  public static final int BIN_MAX = 0;
+  public static final int BIN_SUM = 1;
+  public static final int BIN_MEAN = 2;
+
+  /**
+   * if true, bars narrower than mBinMinBarWidth pixels are merged into bins
+   */
+  private boolean mBinningEnabled = false;
+
+  private int mBinReducer = BIN_MAX;
+
+  private float mBinMinBarWidth = 1f;
+
   public BarChart(Context context) {
     super(context);
   }
@@ -82,6 +105,32 @@ public class BarChart extends BarLineChartBase<BarDataSet> {
 
     // increase deltax by 1 because the bars have a width of 1
     mDeltaX++;
+
+    m3DGeometryValid = false;
+
+    warnAboutDataSetsWithoutPyramid();
+  }
+
+  /**
+   * Logs a warning for every DataSet whose bars cannot be binned because its
+   * pyramid is not enabled (see DataSet.setPyramidEnabled(...)). The chart
+   * does not enable it itself, the DataSets belong to the caller.
+   */
+  private void warnAboutDataSetsWithoutPyramid() {
+
+    if (!mBinningEnabled || mDataNotSet)
+      return;
+
+    ArrayList<BarDataSet> dataSets = mCurrentData.getDataSets();
+
+    for (int i = 0; i < dataSets.size(); i++) {
+
+      BarDataSet set = dataSets.get(i);
+
+      if (!set.isPyramidEnabled())
+        Log.w(LOG_TAG, "Bar binning is enabled, but the pyramid of DataSet \""
+            + set.getLabel() + "\" is not, its bars are not binned.");
+    }
   }
 
   @Override
@@ -102,14 +151,27 @@ public class BarChart extends BarLineChartBase<BarDataSet> {
 
           mHighlightPaint.setAlpha(120);
 
-          float y = getYValueByDataSetIndex(index,
-              mIndicesToHightlight[i].getDataSetIndex());
+          int dataSetIndex = mIndicesToHightlight[i].getDataSetIndex();
+
+          float y = getYValueByDataSetIndex(index, dataSetIndex);
           float left = index + mBarSpace / 2f;
           float right = index + 1f - mBarSpace / 2f;
           float top = y >= 0 ? y : 0;
           float bottom = y <= 0 ? y : 0;
 
           RectF highlight = new RectF(left, top, right, bottom);
+
+          // if the bars are binned, highlight the bin of the value
+          if (dataSetIndex >= 0 && dataSetIndex < mCurrentData.getDataSetCount()) {
+
+            DataSet dataSet = mCurrentData.getDataSetByIndex(dataSetIndex);
+            int level = getBinningLevel(dataSet);
+            int entry = level > 0 ? dataSet.getIndexInEntries(index) : -1;
+
+            if (entry >= 0)
+              getBinRect(dataSet, level, entry >> level, highlight);
+          }
+
           transformRect(highlight);
 
           mDrawCanvas.drawRect(highlight, mHighlightPaint);
@@ -133,150 +195,613 @@ public class BarChart extends BarLineChartBase<BarDataSet> {
 
   private RectF mBarRect = new RectF();
 
+  /**
+   * reused batch of the bars of one color
+   */
+  private RectBatch mBarBatch = new RectBatch();
+
+  /**
+   * number of floats of the 3D geometry of one bar: two corners of the
+   * front, then the four corners of the top and of the side face
+   */
+  private static final int BAR_3D_FLOATS = 20;
+
+  /**
+   * the 3D geometry of the visible bars in values, and transformed into
+   * pixels
+   */
+  private float[] m3DGeometry = new float[0];
+  private float[] m3DPixels = new float[0];
+
+  /**
+   * the number of bars in the geometry, the index of the first bar of each
+   * DataSet and the range of entries of each DataSet the geometry holds
+   */
+  private int m3DBarCount = 0;
+  private int[] m3DDataSetStarts = new int[0];
+  private int[] m3DFrom = new int[0];
+  private int[] m3DTo = new int[0];
+
+  /**
+   * the range of entries of each DataSet that is visible in the current
+   * frame, empty for binned DataSets
+   */
+  private int[] m3DVisibleFrom = new int[0];
+  private int[] m3DVisibleTo = new int[0];
+
+  private boolean m3DGeometryValid = false;
+  private boolean m3DPixelsValid = false;
+
+  /**
+   * the ChartData the geometry was built for and the number of entries of
+   * each of its DataSets at that time; filtering replaces the current data
+   * every frame, with other entries per DataSet
+   */
+  private ChartData<BarDataSet> m3DGeometryData = null;
+  private int[] m3DEntryCounts = new int[0];
+
+  /**
+   * the values of the matrix the pixels were transformed with
+   */
+  private float[] m3DMatrixValues = new float[9];
+  private float[] mMatrixValuesBuffer = new float[9];
+
+  private float[] mDepthBuffer = new float[6];
+
+  /**
+   * path reused for the top and side faces of one color
+   */
+  private Path mFacePath = new Path();
+
   @Override
   protected void drawData() {
 
-    ArrayList<Path> topPaths = new ArrayList<Path>();
-    ArrayList<Path> sidePaths = new ArrayList<Path>();
+    // the 3D faces of a bar overlap its neighbour, so the bars have to be
+    // drawn one by one in order
+    if (m3DEnabled) {
+      draw3DData();
+      return;
+    }
 
     ArrayList<BarDataSet> dataSets = mCurrentData.getDataSets();
 
-    // preparations for 3D bars
-    if (m3DEnabled) {
+    Matrix valueToPixel = getValueToPixelMatrix();
 
-      float[] pts = new float[] {
-          0f, 0f, 1f, 0f
-      };
+    float clipLeft = mOffsetLeft;
+    float clipTop = mOffsetTop;
+    float clipRight = getWidth() - mOffsetRight;
+    float clipBottom = getHeight() - mOffsetBottom;
 
-      // calculate the depth depending on scale
+    for (int i = 0; i < mCurrentData.getDataSetCount(); i++) {
 
-      transformValueToPixel(pts);
+      BarDataSet dataSet = dataSets.get(i);
+      MulticolorDrawingSpec spec = dataSet.getDrawingSpec();
+      Paint paint = spec.getBasicPaint();
 
-      pts[3] = pts[2] - pts[0];
-      pts[2] = 0f;
-      pts[1] = 0f;
-      pts[0] = 0f;
+      int level = getBinningLevel(dataSet);
 
-      Matrix invert = new Matrix();
+      if (level > 0) {
+        drawBins(dataSet, level, valueToPixel);
+        continue;
+      }
 
-      mMatrixOffset.invert(invert);
-      invert.mapPoints(pts);
+      int from = getFirstVisibleEntryIndex(dataSet);
+      int to = getLastVisibleEntryIndex(dataSet);
 
-      mMatrixTouch.invert(invert);
-      invert.mapPoints(pts);
+      int colorCount = spec.hasMultipleColors() ? spec.getColorsCount() : 1;
+      int originalColor = paint.getColor();
 
-      mMatrixValueToPx.invert(invert);
-      invert.mapPoints(pts);
+      // one batch per color, the bars of color c are every colorCount-th
+      // entry
+      for (int c = 0; c < colorCount; c++) {
 
-      float depth = Math.abs(pts[3] - pts[1]) * mDepth;
+        mBarBatch.reset();
 
-      for (int i = 0; i < mCurrentData.getDataSetCount(); i++) {
+        int first = from + ((c - from % colorCount) + colorCount) % colorCount;
 
-        DataSet dataSet = dataSets.get(i);
-        ArrayList<Entry> series = dataSet.getYVals();
+        for (int j = first; j < to; j += colorCount) {
 
-        for (int j = 0; j < series.size(); j++) {
+          float x = dataSet.getXIndexAt(j);
+          float y = dataSet.getValAt(j);
 
-          float x = series.get(j).getXIndex();
-          float y = series.get(j).getVal();
-          float left = x + mBarSpace / 2f;
-          float right = x + 1f - mBarSpace / 2f;
-          float top = y >= 0 ? y : 0;
+          mBarBatch.add(x + mBarSpace / 2f, y >= 0 ? y : 0, x + 1f - mBarSpace / 2f,
+              y <= 0 ? y : 0);
+        }
 
-          // create the 3D effect paths for the top and side
-          Path topPath = new Path();
-          topPath.moveTo(left, top);
-          topPath.lineTo(left + mSkew, top + depth);
-          topPath.lineTo(right + mSkew, top + depth);
-          topPath.lineTo(right, top);
+        if (mBarBatch.size() == 0)
+          continue;
 
-          topPaths.add(topPath);
+        mBarBatch.transform(valueToPixel);
 
-          Path sidePath = new Path();
-          sidePath.moveTo(right, top);
-          sidePath.lineTo(right + mSkew, top + depth);
-          sidePath.lineTo(right + mSkew, depth);
-          sidePath.lineTo(right, 0);
+        if (spec.hasMultipleColors())
+          paint.setColor(spec.getColor(c));
 
-          sidePaths.add(sidePath);
-        }
+        mBarBatch.draw(mDrawCanvas, paint, clipLeft, clipTop, clipRight, clipBottom);
+      }
+
+      paint.setColor(originalColor);
+    }
+  }
+
+  /**
+   * Draws the visible bins of the given DataSet, one batch per color. A bin
+   * has the color of its first entry.
+   *
+   * @param dataSet
+   * @param level the pyramid level whose buckets are the bins
+   * @param valueToPixel
+   */
+  private void drawBins(BarDataSet dataSet, int level, Matrix valueToPixel) {
+
+    MulticolorDrawingSpec spec = dataSet.getDrawingSpec();
+    Paint paint = spec.getBasicPaint();
+
+    int from = getFirstVisibleEntryIndex(dataSet) >> level;
+    int to = ((getLastVisibleEntryIndex(dataSet) - 1) >> level) + 1;
+
+    int colorCount = spec.hasMultipleColors() ? spec.getColorsCount() : 1;
+    int originalColor = paint.getColor();
+
+    for (int c = 0; c < colorCount; c++) {
+
+      mBarBatch.reset();
+
+      for (int b = from; b < to; b++) {
+
+        if (getBinColorIndex(b, level, colorCount) != c)
+          continue;
+
+        getBinRect(dataSet, level, b, mBarRect);
+        mBarBatch.add(mBarRect.left, mBarRect.top, mBarRect.right, mBarRect.bottom);
+      }
+
+      if (mBarBatch.size() == 0)
+        continue;
+
+      mBarBatch.transform(valueToPixel);
+
+      if (spec.hasMultipleColors())
+        paint.setColor(spec.getColor(c));
+
+      mBarBatch.draw(mDrawCanvas, paint, mOffsetLeft, mOffsetTop, getWidth() - mOffsetRight,
+          getHeight() - mOffsetBottom);
+    }
+
+    paint.setColor(originalColor);
+  }
+
+  /**
+   * returns the index of the color of the given bin, the color of its first
+   * entry
+   *
+   * @param bin
+   * @param level
+   * @param colorCount
+   * @return
+   */
+  static int getBinColorIndex(int bin, int level, int colorCount) {
+    return (bin << level) % colorCount;
+  }
+
+  /**
+   * Returns the pyramid level whose buckets are used as bins for the given
+   * DataSet at the current scale, 0 if the bars are not binned. The bins
+   * are the smallest buckets that span at least mBinMinBarWidth pixels.
+   * Bars of DataSets without a pyramid are not binned.
+   *
+   * @param dataSet
+   * @return
+   */
+  protected int getBinningLevel(DataSet dataSet) {
+
+    if (!mBinningEnabled || !dataSet.isSorted())
+      return 0;
+
+    float entriesPerBar = getEntriesPerPixel(dataSet) * mBinMinBarWidth;
+
+    if (entriesPerBar <= 1f)
+      return 0;
+
+    // the bins are built from the pyramid, which is kept up to date by the
+    // DataSet once it is enabled
+    if (!dataSet.isPyramidEnabled())
+      return 0;
+
+    MinMaxPyramid pyramid = dataSet.getPyramid();
+
+    int level = 0;
+
+    while (level < pyramid.getLevelCount() && (1 << level) < entriesPerBar)
+      level++;
+
+    return level;
+  }
+
+  /**
+   * Sets the given rect to the bounds (in values) of the given bin, its
+   * height depends on the reducer.
+   *
+   * @param dataSet
+   * @param level
+   * @param bin
+   * @param rect
+   */
+  private void getBinRect(DataSet dataSet, int level, int bin, RectF rect) {
+
+    MinMaxPyramid pyramid = dataSet.getPyramid();
+
+    int first = bin << level;
+    int last = Math.min(first + (1 << level), dataSet.getEntryCount()) - 1;
+
+    float left = dataSet.getXIndexAt(first);
+    float right = dataSet.getXIndexAt(last) + 1f;
+
+    float min;
+    float max;
+    double sum;
+
+    if (level >= MinMaxPyramid.BASE_LEVEL) {
+      min = pyramid.getMin(level, bin);
+      max = pyramid.getMax(level, bin);
+      sum = pyramid.getSum(level, bin);
+    } else {
+
+      // the finer levels are not stored, their bins are aggregated from the
+      // few entries they span
+      min = Float.MAX_VALUE;
+      max = -Float.MAX_VALUE;
+      sum = 0;
+
+      for (int j = first; j <= last; j++) {
+        float val = dataSet.getValAt(j);
+        min = Math.min(min, val);
+        max = Math.max(max, val);
+        sum += val;
       }
+    }
 
-      transformPaths(topPaths);
-      transformPaths(sidePaths);
+    switch (mBinReducer) {
+      case BIN_SUM:
+        min = max = (float) sum;
+        break;
+      case BIN_MEAN:
+        min = max = (float) (sum / (last - first + 1));
+        break;
+      default:
+        break;
     }
 
-    int cnt = 0;
+    rect.set(left, max >= 0 ? max : 0, right, min <= 0 ? min : 0);
+  }
+
+  /**
+   * Draws the bars with their 3D top and side. The geometry of the visible
+   * bars is cached, it is only built again when the visible range changes
+   * and only transformed again when the matrices change. Per color, all
+   * sides are drawn first, then all tops, then the fronts, so that the
+   * fronts of the neighbouring bars cover the back faces.
+   */
+  private void draw3DData() {
+
+    ArrayList<BarDataSet> dataSets = mCurrentData.getDataSets();
+    int setCount = mCurrentData.getDataSetCount();
+
+    if (m3DVisibleFrom.length < setCount) {
+      m3DVisibleFrom = new int[setCount];
+      m3DVisibleTo = new int[setCount];
+    }
+
+    for (int i = 0; i < setCount; i++) {
+
+      BarDataSet dataSet = dataSets.get(i);
+
+      // binned bars are too narrow for a 3D effect, they need no geometry
+      if (getBinningLevel(dataSet) > 0) {
+        m3DVisibleFrom[i] = 0;
+        m3DVisibleTo[i] = 0;
+      } else {
+        m3DVisibleFrom[i] = getFirstVisibleEntryIndex(dataSet);
+        m3DVisibleTo[i] = Math.max(m3DVisibleFrom[i], getLastVisibleEntryIndex(dataSet));
+      }
+    }
+
+    if (!m3DGeometryValid || !is3DGeometryCurrent())
+      build3DGeometry();
+
+    transform3DGeometry(getValueToPixelMatrix());
+
+    float[] px = m3DPixels;
+
+    float clipLeft = mOffsetLeft;
+    float clipTop = mOffsetTop;
+    float clipRight = getWidth() - mOffsetRight;
+    float clipBottom = getHeight() - mOffsetBottom;
 
-    // 2D drawing
     for (int i = 0; i < mCurrentData.getDataSetCount(); i++) {
+
       BarDataSet dataSet = dataSets.get(i);
-      Paint paint = dataSet.getDrawingSpec().getBasicPaint();
-      ArrayList<Entry> series = dataSet.getYVals();
+      MulticolorDrawingSpec spec = dataSet.getDrawingSpec();
+      Paint paint = spec.getBasicPaint();
+
+      int level = getBinningLevel(dataSet);
+
+      if (level > 0) {
+        drawBins(dataSet, level, getValueToPixelMatrix());
+        continue;
+      }
+
+      // the geometry holds the visible bars only, starting with from
+      int from = m3DFrom[i];
+      int to = m3DTo[i];
+      int start = m3DDataSetStarts[i] - from;
+
+      int colorCount = spec.hasMultipleColors() ? spec.getColorsCount() : 1;
+      int originalColor = paint.getColor();
+
+      // like before, the 3D faces are only drawn with multiple colors
+      if (spec.hasMultipleColors()) {
+        draw3DFaces(spec, paint, start, from, to, 12, true);
+        draw3DFaces(spec, paint, start, from, to, 4, false);
+      }
+
+      for (int c = 0; c < colorCount; c++) {
+
+        if (spec.hasMultipleColors())
+          paint.setColor(spec.getColor(c));
+
+        int first = from + ((c - from % colorCount) + colorCount) % colorCount;
+
+        for (int j = first; j < to; j += colorCount) {
+
+          int p = (start + j) * BAR_3D_FLOATS;
+
+          float left = Math.min(px[p], px[p + 2]);
+          float right = Math.max(px[p], px[p + 2]);
+          float top = Math.min(px[p + 1], px[p + 3]);
+          float bottom = Math.max(px[p + 1], px[p + 3]);
+
+          if (right < clipLeft || left > clipRight || bottom < clipTop || top > clipBottom)
+            continue;
+
+          mDrawCanvas.drawRect(left, top, right, bottom, paint);
+        }
+      }
+
+      paint.setColor(originalColor);
+    }
+  }
+
+  /**
+   * draws the top or side faces of the given bars, one path per color
+   *
+   * @param spec
+   * @param paint
+   * @param start the index the DataSet's bar at entry 0 would have in the
+   *          geometry, which only holds the bars from from to to
+   * @param from
+   * @param to
+   * @param face the offset of the face in the geometry of a bar
+   * @param side true for the side faces, false for the top faces
+   */
+  private void draw3DFaces(MulticolorDrawingSpec spec, Paint paint, int start, int from, int to,
+      int face, boolean side) {
+
+    float[] px = m3DPixels;
+    int colorCount = spec.getColorsCount();
+
+    for (int c = 0; c < colorCount; c++) {
+
+      int first = from + ((c - from % colorCount) + colorCount) % colorCount;
+
+      if (first >= to)
+        continue;
+
+      mFacePath.rewind();
+
+      for (int j = first; j < to; j += colorCount) {
+
+        int p = (start + j) * BAR_3D_FLOATS + face;
+
+        mFacePath.moveTo(px[p], px[p + 1]);
+        mFacePath.lineTo(px[p + 2], px[p + 3]);
+        mFacePath.lineTo(px[p + 4], px[p + 5]);
+        mFacePath.lineTo(px[p + 6], px[p + 7]);
+        mFacePath.close();
+      }
+
+      paint.setColor(side ? spec.getSideColor(c) : spec.getTopColor(c));
+      mDrawCanvas.drawPath(mFacePath, paint);
+    }
+  }
+
+  /**
+   * Calculates the geometry of the front, top and side of the visible bars
+   * in values. The depth of the 3D effect depends on the scale and is added
+   * when the geometry is transformed.
+   */
+  private void build3DGeometry() {
+
+    ArrayList<BarDataSet> dataSets = mCurrentData.getDataSets();
+    int setCount = mCurrentData.getDataSetCount();
+
+    int bars = 0;
+    for (int i = 0; i < setCount; i++)
+      bars += m3DVisibleTo[i] - m3DVisibleFrom[i];
+
+    if (m3DGeometry.length < bars * BAR_3D_FLOATS) {
+      m3DGeometry = new float[bars * BAR_3D_FLOATS];
+      m3DPixels = new float[bars * BAR_3D_FLOATS];
+    }
+
+    if (m3DDataSetStarts.length < setCount) {
+      m3DDataSetStarts = new int[setCount];
+      m3DEntryCounts = new int[setCount];
+      m3DFrom = new int[setCount];
+      m3DTo = new int[setCount];
+    }
 
-      // do the drawing
-      for (int j = 0; j < dataSet.getEntryCount(); j++) {
+    float[] g = m3DGeometry;
+    int k = 0;
 
-        int x = series.get(j).getXIndex();
-        float y = series.get(j).getVal();
+    for (int i = 0; i < setCount; i++) {
+
+      DataSet dataSet = dataSets.get(i);
+
+      m3DDataSetStarts[i] = k / BAR_3D_FLOATS;
+      m3DEntryCounts[i] = dataSet.getEntryCount();
+      m3DFrom[i] = m3DVisibleFrom[i];
+      m3DTo[i] = m3DVisibleTo[i];
+
+      for (int j = m3DFrom[i]; j < m3DTo[i]; j++) {
+
+        float x = dataSet.getXIndexAt(j);
+        float y = dataSet.getValAt(j);
         float left = x + mBarSpace / 2f;
         float right = x + 1f - mBarSpace / 2f;
         float top = y >= 0 ? y : 0;
         float bottom = y <= 0 ? y : 0;
 
-        mBarRect.set(left, top, right, bottom);
+        // front
+        g[k++] = left;
+        g[k++] = top;
+        g[k++] = right;
+        g[k++] = bottom;
+
+        // top face
+        g[k++] = left;
+        g[k++] = top;
+        g[k++] = left + mSkew;
+        g[k++] = top;
+        g[k++] = right + mSkew;
+        g[k++] = top;
+        g[k++] = right;
+        g[k++] = top;
+
+        // side face
+        g[k++] = right;
+        g[k++] = top;
+        g[k++] = right + mSkew;
+        g[k++] = top;
+        g[k++] = right + mSkew;
+        g[k++] = 0;
+        g[k++] = right;
+        g[k++] = 0;
+      }
+    }
+
+    m3DBarCount = k / BAR_3D_FLOATS;
+    m3DGeometryData = mCurrentData;
+    m3DGeometryValid = true;
+    m3DPixelsValid = false;
+  }
 
-        transformRect(mBarRect);
+  /**
+   * returns true if the cached geometry was built for the current data and
+   * the visible bars, and the number of entries of its DataSets has not
+   * changed since
+   *
+   * @return
+   */
+  private boolean is3DGeometryCurrent() {
 
-        // avoid drawing outofbounds values
-        if (isOffContentRight(mBarRect.left))
-          break;
+    if (m3DGeometryData != mCurrentData)
+      return false;
 
-        if (isOffContentLeft(mBarRect.right)) {
-          cnt++;
-          continue;
-        }
+    int setCount = mCurrentData.getDataSetCount();
 
-        int originalColor = paint.getColor();
+    if (m3DEntryCounts.length < setCount)
+      return false;
 
-        if (dataSet.getDrawingSpec().hasMultipleColors()) {
-          paint.setColor(dataSet.getDrawingSpec().getColor(j));
-        }
+    for (int i = 0; i < setCount; i++) {
+      if (mCurrentData.getDataSetByIndex(i).getEntryCount() != m3DEntryCounts[i]
+          || m3DVisibleFrom[i] != m3DFrom[i] || m3DVisibleTo[i] != m3DTo[i])
+        return false;
+    }
 
-        mDrawCanvas.drawRect(mBarRect, paint);
+    return true;
+  }
+
+  /**
+   * Transforms the 3D geometry of the visible bars into pixels if the
+   * geometry or the matrix has changed since the last transformation, and
+   * adds the depth to the back corners of the top and side faces.
+   *
+   * @param matrix
+   */
+  private void transform3DGeometry(Matrix matrix) {
 
-        // 3D drawing
-        if (m3DEnabled && dataSet.getDrawingSpec().hasMultipleColors()) {
-          paint.setColor(dataSet.getDrawingSpec().getTopColor(j));
-          mDrawCanvas.drawPath(topPaths.get(cnt), paint);
+    matrix.getValues(mMatrixValuesBuffer);
 
-          paint.setColor(dataSet.getDrawingSpec().getSideColor(j));
-          mDrawCanvas.drawPath(sidePaths.get(cnt), paint);
-        }
+    if (m3DPixelsValid && Arrays.equals(mMatrixValuesBuffer, m3DMatrixValues))
+      return;
 
-        paint.setColor(originalColor);
+    System.arraycopy(mMatrixValuesBuffer, 0, m3DMatrixValues, 0, 9);
 
-        cnt++;
-      }
+    int length = m3DBarCount * BAR_3D_FLOATS;
+
+    System.arraycopy(m3DGeometry, 0, m3DPixels, 0, length);
+    matrix.mapPoints(m3DPixels, 0, m3DPixels, 0, length / 2);
+
+    // the depth is the pixel width of one x-index times mDepth, going
+    // in the direction of positive values
+    float[] pts = mDepthBuffer;
+    pts[0] = 0f;
+    pts[1] = 0f;
+    pts[2] = 1f;
+    pts[3] = 0f;
+    pts[4] = 0f;
+    pts[5] = 1f;
+    matrix.mapPoints(pts);
+
+    float depth = Math.abs(pts[2] - pts[0]) * mDepth * Math.signum(pts[5] - pts[1]);
+
+    for (int p = 0; p < length; p += BAR_3D_FLOATS) {
+      m3DPixels[p + 7] += depth;
+      m3DPixels[p + 9] += depth;
+      m3DPixels[p + 15] += depth;
+      m3DPixels[p + 17] += depth;
     }
+
+    m3DPixelsValid = true;
   }
 
   @Override
   protected void drawValues() {
 
     // if values are drawn
-    if (mDrawYValues && mCurrentData.getYValCount() < mMaxVisibleCount * mScaleX) {
+    if (prepareValueLabels()) {
 
       ArrayList<BarDataSet> dataSets = mCurrentData.getDataSets();
 
       for (int i = 0; i < mCurrentData.getDataSetCount(); i++) {
 
         DataSet dataSet = dataSets.get(i);
-        ArrayList<Entry> series = dataSet.getYVals();
 
-        float[] valuePoints = generateTransformedValues(series, 0.5f);
+        int from = getFirstVisibleEntryIndex(dataSet);
+        int to = getLastVisibleEntryIndex(dataSet);
+
+        if (from >= to)
+          continue;
+
+        mValueBuffer = generateTransformedValues(dataSet, from, to, 0.5f, mValueBuffer);
+
+        float[] valuePoints = mValueBuffer;
+        int length = (to - from) * 2;
 
-        for (int j = 0; j < valuePoints.length; j += 2) {
+        // the labels of the extremes go first so their neighbours give way
+        if (mValueLabelCulling && mValueLabelExtremesFirst) {
+
+          findValueExtremes(dataSet, from, to, valuePoints);
+
+          for (int e = 0; e < mValueExtremes.length; e++) {
+            int j = (mValueExtremes[e] - from) * 2;
+            if (mValueExtremes[e] >= 0)
+              drawValueLabel(dataSet.getValAt(mValueExtremes[e]), mDrawUnitInChart,
+                  valuePoints[j], valuePoints[j + 1] - 12, mValuePaint);
+          }
+        }
+
+        for (int j = 0; j < length; j += 2) {
 
           if (isOffContentRight(valuePoints[j]))
             break;
@@ -284,19 +809,10 @@ public class BarChart extends BarLineChartBase<BarDataSet> {
           if (isOffContentLeft(valuePoints[j]))
             continue;
 
-          float val = series.get(j / 2).getVal();
-
-          if (mDrawUnitInChart) {
-
-            mDrawCanvas.drawText(mValueFormat.format(val) + mUnit, valuePoints[j],
-                valuePoints[j + 1] - 12,
-                mValuePaint);
-          } else {
+          float val = dataSet.getValAt(from + j / 2);
 
-            mDrawCanvas.drawText(mValueFormat.format(val), valuePoints[j],
-                valuePoints[j + 1] - 12,
-                mValuePaint);
-          }
+          drawValueLabel(val, mDrawUnitInChart, valuePoints[j], valuePoints[j + 1] - 12,
+              mValuePaint);
         }
       }
     }
@@ -310,6 +826,7 @@ public class BarChart extends BarLineChartBase<BarDataSet> {
    */
   public void setSkew(float skew) {
     this.mSkew = skew;
+    m3DGeometryValid = false;
   }
 
   /**
@@ -330,6 +847,7 @@ public class BarChart extends BarLineChartBase<BarDataSet> {
    */
   public void setDepth(float depth) {
     this.mDepth = depth;
+    m3DPixelsValid = false;
   }
 
   /**
@@ -357,6 +875,7 @@ public class BarChart extends BarLineChartBase<BarDataSet> {
    */
   public void setBarSpace(float percent) {
     mBarSpace = percent / 100f;
+    m3DGeometryValid = false;
   }
 
   /**
@@ -377,6 +896,55 @@ public class BarChart extends BarLineChartBase<BarDataSet> {
     return m3DEnabled;
   }
 
+  /**
+   * Enables / disables merging bars into bins when they get narrower than
+   * the given width, e.g. when a chart with many bars is zoomed out. A bin
+   * merges 2^n adjacent bars with the given reducer (BIN_MAX, BIN_SUM or
+   * BIN_MEAN), zooming in splits the bins again. The bins are taken from
+   * the pyramid of the DataSet, which has to be enabled by the caller (see
+   * DataSet.setPyramidEnabled(...)); for published snapshots it has to be
+   * enabled on the source DataSets before snapshotting. The bars of
+   * DataSets without a pyramid are not binned, a warning is logged. The
+   * y-range is not adjusted to sums of bars.
+   * Default: disabled, BIN_MAX, 1 pixel
+   *
+   * @param enabled
+   * @param reducer
+   * @param minBarWidth the minimum width of a bar in pixels
+   */
+  public void setBarBinning(boolean enabled, int reducer, float minBarWidth) {
+
+    if (reducer != BIN_MAX && reducer != BIN_SUM && reducer != BIN_MEAN)
+      throw new IllegalArgumentException("Unknown reducer " + reducer + ".");
+
+    if (minBarWidth <= 0f)
+      throw new IllegalArgumentException("The minimum bar width must be positive.");
+
+    mBinningEnabled = enabled;
+    mBinReducer = reducer;
+    mBinMinBarWidth = minBarWidth;
+
+    warnAboutDataSetsWithoutPyramid();
+  }
+
+  /**
+   * returns true if narrow bars are merged into bins
+   *
+   * @return
+   */
+  public boolean isBarBinningEnabled() {
+    return mBinningEnabled;
+  }
+
+  /**
+   * returns the reducer that merges the bars of a bin
+   *
+   * @return
+   */
+  public int getBinReducer() {
+    return mBinReducer;
+  }
+
   /**
    * set this to true to draw the highlightning arrow
    *
@@ -3,14 +3,18 @@ package com.github.mikephil.charting.charts;
 import com.github.mikephil.charting.data.ChartData;
 import com.github.mikephil.charting.data.DataSet;
 import com.github.mikephil.charting.data.Entry;
+import com.github.mikephil.charting.data.MinMaxPyramid;
 import com.github.mikephil.charting.data.filter.Approximator;
 import com.github.mikephil.charting.interfaces.OnDrawListener;
 import com.github.mikephil.charting.listener.BarLineChartTouchListener;
-import com.github.mikephil.charting.utils.AbbreviatingNumberFormat;
+import com.github.mikephil.charting.utils.EntrySelection;
+import com.github.mikephil.charting.utils.FastValueFormatter;
 import com.github.mikephil.charting.utils.Highlight;
+import com.github.mikephil.charting.utils.LabelOccupancyGrid;
 import com.github.mikephil.charting.utils.Legend.LegendPosition;
 import com.github.mikephil.charting.utils.PointD;
-import com.github.mikephil.charting.utils.SelInfo;
+import com.github.mikephil.charting.utils.TextMeasureCache;
+import com.github.mikephil.charting.utils.TimeAxis;
 import com.github.mikephil.charting.utils.Utils;
 import com.github.mikephil.charting.utils.XLabels;
 import com.github.mikephil.charting.utils.XLabels.XLabelPosition;
@@ -31,7 +35,6 @@ import android.util.AttributeSet;
 import android.util.Log;
 import android.view.ViewParent;
 
-import java.text.DecimalFormat;
 import java.text.NumberFormat;
 import java.util.ArrayList;
 
@@ -46,6 +49,23 @@ public abstract class BarLineChartBase<T extends DataSet> extends Chart<T> {
     String format(double value);
   }
 
+  /**
+   * ValueFormatter that can write into a char array, which allows drawing
+   * values without allocating strings.
+   */
+  public interface CharValueFormatter extends ValueFormatter {
+
+    /**
+     * Writes the formatted value to the start of the given array, which holds
+     * at least 32 characters. Returns the number of characters written.
+     *
+     * @param value
+     * @param out
+     * @return
+     */
+    int format(double value, char[] out);
+  }
+
   /**
    * string that is drawn next to the values in the chart, indicating their
    * unit
@@ -232,7 +252,85 @@ public abstract class BarLineChartBase<T extends DataSet> extends Chart<T> {
    */
   private Approximator mApproximator;
 
-  private float mHighlightFocusDelta;
+  /**
+   * buffer used for calculating the visible x-range
+   */
+  private float[] mVisibleRangeBuffer = new float[2];
+
+  /**
+   * buffer for the transformed values of the visible entries
+   */
+  protected float[] mValueBuffer = new float[0];
+
+  /**
+   * the range and label count the current y-labels were calculated for
+   */
+  private float mYLabelsMin = Float.NaN;
+  private float mYLabelsMax = Float.NaN;
+  private int mYLabelsCount = -1;
+
+  /**
+   * cached pixel positions of the y-labels, valid as long as the labels and
+   * the matrices do not change
+   */
+  private float[] mYLabelPositions = new float[0];
+  private boolean mYLabelPositionsValid = false;
+
+  /**
+   * the values of the three matrices when the y-label positions were
+   * calculated
+   */
+  private float[] mMatrixSnapshot = new float[27];
+  private float[] mMatrixValuesBuffer = new float[9];
+
+  /**
+   * calculates the ticks if the time axis is enabled
+   */
+  private TimeAxis mTimeAxis = new TimeAxis();
+
+  /**
+   * the width of a time axis label, and the x-label paint settings it was
+   * measured for (the same settings the TextMeasureCache keys on)
+   */
+  private float mTimeLabelWidth = -1f;
+  private Typeface mTimeLabelTypeface;
+  private float mTimeLabelTextSize;
+  private float mTimeLabelTextScaleX;
+  private int mTimeLabelFlags;
+
+  /**
+   * buffer the labels of the time axis are formatted into
+   */
+  private char[] mTimeLabelBuffer = new char[16];
+
+  /**
+   * the maximum distance of a touch to a value that highlights it, in pixels
+   */
+  protected float mHighlightFocusDelta;
+
+  /**
+   * the Highlight returned last for a touch, see obtainHighlight(...)
+   */
+  private Highlight mLastTouchHighlight = null;
+
+  /**
+   * value bounds and pixel polygon (null for rectangles) of the current
+   * selection query
+   */
+  private float mSelectXMin, mSelectXMax, mSelectYMin, mSelectYMax;
+  private float[] mSelectPolygon = null;
+  private float[] mSelectBuffer = new float[4];
+  private float[] mSelectMatrixValues = new float[9];
+
+  /**
+   * buffer the values of all DataSets at a touched x-index are written to
+   */
+  private float[] mValuesAtIndexBuffer = new float[0];
+
+  /**
+   * buffer touch points are converted into values with
+   */
+  protected float[] mTouchPointBuffer = new float[2];
 
   /**
    * Horizontal label padding.
@@ -312,6 +410,9 @@ public abstract class BarLineChartBase<T extends DataSet> extends Chart<T> {
     if (mXLabels.isAdjustXLabelsEnabled())
       calcModulus();
 
+    if (mXLabels.isTimeAxisEnabled())
+      prepareTimeAxis();
+
     // execute all drawing commands
     drawGridBackground();
     drawBorder();
@@ -492,7 +593,7 @@ public abstract class BarLineChartBase<T extends DataSet> extends Chart<T> {
     float scaleY = (float) ((getHeight() - mOffsetBottom - mOffsetTop) / mDeltaY);
 
     Matrix val = new Matrix();
-    val.postTranslate(0, -mYChartMin);
+    val.postTranslate(getXPadding(), -mYChartMin);
     val.postScale(scaleX, -scaleY);
 
     mMatrixValueToPx.set(val);
@@ -535,7 +636,7 @@ public abstract class BarLineChartBase<T extends DataSet> extends Chart<T> {
     mMatrixTouch.getValues(values);
 
     mXLabels.mXAxisLabelModulus = (int) Math
-        .ceil((mCurrentData.getXValCount() * mXLabels.mXLabelWidth)
+        .ceil(((mCurrentData.getXValCount() + 2 * getXPadding()) * mXLabels.mXLabelWidth)
             / (mContentRect.width() * values[Matrix.MSCALE_X]));
   }
 
@@ -560,15 +661,273 @@ public abstract class BarLineChartBase<T extends DataSet> extends Chart<T> {
     else
       mValueFormatDigits = mValueDigitsToUse;
 
-    StringBuffer b = new StringBuffer();
-    for (int i = 0; i < mValueFormatDigits; i++) {
-      if (i == 0)
-        b.append(".");
-      b.append("0");
-    }
     if (mValueFormat == null) {
-      setValueFormat(new AbbreviatingNumberFormat(new DecimalFormat("###,###,###,##0" + b.toString())));
+      setValueFormat(new FastValueFormatter(mValueFormatDigits, true, true));
+    }
+  }
+
+  /**
+   * buffer values are formatted into before they are drawn
+   */
+  private char[] mValueTextBuffer = new char[64];
+
+  /**
+   * if true, overlapping value labels are skipped instead of drawing either
+   * all or no labels depending on their count
+   */
+  protected boolean mValueLabelCulling = false;
+
+  /**
+   * the maximum number of visible values whose labels are culled, more
+   * values are not labeled at all, like without culling
+   */
+  protected int mMaxCulledValueCount = 2000;
+
+  /**
+   * if true, the labels of the extremes are drawn before the other labels
+   */
+  protected boolean mValueLabelExtremesFirst = true;
+
+  /**
+   * records the space taken by the value labels drawn in the current frame
+   */
+  protected LabelOccupancyGrid mLabelGrid = new LabelOccupancyGrid(6f);
+
+  /**
+   * positions of the smallest and largest visible value, see
+   * findValueExtremes(...)
+   */
+  protected int[] mValueExtremes = new int[2];
+
+  /**
+   * Formats the given value into the value text buffer, with the unit
+   * appended if requested. Returns the number of characters. Does not
+   * allocate if the value formatter is a CharValueFormatter.
+   *
+   * @param value
+   * @param appendUnit
+   * @return
+   */
+  private int formatValueText(double value, boolean appendUnit) {
+
+    int unitLength = appendUnit ? mUnit.length() : 0;
+    int length;
+
+    if (mValueFormat instanceof CharValueFormatter) {
+
+      if (mValueTextBuffer.length < 32 + unitLength)
+        mValueTextBuffer = new char[32 + unitLength];
+
+      length = ((CharValueFormatter) mValueFormat).format(value, mValueTextBuffer);
+    } else {
+
+      String text = mValueFormat.format(value);
+
+      if (mValueTextBuffer.length < text.length() + unitLength)
+        mValueTextBuffer = new char[text.length() + unitLength];
+
+      text.getChars(0, text.length(), mValueTextBuffer, 0);
+      length = text.length();
+    }
+
+    if (unitLength > 0) {
+      mUnit.getChars(0, unitLength, mValueTextBuffer, length);
+      length += unitLength;
+    }
+
+    return length;
+  }
+
+  /**
+   * Formats the given value and draws it at the given position, with the
+   * unit appended if requested.
+   *
+   * @param value
+   * @param appendUnit
+   * @param x
+   * @param y
+   * @param paint
+   */
+  protected void drawValueText(double value, boolean appendUnit, float x, float y, Paint paint) {
+
+    int length = formatValueText(value, appendUnit);
+    mDrawCanvas.drawText(mValueTextBuffer, 0, length, x, y, paint);
+  }
+
+  /**
+   * Returns true if the values of the DataSets should be drawn in this
+   * frame. If label culling is enabled, values are drawn up to the larger
+   * count set with setMaxCulledValueCount(...) and the occupancy grid is
+   * cleared for the new frame.
+   *
+   * @return
+   */
+  protected boolean prepareValueLabels() {
+
+    if (!mDrawYValues)
+      return false;
+
+    if (mValueLabelCulling) {
+
+      // a cheap cap, most of that many labels would be culled anyway
+      if (mCurrentData.getYValCount() >= mMaxCulledValueCount * mScaleX)
+        return false;
+
+      // labels may extend over the offsets around the content area
+      mLabelGrid.reset(0, 0, getWidth(), getHeight());
+      return true;
+    }
+
+    return mCurrentData.getYValCount() < mMaxVisibleCount * mScaleX;
+  }
+
+  /**
+   * Draws the label of the given value at the given position, with the unit
+   * appended if requested. If label culling is enabled, the label is skipped
+   * if it would overlap a label drawn before in this frame. Returns true if
+   * the label was drawn.
+   *
+   * @param value
+   * @param appendUnit
+   * @param x
+   * @param y
+   * @param paint
+   * @return
+   */
+  protected boolean drawValueLabel(double value, boolean appendUnit, float x, float y, Paint paint) {
+
+    // the anchor lies inside the bounds of the label, if it is covered the
+    // label can be skipped without formatting and measuring it
+    if (mValueLabelCulling && mLabelGrid.isOccupied(x, y))
+      return false;
+
+    int length = formatValueText(value, appendUnit);
+
+    if (mValueLabelCulling
+        && !occupyLabel(x, y, paint.measureText(mValueTextBuffer, 0, length), paint))
+      return false;
+
+    mDrawCanvas.drawText(mValueTextBuffer, 0, length, x, y, paint);
+    return true;
+  }
+
+  /**
+   * Draws the given label like drawValueLabel(...), skipping it if culling is
+   * enabled and it would overlap another label.
+   *
+   * @param label
+   * @param x
+   * @param y
+   * @param paint
+   * @return
+   */
+  protected boolean drawValueLabel(String label, float x, float y, Paint paint) {
+
+    if (mValueLabelCulling && mLabelGrid.isOccupied(x, y))
+      return false;
+
+    if (mValueLabelCulling
+        && !occupyLabel(x, y, TextMeasureCache.getWidth(paint, label), paint))
+      return false;
+
+    mDrawCanvas.drawText(label, x, y, paint);
+    return true;
+  }
+
+  /**
+   * occupies the bounds of a label drawn at the given position (baseline) in
+   * the occupancy grid, returns false if they are already occupied
+   */
+  private boolean occupyLabel(float x, float y, float width, Paint paint) {
+
+    float left = x;
+
+    if (paint.getTextAlign() == Align.CENTER)
+      left -= width / 2f;
+    else if (paint.getTextAlign() == Align.RIGHT)
+      left -= width;
+
+    float top = y + paint.ascent();
+    float bottom = y + paint.descent();
+
+    return mLabelGrid.tryOccupy(left, top, left + width, bottom);
+  }
+
+  /**
+   * Finds the positions of the smallest and the largest value among the
+   * entries from (inclusive) to (exclusive) of the given DataSet whose
+   * transformed x-position is inside the content area. The results are
+   * stored in mValueExtremes, -1 if there is no such entry.
+   *
+   * @param set
+   * @param from
+   * @param to
+   * @param positions the transformed positions of the entries, starting
+   *          with the entry at from
+   */
+  protected void findValueExtremes(DataSet set, int from, int to, float[] positions) {
+
+    int min = -1;
+    int max = -1;
+
+    for (int i = from; i < to; i++) {
+
+      float x = positions[(i - from) * 2];
+
+      if (isOffContentLeft(x) || isOffContentRight(x))
+        continue;
+
+      float val = set.getValAt(i);
+
+      if (min == -1 || val < set.getValAt(min))
+        min = i;
+      if (max == -1 || val > set.getValAt(max))
+        max = i;
     }
+
+    mValueExtremes[0] = min;
+    mValueExtremes[1] = max;
+  }
+
+  /**
+   * If set to true, value labels are drawn at any zoom level, but labels that
+   * would overlap a label drawn before are skipped. The count threshold set
+   * with setMaxVisibleValueCount(...) is replaced by the one set with
+   * setMaxCulledValueCount(...) then. default: false
+   *
+   * @param enabled
+   */
+  public void setValueLabelCullingEnabled(boolean enabled) {
+    mValueLabelCulling = enabled;
+  }
+
+  public boolean isValueLabelCullingEnabled() {
+    return mValueLabelCulling;
+  }
+
+  /**
+   * sets the maximum number of visible values that are labeled if label
+   * culling is enabled, default: 2000
+   *
+   * @param count
+   */
+  public void setMaxCulledValueCount(int count) {
+    mMaxCulledValueCount = count;
+  }
+
+  /**
+   * If set to true (and culling is enabled), the labels of the smallest and
+   * largest visible value of each DataSet are drawn first, so they are never
+   * hidden by their neighbours. default: true
+   *
+   * @param enabled
+   */
+  public void setValueLabelExtremesFirst(boolean enabled) {
+    mValueLabelExtremesFirst = enabled;
+  }
+
+  public boolean isValueLabelExtremesFirst() {
+    return mValueLabelExtremesFirst;
   }
 
   public void setValueFormat(final NumberFormat valueFormat) {
@@ -603,18 +962,11 @@ public abstract class BarLineChartBase<T extends DataSet> extends Chart<T> {
    */
   protected void prepareXLabels() {
 
-    StringBuffer a = new StringBuffer();
-
-    float length = (int) (((float) (mCurrentData.getXLabels().get(0).length() + mCurrentData
-        .getXLabels()
-        .get(mCurrentData.getXValCount() - 1)
-        .length())));
-
-    for (int i = 0; i < length; i++) {
-      a.append("H");
-    }
+    int length = mCurrentData.getXLabel(0).length()
+        + mCurrentData.getXLabel(mCurrentData.getXValCount() - 1).length();
 
-    mXLabels.mXLabelWidth = Utils.calcTextWidth(mXLabelPaint, a.toString());
+    // estimate the width as if every character was an 'H'
+    mXLabels.mXLabelWidth = (int) (length * TextMeasureCache.getWidth(mXLabelPaint, "H"));
     mXLabels.mXLabelHeight = Utils.calcTextWidth(mXLabelPaint, "Q");
   }
 
@@ -627,16 +979,20 @@ public abstract class BarLineChartBase<T extends DataSet> extends Chart<T> {
    */
   private void prepareYLabels() {
 
-    // calculate the currently visible extremes
-    PointD p1 = getValuesByTouchPoint(mContentRect.left, mContentRect.top);
-    PointD p2 = getValuesByTouchPoint(mContentRect.left, mContentRect.bottom);
-
     float yMin = mYChartMin;
     float yMax = mYChartMax;
 
+    // the labels only depend on the range and the label count
+    if (yMin == mYLabelsMin && yMax == mYLabelsMax && mYLabelCount == mYLabelsCount)
+      return;
+
+    mYLabelsMin = yMin;
+    mYLabelsMax = yMax;
+    mYLabelsCount = mYLabelCount;
+    mYLabelPositionsValid = false;
+
     double range = yMax - yMin;
     if (mYLabelCount == 0 || range <= 0) {
-      mYLabels.mEntries = new float[] { };
       mYLabels.mEntryCount = 0;
       return;
     }
@@ -718,28 +1074,101 @@ public abstract class BarLineChartBase<T extends DataSet> extends Chart<T> {
         0f, 0f
     };
 
-    for (int i = 0; i < mCurrentData.getXValCount(); i++) {
-
-      if (i % mXLabels.mXAxisLabelModulus == 0) {
+    if (mXLabels.isTimeAxisEnabled()) {
 
-        position[0] = i;
+      for (int i = 0; i < mTimeAxis.getTickCount(); i++) {
 
-        // center the text
-        if (mXLabels.isCenterXLabelsEnabled())
-          position[0] += 0.5f;
+        position[0] = mTimeAxis.getTickXIndex(i);
 
         transformValueToPixel(position);
 
         if (position[0] >= mOffsetLeft && position[0] <= getWidth() - mOffsetRight) {
 
-          mDrawCanvas.drawText(mCurrentData.getXLabels().get(i), position[0],
-              yPos,
-              mXLabelPaint);
+          int length = mTimeAxis.formatTick(i, mTimeLabelBuffer);
+          mDrawCanvas.drawText(mTimeLabelBuffer, 0, length, position[0], yPos, mXLabelPaint);
         }
       }
+      return;
+    }
+
+    int padding = getXPadding();
+    int modulus = Math.max(1, mXLabels.mXAxisLabelModulus);
+
+    // only iterate the labels inside the visible range
+    int from = Math.max(0, getLowestVisibleXIndex() - 1);
+    int to = Math.min(mCurrentData.getXValCount(), getHighestVisibleXIndex() + 1);
+
+    // the modulus counts from the left edge of the chart, including the
+    // padding
+    for (int i = firstLabelIndex(from, padding, modulus); i < to; i += modulus) {
+
+      position[0] = i;
+
+      // center the text
+      if (mXLabels.isCenterXLabelsEnabled())
+        position[0] += 0.5f;
+
+      transformValueToPixel(position);
+
+      if (position[0] >= mOffsetLeft && position[0] <= getWidth() - mOffsetRight) {
+
+        mDrawCanvas.drawText(mCurrentData.getXLabel(i), position[0],
+            yPos,
+            mXLabelPaint);
+      }
     }
   }
 
+  /**
+   * Calculates the ticks of the time axis for the visible range. The number
+   * of ticks is limited so that their labels do not overlap.
+   */
+  protected void prepareTimeAxis() {
+
+    float[] pts = mVisibleRangeBuffer;
+
+    pts[0] = mOffsetLeft;
+    pts[1] = 0;
+    transformPixelToValue(pts);
+    float from = pts[0];
+
+    pts[0] = getWidth() - mOffsetRight;
+    pts[1] = 0;
+    transformPixelToValue(pts);
+    float to = pts[0];
+
+    float labelWidth = getTimeLabelWidth() * 1.5f;
+    int maxTicks = Math.max(1, (int) (mContentRect.width() / labelWidth));
+
+    mTimeAxis.computeTicks(mCurrentData.getXValArray(), from, to, maxTicks,
+        mXLabels.getTimeZone());
+  }
+
+  /**
+   * Returns the width of a time axis label, measured only again when the
+   * x-label paint changes.
+   *
+   * @return
+   */
+  private float getTimeLabelWidth() {
+
+    Paint p = mXLabelPaint;
+
+    if (mTimeLabelWidth < 0f || mTimeLabelTypeface != p.getTypeface()
+        || mTimeLabelTextSize != p.getTextSize() || mTimeLabelTextScaleX != p.getTextScaleX()
+        || mTimeLabelFlags != p.getFlags()) {
+
+      // "00:00:00" is about as wide as the widest tick label
+      mTimeLabelWidth = Utils.calcTextWidth(p, "00:00:00");
+      mTimeLabelTypeface = p.getTypeface();
+      mTimeLabelTextSize = p.getTextSize();
+      mTimeLabelTextScaleX = p.getTextScaleX();
+      mTimeLabelFlags = p.getFlags();
+    }
+
+    return mTimeLabelWidth;
+  }
+
   /**
    * draws the y-axis labels to the screen
    */
@@ -748,16 +1177,7 @@ public abstract class BarLineChartBase<T extends DataSet> extends Chart<T> {
     if (!mDrawYLabels)
       return;
 
-    float[] positions = new float[mYLabels.mEntryCount * 2];
-
-    for (int i = 0; i < positions.length; i += 2) {
-      // only fill y values, x values are not needed since the y-labels
-      // are
-      // static on the x-axis
-      positions[i + 1] = mYLabels.mEntries[i / 2];
-    }
-
-    transformValueToPixel(positions);
+    float[] positions = getYLabelPositions();
 
     float xoffset = Utils.convertDpToPixel(5f);
 
@@ -806,6 +1226,77 @@ public abstract class BarLineChartBase<T extends DataSet> extends Chart<T> {
 
   }
 
+  /**
+   * Returns the pixel positions of the y-labels, x and y alternating. The
+   * positions are only transformed again if the labels or the matrices
+   * changed since the last call.
+   *
+   * @return
+   */
+  protected float[] getYLabelPositions() {
+
+    if (mYLabelPositionsValid && !matricesChanged())
+      return mYLabelPositions;
+
+    int length = mYLabels.mEntryCount * 2;
+
+    if (mYLabelPositions.length < length)
+      mYLabelPositions = new float[length];
+
+    float[] positions = mYLabelPositions;
+
+    for (int i = 0; i < length; i += 2) {
+      // only fill y values, x values are not needed since the y-labels
+      // are
+      // static on the x-axis
+      positions[i] = 0f;
+      positions[i + 1] = mYLabels.mEntries[i / 2];
+    }
+
+    transformValueToPixel(positions, mYLabels.mEntryCount);
+
+    // remember the matrices the positions were calculated with
+    matricesChanged();
+    mYLabelPositionsValid = true;
+
+    return positions;
+  }
+
+  /**
+   * Returns true if one of the matrices that transform values to pixels
+   * changed since the last call.
+   *
+   * @return
+   */
+  private boolean matricesChanged() {
+
+    float[] current = mMatrixValuesBuffer;
+    boolean changed = false;
+
+    mMatrixValueToPx.getValues(current);
+    changed |= copyIfChanged(current, mMatrixSnapshot, 0);
+    mMatrixTouch.getValues(current);
+    changed |= copyIfChanged(current, mMatrixSnapshot, 9);
+    mMatrixOffset.getValues(current);
+    changed |= copyIfChanged(current, mMatrixSnapshot, 18);
+
+    return changed;
+  }
+
+  private static boolean copyIfChanged(float[] values, float[] snapshot, int offset) {
+
+    boolean changed = false;
+
+    for (int i = 0; i < 9; i++) {
+      if (snapshot[offset + i] != values[i]) {
+        snapshot[offset + i] = values[i];
+        changed = true;
+      }
+    }
+
+    return changed;
+  }
+
   /**
    * draws the y-labels on the specified x-position
    *
@@ -817,16 +1308,11 @@ public abstract class BarLineChartBase<T extends DataSet> extends Chart<T> {
     // draw
     for (int i = 0; i < mYLabels.mEntryCount; i++) {
 
-      String text = mValueFormat.format(mYLabels.mEntries[i]);
-
       if (!mYLabels.isDrawTopYLabelEntryEnabled() && i >= mYLabels.mEntryCount - 1)
         return;
 
-      if (mYLabels.isDrawUnitsInYLabelEnabled()) {
-        text += mUnit;
-      }
-
-      mDrawCanvas.drawText(text, xPos, mAxisYLabelHeight / 2 + positions[i * 2 + 1], mYLabelPaint);
+      drawValueText(mYLabels.mEntries[i], mYLabels.isDrawUnitsInYLabelEnabled(), xPos,
+          mAxisYLabelHeight / 2 + positions[i * 2 + 1], mYLabelPaint);
     }
   }
 
@@ -909,8 +1395,8 @@ public abstract class BarLineChartBase<T extends DataSet> extends Chart<T> {
     for (int i = 0; i < mYLabels.mEntryCount; i++) {
 
       p.reset();
-      p.moveTo(0, mYLabels.mEntries[i]);
-      p.lineTo(mDeltaX, mYLabels.mEntries[i]);
+      p.moveTo(getXChartMin(), mYLabels.mEntries[i]);
+      p.lineTo(getXChartMax(), mYLabels.mEntries[i]);
 
       transformPath(p);
 
@@ -930,23 +1416,61 @@ public abstract class BarLineChartBase<T extends DataSet> extends Chart<T> {
         0f, 0f
     };
 
-    for (int i = 0; i < mCurrentData.getXValCount(); i++) {
+    if (mXLabels.isTimeAxisEnabled()) {
 
-      if (i % mXLabels.mXAxisLabelModulus == 0) {
+      for (int i = 0; i < mTimeAxis.getTickCount(); i++) {
 
-        position[0] = i;
+        position[0] = mTimeAxis.getTickXIndex(i);
 
         transformValueToPixel(position);
 
-        if (position[0] >= mOffsetLeft && position[0] <= getWidth()) {
+        mDrawCanvas.drawLine(position[0], mOffsetTop, position[0], getHeight()
+            - mOffsetBottom, mGridPaint);
+      }
+      return;
+    }
 
-          mDrawCanvas.drawLine(position[0], mOffsetTop, position[0], getHeight()
-              - mOffsetBottom, mGridPaint);
-        }
+    int padding = getXPadding();
+    int modulus = Math.max(1, mXLabels.mXAxisLabelModulus);
+
+    // only iterate the grid lines inside the visible range
+    int from = Math.max(-padding, getLowestVisibleXIndex());
+    int to = Math.min(mCurrentData.getXValCount() + padding, getHighestVisibleXIndex() + 1);
+
+    for (int i = firstLabelIndex(from, padding, modulus); i < to; i += modulus) {
+
+      position[0] = i;
+
+      transformValueToPixel(position);
+
+      if (position[0] >= mOffsetLeft && position[0] <= getWidth()) {
+
+        mDrawCanvas.drawLine(position[0], mOffsetTop, position[0], getHeight()
+            - mOffsetBottom, mGridPaint);
       }
     }
   }
 
+  /**
+   * Returns the first index equal to or greater than the given one that gets
+   * a label (and a grid line), which is the case if index + padding is a
+   * multiple of the modulus.
+   *
+   * @param from
+   * @param padding
+   * @param modulus
+   * @return
+   */
+  private static int firstLabelIndex(int from, int padding, int modulus) {
+
+    int remainder = (from + padding) % modulus;
+
+    if (remainder < 0)
+      remainder += modulus;
+
+    return remainder == 0 ? from : from + modulus - remainder;
+  }
+
   /**
    * returns true if the specified point (x-axis) exceeds the limits of what
    * is visible to the right side
@@ -1586,34 +2110,26 @@ public abstract class BarLineChartBase<T extends DataSet> extends Chart<T> {
    */
   public Highlight getHighlightByTouchPoint(float x, float y) {
 
-    // create an array of the touch-point
-    float[] pts = new float[2];
+    float[] pts = mTouchPointBuffer;
     pts[0] = x;
     pts[1] = y;
 
-    Matrix tmp = new Matrix();
-
-    // invert all matrixes to convert back to the original value
-    mMatrixOffset.invert(tmp);
-    tmp.mapPoints(pts);
-
-    mMatrixTouch.invert(tmp);
-    tmp.mapPoints(pts);
-
-    mMatrixValueToPx.invert(tmp);
-    tmp.mapPoints(pts);
+    // convert back to the original value with the cached inverse matrix
+    transformPixelToValue(pts);
 
     double xTouchVal = pts[0];
     double yTouchVal = pts[1];
     double base = Math.floor(xTouchVal);
 
-    Log.i(LOG_TAG, "touchindex x: " + xTouchVal + ", touchindex y: " + yTouchVal);
+    if (mLogEnabled)
+      Log.i(LOG_TAG, "touchindex x: " + xTouchVal + ", touchindex y: " + yTouchVal);
 
     // touch out of chart
     if ((this instanceof LineChart || this instanceof ScatterChart)
-        && (xTouchVal < 0 || xTouchVal > mDeltaX))
+        && (xTouchVal < getXChartMin() || xTouchVal > getXChartMax()))
       return null;
-    if (this instanceof BarChart && (xTouchVal < 0 || xTouchVal > mDeltaX + 1))
+    if (this instanceof BarChart
+        && (xTouchVal < getXChartMin() || xTouchVal > getXChartMax() + 1))
       return null;
 
     int xIndex = (int) base;
@@ -1633,32 +2149,74 @@ public abstract class BarLineChartBase<T extends DataSet> extends Chart<T> {
       }
     }
 
-    ArrayList<SelInfo> valsAtIndex = getYValsAtIndex(xIndex);
+    float[] valsAtIndex = getValuesAtIndex(xIndex);
 
     dataSetIndex = getClosestDataSetIndex(valsAtIndex, (float) yTouchVal);
 
     if (dataSetIndex == -1)
       return null;
 
-    return new Highlight(xIndex, dataSetIndex);
+    return obtainHighlight(xIndex, dataSetIndex);
+  }
+
+  /**
+   * Returns a Highlight of the given x-index and DataSet for a touch. The
+   * Highlight returned last is reused if it is equal (Highlights are
+   * immutable), so repeated touches of the same value, e.g. while dragging,
+   * do not allocate.
+   *
+   * @param xIndex
+   * @param dataSetIndex
+   * @return
+   */
+  protected Highlight obtainHighlight(int xIndex, int dataSetIndex) {
+
+    Highlight h = mLastTouchHighlight;
+
+    if (h == null || h.getXIndex() != xIndex || h.getDataSetIndex() != dataSetIndex) {
+      h = new Highlight(xIndex, dataSetIndex);
+      mLastTouchHighlight = h;
+    }
+
+    return h;
+  }
+
+  /**
+   * Returns the values of all DataSets at the given x-index, indexed by
+   * DataSet, Float.NaN for DataSets without a value there. The returned array
+   * is reused by the next call.
+   *
+   * @param xIndex
+   * @return
+   */
+  protected float[] getValuesAtIndex(int xIndex) {
+
+    if (mValuesAtIndexBuffer.length < mCurrentData.getDataSetCount())
+      mValuesAtIndexBuffer = new float[mCurrentData.getDataSetCount()];
+
+    mCurrentData.getValuesAtXIndex(xIndex, mValuesAtIndexBuffer);
+
+    return mValuesAtIndexBuffer;
   }
 
   /**
    * returns the index of the DataSet that contains the closest value
    *
-   * @param valsAtIndex all the values at a specific index
+   * @param valsAtIndex the values of all DataSets at a specific index, see
+   *          getValuesAtIndex(...)
    * @return
    */
-  protected int getClosestDataSetIndex(ArrayList<SelInfo> valsAtIndex, float val) {
+  protected int getClosestDataSetIndex(float[] valsAtIndex, float val) {
 
     int index = -1;
     float distance = Float.MAX_VALUE;
 
-    for (int i = 0; i < valsAtIndex.size(); i++) {
+    for (int i = 0; i < mCurrentData.getDataSetCount(); i++) {
 
-      float cdistance = Math.abs((float) valsAtIndex.get(i).val - val);
+      // also skips DataSets without a value (NaN)
+      float cdistance = Math.abs(valsAtIndex[i] - val);
       if (cdistance < distance) {
-        index = valsAtIndex.get(i).dataSetIndex;
+        index = i;
         distance = cdistance;
       }
     }
@@ -1667,7 +2225,8 @@ public abstract class BarLineChartBase<T extends DataSet> extends Chart<T> {
       return -1;
     }
 
-    Log.i(LOG_TAG, "Closest DataSet index: " + index);
+    if (mLogEnabled)
+      Log.i(LOG_TAG, "Closest DataSet index: " + index);
 
     return index;
   }
@@ -1694,6 +2253,22 @@ public abstract class BarLineChartBase<T extends DataSet> extends Chart<T> {
     return new PointD(pts[0], pts[1]);
   }
 
+  /**
+   * Writes the x and y values in the chart at the given touch point into the
+   * first two fields of the given array, without allocating.
+   *
+   * @param x
+   * @param y
+   * @param values
+   */
+  public void getValuesByTouchPoint(float x, float y, float[] values) {
+
+    values[0] = x;
+    values[1] = y;
+
+    transformPixelToValue(values);
+  }
+
   /**
    * Transforms the given chart values into pixels. This is the opposite
    * method to getValuesByTouchPoint(...).
@@ -1713,6 +2288,92 @@ public abstract class BarLineChartBase<T extends DataSet> extends Chart<T> {
     return new PointD(pts[0], pts[1]);
   }
 
+  /**
+   * returns the lowest x-index that is (at least partly) visible in the
+   * content area of the chart
+   *
+   * @return
+   */
+  public int getLowestVisibleXIndex() {
+
+    float[] pts = mVisibleRangeBuffer;
+    pts[0] = mOffsetLeft;
+    pts[1] = 0;
+
+    transformPixelToValue(pts);
+
+    return (int) Math.floor(pts[0]);
+  }
+
+  /**
+   * returns the highest x-index that is (at least partly) visible in the
+   * content area of the chart
+   *
+   * @return
+   */
+  public int getHighestVisibleXIndex() {
+
+    float[] pts = mVisibleRangeBuffer;
+    pts[0] = getWidth() - mOffsetRight;
+    pts[1] = 0;
+
+    transformPixelToValue(pts);
+
+    return (int) Math.ceil(pts[0]);
+  }
+
+  /**
+   * Returns the position of the first Entry of the given DataSet that needs
+   * to be drawn. Includes the Entry left of the visible range so that lines
+   * can be connected. Returns 0 if the entries are not sorted by xIndex.
+   *
+   * @param set
+   * @return
+   */
+  protected int getFirstVisibleEntryIndex(DataSet set) {
+
+    if (!set.isSorted())
+      return 0;
+
+    return Math.max(0, set.getEntryIndexAtOrAfter(getLowestVisibleXIndex()) - 1);
+  }
+
+  /**
+   * Returns the position after the last Entry of the given DataSet that needs
+   * to be drawn. Includes the Entry right of the visible range so that lines
+   * can be connected. Returns the number of entries if they are not sorted by
+   * xIndex.
+   *
+   * @param set
+   * @return
+   */
+  protected int getLastVisibleEntryIndex(DataSet set) {
+
+    int count = set.getEntryCount();
+
+    if (!set.isSorted())
+      return count;
+
+    return Math.min(count, set.getEntryIndexAtOrAfter(getHighestVisibleXIndex() + 1) + 1);
+  }
+
+  /**
+   * returns the number of entries of the given DataSet that share one pixel
+   * on the x-axis at the current scale
+   *
+   * @param set
+   * @return
+   */
+  protected float getEntriesPerPixel(DataSet set) {
+
+    float width = (getWidth() - mOffsetLeft - mOffsetRight) * mScaleX;
+
+    if (width <= 0)
+      return 0;
+
+    return set.getEntryCount() / width;
+  }
+
   /**
    * returns the y-value at the given touch position (must not necessarily be
    * a value contained in one of the datasets)
@@ -1740,6 +2401,187 @@ public abstract class BarLineChartBase<T extends DataSet> extends Chart<T> {
     return null;
   }
 
+  /**
+   * Returns all entries of all DataSets that are drawn inside the given
+   * rectangle (in pixels, inclusive), as runs of entry indices per DataSet.
+   * Sorted DataSets are limited to the x-range by binary search, DataSets
+   * with a pyramid (see DataSet.setPyramidEnabled(...)) skip buckets whose
+   * values are all outside of the y-range and take buckets whose values are
+   * all inside without testing their entries.
+   *
+   * @param left
+   * @param top
+   * @param right
+   * @param bottom
+   * @return
+   */
+  public EntrySelection selectEntriesInRect(float left, float top, float right, float bottom) {
+    mSelectPolygon = null;
+    return selectEntries(left, top, right, bottom);
+  }
+
+  /**
+   * Returns all entries of all DataSets that are drawn inside the given
+   * polygon (pixel coordinates x0, y0, x1, y1, ..., closed implicitly), as
+   * runs of entry indices per DataSet. Only the entries inside the bounding
+   * box of the polygon are tested against it, see selectEntriesInRect(...).
+   *
+   * @param points
+   * @return
+   */
+  public EntrySelection selectEntriesInLasso(float[] points) {
+
+    if (points.length < 6)
+      throw new IllegalArgumentException("A lasso needs at least three points.");
+
+    float left = Float.MAX_VALUE, top = Float.MAX_VALUE;
+    float right = -Float.MAX_VALUE, bottom = -Float.MAX_VALUE;
+
+    for (int i = 0; i + 1 < points.length; i += 2) {
+      left = Math.min(left, points[i]);
+      right = Math.max(right, points[i]);
+      top = Math.min(top, points[i + 1]);
+      bottom = Math.max(bottom, points[i + 1]);
+    }
+
+    mSelectPolygon = points;
+
+    try {
+      return selectEntries(left, top, right, bottom);
+    } finally {
+      mSelectPolygon = null;
+    }
+  }
+
+  private EntrySelection selectEntries(float left, float top, float right, float bottom) {
+
+    if (mDataNotSet)
+      return new EntrySelection(0);
+
+    float[] pts = mSelectBuffer;
+    pts[0] = left;
+    pts[1] = top;
+    pts[2] = right;
+    pts[3] = bottom;
+
+    transformPixelToValue(pts);
+
+    mSelectXMin = Math.min(pts[0], pts[2]);
+    mSelectXMax = Math.max(pts[0], pts[2]);
+    mSelectYMin = Math.min(pts[1], pts[3]);
+    mSelectYMax = Math.max(pts[1], pts[3]);
+
+    getValueToPixelMatrix().getValues(mSelectMatrixValues);
+
+    EntrySelection selection = new EntrySelection(mCurrentData.getDataSetCount());
+
+    for (int i = 0; i < mCurrentData.getDataSetCount(); i++) {
+
+      DataSet set = mCurrentData.getDataSetByIndex(i);
+
+      int from = 0;
+      int to = set.getEntryCount();
+
+      if (set.isSorted()) {
+        from = set.getEntryIndexAtOrAfter((int) Math.ceil(mSelectXMin));
+        to = set.getEntryIndexAtOrAfter((int) Math.floor(mSelectXMax) + 1);
+      }
+
+      if (from >= to)
+        continue;
+
+      MinMaxPyramid pyramid = set.getPyramid();
+
+      if (pyramid == null) {
+        selectEntries(set, i, from, to, selection);
+        continue;
+      }
+
+      int level = pyramid.getLevelCount();
+
+      for (int b = from >> level; b <= (to - 1) >> level; b++)
+        selectBucket(set, pyramid, i, level, b, from, to, selection);
+    }
+
+    return selection;
+  }
+
+  /**
+   * selects the entries of the given bucket of the pyramid that lie in
+   * [from, to), descending into the buckets of the next lower level if
+   * necessary
+   */
+  private void selectBucket(DataSet set, MinMaxPyramid pyramid, int dataSetIndex, int level,
+      int bucket, int from, int to, EntrySelection selection) {
+
+    int start = Math.max(from, bucket << level);
+    int end = (int) Math.min(to, (long) (bucket + 1) << level);
+
+    if (start >= end)
+      return;
+
+    // the levels below the base level are not stored
+    if (level < MinMaxPyramid.BASE_LEVEL) {
+      selectEntries(set, dataSetIndex, start, end, selection);
+      return;
+    }
+
+    float min = pyramid.getMin(level, bucket);
+    float max = pyramid.getMax(level, bucket);
+
+    if (max < mSelectYMin || min > mSelectYMax)
+      return;
+
+    // all entries of sorted DataSets in [from, to) are inside the x-range
+    if (mSelectPolygon == null && set.isSorted() && min >= mSelectYMin && max <= mSelectYMax) {
+      selection.addRun(dataSetIndex, start, end);
+      return;
+    }
+
+    selectBucket(set, pyramid, dataSetIndex, level - 1, bucket * 2, from, to, selection);
+    selectBucket(set, pyramid, dataSetIndex, level - 1, bucket * 2 + 1, from, to, selection);
+  }
+
+  /**
+   * tests the entries [from, to) of the given DataSet one by one
+   */
+  private void selectEntries(DataSet set, int dataSetIndex, int from, int to,
+      EntrySelection selection) {
+
+    int runStart = -1;
+
+    for (int j = from; j < to; j++) {
+
+      boolean selected = isSelected(set.getXIndexAt(j), set.getValAt(j));
+
+      if (selected && runStart < 0) {
+        runStart = j;
+      } else if (!selected && runStart >= 0) {
+        selection.addRun(dataSetIndex, runStart, j);
+        runStart = -1;
+      }
+    }
+
+    if (runStart >= 0)
+      selection.addRun(dataSetIndex, runStart, to);
+  }
+
+  private boolean isSelected(float x, float y) {
+
+    if (!(x >= mSelectXMin && x <= mSelectXMax && y >= mSelectYMin && y <= mSelectYMax))
+      return false;
+
+    if (mSelectPolygon == null)
+      return true;
+
+    float[] m = mSelectMatrixValues;
+
+    float px = m[Matrix.MSCALE_X] * x + m[Matrix.MSKEW_X] * y + m[Matrix.MTRANS_X];
+    float py = m[Matrix.MSKEW_Y] * x + m[Matrix.MSCALE_Y] * y + m[Matrix.MTRANS_Y];
+
+    return Utils.isInPolygon(mSelectPolygon, mSelectPolygon.length / 2, px, py);
+  }
+
   /**
    * returns the current x-scale factor
    */
@@ -1930,15 +2772,22 @@ public abstract class BarLineChartBase<T extends DataSet> extends Chart<T> {
 
       DataSet old = mOriginalData.getDataSetByIndex(j);
 
+      // DataSets backed by an EntryStore are culled while drawing instead
+      if (old.getEntryStore() != null) {
+        dataSets.add(old);
+        continue;
+      }
+
       // do the filtering
-      ArrayList<Entry> approximated = mApproximator.filter(old.getYVals());
+      ArrayList<Entry> approximated = mApproximator.filter(old, getEntriesPerPixel(old));
 
 
       T set = createDataSet(approximated, old.getLabel());
       dataSets.add(set);
     }
 
-    ChartData d = new ChartData(mOriginalData.getXVals(), dataSets);
+    ChartData d = new ChartData(mOriginalData.getXValArray(), dataSets,
+        mOriginalData.getLabelFormatter(), mOriginalData.getXPadding());
     return d;
   }
 
@@ -6,7 +6,6 @@ import com.github.mikephil.charting.data.Entry;
 import com.github.mikephil.charting.data.LineDataSet;
 import com.github.mikephil.charting.listener.BarLineChartTouchListener;
 import com.github.mikephil.charting.utils.Highlight;
-import com.github.mikephil.charting.utils.SelInfo;
 import com.github.mikephil.charting.utils.Utils;
 
 import android.content.Context;
@@ -98,7 +97,7 @@ public class BaseLineChart extends LineChart {
   public void drawValues() {
 
     int index = mFocusedValueIndex;
-    int internalIndex = index * 2 + mValuePadding * 2;
+    int internalIndex = index * 2;
 
     int valOffset = (int) (mSelectionCircleSize * 2.1f);
 
@@ -110,16 +109,15 @@ public class BaseLineChart extends LineChart {
     for (int i = 0; i < mCurrentData.getDataSetCount(); i++) {
 
       DataSet dataSet = dataSets.get(i);
-      ArrayList<Entry> entries = dataSet.getYVals();
 
-      float[] positions = generateTransformedValues(entries, 0f);
+      float[] positions = generateTransformedValues(dataSet, 0, dataSet.getEntryCount(), 0f, null);
       float position = positions[internalIndex];
 
-      float val = entries.get(index + mValuePadding).getVal();
+      float val = dataSet.getValAt(index);
 
       String label;
       if (mDrawValueXLabelsInChart) {
-        label = mCurrentData.getXLabels().get(internalIndex / 2);
+        label = mCurrentData.getXLabel(internalIndex / 2);
       } else {
         label = mValueFormat.format(val);
       }
@@ -172,7 +170,7 @@ public class BaseLineChart extends LineChart {
 
     int labelPaintColor = mXLabelPaint.getColor();
 
-    for (int i = mValuePadding; i < mCurrentData.getXValCount() - mValuePadding; i++) {
+    for (int i = 0; i < mCurrentData.getXValCount(); i++) {
         position[0] = i;
 
         // center the text
@@ -182,21 +180,21 @@ public class BaseLineChart extends LineChart {
         transformValueToPixel(position);
 
         int valueToHighlight = mFocusedValueIndex;
-        if (i == valueToHighlight + mValuePadding) {
+        if (i == valueToHighlight) {
           mXLabelPaint.setColor(mSelectionCirclePaint.getColor());
 
-          Date date = new Date(mCurrentData.getXVals().get(i));
+          Date date = new Date(mCurrentData.getXValue(i));
           String yearLabel = mYearFormatter.format(date);
-          if (!yearLabel.equals(mCurrentData.getXLabels().get(i))) {
+          if (!yearLabel.equals(mCurrentData.getXLabel(i))) {
             mDrawCanvas.drawText(yearLabel, position[0], yearHeight, mYearXLabelTextPaint);
           }
         }
 
-        mDrawCanvas.drawText(mCurrentData.getXLabels().get(i), position[0],
+        mDrawCanvas.drawText(mCurrentData.getXLabel(i), position[0],
             yPos,
             mXLabelPaint);
 
-        if (i == valueToHighlight + mValuePadding) {
+        if (i == valueToHighlight) {
           mXLabelPaint.setColor(labelPaintColor);
         }
     }
@@ -244,7 +242,7 @@ public class BaseLineChart extends LineChart {
   }
 
   private void focusValue(int xIndex) {
-    int newValueToHighlight = xIndex - mValuePadding;
+    int newValueToHighlight = xIndex;
     if (newValueToHighlight < 0) {
       newValueToHighlight = 0;
     }
@@ -254,8 +252,16 @@ public class BaseLineChart extends LineChart {
   }
 
   @Override
-  protected int getClosestDataSetIndex(ArrayList<SelInfo> valsAtIndex, float val) {
-    return valsAtIndex.get(0).dataSetIndex;
+  protected int getClosestDataSetIndex(float[] valsAtIndex, float val) {
+
+    // the first DataSet with a value, there are no values in the padding of
+    // the chart
+    for (int i = 0; i < getDataCurrent().getDataSetCount(); i++) {
+      if (!Float.isNaN(valsAtIndex[i]))
+        return i;
+    }
+
+    return -1;
   }
 
   /**
@@ -269,13 +275,13 @@ public class BaseLineChart extends LineChart {
     for (int i = 0; i < mCurrentData.getDataSetCount(); i++) {
 
       DataSet dataSet = dataSets.get(i);
-      ArrayList<Entry> entries = dataSet.getYVals();
 
-      float[] valuePoints = generateTransformedValues(entries, 0f);
+      float[] valuePoints = generateTransformedValues(dataSet, 0, dataSet.getEntryCount(), 0f,
+          null);
 
       Paint paint = mCurrentData.getDataSetByIndex(i).getDrawingSpec().getBasicPaint();
 
-      for (int j = mValuePadding * 2; j < valuePoints.length - (mValuePadding * 2) - 2; j += 2) {
+      for (int j = 0; j < valuePoints.length - 2; j += 2) {
 
         if (isOffContentRight(valuePoints[j]))
           break;
@@ -307,7 +313,7 @@ public class BaseLineChart extends LineChart {
 
     if (mDrawCircles) {
 
-      Entry toHighlight = getDataCurrent().getDataSetByIndex(0).getEntryForXIndex(mFocusedValueIndex + mValuePadding);
+      Entry toHighlight = getDataCurrent().getDataSetByIndex(0).getEntryForXIndex(mFocusedValueIndex);
       float[] entry = new float[] {toHighlight.getXIndex(), toHighlight.getVal()};
       transformValueToPixel(entry);
       mDrawCanvas.drawCircle(entry[0], entry[1], mSelectionCircleSize, mSelectionCirclePaint);
@@ -351,7 +357,7 @@ public class BaseLineChart extends LineChart {
     float scaleY = (getHeight() - mOffsetBottom - mOffsetTop) / mDeltaY;
 
     Matrix val = new Matrix();
-    val.postTranslate(0, -mYChartMin);
+    val.postTranslate(getXPadding(), -mYChartMin);
     val.postScale(scaleX, -scaleY);
 
     mMatrixValueToPx.set(val);
@@ -361,14 +367,14 @@ public class BaseLineChart extends LineChart {
 
     mMatrixOffset.set(offset);
 
-    centerViewPort(mFocusedValueIndex + mValuePadding, getHeight() / 2);
+    centerViewPort(mFocusedValueIndex, getHeight() / 2);
   }
 
   @Override
   protected void onLayout(boolean changed, int left, int top, int right, int bottom) {
     super.onLayout(changed, left, top, right, bottom);
     refreshTouch(mMatrixTouch);
-    centerViewPort(mFocusedValueIndex + mValuePadding, getHeight() / 2);
+    centerViewPort(mFocusedValueIndex, getHeight() / 2);
   }
 
   public void setSelectionRingWidth(float selectionRingWidth) {
@@ -389,10 +395,10 @@ public class BaseLineChart extends LineChart {
 
   private void highlightValues(Highlight[] highs, boolean centerViewport) {
     if (highs != null && highs.length > 0 &&
-        (highs[0].getXIndex() >= mValuePadding && highs[0].getXIndex() < getDataCurrent().getXValCount() - mValuePadding)) {
-      mFocusedValueIndex = highs[0].getXIndex() - mValuePadding;
+        (highs[0].getXIndex() >= 0 && highs[0].getXIndex() < getDataCurrent().getXValCount())) {
+      mFocusedValueIndex = highs[0].getXIndex();
       if (centerViewport) {
-        centerViewPort(mFocusedValueIndex + mValuePadding, getHeight() / 2);
+        centerViewPort(mFocusedValueIndex, getHeight() / 2);
       }
       invalidate();
       super.highlightValues(highs);
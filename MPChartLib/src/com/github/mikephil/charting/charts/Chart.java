@@ -7,7 +7,6 @@ import com.github.mikephil.charting.interfaces.OnChartValueSelectedListener;
 import com.github.mikephil.charting.utils.Highlight;
 import com.github.mikephil.charting.utils.Legend;
 import com.github.mikephil.charting.utils.MarkerView;
-import com.github.mikephil.charting.utils.SelInfo;
 import com.github.mikephil.charting.utils.Utils;
 
 import android.annotation.SuppressLint;
@@ -31,6 +30,8 @@ import android.view.View;
 import android.view.ViewGroup;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Baseclass of all Chart-Views.
@@ -85,13 +86,19 @@ public abstract class Chart<T extends DataSet> extends ViewGroup {
    * object that holds all data relevant for the chart (x-vals, y-vals, ...)
    * that are currently displayed
    */
-  protected ChartData<T> mCurrentData = null;
+  protected volatile ChartData<T> mCurrentData = null;
 
   /**
    * object that holds all data that was originally set for the chart, before
    * it was modified or any filtering algorithms had been applied
    */
-  protected ChartData<T> mOriginalData = null;
+  protected volatile ChartData<T> mOriginalData = null;
+
+  /**
+   * data published from another thread that is set for the chart with the
+   * next draw
+   */
+  private final AtomicReference<ChartData<T>> mPendingData = new AtomicReference<ChartData<T>>();
 
   /**
    * final bitmap that contains all information and is drawn to the screen
@@ -156,6 +163,11 @@ public abstract class Chart<T extends DataSet> extends ViewGroup {
    */
   protected boolean mDataNotSet = true;
 
+  /**
+   * if true, the chart logs what happens on touch events, default: false
+   */
+  protected boolean mLogEnabled = false;
+
   /**
    * the range of y-values the chart displays
    */
@@ -184,6 +196,25 @@ public abstract class Chart<T extends DataSet> extends ViewGroup {
    */
   protected final Matrix mMatrixTouch = new Matrix();
 
+  /**
+   * value, touch and offset matrix concatenated, see getValueToPixelMatrix()
+   */
+  private final Matrix mMatrixValueToPixel = new Matrix();
+
+  /**
+   * inverse of the concatenated matrix, recalculated only if the values of
+   * the concatenated matrix differ from the ones it was inverted from
+   */
+  private final Matrix mMatrixPixelToValue = new Matrix();
+  private final float[] mPixelToValueSource = new float[9];
+  private final float[] mPixelToValueBuffer = new float[9];
+  private boolean mPixelToValueValid = false;
+
+  /**
+   * reused for the positions of the entries at one xIndex, per DataSet
+   */
+  private int[] mEntryIndicesBuffer = new int[0];
+
   /**
    * if true, touch gestures are enabled on the chart
    */
@@ -350,6 +381,33 @@ public abstract class Chart<T extends DataSet> extends ViewGroup {
     Log.i(LOG_TAG, "Data is set.");
   }
 
+  /**
+   * Publishes a new ChartData object for the chart. Other than setData(...),
+   * this method can be called from any thread. The data is set for the chart
+   * atomically right before the next draw, the chart never draws a partially
+   * updated state. Use this together with ChartData.snapshot() to update the
+   * chart from a background thread while continuing to modify the data.
+   *
+   * @param data
+   */
+  public void publishData(ChartData<T> data) {
+    mPendingData.set(data);
+    postInvalidate();
+  }
+
+  /**
+   * Returns an immutable snapshot of the data that was originally set for
+   * the chart. The snapshot does not copy any entries and can safely be read
+   * from other threads. Call this on the ui-thread. Returns null if no data
+   * is set.
+   *
+   * @return
+   */
+  public ChartData<T> getDataSnapshot() {
+    ChartData<T> data = mOriginalData;
+    return data == null ? null : data.snapshot();
+  }
+
   /**
    * does needed preparations for drawing
    */
@@ -386,7 +444,7 @@ public abstract class Chart<T extends DataSet> extends ViewGroup {
 
     // calc delta
     mDeltaY = Math.abs(mYChartMax - mYChartMin);
-    mDeltaX = mCurrentData.getXVals().size() - 1;
+    mDeltaX = mCurrentData.getXValCount() - 1 + 2 * mCurrentData.getXPadding();
   }
 
   @SuppressLint("NewApi")
@@ -394,6 +452,11 @@ public abstract class Chart<T extends DataSet> extends ViewGroup {
   protected void onDraw(Canvas canvas) {
     super.onDraw(canvas);
 
+    ChartData<T> pending = mPendingData.getAndSet(null);
+
+    if (pending != null)
+      setData(pending);
+
     if (!mOffsetsCalculated) {
 
       calculateOffsets();
@@ -424,7 +487,7 @@ public abstract class Chart<T extends DataSet> extends ViewGroup {
 
     // setup all matrices
     mMatrixValueToPx.reset();
-    mMatrixValueToPx.postTranslate(0, -mYChartMin);
+    mMatrixValueToPx.postTranslate(getXPadding(), -mYChartMin);
     mMatrixValueToPx.postScale(scaleX, -scaleY);
 
     mMatrixTouch.reset();
@@ -506,6 +569,37 @@ public abstract class Chart<T extends DataSet> extends ViewGroup {
     return valuePoints;
   }
 
+  /**
+   * Transforms the entries of the given DataSet between the positions from
+   * (inclusive) and to (exclusive) into pixels and writes them into the given
+   * buffer, which is replaced by a larger one if it is too small. Returns the
+   * buffer holding the (to - from) * 2 transformed values.
+   *
+   * @param set
+   * @param from
+   * @param to
+   * @param xOffset
+   * @param buffer
+   * @return
+   */
+  protected float[] generateTransformedValues(DataSet set, int from, int to, float xOffset,
+      float[] buffer) {
+
+    int count = to - from;
+
+    if (buffer == null || buffer.length < count * 2)
+      buffer = new float[count * 2];
+
+    for (int j = 0; j < count; j++) {
+      buffer[j * 2] = set.getXIndexAt(from + j) + xOffset;
+      buffer[j * 2 + 1] = set.getValAt(from + j);
+    }
+
+    transformValueToPixel(buffer, count);
+
+    return buffer;
+  }
+
   /**
    * transform a path with all the given matrices VERY IMPORTANT: keep order
    * to value-touch-offset
@@ -544,13 +638,58 @@ public abstract class Chart<T extends DataSet> extends ViewGroup {
     mMatrixOffset.mapPoints(pts);
   }
 
+  /**
+   * transforms the first count points of the given array with all matrices
+   *
+   * @param pts
+   * @param count number of points (not floats) to transform
+   */
+  protected void transformValueToPixel(float[] pts, int count) {
+
+    mMatrixValueToPx.mapPoints(pts, 0, pts, 0, count);
+    mMatrixTouch.mapPoints(pts, 0, pts, 0, count);
+    mMatrixOffset.mapPoints(pts, 0, pts, 0, count);
+  }
+
+  /**
+   * Returns the value, touch and offset matrix concatenated into one matrix,
+   * for transforming many points with a single call. The returned matrix is
+   * reused and only valid until the next call.
+   *
+   * @return
+   */
+  protected Matrix getValueToPixelMatrix() {
+
+    mMatrixValueToPixel.set(mMatrixValueToPx);
+    mMatrixValueToPixel.postConcat(mMatrixTouch);
+    mMatrixValueToPixel.postConcat(mMatrixOffset);
+
+    return mMatrixValueToPixel;
+  }
+
   protected void transformPixelToValue(float[] pts) {
-    mMatrixOffset.invert(mHelperMatrix);
-    mHelperMatrix.mapPoints(pts);
-    mMatrixTouch.invert(mHelperMatrix);
-    mHelperMatrix.mapPoints(pts);
-    mMatrixValueToPx.invert(mHelperMatrix);
-    mHelperMatrix.mapPoints(pts);
+    getPixelToValueMatrix().mapPoints(pts);
+  }
+
+  /**
+   * Returns the inverse of getValueToPixelMatrix(), which transforms pixels
+   * into values. The inverse is cached and only recalculated when the value,
+   * touch or offset matrix changed. The returned matrix must not be
+   * modified.
+   *
+   * @return
+   */
+  protected Matrix getPixelToValueMatrix() {
+
+    getValueToPixelMatrix().getValues(mPixelToValueBuffer);
+
+    if (!mPixelToValueValid || !Arrays.equals(mPixelToValueBuffer, mPixelToValueSource)) {
+      mMatrixValueToPixel.invert(mMatrixPixelToValue);
+      System.arraycopy(mPixelToValueBuffer, 0, mPixelToValueSource, 0, 9);
+      mPixelToValueValid = true;
+    }
+
+    return mMatrixPixelToValue;
   }
 
   /**
@@ -920,8 +1059,8 @@ public abstract class Chart<T extends DataSet> extends ViewGroup {
     // callbacks to update the content
     mMarkerView.setPosition(posX, posY);
     if (mMarkerView.getVisibility() != View.VISIBLE) {
-      float[] min = new float[] { 0, mYChartMin };
-      float[] max = new float[] { mDeltaX, mYChartMax };
+      float[] min = new float[] { getXChartMin(), mYChartMin };
+      float[] max = new float[] { getXChartMax(), mYChartMax };
       transformValueToPixel(min);
       transformValueToPixel(max);
 
@@ -1030,6 +1169,34 @@ public abstract class Chart<T extends DataSet> extends ViewGroup {
     return mDeltaX;
   }
 
+  /**
+   * returns the number of empty x-positions the chart shows on each side of
+   * the x-values, 0 if no data is set
+   *
+   * @return
+   */
+  public int getXPadding() {
+    return mCurrentData == null ? 0 : mCurrentData.getXPadding();
+  }
+
+  /**
+   * returns the smallest xIndex the chart displays, including the padding
+   *
+   * @return
+   */
+  public float getXChartMin() {
+    return -getXPadding();
+  }
+
+  /**
+   * returns the highest xIndex the chart displays, including the padding
+   *
+   * @return
+   */
+  public float getXChartMax() {
+    return mDeltaX - getXPadding();
+  }
+
   /**
    * returns the average value of all values the chart holds
    *
@@ -1194,6 +1361,26 @@ public abstract class Chart<T extends DataSet> extends ViewGroup {
     return mMarkerView;
   }
 
+  /**
+   * Enables / disables logging of touch handling (touched values, closest
+   * DataSets, drawing). Disabled by default because it allocates on every
+   * touch event.
+   *
+   * @param enabled
+   */
+  public void setLogEnabled(boolean enabled) {
+    mLogEnabled = enabled;
+  }
+
+  /**
+   * returns true if logging of touch handling is enabled
+   *
+   * @return
+   */
+  public boolean isLogEnabled() {
+    return mLogEnabled;
+  }
+
   /**
    * set this to true to draw the legend, false if not
    *
@@ -1394,7 +1581,7 @@ public abstract class Chart<T extends DataSet> extends ViewGroup {
     if (mCurrentData == null || mCurrentData.getXValCount() <= index)
       return null;
     else
-      return mCurrentData.getXVals().get(index);
+      return mCurrentData.getXValue(index);
   }
 
   /**
@@ -1405,7 +1592,7 @@ public abstract class Chart<T extends DataSet> extends ViewGroup {
    * @return
    */
   public float getYValue(int index) {
-    return mCurrentData.getDataSetByIndex(0).getYVals().get(index).getVal();
+    return mCurrentData.getDataSetByIndex(0).getValAt(index);
   }
 
   /**
@@ -1418,7 +1605,7 @@ public abstract class Chart<T extends DataSet> extends ViewGroup {
    */
   public float getYValue(int index, String dataSetLabel) {
     DataSet set = mCurrentData.getDataSetByLabel(dataSetLabel, true);
-    return set.getYVals().get(index).getVal();
+    return set.getValAt(index);
   }
 
   /**
@@ -1464,7 +1651,7 @@ public abstract class Chart<T extends DataSet> extends ViewGroup {
    * @return
    */
   public Entry getEntry(int index) {
-    return mCurrentData.getDataSetByIndex(0).getYVals().get(index);
+    return mCurrentData.getDataSetByIndex(0).getEntryAt(index);
   }
 
   /**
@@ -1476,7 +1663,7 @@ public abstract class Chart<T extends DataSet> extends ViewGroup {
    * @return
    */
   public Entry getEntry(int index, String dataSetLabel) {
-    return mCurrentData.getDataSetByLabel(dataSetLabel, true).getYVals().get(index);
+    return mCurrentData.getDataSetByLabel(dataSetLabel, true).getEntryAt(index);
   }
 
   /**
@@ -1493,55 +1680,52 @@ public abstract class Chart<T extends DataSet> extends ViewGroup {
   }
 
   /**
-   * Returns an array of SelInfo objects for the given x-index. The SelInfo
-   * objects give information about the value at the selected index and the
-   * DataSet it belongs to. INFORMATION: This method does calculations at
-   * runtime. Do not over-use in performance critical situations.
+   * Get all Entry objects at the given index across all DataSets (the first
+   * one of each DataSet). Allocates a new list, use
+   * getEntriesAtIndex(int, ArrayList) on the touch and highlight path.
    *
    * @param xIndex
    * @return
    */
-  protected ArrayList<SelInfo> getYValsAtIndex(int xIndex) {
-
-    ArrayList<SelInfo> vals = new ArrayList<SelInfo>();
-
-    for (int i = 0; i < mCurrentData.getDataSetCount(); i++) {
-
-      // extract all y-values from all DataSets at the given x-index
-      float yVal = mCurrentData.getDataSetByIndex(i).getYValForXIndex(xIndex);
+  public ArrayList<Entry> getEntriesAtIndex(int xIndex) {
 
-      if (!Float.isNaN(yVal)) {
-        vals.add(new SelInfo(yVal, i));
-      }
-    }
+    ArrayList<Entry> vals = new ArrayList<Entry>();
+    getEntriesAtIndex(xIndex, vals);
 
     return vals;
   }
 
   /**
-   * Get all Entry objects at the given index across all DataSets.
-   * INFORMATION: This method does calculations at runtime. Do not over-use in
-   * performance critical situations.
+   * Fills the given list with all Entry objects at the given index across all
+   * DataSets (the first one of each DataSet) and returns their number. The
+   * list is cleared first. The positions are taken from the per-DataSet
+   * xIndex lookup, see ChartData.getEntryIndicesAtXIndex(...), so this does
+   * not allocate once the list has grown (except for DataSets backed by an
+   * EntryStore, whose entries are created when they are read).
    *
    * @param xIndex
+   * @param entries
    * @return
    */
-  public ArrayList<Entry> getEntriesAtIndex(int xIndex) {
+  public int getEntriesAtIndex(int xIndex, ArrayList<Entry> entries) {
 
-    ArrayList<Entry> vals = new ArrayList<Entry>();
+    ChartData<T> data = mCurrentData;
 
-    for (int i = 0; i < mCurrentData.getDataSetCount(); i++) {
+    if (mEntryIndicesBuffer.length < data.getDataSetCount())
+      mEntryIndicesBuffer = new int[data.getDataSetCount()];
 
-      DataSet set = mCurrentData.getDataSetByIndex(i);
+    int[] positions = mEntryIndicesBuffer;
+    data.getEntryIndicesAtXIndex(xIndex, positions);
 
-      Entry e = set.getEntryForXIndex(xIndex);
+    entries.clear();
 
-      if (e != null) {
-        vals.add(e);
-      }
+    for (int i = 0; i < data.getDataSetCount(); i++) {
+
+      if (positions[i] >= 0)
+        entries.add(data.getDataSetByIndex(i).getEntryAt(positions[i]));
     }
 
-    return vals;
+    return entries.size();
   }
 
   /**
@@ -3,6 +3,7 @@ package com.github.mikephil.charting.charts;
 import com.github.mikephil.charting.data.DataSet;
 import com.github.mikephil.charting.data.Entry;
 import com.github.mikephil.charting.data.LineDataSet;
+import com.github.mikephil.charting.data.MinMaxPyramid;
 import com.github.mikephil.charting.utils.Utils;
 
 import android.content.Context;
@@ -48,9 +49,23 @@ public class LineChart extends BarLineChartBase<LineDataSet> {
 
   /**
    * Tells how many values should be treated as place holders
+   *
+   * @deprecated the padding is part of the ChartData, see
+   *             ChartData(xVals, dataSets, formatter, padding)
    */
+  @Deprecated
   protected int mValuePadding = 0;
 
+  /**
+   * buffer for the lines drawn into the x-padding
+   */
+  private float[] mPaddingLines = new float[8];
+
+  /**
+   * buffer for the line segments drawn from the pyramid of a DataSet
+   */
+  private float[] mBucketBuffer = new float[0];
+
   public LineChart(Context context) {
     super(context);
   }
@@ -90,7 +105,7 @@ public class LineChart extends BarLineChartBase<LineDataSet> {
         float y = set.getYValForXIndex(xIndex); // get the y-position
 
         float[] pts = new float[] {
-            xIndex, mYChartMax, xIndex, mYChartMin, 0, y, mDeltaX, y
+            xIndex, mYChartMax, xIndex, mYChartMin, getXChartMin(), y, getXChartMax(), y
         };
 
         transformValueToPixel(pts);
@@ -113,23 +128,46 @@ public class LineChart extends BarLineChartBase<LineDataSet> {
       for (int i = 0; i < mCurrentData.getDataSetCount(); i++) {
 
         LineDataSet dataSet = dataSets.get(i);
-        ArrayList<Entry> entries = dataSet.getYVals();
+
+        // if many entries share one pixel, fill below the buckets of the
+        // pyramid
+        int level = getDrawingLevel(dataSet);
+
+        if (level > 0) {
+          fillPyramidLevel(dataSet, dataSet.getPyramid(), level, mYChartMin - heightOffset);
+          continue;
+        }
+
+        int from = getFirstVisibleEntryIndex(dataSet);
+        int to = getLastVisibleEntryIndex(dataSet);
 
         // if drawing filled is enabled
-        if (entries.size() > 0) {
+        if (to - from > 0) {
+
+          float firstX = dataSet.getXIndexAt(from);
+          float lastX = dataSet.getXIndexAt(to - 1);
+
+          // extend the area flat into the padding at both ends
+          if (from == 0)
+            firstX -= getXPadding();
+          if (to == dataSet.getEntryCount())
+            lastX += getXPadding();
+
           Path filled = new Path();
-          filled.moveTo(entries.get(0).getXIndex(), entries.get(0).getVal());
+          filled.moveTo(firstX, dataSet.getValAt(from));
 
           // create a new path
-          for (int x = 1; x < entries.size(); x++) {
+          for (int x = from; x < to; x++) {
 
-            filled.lineTo(entries.get(x).getXIndex(), entries.get(x).getVal());
+            filled.lineTo(dataSet.getXIndexAt(x), dataSet.getValAt(x));
           }
 
+          filled.lineTo(lastX, dataSet.getValAt(to - 1));
+
           // close up
           float y = mYChartMin - heightOffset;
-          filled.lineTo(entries.get(entries.size() - 1).getXIndex(), y);
-          filled.lineTo(entries.get(0).getXIndex(), y);
+          filled.lineTo(lastX, y);
+          filled.lineTo(firstX, y);
           filled.close();
 
           transformPath(filled);
@@ -142,27 +180,33 @@ public class LineChart extends BarLineChartBase<LineDataSet> {
     for (int i = 0; i < mCurrentData.getDataSetCount(); i++) {
 
       DataSet dataSet = dataSets.get(i);
-      ArrayList<Entry> entries = dataSet.getYVals();
-
-      float[] valuePoints = generateTransformedValues(entries, 0f);
 
       Paint paint = mCurrentData.getDataSetByIndex(i).getDrawingSpec().getBasicPaint();
 
+      if (!mDrawCubic)
+        drawPaddingLines(dataSet, paint);
+
+      // if many entries share one pixel, draw the buckets of the pyramid
+      int level = getDrawingLevel(dataSet);
+
+      if (level > 0) {
+        drawPyramidLevel(dataSet, dataSet.getPyramid(), level, paint);
+        continue;
+      }
+
       if (mDrawCubic) {
+        int count = dataSet.getEntryCount();
+
         Path spline = new Path();
 
-        spline.moveTo(entries.get(0).getXIndex(), entries.get(0).getVal());
+        spline.moveTo(dataSet.getXIndexAt(0), dataSet.getValAt(0));
 
         // create a new path
-        for (int x = 1; x < entries.size() - 3; x += 2) {
-
-          // spline.rQuadTo(entries.get(x).getXIndex(),
-          // entries.get(x).getVal(), entries.get(x+1).getXIndex(),
-          // entries.get(x+1).getVal());
+        for (int x = 1; x < count - 3; x += 2) {
 
-          spline.cubicTo(entries.get(x).getXIndex(), entries.get(x).getVal(), entries
-              .get(x + 1).getXIndex(), entries.get(x + 1).getVal(), entries
-              .get(x + 2).getXIndex(), entries.get(x + 2).getVal());
+          spline.cubicTo(dataSet.getXIndexAt(x), dataSet.getValAt(x),
+              dataSet.getXIndexAt(x + 1), dataSet.getValAt(x + 1),
+              dataSet.getXIndexAt(x + 2), dataSet.getValAt(x + 2));
         }
 
         // spline.close();
@@ -171,7 +215,17 @@ public class LineChart extends BarLineChartBase<LineDataSet> {
 
         mDrawCanvas.drawPath(spline, paint);
       } else {
-        for (int j = 0; j < valuePoints.length - 2; j += 2) {
+
+        // only the visible entries are transformed and drawn
+        int from = getFirstVisibleEntryIndex(dataSet);
+        int to = getLastVisibleEntryIndex(dataSet);
+
+        mValueBuffer = generateTransformedValues(dataSet, from, to, 0f, mValueBuffer);
+
+        float[] valuePoints = mValueBuffer;
+        int length = (to - from) * 2;
+
+        for (int j = 0; j < length - 2; j += 2) {
 
           if (isOffContentRight(valuePoints[j]))
             break;
@@ -189,6 +243,184 @@ public class LineChart extends BarLineChartBase<LineDataSet> {
     }
   }
 
+  /**
+   * draws the line of the given DataSet flat into the x-padding of the chart
+   * on both sides, starting at the first and last entry
+   *
+   * @param dataSet
+   * @param paint
+   */
+  private void drawPaddingLines(DataSet dataSet, Paint paint) {
+
+    int padding = getXPadding();
+    int count = dataSet.getEntryCount();
+
+    if (padding == 0 || count == 0)
+      return;
+
+    float[] pts = mPaddingLines;
+
+    pts[0] = dataSet.getXIndexAt(0) - padding;
+    pts[1] = dataSet.getValAt(0);
+    pts[2] = dataSet.getXIndexAt(0);
+    pts[3] = pts[1];
+    pts[4] = dataSet.getXIndexAt(count - 1);
+    pts[5] = dataSet.getValAt(count - 1);
+    pts[6] = pts[4] + padding;
+    pts[7] = pts[5];
+
+    transformValueToPixel(pts);
+
+    mDrawCanvas.drawLines(pts, paint);
+  }
+
+  /**
+   * Draws the visible buckets of the given pyramid level as vertical lines
+   * from minimum to maximum, connected from the last value of a bucket to
+   * the first value of the next one. The work done is proportional to the
+   * number of visible buckets, not the number of entries.
+   *
+   * @param dataSet
+   * @param pyramid
+   * @param level
+   * @param paint
+   */
+  protected void drawPyramidLevel(DataSet dataSet, MinMaxPyramid pyramid, int level, Paint paint) {
+
+    int size = pyramid.getBucketSize(level);
+
+    int from = getFirstVisibleBucket(dataSet, size);
+    int to = getLastVisibleBucket(dataSet, pyramid, level);
+
+    if (from >= to)
+      return;
+
+    if (mBucketBuffer.length < (to - from) * 8)
+      mBucketBuffer = new float[(to - from) * 8];
+
+    float[] buffer = mBucketBuffer;
+    int count = 0;
+
+    float prevX = 0f;
+    float prevLast = 0f;
+
+    for (int b = from; b < to; b++) {
+
+      int first = b * size;
+      int last = Math.min(first + size, dataSet.getEntryCount()) - 1;
+
+      float x = (dataSet.getXIndexAt(first) + dataSet.getXIndexAt(last)) / 2f;
+
+      if (b > from) {
+        buffer[count++] = prevX;
+        buffer[count++] = prevLast;
+        buffer[count++] = x;
+        buffer[count++] = pyramid.getFirst(level, b);
+      }
+
+      buffer[count++] = x;
+      buffer[count++] = pyramid.getMin(level, b);
+      buffer[count++] = x;
+      buffer[count++] = pyramid.getMax(level, b);
+
+      prevX = x;
+      prevLast = pyramid.getLast(level, b);
+    }
+
+    transformValueToPixel(buffer, count / 2);
+
+    mDrawCanvas.drawLines(buffer, 0, count, paint);
+  }
+
+  /**
+   * Fills the area below the maxima of the visible buckets of the given
+   * pyramid level, like the area below the entries when they are drawn. The
+   * work done is proportional to the number of visible buckets.
+   *
+   * @param dataSet
+   * @param pyramid
+   * @param level
+   * @param bottom the y-value the area is closed at
+   */
+  protected void fillPyramidLevel(LineDataSet dataSet, MinMaxPyramid pyramid, int level,
+      float bottom) {
+
+    int size = pyramid.getBucketSize(level);
+
+    int from = getFirstVisibleBucket(dataSet, size);
+    int to = getLastVisibleBucket(dataSet, pyramid, level);
+
+    if (from >= to)
+      return;
+
+    float firstX = dataSet.getXIndexAt(from * size);
+    float lastX = dataSet.getXIndexAt(Math.min(to * size, dataSet.getEntryCount()) - 1);
+
+    // extend the area flat into the padding at both ends
+    if (from == 0)
+      firstX -= getXPadding();
+    if (to == pyramid.getBucketCount(level))
+      lastX += getXPadding();
+
+    Path filled = new Path();
+    filled.moveTo(firstX, pyramid.getMax(level, from));
+
+    for (int b = from; b < to; b++) {
+
+      int first = b * size;
+      int last = Math.min(first + size, dataSet.getEntryCount()) - 1;
+
+      filled.lineTo((dataSet.getXIndexAt(first) + dataSet.getXIndexAt(last)) / 2f,
+          pyramid.getMax(level, b));
+    }
+
+    filled.lineTo(lastX, pyramid.getMax(level, to - 1));
+
+    // close up
+    filled.lineTo(lastX, bottom);
+    filled.lineTo(firstX, bottom);
+    filled.close();
+
+    transformPath(filled);
+
+    mDrawCanvas.drawPath(filled, dataSet.getDrawingSpec().getFillPaint());
+  }
+
+  /**
+   * Returns the pyramid level the given DataSet is drawn from at the current
+   * zoom level, or 0 if its entries are drawn.
+   *
+   * @param dataSet
+   * @return
+   */
+  private int getDrawingLevel(DataSet dataSet) {
+
+    MinMaxPyramid pyramid = dataSet.getPyramid();
+
+    if (pyramid == null || mDrawCubic || !dataSet.isSorted())
+      return 0;
+
+    return pyramid.getLevelForEntriesPerPixel(getEntriesPerPixel(dataSet));
+  }
+
+  /**
+   * returns the first bucket (of the given size) to draw, one bucket left of
+   * the visible range
+   */
+  private int getFirstVisibleBucket(DataSet dataSet, int size) {
+    return Math.max(0, dataSet.getEntryIndexAtOrAfter(getLowestVisibleXIndex()) / size - 1);
+  }
+
+  /**
+   * returns the bucket after the last one to draw, one bucket right of the
+   * visible range
+   */
+  private int getLastVisibleBucket(DataSet dataSet, MinMaxPyramid pyramid, int level) {
+    return Math.min(pyramid.getBucketCount(level),
+        dataSet.getEntryIndexAtOrAfter(getHighestVisibleXIndex()) / pyramid.getBucketSize(level)
+            + 2);
+  }
+
   /**
    * Calculates the middle point between two points and multiplies its
    * coordinates with the given smoothness _Mulitplier.
@@ -209,7 +441,7 @@ public class LineChart extends BarLineChartBase<LineDataSet> {
   protected void drawValues() {
 
     // if values are drawn
-    if (mDrawYValues && mCurrentData.getYValCount() < mMaxVisibleCount * mScaleX) {
+    if (prepareValueLabels()) {
 
       // make sure the values do not interfear with the circles
       int valOffset = (int) (mCircleSize * 1.7f);
@@ -219,45 +451,72 @@ public class LineChart extends BarLineChartBase<LineDataSet> {
 
       ArrayList<LineDataSet> dataSets = mCurrentData.getDataSets();
 
-      final int padding = mValuePadding * 2;
       for (int i = 0; i < mCurrentData.getDataSetCount(); i++) {
 
         DataSet dataSet = dataSets.get(i);
-        ArrayList<Entry> entries = dataSet.getYVals();
 
-        float[] positions = generateTransformedValues(entries, 0f);
+        int from = getFirstVisibleEntryIndex(dataSet);
+        int to = getLastVisibleEntryIndex(dataSet);
 
-        for (int j = padding; j < positions.length - padding; j += 2) {
+        if (from >= to)
+          continue;
 
-          if (isOffContentRight(positions[j]))
-            break;
+        mValueBuffer = generateTransformedValues(dataSet, from, to, 0f, mValueBuffer);
 
-          if (isOffContentLeft(positions[j]) || isOffContentTop(positions[j + 1])
-              || isOffContentBottom(positions[j + 1]))
-            continue;
+        float[] positions = mValueBuffer;
+        int length = (to - from) * 2;
 
-          float val = entries.get(j / 2).getVal();
+        // the labels of the extremes go first so their neighbours give way
+        if (mValueLabelCulling && mValueLabelExtremesFirst) {
 
-          String label;
-          if (mDrawValueXLabelsInChart) {
-            label = mCurrentData.getXLabels().get(j / 2);
-          } else {
-            label = mDrawUnitInChart ? mValueFormat.format(val) + mUnit : mValueFormat.format(val);
-          }
+          findValueExtremes(dataSet, from, to, positions);
 
-          float yPosition = positions[j + 1];
-          if (j - 1 >= 0 && j + 3 < positions.length && positions[j - 1] < yPosition && positions[j + 3] < yPosition) {
-            yPosition += valOffset + mValuePaint.getTextSize();
-          } else {
-            yPosition -= valOffset;
+          for (int e = 0; e < mValueExtremes.length; e++) {
+            if (mValueExtremes[e] >= 0)
+              drawValueLabel(dataSet, from, positions, (mValueExtremes[e] - from) * 2, length,
+                  valOffset);
           }
-          mDrawCanvas.drawText(label, positions[j],
-              yPosition, mValuePaint);
+        }
+
+        for (int j = 0; j < length; j += 2) {
+
+          if (isOffContentRight(positions[j]))
+            break;
+
+          drawValueLabel(dataSet, from, positions, j, length, valOffset);
         }
       }
     }
   }
 
+  /**
+   * draws the value label of the entry whose transformed position starts at
+   * index j of the given positions
+   */
+  private void drawValueLabel(DataSet dataSet, int from, float[] positions, int j, int length,
+      int valOffset) {
+
+    if (isOffContentLeft(positions[j]) || isOffContentTop(positions[j + 1])
+        || isOffContentBottom(positions[j + 1]))
+      return;
+
+    float val = dataSet.getValAt(from + j / 2);
+
+    float yPosition = positions[j + 1];
+    if (j - 1 >= 0 && j + 3 < length && positions[j - 1] < yPosition && positions[j + 3] < yPosition) {
+      yPosition += valOffset + mValuePaint.getTextSize();
+    } else {
+      yPosition -= valOffset;
+    }
+
+    if (mDrawValueXLabelsInChart) {
+      drawValueLabel(mCurrentData.getXLabel(dataSet.getXIndexAt(from + j / 2)),
+          positions[j], yPosition, mValuePaint);
+    } else {
+      drawValueLabel(val, mDrawUnitInChart, positions[j], yPosition, mValuePaint);
+    }
+  }
+
   /**
    * draws the circle value indicators
    */
@@ -271,12 +530,24 @@ public class LineChart extends BarLineChartBase<LineDataSet> {
       for (int i = 0; i < mCurrentData.getDataSetCount(); i++) {
 
         LineDataSet dataSet = dataSets.get(i);
-        ArrayList<Entry> entries = dataSet.getYVals();
 
-        float[] positions = generateTransformedValues(entries, 0f);
+        // the circles of entries that share one pixel would only cover
+        // the line drawn from the pyramid
+        if (getDrawingLevel(dataSet) > 0)
+          continue;
+
+        int from = getFirstVisibleEntryIndex(dataSet);
+        int to = getLastVisibleEntryIndex(dataSet);
+
+        if (from >= to)
+          continue;
 
-        final int padding = mValuePadding * 2;
-        for (int j = padding; j < positions.length - padding; j += 2) {
+        mValueBuffer = generateTransformedValues(dataSet, from, to, 0f, mValueBuffer);
+
+        float[] positions = mValueBuffer;
+        int length = (to - from) * 2;
+
+        for (int j = 0; j < length; j += 2) {
 
           if (isOffContentRight(positions[j]))
             break;
@@ -297,7 +568,9 @@ public class LineChart extends BarLineChartBase<LineDataSet> {
   }
 
   /**
-   * set this to true to enable the drawing of circle indicators
+   * set this to true to enable the drawing of circle indicators, they are
+   * not drawn for DataSets that are drawn from their pyramid because many
+   * entries share one pixel
    *
    * @param enabled
    */
@@ -353,10 +626,22 @@ public class LineChart extends BarLineChartBase<LineDataSet> {
     return mDrawFilled;
   }
 
+  /**
+   * @deprecated has no effect anymore, the padding is part of the ChartData
+   *             and does not add place holder entries, see
+   *             ChartData(xVals, dataSets, formatter, padding)
+   * @param valuePadding
+   */
+  @Deprecated
   public void setValuePadding(int valuePadding) {
     mValuePadding = valuePadding;
   }
 
+  /**
+   * @deprecated see setValuePadding(...)
+   * @return
+   */
+  @Deprecated
   public int getValuePadding() {
     return mValuePadding;
   }
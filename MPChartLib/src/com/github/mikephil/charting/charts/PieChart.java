@@ -4,6 +4,7 @@ import com.github.mikephil.charting.data.DataSet;
 import com.github.mikephil.charting.data.Entry;
 import com.github.mikephil.charting.data.PieDataSet;
 import com.github.mikephil.charting.listener.PieChartTouchListener;
+import com.github.mikephil.charting.utils.Highlight;
 import com.github.mikephil.charting.utils.Legend;
 import com.github.mikephil.charting.utils.Legend.LegendPosition;
 import com.github.mikephil.charting.utils.MulticolorDrawingSpec;
@@ -12,6 +13,7 @@ import com.github.mikephil.charting.utils.Utils;
 
 import android.content.Context;
 import android.content.res.Configuration;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Matrix;
@@ -27,6 +29,7 @@ import android.view.MotionEvent;
 
 import java.text.DecimalFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 
 /**
  * View that represents a pie chart. Draws cake like slices.
@@ -56,6 +59,140 @@ public class PieChart extends Chart<PieDataSet> {
    */
   private float[] mSlicesAnglePosition;
 
+  /**
+   * the number of slices in the angle arrays
+   */
+  private int mSliceCount = 0;
+
+  /**
+   * the value of each slice, in the order the slices are drawn
+   */
+  private float[] mSliceValues;
+
+  /**
+   * sum of the absolute values of all slices, kept up to date when a single
+   * slice changes
+   */
+  private double mSliceTotal = 0;
+
+  /**
+   * index of the first entry of each DataSet when the entries of all
+   * DataSets are counted in order, plus the number of entries
+   */
+  private int[] mDataSetEntryStarts;
+
+  /**
+   * the slice each entry is drawn in, in the order of mDataSetEntryStarts
+   */
+  private int[] mEntrySlices;
+
+  /**
+   * the DataSet index and the entry index of each slice, -1 for the "other"
+   * slice
+   */
+  private int[] mSliceDataSets;
+  private int[] mSliceEntries;
+
+  /**
+   * the index of the slice that holds all aggregated entries, -1 if no
+   * entries are aggregated
+   */
+  private int mOtherSlice = -1;
+
+  /**
+   * the maximum number of slices including the "other" slice, 0 for no
+   * limit
+   */
+  private int mMaxSlices = 0;
+
+  /**
+   * slices narrower than this angle (in degrees) are aggregated
+   */
+  private float mMinSliceAngle = 0f;
+
+  /**
+   * label and paint of the "other" slice
+   */
+  private String mOtherSliceLabel = "Other";
+  private Paint mOtherSlicePaint;
+
+  /**
+   * buffer for selecting the largest slices
+   */
+  private float[] mSelectBuffer;
+
+  /**
+   * flags of the slices that are highlighted, reused for every frame
+   */
+  private boolean[] mSliceHighlighted;
+
+  /**
+   * index of the first DataSet that has an entry at each x-index, -1 if
+   * none has
+   */
+  private int[] mDataSetForXIndex;
+
+  /**
+   * if true, rotating the chart draws cached layers instead of drawing all
+   * slices again
+   */
+  private boolean mRotationCacheEnabled = false;
+
+  /**
+   * true while the chart is rotated by touch or by an animation
+   */
+  private boolean mRotating = false;
+
+  /**
+   * time in milliseconds without rotation updates after which the rotation
+   * is considered finished and the chart is drawn completely again
+   */
+  private static final long ROTATION_SETTLE_DELAY = 150;
+
+  /**
+   * layer with the slices and highlights, drawn at a chart angle of 0
+   */
+  private Bitmap mRotatingLayer;
+  private Canvas mRotatingCanvas;
+
+  /**
+   * transparent layer with the parts that do not rotate: hole, center text,
+   * legend and description
+   */
+  private Bitmap mStaticLayer;
+  private Canvas mStaticCanvas;
+
+  /**
+   * paint used for drawing the layers, filters the rotated bitmap
+   */
+  private Paint mLayerPaint;
+
+  /**
+   * false if the layers have to be drawn again before they can be used
+   */
+  private boolean mLayersValid = false;
+
+  /**
+   * incremented whenever the slice angles change
+   */
+  private int mSliceVersion = 0;
+
+  /**
+   * the slice version and highlights the layers were drawn with
+   */
+  private int mLayersSliceVersion = -1;
+  private Highlight[] mLayersHighlights;
+
+  private final Runnable mRotationSettled = new Runnable() {
+    @Override
+    public void run() {
+      mRotating = false;
+      // the layers are only needed while rotating
+      releaseLayers();
+      invalidate();
+    }
+  };
+
   /**
    * if true, the white hole inside the chart will be drawn
    */
@@ -142,6 +279,9 @@ public class PieChart extends Chart<PieDataSet> {
   @Override
   protected void onDetachedFromWindow() {
     stopRotationAnimation();
+    removeCallbacks(mRotationSettled);
+    mRotating = false;
+    releaseLayers();
     super.onDetachedFromWindow();
   }
 
@@ -153,6 +293,12 @@ public class PieChart extends Chart<PieDataSet> {
 
     mHolePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
 
+    mLayerPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+
+    mOtherSlicePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    mOtherSlicePaint.setStyle(Paint.Style.FILL);
+    mOtherSlicePaint.setColor(Color.GRAY);
+
     mCenterTextPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
     mCenterTextPaint.setColor(mColorDarkBlue);
     mCenterTextPaint.setTextSize(Utils.convertDpToPixel(12f));
@@ -180,6 +326,15 @@ public class PieChart extends Chart<PieDataSet> {
     if (mDataNotSet)
       return;
 
+    // a chart without size (not laid out yet) has no layers
+    if (mRotating && mRotationCacheEnabled && getWidth() > 0 && getHeight() > 0) {
+      drawRotatedLayers(canvas);
+      return;
+    }
+
+    // anything might have changed since the last rotation
+    mLayersValid = false;
+
     long starttime = System.currentTimeMillis();
 
     drawHighlights();
@@ -200,6 +355,92 @@ public class PieChart extends Chart<PieDataSet> {
 
   }
 
+  /**
+   * Draws the chart while it rotates: the cached slices rotated by the chart
+   * angle, with the cached static parts on top. Values are not drawn until
+   * the rotation has finished.
+   *
+   * @param canvas
+   */
+  private void drawRotatedLayers(Canvas canvas) {
+
+    if (!mLayersValid || mLayersSliceVersion != mSliceVersion
+        || mLayersHighlights != mIndicesToHightlight)
+      drawLayers();
+
+    canvas.drawColor(mBackgroundColor);
+
+    canvas.save();
+    canvas.rotate(mChartAngle, mCircleBox.centerX(), mCircleBox.centerY());
+    canvas.drawBitmap(mRotatingLayer, 0, 0, mLayerPaint);
+    canvas.restore();
+
+    canvas.drawBitmap(mStaticLayer, 0, 0, mLayerPaint);
+  }
+
+  /**
+   * draws the slices and highlights at a chart angle of 0 and the static
+   * parts of the chart into their layers
+   */
+  private void drawLayers() {
+
+    if (mRotatingLayer == null) {
+      mRotatingLayer = Bitmap.createBitmap(getWidth(), getHeight(), Bitmap.Config.ARGB_8888);
+      mRotatingCanvas = new Canvas(mRotatingLayer);
+      mStaticLayer = Bitmap.createBitmap(getWidth(), getHeight(), Bitmap.Config.ARGB_8888);
+      mStaticCanvas = new Canvas(mStaticLayer);
+    }
+
+    Canvas drawCanvas = mDrawCanvas;
+    float angle = mChartAngle;
+
+    mChartAngle = 0f;
+
+    mRotatingLayer.eraseColor(Color.TRANSPARENT);
+    mDrawCanvas = mRotatingCanvas;
+
+    drawHighlights();
+    drawData();
+
+    mStaticLayer.eraseColor(Color.TRANSPARENT);
+    mDrawCanvas = mStaticCanvas;
+
+    drawAdditional();
+    drawLegend();
+    drawDescription();
+    drawCenterText();
+
+    mDrawCanvas = drawCanvas;
+    mChartAngle = angle;
+
+    mLayersValid = true;
+    mLayersSliceVersion = mSliceVersion;
+    mLayersHighlights = mIndicesToHightlight;
+  }
+
+  /**
+   * releases the bitmaps of the rotation layers
+   */
+  private void releaseLayers() {
+
+    if (mRotatingLayer != null) {
+      mRotatingLayer.recycle();
+      mStaticLayer.recycle();
+    }
+
+    mRotatingLayer = null;
+    mRotatingCanvas = null;
+    mStaticLayer = null;
+    mStaticCanvas = null;
+    mLayersValid = false;
+  }
+
+  @Override
+  protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+    releaseLayers();
+    super.onSizeChanged(w, h, oldw, oldh);
+  }
+
   /**
    * does all necessary preparations, needed when data is changed or flags
    * that effect the data are changed
@@ -340,6 +581,13 @@ public class PieChart extends Chart<PieDataSet> {
   private void doUpdateRotation() {
     // keep the angle >= 0 and <= 360
     mChartAngle = (mChartAngle + 360f) % 360f;
+
+    if (mRotationCacheEnabled) {
+      mRotating = true;
+      removeCallbacks(mRotationSettled);
+      postDelayed(mRotationSettled, ROTATION_SETTLE_DELAY);
+    }
+
     postInvalidate();
     if (mRotationListener != null) {
       mRotationListener.onRotate();
@@ -371,115 +619,474 @@ public class PieChart extends Chart<PieDataSet> {
   }
 
   /**
-   * calculates the needed angles for the chart slices
+   * Collects the values of all entries, aggregates the small ones into the
+   * "other" slice (see setSliceAggregation(...)) and calculates the needed
+   * angles for the chart slices. The arrays are only reallocated if the
+   * number of entries or slices changes.
    */
   private void calcAngles() {
 
-    mSlicesAngleWidth = new float[mCurrentData.getYValCount()];
-    mSlicesAnglePosition = new float[mCurrentData.getYValCount()];
+    int count = mCurrentData.getYValCount();
+    int setCount = mCurrentData.getDataSetCount();
+    int xValCount = mCurrentData.getXValCount();
+
+    if (mDataSetEntryStarts == null || mDataSetEntryStarts.length != setCount + 1)
+      mDataSetEntryStarts = new int[setCount + 1];
+
+    if (mEntrySlices == null || mEntrySlices.length < count)
+      mEntrySlices = new int[count];
+
+    if (mDataSetForXIndex == null || mDataSetForXIndex.length != xValCount)
+      mDataSetForXIndex = new int[xValCount];
 
     ArrayList<PieDataSet> dataSets = mCurrentData.getDataSets();
 
+    double total = 0;
     int cnt = 0;
 
-    for (int i = 0; i < mCurrentData.getDataSetCount(); i++) {
+    for (int i = 0; i < setCount; i++) {
 
       DataSet set = dataSets.get(i);
-      ArrayList<Entry> entries = set.getYVals();
+      int entryCount = set.getEntryCount();
+
+      mDataSetEntryStarts[i] = cnt;
+
+      for (int j = 0; j < entryCount; j++) {
+        total += Math.abs(set.getValAt(j));
+        cnt++;
+      }
+    }
+
+    mDataSetEntryStarts[setCount] = cnt;
+    mSliceTotal = total;
+
+    int sliceCount = selectSlices(dataSets, count, total);
+
+    if (mSlicesAngleWidth == null || mSlicesAngleWidth.length != sliceCount) {
+      mSlicesAngleWidth = new float[sliceCount];
+      mSlicesAnglePosition = new float[sliceCount];
+      mSliceValues = new float[sliceCount];
+      mSliceDataSets = new int[sliceCount];
+      mSliceEntries = new int[sliceCount];
+      mSliceHighlighted = new boolean[sliceCount];
+    }
+
+    mSliceCount = sliceCount;
+
+    if (mOtherSlice >= 0) {
+      mSliceValues[mOtherSlice] = 0f;
+      mSliceDataSets[mOtherSlice] = -1;
+      mSliceEntries[mOtherSlice] = -1;
+    }
+
+    cnt = 0;
+
+    for (int i = 0; i < setCount; i++) {
+
+      DataSet set = dataSets.get(i);
+      int entryCount = set.getEntryCount();
+
+      for (int j = 0; j < entryCount; j++) {
+
+        int slice = mEntrySlices[cnt++];
+
+        if (slice == mOtherSlice) {
+          mSliceValues[slice] += set.getValAt(j);
+        } else {
+          mSliceValues[slice] = set.getValAt(j);
+          mSliceDataSets[slice] = i;
+          mSliceEntries[slice] = j;
+        }
+      }
+    }
+
+    // walk the DataSets backwards so that the first DataSet wins
+    Arrays.fill(mDataSetForXIndex, -1);
+
+    for (int i = setCount - 1; i >= 0; i--) {
+
+      DataSet set = dataSets.get(i);
+      int entryCount = set.getEntryCount();
+
+      for (int j = 0; j < entryCount; j++) {
+        int xIndex = set.getXIndexAt(j);
+        if (xIndex >= 0 && xIndex < xValCount)
+          mDataSetForXIndex[xIndex] = i;
+      }
+    }
+
+    calcSliceAngles();
+  }
+
+  /**
+   * Decides which entries get a slice of their own and which are aggregated
+   * into the "other" slice, fills mEntrySlices and sets mOtherSlice. The
+   * largest entries are found with a partial selection instead of sorting.
+   * Kept entries stay in their order, the "other" slice comes last. Returns
+   * the number of slices.
+   *
+   * @param dataSets
+   * @param count the number of entries
+   * @param total the sum of the absolute values of all entries
+   * @return
+   */
+  private int selectSlices(ArrayList<PieDataSet> dataSets, int count, double total) {
+
+    // number of entries that may keep their own slice
+    int keep = mMaxSlices > 0 && count > mMaxSlices ? mMaxSlices - 1 : count;
+
+    // the smallest value that is kept by the limit, and how many entries
+    // with exactly that value may be kept
+    float limit = 0f;
+    int ties = 0;
+
+    if (keep < count) {
+
+      if (mSelectBuffer == null || mSelectBuffer.length < count)
+        mSelectBuffer = new float[count];
+
+      int cnt = 0;
+
+      for (int i = 0; i < dataSets.size(); i++) {
+
+        DataSet set = dataSets.get(i);
+        int entryCount = set.getEntryCount();
+
+        for (int j = 0; j < entryCount; j++)
+          mSelectBuffer[cnt++] = Math.abs(set.getValAt(j));
+      }
+
+      if (keep == 0) {
+        limit = Float.POSITIVE_INFINITY;
+      } else {
+        limit = Utils.selectKthLargest(mSelectBuffer, count, keep);
+
+        // after the selection, the first keep values are the largest
+        ties = keep;
+        for (int i = 0; i < keep; i++) {
+          if (mSelectBuffer[i] > limit)
+            ties--;
+        }
+      }
+    }
+
+    float minVal = (float) (total * mMinSliceAngle / 360.0);
+
+    int folded = 0;
+    int lastFolded = -1;
+    int cnt = 0;
+
+    for (int i = 0; i < dataSets.size(); i++) {
+
+      DataSet set = dataSets.get(i);
+      int entryCount = set.getEntryCount();
+
+      for (int j = 0; j < entryCount; j++) {
 
-      for (int j = 0; j < entries.size(); j++) {
+        float val = Math.abs(set.getValAt(j));
 
-        mSlicesAngleWidth[cnt] = calcAngle(entries.get(j).getVal());
+        boolean kept = val >= minVal;
 
-        if (cnt == 0) {
-          mSlicesAnglePosition[cnt] = mSlicesAngleWidth[cnt];
+        if (kept && keep < count) {
+          if (val == limit && ties > 0)
+            ties--;
+          else if (val <= limit)
+            kept = false;
+        }
+
+        if (kept) {
+          mEntrySlices[cnt] = 0;
         } else {
-          mSlicesAnglePosition[cnt] = mSlicesAnglePosition[cnt - 1] + mSlicesAngleWidth[cnt];
+          mEntrySlices[cnt] = -1;
+          lastFolded = cnt;
+          folded++;
         }
 
         cnt++;
       }
     }
+
+    // an "other" slice for a single entry would only hide its label
+    if (folded == 1) {
+      mEntrySlices[lastFolded] = 0;
+      folded = 0;
+    }
+
+    int slices = 0;
+
+    for (int i = 0; i < count; i++) {
+      if (mEntrySlices[i] == 0)
+        mEntrySlices[i] = slices++;
+    }
+
+    if (folded == 0) {
+      mOtherSlice = -1;
+      return slices;
+    }
+
+    mOtherSlice = slices;
+
+    for (int i = 0; i < count; i++) {
+      if (mEntrySlices[i] == -1)
+        mEntrySlices[i] = mOtherSlice;
+    }
+
+    return slices + 1;
   }
 
-  @Override
-  protected void drawHighlights() {
+  /**
+   * calculates the width and the absolute angle of each slice from the
+   * slice values in one pass, without allocations
+   */
+  private void calcSliceAngles() {
 
-    // if there are values to highlight and highlighnting is enabled, do it
-    if (mHighlightEnabled && valuesToHighlight()) {
+    mSliceVersion++;
+
+    double sum = 0;
+
+    for (int i = 0; i < mSliceCount; i++) {
+
+      float val = mSliceValues[i];
+
+      if (mSliceTotal == 0) {
+        mSlicesAngleWidth[i] = 360f / mSliceCount;
+        mSlicesAnglePosition[i] = 360f * (i + 1) / mSliceCount;
+      } else {
+        sum += val;
+        mSlicesAngleWidth[i] = (float) (val / mSliceTotal * 360.0);
+        mSlicesAnglePosition[i] = (float) (sum / mSliceTotal * 360.0);
+      }
+    }
+  }
+
+  /**
+   * Changes the value of a single slice and updates the angles of all slices
+   * without collecting the values of all DataSets again. Use this instead
+   * of notifyDataSetChanged() for pie-charts whose slices change their
+   * values often. If slices are aggregated, the aggregation is done again.
+   *
+   * @param dataSetIndex the index of the DataSet the slice belongs to
+   * @param entryIndex the index of the slice's entry in the DataSet
+   * @param val the new value
+   */
+  public void setSliceValue(int dataSetIndex, int entryIndex, float val) {
+
+    if (mDataNotSet || mSliceValues == null)
+      throw new IllegalStateException("The chart has no data.");
+
+    if (dataSetIndex < 0 || dataSetIndex >= mDataSetEntryStarts.length - 1)
+      throw new IllegalArgumentException("No DataSet at index " + dataSetIndex + ".");
+
+    int entry = mDataSetEntryStarts[dataSetIndex] + entryIndex;
+
+    if (entryIndex < 0 || entry >= mDataSetEntryStarts[dataSetIndex + 1])
+      throw new IllegalArgumentException("No entry at index " + entryIndex + ".");
+
+    DataSet set = mCurrentData.getDataSetByIndex(dataSetIndex);
+    float old = set.getValAt(entryIndex);
+
+    set.setEntryValue(entryIndex, val);
+    mCurrentData.notifyEntryValueChanged(old, val);
+
+    if (isSliceAggregationEnabled()) {
+      calcAngles();
+    } else {
+      mSliceTotal += Math.abs(val) - Math.abs(old);
+      mSliceValues[mEntrySlices[entry]] = val;
+
+      calcSliceAngles();
+    }
+
+    invalidate();
+  }
+
+  /**
+   * Returns the slice the entry at the given index of the given DataSet is
+   * drawn in, -1 if there is no such entry.
+   *
+   * @param dataSetIndex
+   * @param entryIndex
+   * @return
+   */
+  public int getSliceForEntry(int dataSetIndex, int entryIndex) {
+
+    if (mEntrySlices == null || dataSetIndex < 0 || dataSetIndex >= mDataSetEntryStarts.length - 1)
+      return -1;
 
-      float angle = 0f;
+    int entry = mDataSetEntryStarts[dataSetIndex] + entryIndex;
 
-      for (int i = 0; i < mIndicesToHightlight.length; i++) {
+    if (entryIndex < 0 || entry >= mDataSetEntryStarts[dataSetIndex + 1])
+      return -1;
 
-        // get the index to highlight
-        int xIndex = mIndicesToHightlight[i].getXIndex();
-        if (xIndex >= mSlicesAngleWidth.length || xIndex > mDeltaX)
-          continue;
+    return mEntrySlices[entry];
+  }
+
+  /**
+   * Returns the highlights of the entries the given slice is made of: one
+   * for a normal slice, one for each aggregated entry for the "other"
+   * slice. Returns null if there is no such slice.
+   *
+   * @param slice
+   * @return
+   */
+  public Highlight[] getHighlightsForSlice(int slice) {
 
-        if (xIndex == 0)
-          angle = mChartAngle;
-        else
-          angle = mChartAngle + mSlicesAnglePosition[xIndex - 1];
+    if (slice < 0 || slice >= mSliceCount)
+      return null;
 
-        float sliceDegrees = mSlicesAngleWidth[xIndex];
+    if (slice != mOtherSlice) {
+      DataSet set = mCurrentData.getDataSetByIndex(mSliceDataSets[slice]);
+      return new Highlight[] {
+          new Highlight(set.getXIndexAt(mSliceEntries[slice]), mSliceDataSets[slice])
+      };
+    }
 
-        float shiftangle = (float) Math.toRadians(angle + sliceDegrees / 2f);
+    int setCount = mDataSetEntryStarts.length - 1;
+    int folded = 0;
 
-        float xShift = mShift * (float) Math.cos(shiftangle);
-        float yShift = mShift * (float) Math.sin(shiftangle);
+    for (int i = 0; i < mDataSetEntryStarts[setCount]; i++) {
+      if (mEntrySlices[i] == slice)
+        folded++;
+    }
 
-        RectF highlighted = new RectF(mCircleBox.left + xShift, mCircleBox.top + yShift,
-            mCircleBox.right
-                + xShift, mCircleBox.bottom + yShift);
+    Highlight[] highs = new Highlight[folded];
+    int cnt = 0;
 
-        // redefine the rect that contains the arc so that the
-        // highlighted pie is not cut off
-        mDrawCanvas.drawArc(highlighted, angle + mSliceSpace / 2f, sliceDegrees
-            - mSliceSpace / 2f, true, mCurrentData.getDataSetByIndex(i).getDrawingSpec().getBasicPaint());
+    for (int i = 0; i < setCount; i++) {
+
+      DataSet set = mCurrentData.getDataSetByIndex(i);
+
+      for (int j = mDataSetEntryStarts[i]; j < mDataSetEntryStarts[i + 1]; j++) {
+        if (mEntrySlices[j] == slice)
+          highs[cnt++] = new Highlight(set.getXIndexAt(j - mDataSetEntryStarts[i]), i);
       }
     }
+
+    return highs;
+  }
+
+  /**
+   * returns the index of the slice that holds all aggregated entries, -1 if
+   * no entries are aggregated
+   *
+   * @return
+   */
+  public int getOtherSliceIndex() {
+    return mOtherSlice;
+  }
+
+  /**
+   * marks the slices that contain highlighted entries in mSliceHighlighted
+   */
+  private void calcHighlightedSlices() {
+
+    Arrays.fill(mSliceHighlighted, 0, mSliceCount, false);
+
+    if (!mHighlightEnabled || !valuesToHighlight())
+      return;
+
+    for (int i = 0; i < mIndicesToHightlight.length; i++) {
+
+      Highlight h = mIndicesToHightlight[i];
+      int dataSetIndex = h.getDataSetIndex();
+
+      if (dataSetIndex < 0 || dataSetIndex >= mCurrentData.getDataSetCount())
+        continue;
+
+      int entryIndex = mCurrentData.getDataSetByIndex(dataSetIndex).getIndexInEntries(
+          h.getXIndex());
+
+      int slice = getSliceForEntry(dataSetIndex, entryIndex);
+
+      if (slice >= 0)
+        mSliceHighlighted[slice] = true;
+    }
+  }
+
+  /**
+   * draws the given slice with its color into the given box
+   *
+   * @param box
+   * @param slice
+   * @param angle the angle the slice starts at
+   */
+  private void drawSlice(RectF box, int slice, float angle) {
+
+    float sliceAngle = mSlicesAngleWidth[slice];
+    int dataSetIndex = mSliceDataSets[slice];
+
+    if (dataSetIndex < 0) {
+      mDrawCanvas.drawArc(box, angle + mSliceSpace / 2f, sliceAngle - mSliceSpace / 2f, true,
+          mOtherSlicePaint);
+      return;
+    }
+
+    MulticolorDrawingSpec spec = mCurrentData.getDataSetByIndex(dataSetIndex).getDrawingSpec();
+    Paint paint = spec.getBasicPaint();
+
+    int originalColor = paint.getColor();
+
+    if (spec.hasMultipleColors()) {
+      paint.setColor(spec.getColor(mSliceEntries[slice]));
+    }
+
+    mDrawCanvas.drawArc(box, angle + mSliceSpace / 2f, sliceAngle - mSliceSpace / 2f, true,
+        paint);
+
+    paint.setColor(originalColor);
   }
 
   @Override
-  protected void drawData() {
+  protected void drawHighlights() {
 
-    float angle = mChartAngle;
+    // if there are values to highlight and highlighnting is enabled, do it
+    if (mHighlightEnabled && valuesToHighlight()) {
 
-    ArrayList<PieDataSet> dataSets = mCurrentData.getDataSets();
+      calcHighlightedSlices();
 
-    int cnt = 0;
+      float angle = mChartAngle;
 
-    for (int i = 0; i < mCurrentData.getDataSetCount(); i++) {
-      PieDataSet dataSet = dataSets.get(i);
-      MulticolorDrawingSpec spec = dataSet.getDrawingSpec();
-      ArrayList<Entry> entries = dataSet.getYVals();
+      for (int i = 0; i < mSliceCount; i++) {
 
-      Paint paint = spec.getBasicPaint();
+        float sliceDegrees = mSlicesAngleWidth[i];
 
-      for (int j = 0; j < entries.size(); j++) {
+        if (mSliceHighlighted[i]) {
 
-        float newAngle = mSlicesAngleWidth[cnt];
+          float shiftangle = (float) Math.toRadians(angle + sliceDegrees / 2f);
 
-        int originalColor = paint.getColor();
+          float xShift = mShift * (float) Math.cos(shiftangle);
+          float yShift = mShift * (float) Math.sin(shiftangle);
 
-        if (spec.hasMultipleColors()) {
-          paint.setColor(spec.getColor(j));
-        }
+          RectF highlighted = new RectF(mCircleBox.left + xShift, mCircleBox.top + yShift,
+              mCircleBox.right
+                  + xShift, mCircleBox.bottom + yShift);
 
-        if (!needsHighlight(entries.get(j).getXIndex(), i)) {
-          mDrawCanvas.drawArc(mCircleBox, angle + mSliceSpace / 2f, newAngle
-              - mSliceSpace / 2f, true, paint);
+          // redefine the rect that contains the arc so that the
+          // highlighted pie is not cut off
+          drawSlice(highlighted, i, angle);
         }
 
-        paint.setColor(originalColor);
-
-        angle += newAngle;
-        cnt++;
+        angle += sliceDegrees;
       }
     }
   }
 
+  @Override
+  protected void drawData() {
+
+    calcHighlightedSlices();
+
+    float angle = mChartAngle;
+
+    for (int i = 0; i < mSliceCount; i++) {
+
+      if (!mSliceHighlighted[i])
+        drawSlice(mCircleBox, i, angle);
+
+      angle += mSlicesAngleWidth[i];
+    }
+  }
+
   /**
    * draws the hole in the center of the chart
    */
@@ -566,53 +1173,44 @@ public class PieChart extends Chart<PieDataSet> {
 
     r -= off; // offset to keep things inside the chart
 
-    ArrayList<PieDataSet> dataSets = mCurrentData.getDataSets();
+    for (int cnt = 0; cnt < mSliceCount; cnt++) {
 
-    int cnt = 0;
+      // offset needed to center the drawn text in the slice
+      float offset = mSlicesAngleWidth[cnt] / 2;
 
-    for (int i = 0; i < mCurrentData.getDataSetCount(); i++) {
+      // calculate the text position
+      float x = (float) (r * Math.cos(Math.toRadians(mChartAngle + mSlicesAnglePosition[cnt] - offset)) + center.x);
+      float y = (float) (r * Math.sin(Math.toRadians(mChartAngle + mSlicesAnglePosition[cnt] - offset)) + center.y);
 
-      DataSet dataSet = dataSets.get(i);
-      ArrayList<Entry> entries = dataSet.getYVals();
+      String val = "";
+      float value = mSliceValues[cnt];
 
-      for (int j = 0; j < entries.size(); j++) {
-
-        // offset needed to center the drawn text in the slice
-        float offset = mSlicesAngleWidth[cnt] / 2;
-
-        // calculate the text position
-        float x = (float) (r * Math.cos(Math.toRadians(mChartAngle + mSlicesAnglePosition[cnt] - offset)) + center.x);
-        float y = (float) (r * Math.sin(Math.toRadians(mChartAngle + mSlicesAnglePosition[cnt] - offset)) + center.y);
-
-        String val = "";
-        float value = entries.get(j).getVal();
-
-        if (mUsePercentValues) {
-          val = mFormatValue.format(getPercentOfTotal(value)) + " %";
-        } else {
-          val = mFormatValue.format(value);
-        }
+      if (mUsePercentValues) {
+        val = mFormatValue.format(getPercentOfTotal(value)) + " %";
+      } else {
+        val = mFormatValue.format(value);
+      }
 
-        // draw everything, depending on settings
-        if (mDrawXVals && mDrawYValues) {
+      String label = cnt == mOtherSlice ? mOtherSliceLabel
+          : mCurrentData.getXLabel(mSliceEntries[cnt]);
 
-          // use ascent and descent to calculate the new line
-          // position,
-          // 1.6f is the line spacing
-          float lineHeight = (mValuePaint.ascent() + mValuePaint.descent()) * 1.6f;
-          y -= lineHeight / 2;
+      // draw everything, depending on settings
+      if (mDrawXVals && mDrawYValues) {
 
-          mDrawCanvas.drawText(val, x, y, mValuePaint);
-          mDrawCanvas.drawText(mCurrentData.getXLabels().get(j), x, y + lineHeight,
-              mValuePaint);
-        } else if (mDrawXVals && !mDrawYValues) {
-          mDrawCanvas.drawText(mCurrentData.getXLabels().get(j), x, y, mValuePaint);
-        } else if (!mDrawXVals && mDrawYValues) {
+        // use ascent and descent to calculate the new line
+        // position,
+        // 1.6f is the line spacing
+        float lineHeight = (mValuePaint.ascent() + mValuePaint.descent()) * 1.6f;
+        y -= lineHeight / 2;
 
-          mDrawCanvas.drawText(val, x, y, mValuePaint);
-        }
+        mDrawCanvas.drawText(val, x, y, mValuePaint);
+        mDrawCanvas.drawText(label, x, y + lineHeight,
+            mValuePaint);
+      } else if (mDrawXVals && !mDrawYValues) {
+        mDrawCanvas.drawText(label, x, y, mValuePaint);
+      } else if (!mDrawXVals && mDrawYValues) {
 
-        cnt++;
+        mDrawCanvas.drawText(val, x, y, mValuePaint);
       }
     }
   }
@@ -623,21 +1221,8 @@ public class PieChart extends Chart<PieDataSet> {
   }
 
   /**
-   * calculates the needed angle for a given value
-   *
-   * @param value
-   * @return
-   */
-  private float calcAngle(float value) {
-    float yValueSum = mCurrentData.getYValueSum();
-    if (yValueSum == 0.0f) {
-      return 360f / mCurrentData.getYValCount();
-    }
-    return value / yValueSum * 360f;
-  }
-
-  /**
-   * returns the pie index for the pie at the given angle
+   * returns the pie index for the pie at the given angle, found by binary
+   * search in the absolute angles of the slices
    *
    * @param angle
    * @return
@@ -647,12 +1232,20 @@ public class PieChart extends Chart<PieDataSet> {
     // take the current angle of the chart into consideration
     float a = (angle - mChartAngle + 720) % 360f;
 
-    for (int i = 0; i < mSlicesAnglePosition.length; i++) {
-      if (mSlicesAnglePosition[i] > a)
-        return i;
+    // first slice that ends after the angle
+    int low = 0;
+    int high = mSliceCount;
+
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+
+      if (mSlicesAnglePosition[mid] > a)
+        high = mid;
+      else
+        low = mid + 1;
     }
 
-    return -1; // return -1 if no index found
+    return low < mSliceCount ? low : -1; // return -1 if no index found
   }
 
   /**
@@ -663,14 +1256,10 @@ public class PieChart extends Chart<PieDataSet> {
    */
   public int getDataSetIndexForIndex(int xIndex) {
 
-    ArrayList<PieDataSet> sets = mCurrentData.getDataSets();
+    if (mDataSetForXIndex == null || xIndex < 0 || xIndex >= mDataSetForXIndex.length)
+      return -1;
 
-    for (int i = 0; i < sets.size(); i++) {
-      if (sets.get(i).getEntryForXIndex(xIndex) != null)
-        return i;
-    }
-
-    return -1;
+    return mDataSetForXIndex[xIndex];
   }
 
   /**
@@ -1078,6 +1667,89 @@ public class PieChart extends Chart<PieDataSet> {
     mAnimator.smoothScroll(startAngle, endAngle, duration);
   }
 
+  /**
+   * Aggregates small slices into one "other" slice that is drawn last, to
+   * keep the number of drawn slices and labels bounded for data with many
+   * entries. Entries whose slice would be narrower than minAngle degrees are
+   * aggregated, and if there are more than maxSlices entries, only the
+   * maxSlices - 1 largest keep their own slice. Tapping the "other" slice
+   * highlights all aggregated entries.
+   *
+   * @param maxSlices the maximum number of slices including the "other"
+   *          slice, 0 for no limit
+   * @param minAngle the minimum angle of a slice in degrees, 0 to disable
+   */
+  public void setSliceAggregation(int maxSlices, float minAngle) {
+
+    if (maxSlices < 0)
+      throw new IllegalArgumentException("The maximum number of slices must not be negative.");
+
+    if (minAngle < 0f)
+      throw new IllegalArgumentException("The minimum slice angle must not be negative.");
+
+    mMaxSlices = maxSlices;
+    mMinSliceAngle = minAngle;
+
+    if (!mDataNotSet)
+      calcAngles();
+  }
+
+  /**
+   * returns true if small slices are aggregated into an "other" slice
+   *
+   * @return
+   */
+  public boolean isSliceAggregationEnabled() {
+    return mMaxSlices > 0 || mMinSliceAngle > 0f;
+  }
+
+  /**
+   * sets the label of the "other" slice, default "Other"
+   *
+   * @param label
+   */
+  public void setOtherSliceLabel(String label) {
+    mOtherSliceLabel = label;
+  }
+
+  /**
+   * sets the color of the "other" slice, default gray
+   *
+   * @param color
+   */
+  public void setOtherSliceColor(int color) {
+    mOtherSlicePaint.setColor(color);
+  }
+
+  /**
+   * If set to true, rotating the chart (by touch, fling or animation) draws
+   * the slices from a cached bitmap that is rotated, instead of drawing all
+   * slices, the hole, the texts and the legend in every frame. The values
+   * are drawn again when the rotation has finished. Costs two bitmaps of the
+   * size of the chart while rotating, they are released when the rotation
+   * has finished. Default: false
+   *
+   * @param enabled
+   */
+  public void setRotationCacheEnabled(boolean enabled) {
+    mRotationCacheEnabled = enabled;
+
+    if (!enabled) {
+      mRotating = false;
+      removeCallbacks(mRotationSettled);
+      releaseLayers();
+    }
+  }
+
+  /**
+   * returns true if rotating the chart draws cached bitmaps
+   *
+   * @return
+   */
+  public boolean isRotationCacheEnabled() {
+    return mRotationCacheEnabled;
+  }
+
   public interface RotationListener {
     public void onRotate();
   }
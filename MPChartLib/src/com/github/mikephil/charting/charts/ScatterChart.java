@@ -1,15 +1,25 @@
 package com.github.mikephil.charting.charts;
 
+import com.github.mikephil.charting.data.ChartData;
+import com.github.mikephil.charting.data.CompressedEntryStore;
 import com.github.mikephil.charting.data.DataSet;
 import com.github.mikephil.charting.data.Entry;
+import com.github.mikephil.charting.data.EntryStore;
 import com.github.mikephil.charting.data.ScatterDataSet;
+import com.github.mikephil.charting.utils.DensityGrid;
+import com.github.mikephil.charting.utils.EntryGrid;
+import com.github.mikephil.charting.utils.Highlight;
 
 import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Matrix;
 import android.graphics.Paint;
 import android.graphics.Path;
+import android.graphics.RectF;
 import android.util.AttributeSet;
 
 import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
 
 /**
  * The ScatterChart. Draws dots, triangles, squares and custom shapes into the
@@ -45,6 +55,68 @@ public class ScatterChart extends BarLineChartBase<ScatterDataSet> {
    */
   private float mShapeSize = 12f;
 
+  /**
+   * spatial index of the entries for touch and rectangle queries, built
+   * lazily after the data changed
+   */
+  private EntryGrid mEntryGrid = new EntryGrid();
+
+  private boolean mEntryGridValid = false;
+
+  /**
+   * the ChartData the grid was built for, filtering replaces the current
+   * data every frame; the entry indices of the grid refer to its DataSets
+   */
+  private ChartData<ScatterDataSet> mEntryGridData = null;
+
+  private float[] mTouchBuffer = new float[2];
+  private float[] mMatrixBuffer = new float[9];
+
+  /**
+   * buffer for the two lines of a highlight
+   */
+  private float[] mHighlightBuffer = new float[8];
+
+  /**
+   * buffer for transforming the visible y-range when culling compressed
+   * blocks
+   */
+  private float[] mBlockCullBuffer = new float[4];
+
+  /**
+   * if true, the points are drawn as a density map when many of them are
+   * visible
+   */
+  private boolean mDensityEnabled = false;
+
+  /**
+   * the number of visible points from which on the density map is drawn
+   */
+  private int mDensityThreshold = 20000;
+
+  /**
+   * the size of a cell of the density map, in screen pixels
+   */
+  private float mDensityCellSize = 2f;
+
+  private int[] mDensityColors = new int[] {
+      0x802B83BA, 0xFFABDDA4, 0xFFFFFFBF, 0xFFFDAE61, 0xFFD7191C
+  };
+
+  /**
+   * created lazily when the density map is drawn first
+   */
+  private DensityGrid mDensityGrid = null;
+
+  /**
+   * counts the points of the density map in parallel if not null
+   */
+  private ExecutorService mDensityExecutor = null;
+
+  private Paint mDensityPaint = new Paint();
+
+  private RectF mDensityRect = new RectF();
+
   public ScatterChart(Context context) {
     super(context);
   }
@@ -57,114 +129,361 @@ public class ScatterChart extends BarLineChartBase<ScatterDataSet> {
     super(context, attrs, defStyle);
   }
 
+  @Override
+  protected void calcMinMax(boolean fixedValues) {
+    super.calcMinMax(fixedValues);
+
+    mEntryGridValid = false;
+  }
+
+  /**
+   * returns the spatial index of the current data, rebuilds it if the data
+   * changed or the current data was replaced (see mEntryGridData)
+   *
+   * @return
+   */
+  private EntryGrid getEntryGrid() {
+
+    ChartData<ScatterDataSet> data = mCurrentData;
+
+    if (!mEntryGridValid || mEntryGridData != data) {
+      mEntryGrid.build(data.getDataSets());
+      mEntryGridData = data;
+      mEntryGridValid = true;
+    }
+
+    return mEntryGrid;
+  }
+
+  /**
+   * Returns the Highlight of the entry closest to the given touch point (in
+   * both directions, not only on the x-axis) if it is not further away than
+   * the highlight focus distance, null if there is none.
+   *
+   * @param x
+   * @param y
+   * @return
+   */
+  @Override
+  public Highlight getHighlightByTouchPoint(float x, float y) {
+
+    if (mDataNotSet)
+      return null;
+
+    float[] pts = mTouchBuffer;
+    pts[0] = x;
+    pts[1] = y;
+
+    transformPixelToValue(pts);
+
+    // pixels per value on both axes
+    getValueToPixelMatrix().getValues(mMatrixBuffer);
+    float scaleX = Math.abs(mMatrixBuffer[Matrix.MSCALE_X]);
+    float scaleY = Math.abs(mMatrixBuffer[Matrix.MSCALE_Y]);
+
+    EntryGrid grid = getEntryGrid();
+
+    int closest = grid.findClosest(pts[0], pts[1], scaleX, scaleY, mHighlightFocusDelta);
+
+    if (closest < 0)
+      return null;
+
+    DataSet set = mEntryGridData.getDataSetByIndex(grid.getDataSetIndex(closest));
+
+    return obtainHighlight(set.getXIndexAt(grid.getEntryIndex(closest)),
+        grid.getDataSetIndex(closest));
+  }
+
+  /**
+   * Returns the Highlights of all entries inside the given bounds (in values,
+   * inclusive), ordered by DataSet and entry. Use getValuesByTouchPoint(...)
+   * to convert touch points into values.
+   *
+   * @param xMin
+   * @param yMin
+   * @param xMax
+   * @param yMax
+   * @return
+   */
+  public ArrayList<Highlight> getEntriesInRect(float xMin, float yMin, float xMax, float yMax) {
+
+    ArrayList<Highlight> highlights = new ArrayList<Highlight>();
+
+    if (mDataNotSet)
+      return highlights;
+
+    EntryGrid grid = getEntryGrid();
+
+    int hits = grid.findInRect(xMin, yMin, xMax, yMax);
+
+    for (int i = 0; i < hits; i++) {
+
+      int dataSetIndex = grid.getHitDataSetIndex(i);
+      DataSet set = mEntryGridData.getDataSetByIndex(dataSetIndex);
+
+      highlights.add(new Highlight(set.getXIndexAt(grid.getHitEntryIndex(i)), dataSetIndex));
+    }
+
+    return highlights;
+  }
+
+  @Override
+  protected void onDetachedFromWindow() {
+    if (mDensityGrid != null)
+      mDensityGrid.release();
+    super.onDetachedFromWindow();
+  }
+
   @Override
   protected void drawData() {
 
-    ArrayList<ScatterDataSet> dataSets = mCurrentData.getDataSets();
+    if (mDensityEnabled && drawDensity())
+      return;
 
-    float shapeHalf = mShapeSize / 2f;
+    ArrayList<ScatterDataSet> dataSets = mCurrentData.getDataSets();
 
     for (int i = 0; i < mCurrentData.getDataSetCount(); i++) {
 
       DataSet dataSet = dataSets.get(i);
-      ArrayList<Entry> entries = dataSet.getYVals();
 
-      float[] pos = generateTransformedValues(entries, 0f);
+      int from = getFirstVisibleEntryIndex(dataSet);
+      int to = getLastVisibleEntryIndex(dataSet);
 
-      ScatterShape shape = mScatterShapes[i % mScatterShapes.length];
+      if (from >= to)
+        continue;
 
-      for (int j = 0; j < pos.length; j += 2) {
+      EntryStore store = dataSet.getEntryStore();
 
-        // Set the color for the currently drawn value. If the index is
-        // out of bounds, reuse colors.
-        Paint renderPaint = mCurrentData.getDataSetByIndex(i).getDrawingSpec().getBasicPaint();
+      if (store instanceof CompressedEntryStore)
+        drawVisibleBlocks(i, dataSet, (CompressedEntryStore) store, from, to);
+      else
+        drawShapes(i, dataSet, from, to);
+    }
+  }
 
-        if (isOffContentRight(pos[j]))
-          break;
+  /**
+   * Draws the entries from (inclusive) to (exclusive) of a DataSet backed by
+   * a CompressedEntryStore. Blocks whose minimum and maximum y-value are
+   * both above or below the content area are skipped without being
+   * decompressed.
+   */
+  private void drawVisibleBlocks(int dataSetIndex, DataSet dataSet, CompressedEntryStore store,
+      int from, int to) {
 
-        // make sure the lines don't do shitty things outside bounds
-        if (j != 0 && isOffContentLeft(pos[j - 1])
-            && isOffContentTop(pos[j + 1])
-            && isOffContentBottom(pos[j + 1]))
-          continue;
+    // the visible y-range, extended by the size of the shapes
+    float shapeHalf = mShapeSize / 2f + 1f;
 
-        if (shape == ScatterShape.SQUARE) {
+    mBlockCullBuffer[0] = mContentRect.left;
+    mBlockCullBuffer[1] = mContentRect.top - shapeHalf;
+    mBlockCullBuffer[2] = mContentRect.left;
+    mBlockCullBuffer[3] = mContentRect.bottom + shapeHalf;
 
-          mDrawCanvas.drawRect(pos[j] - shapeHalf, pos[j + 1] - shapeHalf, pos[j]
-              + shapeHalf, pos[j + 1]
-              + shapeHalf, renderPaint);
-        } else if (shape == ScatterShape.CIRCLE) {
+    transformPixelToValue(mBlockCullBuffer);
 
-          mDrawCanvas.drawCircle(pos[j], pos[j + 1], mShapeSize / 2f, renderPaint);
-        } else if (shape == ScatterShape.CROSS) {
+    float yMin = Math.min(mBlockCullBuffer[1], mBlockCullBuffer[3]);
+    float yMax = Math.max(mBlockCullBuffer[1], mBlockCullBuffer[3]);
 
-          mDrawCanvas.drawLine(pos[j] - shapeHalf, pos[j + 1], pos[j] + shapeHalf,
-              pos[j + 1], renderPaint);
-          mDrawCanvas.drawLine(pos[j], pos[j + 1] - shapeHalf, pos[j], pos[j + 1]
-              + shapeHalf, renderPaint);
-        } else if (shape == ScatterShape.TRIANGLE) {
+    int blockSize = store.getBlockSize();
+    int start = from;
 
-          // create a triangle path
-          Path tri = new Path();
-          tri.moveTo(pos[j], pos[j + 1] - shapeHalf);
-          tri.lineTo(pos[j] + shapeHalf, pos[j + 1] + shapeHalf);
-          tri.lineTo(pos[j] - shapeHalf, pos[j + 1] + shapeHalf);
-          tri.close();
+    while (start < to) {
 
-          mDrawCanvas.drawPath(tri, renderPaint);
-        } else if (shape == ScatterShape.CUSTOM) {
+      int b = start / blockSize;
 
-          if (mCustomScatterPath == null)
-            return;
+      if (store.getBlockMax(b) < yMin || store.getBlockMin(b) > yMax) {
+        start = Math.min((b + 1) * blockSize, to);
+        continue;
+      }
 
-          // transform the provided custom path
-          transformPath(mCustomScatterPath);
-          mDrawCanvas.drawPath(mCustomScatterPath, renderPaint);
-        }
+      // draw the following visible blocks with the same call
+      int end = Math.min((b + 1) * blockSize, to);
+
+      while (end < to && store.getBlockMax(end / blockSize) >= yMin
+          && store.getBlockMin(end / blockSize) <= yMax)
+        end = Math.min(end + blockSize, to);
+
+      if (!drawShapes(dataSetIndex, dataSet, start, end))
+        return;
+
+      start = end;
+    }
+  }
+
+  /**
+   * Draws the shapes of the entries from (inclusive) to (exclusive) of the
+   * DataSet with the given index. Returns false if no further entries of
+   * the DataSet can be visible.
+   */
+  private boolean drawShapes(int dataSetIndex, DataSet dataSet, int from, int to) {
+
+    float shapeHalf = mShapeSize / 2f;
+
+    // reads the entries through the DataSet, which also works for
+    // DataSets backed by an EntryStore
+    mValueBuffer = generateTransformedValues(dataSet, from, to, 0f, mValueBuffer);
+
+    float[] pos = mValueBuffer;
+    int length = (to - from) * 2;
+
+    ScatterShape shape = mScatterShapes[dataSetIndex % mScatterShapes.length];
+
+    for (int j = 0; j < length; j += 2) {
+
+      // Set the color for the currently drawn value. If the index is
+      // out of bounds, reuse colors.
+      Paint renderPaint = mCurrentData.getDataSetByIndex(dataSetIndex).getDrawingSpec()
+          .getBasicPaint();
+
+      if (isOffContentRight(pos[j]))
+        return false;
+
+      // make sure the lines don't do shitty things outside bounds
+      if (j != 0 && isOffContentLeft(pos[j - 1])
+          && isOffContentTop(pos[j + 1])
+          && isOffContentBottom(pos[j + 1]))
+        continue;
+
+      if (shape == ScatterShape.SQUARE) {
+
+        mDrawCanvas.drawRect(pos[j] - shapeHalf, pos[j + 1] - shapeHalf, pos[j]
+            + shapeHalf, pos[j + 1]
+            + shapeHalf, renderPaint);
+      } else if (shape == ScatterShape.CIRCLE) {
+
+        mDrawCanvas.drawCircle(pos[j], pos[j + 1], mShapeSize / 2f, renderPaint);
+      } else if (shape == ScatterShape.CROSS) {
+
+        mDrawCanvas.drawLine(pos[j] - shapeHalf, pos[j + 1], pos[j] + shapeHalf,
+            pos[j + 1], renderPaint);
+        mDrawCanvas.drawLine(pos[j], pos[j + 1] - shapeHalf, pos[j], pos[j + 1]
+            + shapeHalf, renderPaint);
+      } else if (shape == ScatterShape.TRIANGLE) {
+
+        // create a triangle path
+        Path tri = new Path();
+        tri.moveTo(pos[j], pos[j + 1] - shapeHalf);
+        tri.lineTo(pos[j] + shapeHalf, pos[j + 1] + shapeHalf);
+        tri.lineTo(pos[j] - shapeHalf, pos[j + 1] + shapeHalf);
+        tri.close();
+
+        mDrawCanvas.drawPath(tri, renderPaint);
+      } else if (shape == ScatterShape.CUSTOM) {
+
+        if (mCustomScatterPath == null)
+          return false;
+
+        // transform the provided custom path
+        transformPath(mCustomScatterPath);
+        mDrawCanvas.drawPath(mCustomScatterPath, renderPaint);
       }
     }
+
+    return true;
+  }
+
+  /**
+   * Draws the visible points of all DataSets as one density map if at least
+   * the threshold of points is visible. Returns false if the points have to
+   * be drawn as shapes.
+   *
+   * @return
+   */
+  private boolean drawDensity() {
+
+    ArrayList<ScatterDataSet> dataSets = mCurrentData.getDataSets();
+
+    int visible = 0;
+
+    for (int i = 0; i < dataSets.size(); i++) {
+      DataSet set = dataSets.get(i);
+      visible += getLastVisibleEntryIndex(set) - getFirstVisibleEntryIndex(set);
+    }
+
+    if (visible < mDensityThreshold)
+      return false;
+
+    if (mDensityGrid == null)
+      mDensityGrid = new DensityGrid(mDensityColors);
+
+    DensityGrid grid = mDensityGrid;
+
+    grid.reset(mContentRect.left, mContentRect.top, mContentRect.right, mContentRect.bottom,
+        mDensityCellSize);
+
+    for (int i = 0; i < dataSets.size(); i++) {
+
+      DataSet set = dataSets.get(i);
+
+      grid.add(set, getFirstVisibleEntryIndex(set), getLastVisibleEntryIndex(set),
+          getValueToPixelMatrix(), mDensityExecutor);
+    }
+
+    Bitmap bitmap = grid.render();
+
+    mDensityRect.set(mContentRect.left, mContentRect.top, grid.getRight(), grid.getBottom());
+    mDrawCanvas.drawBitmap(bitmap, null, mDensityRect, mDensityPaint);
+
+    return true;
   }
 
   @Override
   protected void drawValues() {
     // if values are drawn
-    if (mDrawYValues && mCurrentData.getYValCount() < mMaxVisibleCount * mScaleX) {
+    if (prepareValueLabels()) {
 
       ArrayList<ScatterDataSet> dataSets = mCurrentData.getDataSets();
 
       for (int i = 0; i < mCurrentData.getDataSetCount(); i++) {
 
         DataSet dataSet = dataSets.get(i);
-        ArrayList<Entry> entries = dataSet.getYVals();
-
-        float[] positions = generateTransformedValues(entries, 0f);
 
-        for (int j = 0; j < positions.length; j += 2) {
+        int from = getFirstVisibleEntryIndex(dataSet);
+        int to = getLastVisibleEntryIndex(dataSet);
 
-          if (isOffContentRight(positions[j]))
-            break;
+        if (from >= to)
+          continue;
 
-          if (isOffContentLeft(positions[j]) || isOffContentTop(positions[j + 1])
-              || isOffContentBottom(positions[j + 1]))
-            continue;
+        mValueBuffer = generateTransformedValues(dataSet, from, to, 0f, mValueBuffer);
 
-          float val = entries.get(j / 2).getVal();
+        float[] positions = mValueBuffer;
+        int length = (to - from) * 2;
 
-          if (mDrawUnitInChart) {
+        // the labels of the extremes go first so their neighbours give way
+        if (mValueLabelCulling && mValueLabelExtremesFirst) {
 
-            mDrawCanvas.drawText(mValueFormat.format(val) + mUnit, positions[j],
-                positions[j + 1] - mShapeSize, mValuePaint);
-          } else {
+          findValueExtremes(dataSet, from, to, positions);
 
-            mDrawCanvas.drawText(mValueFormat.format(val), positions[j],
-                positions[j + 1] - mShapeSize,
-                mValuePaint);
+          for (int e = 0; e < mValueExtremes.length; e++) {
+            if (mValueExtremes[e] >= 0)
+              drawValueLabel(dataSet, from, positions, (mValueExtremes[e] - from) * 2);
           }
         }
+
+        for (int j = 0; j < length; j += 2) {
+
+          if (dataSet.isSorted() && isOffContentRight(positions[j]))
+            break;
+
+          drawValueLabel(dataSet, from, positions, j);
+        }
       }
     }
   }
 
+  /**
+   * draws the value label of the entry whose transformed position starts at
+   * index j of the given positions
+   */
+  private void drawValueLabel(DataSet dataSet, int from, float[] positions, int j) {
+
+    if (isOffContentLeft(positions[j]) || isOffContentRight(positions[j])
+        || isOffContentTop(positions[j + 1]) || isOffContentBottom(positions[j + 1]))
+      return;
+
+    drawValueLabel(dataSet.getValAt(from + j / 2), mDrawUnitInChart, positions[j],
+        positions[j + 1] - mShapeSize, mValuePaint);
+  }
+
   @Override
   protected void drawHighlights() {
 
@@ -179,9 +498,15 @@ public class ScatterChart extends BarLineChartBase<ScatterDataSet> {
         // x-position
         float y = set.getYValForXIndex(xIndex); // get the y-position
 
-        float[] pts = new float[] {
-            xIndex, mYChartMax, xIndex, mYChartMin, 0, y, mDeltaX, y
-        };
+        float[] pts = mHighlightBuffer;
+        pts[0] = xIndex;
+        pts[1] = mYChartMax;
+        pts[2] = xIndex;
+        pts[3] = mYChartMin;
+        pts[4] = getXChartMin();
+        pts[5] = y;
+        pts[6] = getXChartMax();
+        pts[7] = y;
 
         transformValueToPixel(pts);
         // draw the highlight lines
@@ -251,4 +576,77 @@ public class ScatterChart extends BarLineChartBase<ScatterDataSet> {
   public void setCustomScatterShape(Path shape) {
     mCustomScatterPath = shape;
   }
+
+  /**
+   * Enables / disables drawing the points as a density map instead of one
+   * shape per point while many points are visible. The visible points of all
+   * DataSets are counted into cells of the content area and drawn as one
+   * bitmap, colored by the number of points per cell. Default: disabled.
+   *
+   * @param enabled
+   */
+  public void setDensityEnabled(boolean enabled) {
+    mDensityEnabled = enabled;
+  }
+
+  /**
+   * returns true if the density map is enabled
+   *
+   * @return
+   */
+  public boolean isDensityEnabled() {
+    return mDensityEnabled;
+  }
+
+  /**
+   * Sets the number of visible points from which on the density map is drawn
+   * (if enabled). Below, the points are drawn as shapes. Default: 20000
+   *
+   * @param count
+   */
+  public void setDensityThreshold(int count) {
+    mDensityThreshold = count;
+  }
+
+  /**
+   * Sets the size of a cell of the density map in screen pixels, larger
+   * cells are faster and smoother. Default: 2f
+   *
+   * @param size
+   */
+  public void setDensityCellSize(float size) {
+
+    if (size <= 0)
+      throw new IllegalArgumentException("The cell size must be positive.");
+
+    mDensityCellSize = size;
+  }
+
+  /**
+   * Sets the colors of the density map from the lowest to the highest
+   * density, at least one. Colors in between are interpolated on a
+   * logarithmic scale of the number of points per cell.
+   *
+   * @param colors
+   */
+  public void setDensityColors(int[] colors) {
+
+    if (mDensityGrid != null)
+      mDensityGrid.setColors(colors);
+    else if (colors == null || colors.length == 0)
+      throw new IllegalArgumentException("The color ramp needs at least one color.");
+
+    mDensityColors = colors;
+  }
+
+  /**
+   * Sets the executor the points of the density map are counted on in
+   * parallel when there are enough of them, null to count them on the
+   * drawing thread (default). The chart does not shut the executor down.
+   *
+   * @param executor
+   */
+  public void setDensityExecutor(ExecutorService executor) {
+    mDensityExecutor = executor;
+  }
 }
@@ -1,9 +1,11 @@
 package com.github.mikephil.charting.charts;
 
 import com.github.mikephil.charting.data.BarDataSet;
+import com.github.mikephil.charting.data.ChartData;
 import com.github.mikephil.charting.data.Entry;
 import com.github.mikephil.charting.utils.Highlight;
-import com.github.mikephil.charting.utils.SelInfo;
+import com.github.mikephil.charting.utils.MulticolorDrawingSpec;
+import com.github.mikephil.charting.utils.RectBatch;
 import com.github.mikephil.charting.utils.Utils;
 
 import android.content.Context;
@@ -14,12 +16,14 @@ import android.graphics.Paint.Align;
 import android.graphics.Paint.Style;
 import android.graphics.Path;
 import android.graphics.RectF;
+import android.graphics.Typeface;
 import android.text.TextPaint;
 import android.text.TextUtils;
 import android.text.TextUtils.TruncateAt;
 import android.util.AttributeSet;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 
 /**
  * Created by seba on 26.08.2014.
@@ -33,6 +37,11 @@ public class VerticalBarChart extends BarLineChartBase<BarDataSet> {
 
   private RectF mBarRect = new RectF();
 
+  /**
+   * reused batch of the bars of one color
+   */
+  private RectBatch mBarBatch = new RectBatch();
+
   /**
    * flag that enables or disables the highlighting arrow
    */
@@ -43,6 +52,38 @@ public class VerticalBarChart extends BarLineChartBase<BarDataSet> {
   private float mMaxXLabelWidth = Utils.convertDpToPixel(100);
   private TextPaint mTextPaint;
 
+  /**
+   * the ellipsized x-labels that have been drawn, by index, null for labels
+   * that have not been drawn yet
+   */
+  private String[] mEllipsizedLabels = new String[0];
+
+  /**
+   * the data, width and text paint settings the cached labels were
+   * ellipsized for, the same paint settings the TextMeasureCache keys on
+   */
+  private ChartData<BarDataSet> mEllipsizedData;
+  private float mEllipsizedWidth;
+  private float mEllipsizedTextSize;
+  private float mEllipsizedTextScaleX;
+  private int mEllipsizedFlags;
+  private Typeface mEllipsizedTypeface;
+
+  /**
+   * the width of the widest x-label, and the x-values, label modulus and
+   * text paint settings it was measured for
+   */
+  private float mLabelWidth = 0f;
+  private long[] mLabelWidthXVals;
+  private int mLabelWidthModulus;
+  private float mLabelWidthTextSize;
+  private Typeface mLabelWidthTypeface;
+
+  /**
+   * buffer for calculating the visible range of x-indices
+   */
+  private float[] mVisibleYRangeBuffer = new float[2];
+
   public VerticalBarChart(Context context, AttributeSet attrs, int defStyle) {
     super(context, attrs, defStyle);
   }
@@ -80,42 +121,85 @@ public class VerticalBarChart extends BarLineChartBase<BarDataSet> {
   protected void drawData() {
     ArrayList<BarDataSet> dataSets = mCurrentData.getDataSets();
 
+    Matrix valueToPixel = getValueToPixelMatrix();
+
+    float clipLeft = mOffsetLeft;
+    float clipTop = mOffsetTop;
+    float clipRight = getWidth() - mOffsetRight;
+    float clipBottom = getHeight() - mOffsetBottom;
+
     for (int i = 0; i < mCurrentData.getDataSetCount(); i++) {
 
       BarDataSet dataSet = dataSets.get(i);
-      ArrayList<Entry> series = dataSet.getYVals();
-      Paint paint = dataSet.getDrawingSpec().getBasicPaint();
+      MulticolorDrawingSpec spec = dataSet.getDrawingSpec();
+      Paint paint = spec.getBasicPaint();
 
-      // do the drawing
-      for (int j = 0; j < dataSet.getEntryCount(); j++) {
+      int from = getFirstVisibleEntryIndex(dataSet);
+      int to = getLastVisibleEntryIndex(dataSet);
 
-        // Set the color for the currently drawn value. If the index is out of bounds, reuse colors.
-        prepareRect(series.get(j).getXIndex(), series.get(j).getVal(), mBarRect);
-        transformRect(mBarRect);
+      int colorCount = spec.hasMultipleColors() ? spec.getColorsCount() : 1;
+      int originalColor = paint.getColor();
 
-        // avoid drawing outofbounds values
-        if (isOffContentBottom(mBarRect.bottom))
-          break;
+      // one batch per color, the bars of color c are every colorCount-th
+      // entry
+      for (int c = 0; c < colorCount; c++) {
 
-        if (isOffContentTop(mBarRect.top)) {
-          continue;
-        }
+        mBarBatch.reset();
 
-        int originalColor = paint.getColor();
+        int first = from + ((c - from % colorCount) + colorCount) % colorCount;
 
-        if (dataSet.getDrawingSpec().hasMultipleColors()) {
-          paint.setColor(dataSet.getDrawingSpec().getColor(j));
-        } else {
-          paint.setColor(dataSet.getDrawingSpec().getBasicPaint().getColor());
+        for (int j = first; j < to; j += colorCount) {
+          prepareRect(dataSet.getXIndexAt(j), dataSet.getValAt(j), mBarRect);
+          mBarBatch.add(mBarRect.left, mBarRect.top, mBarRect.right, mBarRect.bottom);
         }
 
-        mDrawCanvas.drawRect(mBarRect, paint);
+        if (mBarBatch.size() == 0)
+          continue;
+
+        mBarBatch.transform(valueToPixel);
 
-        paint.setColor(originalColor);
+        if (spec.hasMultipleColors())
+          paint.setColor(spec.getColor(c));
+
+        mBarBatch.draw(mDrawCanvas, paint, clipLeft, clipTop, clipRight, clipBottom);
       }
+
+      paint.setColor(originalColor);
     }
   }
 
+  /**
+   * the x-axis is vertical in this chart, returns the lowest x-index that is
+   * visible at the top of the content area
+   */
+  @Override
+  public int getLowestVisibleXIndex() {
+
+    float[] pts = mVisibleYRangeBuffer;
+    pts[0] = 0;
+    pts[1] = mOffsetTop;
+
+    transformPixelToValue(pts);
+
+    return (int) Math.floor(pts[1]);
+  }
+
+  /**
+   * the x-axis is vertical in this chart, returns the highest x-index that
+   * is visible at the bottom of the content area
+   */
+  @Override
+  public int getHighestVisibleXIndex() {
+
+    float[] pts = mVisibleYRangeBuffer;
+    pts[0] = 0;
+    pts[1] = getHeight() - mOffsetBottom;
+
+    transformPixelToValue(pts);
+
+    return (int) Math.ceil(pts[1]);
+  }
+
   protected void drawXLabels() {
 
     if (!mDrawXLabels)
@@ -129,7 +213,11 @@ public class VerticalBarChart extends BarLineChartBase<BarDataSet> {
         0f, 0f
     };
 
-    for (int i = 0; i < mCurrentData.getXValCount(); i++) {
+    // only the labels of the visible bars are transformed
+    int from = Math.max(0, getLowestVisibleXIndex());
+    int to = Math.min(mCurrentData.getXValCount(), getHighestVisibleXIndex() + 1);
+
+    for (int i = from; i < to; i++) {
 
       position[1] = i;
 
@@ -140,12 +228,117 @@ public class VerticalBarChart extends BarLineChartBase<BarDataSet> {
       transformValueToPixel(position);
 
       if (position[1] >= mOffsetTop && position[1] <= getHeight() - mOffsetBottom) {
-        String text = TextUtils.ellipsize(mCurrentData.getXLabels().get(i), mTextPaint, maxTextWidth, TruncateAt.END).toString();
+        String text = getEllipsizedXLabel(i, maxTextWidth);
         mDrawCanvas.drawText(text, mOffsetLeft - rightPadding, position[1], mXLabelPaint);
       }
     }
   }
 
+  /**
+   * Returns the x-label at the given index, ellipsized to the given width.
+   * Ellipsized labels are cached until the data, the width or the text
+   * paint changes.
+   *
+   * @param index
+   * @param maxTextWidth
+   * @return
+   */
+  private String getEllipsizedXLabel(int index, float maxTextWidth) {
+
+    if (mEllipsizedData != mCurrentData || mEllipsizedWidth != maxTextWidth
+        || mEllipsizedTextSize != mTextPaint.getTextSize()
+        || mEllipsizedTextScaleX != mTextPaint.getTextScaleX()
+        || mEllipsizedFlags != mTextPaint.getFlags()
+        || mEllipsizedTypeface != mTextPaint.getTypeface()
+        || mEllipsizedLabels.length != mCurrentData.getXValCount()) {
+
+      resetEllipsizedLabels();
+      mEllipsizedData = mCurrentData;
+      mEllipsizedWidth = maxTextWidth;
+      mEllipsizedTextSize = mTextPaint.getTextSize();
+      mEllipsizedTextScaleX = mTextPaint.getTextScaleX();
+      mEllipsizedFlags = mTextPaint.getFlags();
+      mEllipsizedTypeface = mTextPaint.getTypeface();
+    }
+
+    String text = mEllipsizedLabels[index];
+
+    if (text == null) {
+      text = TextUtils.ellipsize(mCurrentData.getXLabel(index), mTextPaint, maxTextWidth,
+          TruncateAt.END).toString();
+      mEllipsizedLabels[index] = text;
+    }
+
+    return text;
+  }
+
+  /**
+   * drops all ellipsized labels, the array is reused if the number of
+   * x-values did not change
+   */
+  private void resetEllipsizedLabels() {
+
+    int count = mCurrentData == null ? 0 : mCurrentData.getXValCount();
+
+    if (mEllipsizedLabels.length == count)
+      Arrays.fill(mEllipsizedLabels, null);
+    else
+      mEllipsizedLabels = new String[count];
+  }
+
+  /**
+   * Returns the width of the widest x-label, or the maximum label width if a
+   * label is wider. The width does not depend on the visible range, it is
+   * measured once and only again when the x-values, the label modulus or the
+   * text paint change.
+   *
+   * @return
+   */
+  private float getMaxXLabelWidth() {
+
+    long[] xVals = mCurrentData.getXValArray();
+    int modulus = Math.max(1, mXLabels.mXAxisLabelModulus);
+
+    if (mLabelWidthXVals == xVals && mLabelWidthModulus == modulus
+        && mLabelWidthTextSize == mTextPaint.getTextSize()
+        && mLabelWidthTypeface == mTextPaint.getTypeface())
+      return mLabelWidth;
+
+    float width = 0f;
+
+    // stop as soon as one label reaches the maximum width
+    for (int i = 0; i < xVals.length && width < mMaxXLabelWidth; i += modulus) {
+      width = Math.max(width, Utils.calcTextWidth(mTextPaint, mCurrentData.getXLabel(i)));
+    }
+
+    mLabelWidth = width;
+    mLabelWidthXVals = xVals;
+    mLabelWidthModulus = modulus;
+    mLabelWidthTextSize = mTextPaint.getTextSize();
+    mLabelWidthTypeface = mTextPaint.getTypeface();
+
+    return width;
+  }
+
+  @Override
+  public void prepare() {
+    // the labels may have changed even if the ChartData object is the same
+    resetEllipsizedLabels();
+    mLabelWidthXVals = null;
+    super.prepare();
+  }
+
+  @Override
+  public void setPaint(Paint p, int which) {
+    super.setPaint(p, which);
+
+    if (which == PAINT_XLABEL) {
+      mTextPaint = new TextPaint(p);
+      resetEllipsizedLabels();
+      mLabelWidthXVals = null;
+    }
+  }
+
   @Override
   protected void drawYLabels() {
 
@@ -194,41 +387,32 @@ public class VerticalBarChart extends BarLineChartBase<BarDataSet> {
 
   public Highlight getHighlightByTouchPoint(float x, float y) {
 
-    // create an array of the touch-point
-    float[] pts = new float[2];
+    float[] pts = mTouchPointBuffer;
     pts[0] = x;
     pts[1] = y;
 
-    Matrix tmp = new Matrix();
-
-    // invert all matrices to convert back to the original value
-    mMatrixOffset.invert(tmp);
-    tmp.mapPoints(pts);
-
-    mMatrixTouch.invert(tmp);
-    tmp.mapPoints(pts);
-
-    mMatrixValueToPx.invert(tmp);
-    tmp.mapPoints(pts);
+    // convert back to the original value with the cached inverse matrix
+    transformPixelToValue(pts);
 
     double xTouchVal = pts[0];
     double yTouchVal = pts[1];
     double base = Math.floor(yTouchVal);
 
-    if (this instanceof VerticalBarChart && (yTouchVal < 0 || yTouchVal > mDeltaX + 1))
+    if (this instanceof VerticalBarChart && (yTouchVal < getXChartMin()
+        || yTouchVal > getXChartMax() + 1))
       return null;
 
     int xIndex = (int) base;
     int dataSetIndex; // index of the DataSet inside the ChartData // object
 
-    ArrayList<SelInfo> valsAtIndex = getYValsAtIndex(xIndex);
+    float[] valsAtIndex = getValuesAtIndex(xIndex);
 
     dataSetIndex = getClosestDataSetIndex(valsAtIndex, (float) yTouchVal);
 
     if (dataSetIndex == -1)
       return null;
 
-    return new Highlight(xIndex, dataSetIndex);
+    return obtainHighlight(xIndex, dataSetIndex);
   }
 
   @Override
@@ -309,14 +493,7 @@ public class VerticalBarChart extends BarLineChartBase<BarDataSet> {
 
     if (mDrawXLabels) {
 
-      for (int i = 0; i < mCurrentData.getXValCount(); i++) {
-
-        if (i % mXLabels.mXAxisLabelModulus == 0) {
-
-          String label = mCurrentData.getXLabels().get(i);
-          yleft = Math.max(yleft, Utils.calcTextWidth(mTextPaint, label)) + mXLabelPaddingInDp * 2;
-        }
-      }
+      yleft = getMaxXLabelWidth() + mXLabelPaddingInDp * 2;
 
       if (yleft > mMaxXLabelWidth) {
         yleft = mMaxXLabelWidth;
@@ -334,7 +511,7 @@ public class VerticalBarChart extends BarLineChartBase<BarDataSet> {
     float scaleY = ((getHeight() - mOffsetBottom - mOffsetTop) / mDeltaX);
 
     Matrix val = new Matrix();
-    mMatrixValueToPx.postTranslate(-mYChartMin, 0);
+    val.postTranslate(-mYChartMin, getXPadding());
     val.postScale(scaleX, scaleY);
 
     mMatrixValueToPx.set(val);
@@ -10,6 +10,10 @@ public class BarDataSet extends DataSet {
     super(yVals, label);
   }
 
+  public BarDataSet(EntryStore store, String label) {
+    super(store, label);
+  }
+
   @Override
   protected void initDrawingSpec() {
     mDrawingSpec = new MulticolorDrawingSpec();
@@ -2,7 +2,15 @@ package com.github.mikephil.charting.data;
 
 import com.github.mikephil.charting.utils.Highlight;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
 /**
  * Class that holds all relevant data that represents the chart. That involves
@@ -30,8 +38,13 @@ public class ChartData<T extends DataSet> {
   /**
    * holds all x-values the chart represents
    */
-  private ArrayList<Long> mXVals;
-  private ArrayList<String> mXLabels;
+  private long[] mXVals;
+
+  /**
+   * the most recently used x-labels, bounded; volatile because
+   * setXLabelCacheSize() replaces it
+   */
+  private volatile XLabelCache mXLabelCache;
 
   /**
    * holds all the datasets (e.g. different lines) the chart represents
@@ -39,6 +52,30 @@ public class ChartData<T extends DataSet> {
   private ArrayList<T> mDataSets;
   private LabelFormatter mLabelFormatter;
 
+  /**
+   * the total number of entries across all DataSets above which the
+   * statistics of the DataSets are calculated in parallel
+   */
+  private static int sParallelThreshold = 200000;
+
+  /**
+   * the executor the statistics are calculated with in parallel, created
+   * lazily, null if parallel calculation is disabled
+   */
+  private static ExecutorService sStatsExecutor = null;
+
+  private static boolean sParallelStats = false;
+
+  /**
+   * true if this ChartData object is an immutable snapshot
+   */
+  private boolean mFrozen = false;
+
+  /**
+   * number of empty x-positions the chart shows on each side of the x-values
+   */
+  private int mXPadding = 0;
+
   /**
    * constructor for chart data
    *
@@ -46,12 +83,31 @@ public class ChartData<T extends DataSet> {
    * as the highest xIndex in the Entry objects across all
    * DataSets.
    * @param dataSets all DataSet objects the chart needs to represent
-   * @param padding Number of fake entries to add
+   * @param padding Number of empty x-positions to show on each side of the
+   * x-values. The padding is applied when drawing, the x-values and
+   * entries are not modified.
    */
   public ChartData(ArrayList<Long> xVals, ArrayList<T> dataSets, LabelFormatter labelFormatter, int padding) {
+    init(toArray(xVals), dataSets, labelFormatter, padding);
+  }
+
+  /**
+   * Constructor that takes the x-values as a primitive array. The array is
+   * not copied and must not be modified afterwards.
+   *
+   * @param xVals
+   * @param dataSets
+   * @param labelFormatter
+   * @param padding
+   */
+  public ChartData(long[] xVals, ArrayList<T> dataSets, LabelFormatter labelFormatter, int padding) {
     init(xVals, dataSets, labelFormatter, padding);
   }
 
+  public ChartData(long[] xVals, ArrayList<T> dataSets, LabelFormatter labelFormatter) {
+    this(xVals, dataSets, labelFormatter, 0);
+  }
+
   public ChartData(ArrayList<Long> xVals, ArrayList<T> dataSets, LabelFormatter labelFormatter) {
     this(xVals, dataSets, labelFormatter, 0);
   }
@@ -78,49 +134,108 @@ public class ChartData<T extends DataSet> {
   public ChartData(ArrayList<Long> xVals, T data, LabelFormatter formatter) {
     ArrayList<T> sets = new ArrayList<T>();
     sets.add(data);
-    init(xVals, sets, formatter, 0);
+    init(toArray(xVals), sets, formatter, 0);
   }
 
-  private void init(ArrayList<Long> xVals, ArrayList<T> dataSets, LabelFormatter labelFormatter, int padding) {
+  /**
+   * Constructor used for creating snapshots and modifiable copies of them.
+   *
+   * @param data
+   * @param frozen true for a snapshot
+   */
+  @SuppressWarnings("unchecked")
+  private ChartData(ChartData<T> data, boolean frozen) {
+    mYMax = data.mYMax;
+    mYMin = data.mYMin;
+    mYValueSum = data.mYValueSum;
+    mXVals = data.mXVals;
+    mLabelFormatter = data.mLabelFormatter;
+    mXPadding = data.mXPadding;
+    mXLabelCache = new XLabelCache(data.mXLabelCache.getMaxSize());
+    mFrozen = frozen;
+
+    mDataSets = new ArrayList<T>(data.mDataSets.size());
+
+    // both return a DataSet of the same class as the original
+    for (int i = 0; i < data.mDataSets.size(); i++) {
+      DataSet set = data.mDataSets.get(i);
+      mDataSets.add((T) (frozen ? set.snapshot() : set.mutableCopy()));
+    }
+  }
+
+  private void init(long[] xVals, ArrayList<T> dataSets, LabelFormatter labelFormatter, int padding) {
+
+    if (padding < 0)
+      throw new IllegalArgumentException("The padding must not be negative.");
+
     mLabelFormatter = labelFormatter;
     mXVals = xVals;
-    mXLabels = new ArrayList<String>();
+    mXLabelCache = new XLabelCache(1024);
     mDataSets = dataSets;
+    mXPadding = padding;
 
-    addPadding(padding);
-
-    calcMinMax();
-    calcYValueSum();
+    doCalculations();
 
     for (int i = 0; i < mDataSets.size(); i++) {
-      if (mDataSets.get(i)
-          .getYVals()
-          .size() > xVals.size()) {
+      if (mDataSets.get(i).getEntryCount() > xVals.length) {
         throw new IllegalArgumentException(
             "One or more of the DataSet Entry arrays are longer than the x-values array.");
       }
     }
   }
 
-  private void addPadding(int count) {
-    if (count > 0 && mXVals.size() > 0) {
-      for (DataSet set : mDataSets) {
-        for (Entry entry : set.getYVals()) {
-          entry.setXIndex(entry.getXIndex() + count);
-        }
-      }
+  private static long[] toArray(List<Long> xVals) {
 
-      while (count-- > 0) {
-        mXVals.add(0, 0L);
-        mXVals.add(0L);
-        for (DataSet set : mDataSets) {
-          ArrayList<Entry> yVals = set.getYVals();
-          yVals.add(0, new Entry(yVals.get(0).getVal(), count));
-          Entry lastEntry = yVals.get(yVals.size() - 1);
-          yVals.add(new Entry(lastEntry.getVal(), lastEntry.getXIndex() + 1));
-        }
-      }
+    long[] array = new long[xVals.size()];
+
+    for (int i = 0; i < array.length; i++) {
+      array[i] = xVals.get(i);
     }
+
+    return array;
+  }
+
+  /**
+   * Returns an immutable snapshot of the ChartData and all its DataSets. No
+   * entries are copied, the DataSets share their entry arrays with the
+   * snapshot until they are modified through their addEntry(...) and
+   * setEntryValue(...) methods (copy-on-write). The snapshot can be handed to
+   * other threads and published via Chart.publishData(...) while this object
+   * is modified further. Call this on the thread that modifies the data.
+   *
+   * @return
+   */
+  public ChartData<T> snapshot() {
+
+    if (mFrozen)
+      return this;
+
+    return new ChartData<T>(this, true);
+  }
+
+  /**
+   * Returns a ChartData object that can be modified and shares its entries
+   * with this one until they are modified (copy-on-write). Use this to modify
+   * the data of a snapshot, the snapshot itself stays untouched.
+   *
+   * @return
+   */
+  public ChartData<T> mutableCopy() {
+    return new ChartData<T>(snapshot(), false);
+  }
+
+  /**
+   * returns true if this ChartData object is an immutable snapshot
+   *
+   * @return
+   */
+  public boolean isFrozen() {
+    return mFrozen;
+  }
+
+  private void checkNotFrozen() {
+    if (mFrozen)
+      throw new IllegalStateException("ChartData snapshots cannot be modified.");
   }
 
   /**
@@ -128,6 +243,7 @@ public class ChartData<T extends DataSet> {
    * changed.
    */
   public void notifyDataChanged() {
+    checkNotFrozen();
     doCalculations();
   }
 
@@ -135,10 +251,115 @@ public class ChartData<T extends DataSet> {
    * Does all necessary calculations, if the underlying data has changed
    */
   private void doCalculations() {
+    calcDataSetStatistics();
     calcMinMax();
     calcYValueSum();
   }
 
+  /**
+   * Calculates minimum, maximum and sum of all DataSets whose values are not
+   * up to date (see DataSet.notifyDataSetChanged()). If parallel
+   * calculation is enabled and the DataSets hold more entries than the
+   * threshold, the DataSets are calculated in parallel. In both cases all
+   * results are complete (and visible to the calling thread) when this
+   * method returns.
+   */
+  private void calcDataSetStatistics() {
+
+    ArrayList<T> dataSets = mDataSets;
+
+    ExecutorService executor = getStatsExecutor();
+
+    if (executor == null || dataSets.size() < 2 || getYValCount() < sParallelThreshold) {
+
+      for (int i = 0; i < dataSets.size(); i++) {
+        dataSets.get(i).calcStatistics();
+      }
+      return;
+    }
+
+    ArrayList<Future<Void>> futures = new ArrayList<Future<Void>>(dataSets.size());
+
+    for (int i = 0; i < dataSets.size(); i++) {
+
+      final DataSet set = dataSets.get(i);
+
+      futures.add(executor.submit(new Callable<Void>() {
+        @Override
+        public Void call() {
+          set.calcStatistics();
+          return null;
+        }
+      }));
+    }
+
+    // Future.get() makes the results of the workers visible to this thread
+    boolean interrupted = false;
+
+    for (int i = 0; i < futures.size(); i++) {
+      while (true) {
+        try {
+          futures.get(i).get();
+          break;
+        } catch (InterruptedException e) {
+          // the workers still use the DataSets, keep waiting
+          interrupted = true;
+        } catch (ExecutionException e) {
+          throw new RuntimeException(e.getCause());
+        }
+      }
+    }
+
+    if (interrupted)
+      Thread.currentThread().interrupt();
+  }
+
+  private static synchronized ExecutorService getStatsExecutor() {
+
+    if (!sParallelStats)
+      return null;
+
+    if (sStatsExecutor == null) {
+      sStatsExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+          new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+              Thread t = new Thread(r, "ChartData-statistics");
+              t.setDaemon(true);
+              return t;
+            }
+          });
+    }
+
+    return sStatsExecutor;
+  }
+
+  /**
+   * Enables / disables calculating minimum, maximum and sum of the DataSets
+   * in parallel when a ChartData object is created or notifyDataChanged() is
+   * called. Only used if the DataSets hold more entries in total than the
+   * threshold, default: disabled, threshold 200000.
+   *
+   * @param enabled
+   * @param threshold
+   */
+  public static synchronized void setParallelStatistics(boolean enabled, int threshold) {
+    sParallelStats = enabled;
+    sParallelThreshold = threshold;
+  }
+
+  /**
+   * Sets the executor that is used for calculating the statistics in
+   * parallel, enables the parallel calculation. By default, a pool with one
+   * thread per processor is created.
+   *
+   * @param executor
+   */
+  public static synchronized void setStatisticsExecutor(ExecutorService executor) {
+    sStatsExecutor = executor;
+    sParallelStats = executor != null;
+  }
+
   /**
    * calc minimum and maximum y value over all datasets
    */
@@ -172,6 +393,18 @@ public class ChartData<T extends DataSet> {
     }
   }
 
+  /**
+   * Adds the given DataSet and recalculates minimum, maximum and sum of the
+   * y-values.
+   *
+   * @param set
+   */
+  public void addDataSet(T set) {
+    checkNotFrozen();
+    mDataSets.add(set);
+    doCalculations();
+  }
+
   /**
    * Corrects all values that are kept as member variables after a new entry
    * was added. This saves recalculating all values.
@@ -179,6 +412,7 @@ public class ChartData<T extends DataSet> {
    * @param entry the new entry
    */
   public void notifyDataForNewEntry(Entry entry) {
+    checkNotFrozen();
     mYValueSum += Math.abs(entry.getVal());
     if (mYMin > entry.getVal()) {
       mYMin = entry.getVal();
@@ -188,6 +422,31 @@ public class ChartData<T extends DataSet> {
     }
   }
 
+  /**
+   * Corrects all values that are kept as member variables after the value
+   * of an entry was changed (see DataSet.setEntryValue(...)). Only
+   * recalculates minimum and maximum if the old value was one of them.
+   *
+   * @param oldVal the value before the change
+   * @param newVal the value after the change
+   */
+  public void notifyEntryValueChanged(float oldVal, float newVal) {
+    checkNotFrozen();
+    mYValueSum += Math.abs(newVal) - Math.abs(oldVal);
+
+    if ((oldVal == mYMin && newVal > oldVal) || (oldVal == mYMax && newVal < oldVal)) {
+      calcMinMax();
+      return;
+    }
+
+    if (mYMin > newVal) {
+      mYMin = newVal;
+    }
+    if (mYMax < newVal) {
+      mYMax = newVal;
+    }
+  }
+
   public int getDataSetCount() {
     return mDataSets.size();
   }
@@ -210,7 +469,7 @@ public class ChartData<T extends DataSet> {
    * @return
    */
   public boolean isValid() {
-    if (mXVals == null || mXVals.size() < 1)
+    if (mXVals == null || mXVals.length < 1)
       return false;
 
     if (mDataSets == null || mDataSets.size() < 1)
@@ -220,26 +479,107 @@ public class ChartData<T extends DataSet> {
   }
 
   /**
-   * returns the x-values the chart represents
+   * Returns the x-values the chart represents as a read-only list view of
+   * the underlying array. Use getXValue(...) to avoid boxing.
+   *
+   * @return
+   */
+  public List<Long> getXVals() {
+    return new AbstractList<Long>() {
+      @Override
+      public Long get(int index) {
+        return mXVals[index];
+      }
+
+      @Override
+      public int size() {
+        return mXVals.length;
+      }
+    };
+  }
+
+  /**
+   * returns the array of x-values, must not be modified
    *
    * @return
    */
-  public ArrayList<Long> getXVals() {
+  public long[] getXValArray() {
     return mXVals;
   }
 
   /**
-   * returns the x-value labels the chart represents
+   * returns the x-value at the given index
    *
+   * @param index
    * @return
    */
-  public ArrayList<String> getXLabels() {
-    return mXLabels;
+  public long getXValue(int index) {
+    return mXVals[index];
+  }
+
+  /**
+   * Returns the x-value labels the chart represents as a read-only list view.
+   * Labels are formatted when they are accessed, see getXLabel(...).
+   *
+   * @return
+   */
+  public List<String> getXLabels() {
+    return new AbstractList<String>() {
+      @Override
+      public String get(int index) {
+        return getXLabel(index);
+      }
+
+      @Override
+      public int size() {
+        return mXVals.length;
+      }
+    };
+  }
+
+  /**
+   * Returns the label of the x-value at the given index. Labels are formatted
+   * by the LabelFormatter on first access, the most recently used ones are
+   * cached. Can be called from several threads, e.g. on snapshots, if the
+   * LabelFormatter is thread-safe.
+   *
+   * @param index
+   * @return
+   */
+  public String getXLabel(int index) {
+
+    XLabelCache cache = mXLabelCache;
+    String label = cache.get(index);
+
+    if (label == null) {
+      // formatted without holding the lock of the cache
+      label = mLabelFormatter.formatValue(mXVals[index]);
+      cache.put(index, label);
+    }
+
+    return label;
+  }
+
+  /**
+   * Sets the maximum number of formatted x-labels that are cached, default
+   * 1024. If the cache is full, the least recently used label is evicted.
+   * Should be at least the number of labels visible at once. Drops all
+   * cached labels.
+   *
+   * @param size
+   */
+  public void setXLabelCacheSize(int size) {
+
+    if (size < 1)
+      throw new IllegalArgumentException("The cache size must be at least 1.");
+
+    mXLabelCache = new XLabelCache(size);
   }
 
   /**
    * returns the Entries array from the DataSet at the given index. If a
-   * filter is set, the filtered Entries are returned
+   * filter is set, the filtered Entries are returned. See
+   * DataSet.getYVals() for the DataSets that do not support it.
    *
    * @param index
    * @return
@@ -259,6 +599,63 @@ public class ChartData<T extends DataSet> {
         highlight.getXIndex());
   }
 
+  /**
+   * Writes the position of the first entry of each DataSet at the given
+   * xIndex into the given array (indexed by DataSet, -1 if a DataSet has no
+   * entry there) and returns the number of DataSets that have one. Takes
+   * constant time per DataSet whose entries are aligned or unsorted,
+   * O(log n) for other sorted ones (see DataSet.getIndexInEntries(...)), and
+   * does not allocate. The array must hold at least getDataSetCount() ints.
+   *
+   * @param xIndex
+   * @param positions
+   * @return
+   */
+  public int getEntryIndicesAtXIndex(int xIndex, int[] positions) {
+
+    int found = 0;
+
+    for (int i = 0; i < mDataSets.size(); i++) {
+
+      positions[i] = mDataSets.get(i).getIndexInEntries(xIndex);
+
+      if (positions[i] >= 0)
+        found++;
+    }
+
+    return found;
+  }
+
+  /**
+   * Writes the value of the first entry of each DataSet at the given xIndex
+   * into the given array (indexed by DataSet, Float.NaN if a DataSet has no
+   * entry there) and returns the number of DataSets that have one. Takes
+   * constant time per DataSet whose entries are aligned or unsorted,
+   * O(log n) for other sorted ones (see DataSet.getIndexInEntries(...)), and
+   * does not allocate. The array must hold at least getDataSetCount() floats.
+   *
+   * @param xIndex
+   * @param values
+   * @return
+   */
+  public int getValuesAtXIndex(int xIndex, float[] values) {
+
+    int found = 0;
+
+    for (int i = 0; i < mDataSets.size(); i++) {
+
+      T set = mDataSets.get(i);
+      int position = set.getIndexInEntries(xIndex);
+
+      values[i] = position >= 0 ? set.getValAt(position) : Float.NaN;
+
+      if (!Float.isNaN(values[i]))
+        found++;
+    }
+
+    return found;
+  }
+
   /**
    * returns the dataset at the given index.
    *
@@ -323,7 +720,17 @@ public class ChartData<T extends DataSet> {
    * @return
    */
   public int getXValCount() {
-    return mXVals.size();
+    return mXVals.length;
+  }
+
+  /**
+   * returns the number of empty x-positions the chart shows on each side of
+   * the x-values
+   *
+   * @return
+   */
+  public int getXPadding() {
+    return mXPadding;
   }
 
   /**
@@ -384,11 +791,12 @@ public class ChartData<T extends DataSet> {
     }
   };
 
+  /**
+   * Drops all cached x-labels, they are formatted again when they are
+   * accessed the next time.
+   */
   public void populateXLabels() {
-    mXLabels.clear();
-    for (Long val : mXVals) {
-      mXLabels.add(mLabelFormatter.formatValue(val));
-    }
+    mXLabelCache.clear();
   }
 
   public LabelFormatter getLabelFormatter() {
@@ -0,0 +1,607 @@
+package com.github.mikephil.charting.data;
+
+/**
+ * EntryStore that keeps the entries compressed in memory, for long-running
+ * time-series with many slowly varying values. The entries are stored in
+ * blocks of a fixed number of entries. Within a block, xIndices are encoded
+ * as delta-of-delta and y-values as XOR with the previous value (as
+ * described for the Gorilla time-series database), so regular xIndices cost
+ * one bit and unchanged values one bit each. Every block keeps its first and
+ * last xIndex as well as its minimum and maximum y-value uncompressed, so
+ * culling and range statistics never need to decompress anything. Reading
+ * an entry decompresses its whole block sequentially, the last decoded block
+ * is cached per thread. Entries are added with append(...), call
+ * notifyDataSetChanged() on the DataSet afterwards. Appending is not
+ * thread-safe, snapshot() returns an immutable copy that shares the
+ * compressed bits and can be read by several threads at the same time.
+ */
+public class CompressedEntryStore implements MutableEntryStore {
+
+  /**
+   * the default number of entries per block
+   */
+  public static final int DEFAULT_BLOCK_SIZE = 256;
+
+  /**
+   * the number of entries per block
+   */
+  private final int mBlockSize;
+
+  /**
+   * the number of entries in the store
+   */
+  private int mCount = 0;
+
+  /**
+   * the compressed bit stream of all blocks
+   */
+  private long[] mBits = new long[16];
+
+  /**
+   * the number of bits written to the bit stream
+   */
+  private long mBitCount = 0;
+
+  /**
+   * per block: the offset of the block in the bit stream, its first and last
+   * xIndex, its minimum and maximum y-value
+   */
+  private long[] mBlockOffsets = new long[4];
+  private int[] mBlockFirstX = new int[4];
+  private int[] mBlockLastX = new int[4];
+  private float[] mBlockMin = new float[4];
+  private float[] mBlockMax = new float[4];
+
+  /**
+   * the number of blocks
+   */
+  private int mBlockCount = 0;
+
+  private float mYMin = 0f;
+  private float mYMax = 0f;
+  private double mYValueSum = 0;
+  private boolean mSorted = true;
+
+  /**
+   * state of the encoder, belongs to the last block
+   */
+  private int mPrevX;
+  private int mPrevDelta;
+  private int mPrevBits;
+  private int mPrevLeading;
+  private int mPrevTrailing;
+
+  /**
+   * the last decoded block of each thread that reads the store
+   */
+  private final ThreadLocal<DecodedBlock> mDecoded;
+
+  /**
+   * true if this store is a snapshot, which shares its bit stream with the
+   * store it was created from and must not be appended to
+   */
+  private boolean mFrozen = false;
+
+  public CompressedEntryStore() {
+    this(DEFAULT_BLOCK_SIZE);
+  }
+
+  /**
+   * Creates a store with the given number of entries per block. Larger blocks
+   * compress slightly better but make random access slower.
+   *
+   * @param blockSize
+   */
+  public CompressedEntryStore(int blockSize) {
+
+    if (blockSize < 2)
+      throw new IllegalArgumentException("The block size must be at least 2.");
+
+    mBlockSize = blockSize;
+
+    mDecoded = new ThreadLocal<DecodedBlock>() {
+      @Override
+      protected DecodedBlock initialValue() {
+        return new DecodedBlock(mBlockSize);
+      }
+    };
+  }
+
+  /**
+   * Appends an entry to the store.
+   *
+   * @param xIndex
+   * @param val
+   */
+  public void append(int xIndex, float val) {
+
+    if (mFrozen)
+      throw new IllegalStateException("Snapshots of a CompressedEntryStore cannot be modified.");
+
+    int inBlock = mCount % mBlockSize;
+    int bits = Float.floatToRawIntBits(val);
+
+    if (inBlock == 0) {
+
+      if (mCount > 0 && xIndex < mPrevX)
+        mSorted = false;
+
+      startBlock(xIndex, val);
+
+      writeBits(xIndex, 32);
+      writeBits(bits, 32);
+
+      mPrevDelta = 0;
+      mPrevLeading = -1;
+      mPrevTrailing = 0;
+
+    } else {
+
+      int b = mBlockCount - 1;
+
+      if (xIndex < mPrevX)
+        mSorted = false;
+
+      int delta = xIndex - mPrevX;
+      writeDeltaOfDelta(delta - mPrevDelta);
+      mPrevDelta = delta;
+
+      writeXor(bits ^ mPrevBits);
+
+      mBlockLastX[b] = xIndex;
+
+      if (val < mBlockMin[b])
+        mBlockMin[b] = val;
+      if (val > mBlockMax[b])
+        mBlockMax[b] = val;
+    }
+
+    mPrevX = xIndex;
+    mPrevBits = bits;
+
+    if (mCount == 0) {
+      mYMin = val;
+      mYMax = val;
+    } else {
+      if (val < mYMin)
+        mYMin = val;
+      if (val > mYMax)
+        mYMax = val;
+    }
+
+    mYValueSum += Math.abs(val);
+    mCount++;
+  }
+
+  private void startBlock(int xIndex, float val) {
+
+    int b = mBlockCount++;
+
+    if (b == mBlockOffsets.length) {
+      int size = b * 2;
+      mBlockOffsets = copyOf(mBlockOffsets, size);
+      mBlockFirstX = copyOf(mBlockFirstX, size);
+      mBlockLastX = copyOf(mBlockLastX, size);
+      mBlockMin = copyOf(mBlockMin, size);
+      mBlockMax = copyOf(mBlockMax, size);
+    }
+
+    mBlockOffsets[b] = mBitCount;
+    mBlockFirstX[b] = xIndex;
+    mBlockLastX[b] = xIndex;
+    mBlockMin[b] = val;
+    mBlockMax[b] = val;
+  }
+
+  /**
+   * writes a delta-of-delta with a variable length prefix code, zero costs
+   * one bit
+   */
+  private void writeDeltaOfDelta(int dod) {
+
+    // zigzag encoding maps small negative and positive values to small
+    // unsigned ones
+    long zz = ((dod << 1) ^ (dod >> 31)) & 0xffffffffL;
+
+    if (zz == 0) {
+      writeBits(0, 1);
+    } else if (zz < (1 << 7)) {
+      writeBits(2, 2);
+      writeBits(zz, 7);
+    } else if (zz < (1 << 9)) {
+      writeBits(6, 3);
+      writeBits(zz, 9);
+    } else if (zz < (1 << 12)) {
+      writeBits(14, 4);
+      writeBits(zz, 12);
+    } else {
+      writeBits(15, 4);
+      writeBits(zz, 32);
+    }
+  }
+
+  /**
+   * writes the XOR of two consecutive values, reuses the window of
+   * meaningful bits of the previous value if possible
+   */
+  private void writeXor(int xor) {
+
+    if (xor == 0) {
+      writeBits(0, 1);
+      return;
+    }
+
+    int leading = Integer.numberOfLeadingZeros(xor);
+    int trailing = Integer.numberOfTrailingZeros(xor);
+
+    if (mPrevLeading >= 0 && leading >= mPrevLeading && trailing >= mPrevTrailing) {
+      writeBits(2, 2);
+      writeBits(xor >>> mPrevTrailing, 32 - mPrevLeading - mPrevTrailing);
+    } else {
+      int length = 32 - leading - trailing;
+      writeBits(3, 2);
+      writeBits(leading, 5);
+      writeBits(length - 1, 5);
+      writeBits(xor >>> trailing, length);
+      mPrevLeading = leading;
+      mPrevTrailing = trailing;
+    }
+  }
+
+  private void writeBits(long value, int n) {
+
+    int index = (int) (mBitCount >>> 6);
+
+    if (index + 1 >= mBits.length)
+      mBits = copyOf(mBits, mBits.length * 2);
+
+    value &= (1L << n) - 1;
+
+    int free = 64 - (int) (mBitCount & 63);
+
+    if (n <= free) {
+      mBits[index] |= value << (free - n);
+    } else {
+      mBits[index] |= value >>> (n - free);
+      mBits[index + 1] |= value << (64 - (n - free));
+    }
+
+    mBitCount += n;
+  }
+
+  private long readBits(long position, int n) {
+
+    int index = (int) (position >>> 6);
+    int free = 64 - (int) (position & 63);
+
+    long result;
+
+    if (n <= free)
+      result = mBits[index] >>> (free - n);
+    else
+      result = (mBits[index] << (n - free)) | (mBits[index + 1] >>> (64 - (n - free)));
+
+    return result & ((1L << n) - 1);
+  }
+
+  /**
+   * Decodes the given block into the cache of the calling thread, unless it
+   * is already cached with all of its current entries (entries may have
+   * been appended to the last block since it was decoded).
+   */
+  private DecodedBlock decodeBlock(int b) {
+
+    DecodedBlock d = mDecoded.get();
+    int count = Math.min(mBlockSize, mCount - b * mBlockSize);
+
+    if (d.block == b && d.count == count)
+      return d;
+
+    int[] xIndices = d.xIndices;
+    float[] vals = d.vals;
+
+    long pos = mBlockOffsets[b];
+
+    int x = (int) readBits(pos, 32);
+    pos += 32;
+    int bits = (int) readBits(pos, 32);
+    pos += 32;
+
+    xIndices[0] = x;
+    vals[0] = Float.intBitsToFloat(bits);
+
+    int delta = 0;
+    int leading = 0;
+    int trailing = 0;
+
+    for (int i = 1; i < count; i++) {
+
+      // delta-of-delta of the xIndex
+      long zz;
+
+      if (readBits(pos, 1) == 0) {
+        zz = 0;
+        pos += 1;
+      } else if (readBits(pos, 2) == 2) {
+        zz = readBits(pos + 2, 7);
+        pos += 9;
+      } else if (readBits(pos, 3) == 6) {
+        zz = readBits(pos + 3, 9);
+        pos += 12;
+      } else if (readBits(pos, 4) == 14) {
+        zz = readBits(pos + 4, 12);
+        pos += 16;
+      } else {
+        zz = readBits(pos + 4, 32);
+        pos += 36;
+      }
+
+      int dod = (int) (zz >>> 1) ^ -((int) zz & 1);
+      delta += dod;
+      x += delta;
+
+      // XOR of the value
+      if (readBits(pos, 1) == 0) {
+        pos += 1;
+      } else if (readBits(pos, 2) == 2) {
+        pos += 2;
+        int length = 32 - leading - trailing;
+        bits ^= (int) readBits(pos, length) << trailing;
+        pos += length;
+      } else {
+        pos += 2;
+        leading = (int) readBits(pos, 5);
+        pos += 5;
+        int length = (int) readBits(pos, 5) + 1;
+        pos += 5;
+        trailing = 32 - leading - length;
+        bits ^= (int) readBits(pos, length) << trailing;
+        pos += length;
+      }
+
+      xIndices[i] = x;
+      vals[i] = Float.intBitsToFloat(bits);
+    }
+
+    d.block = b;
+    d.count = count;
+
+    return d;
+  }
+
+  /**
+   * Returns an immutable copy of this store. The bit stream is shared, since
+   * appending only writes bits behind the ones of the copy. The per-block
+   * values are copied because the last block changes when entries are
+   * appended. Each copy has its own block caches.
+   *
+   * @return
+   */
+  @Override
+  public CompressedEntryStore snapshot() {
+
+    CompressedEntryStore s = new CompressedEntryStore(mBlockSize);
+
+    s.mFrozen = true;
+    s.mCount = mCount;
+    s.mBits = mBits;
+    s.mBitCount = mBitCount;
+    s.mBlockCount = mBlockCount;
+    s.mBlockOffsets = copyOf(mBlockOffsets, mBlockCount);
+    s.mBlockFirstX = copyOf(mBlockFirstX, mBlockCount);
+    s.mBlockLastX = copyOf(mBlockLastX, mBlockCount);
+    s.mBlockMin = copyOf(mBlockMin, mBlockCount);
+    s.mBlockMax = copyOf(mBlockMax, mBlockCount);
+    s.mYMin = mYMin;
+    s.mYMax = mYMax;
+    s.mYValueSum = mYValueSum;
+    s.mSorted = mSorted;
+
+    return s;
+  }
+
+  @Override
+  public int size() {
+    return mCount;
+  }
+
+  @Override
+  public int getXIndex(int position) {
+    return decodeBlock(position / mBlockSize).xIndices[position % mBlockSize];
+  }
+
+  @Override
+  public float getVal(int position) {
+    return decodeBlock(position / mBlockSize).vals[position % mBlockSize];
+  }
+
+  @Override
+  public int getEntryIndexAtOrAfter(int xIndex) {
+
+    // find the first block whose last xIndex is not smaller than the given
+    // one without decoding anything
+    int low = 0;
+    int high = mBlockCount;
+
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+
+      if (mBlockLastX[mid] < xIndex)
+        low = mid + 1;
+      else
+        high = mid;
+    }
+
+    if (low == mBlockCount)
+      return mCount;
+
+    if (mBlockFirstX[low] >= xIndex)
+      return low * mBlockSize;
+
+    DecodedBlock d = decodeBlock(low);
+
+    int i = 0;
+
+    while (i < d.count && d.xIndices[i] < xIndex)
+      i++;
+
+    return low * mBlockSize + i;
+  }
+
+  @Override
+  public float getYMin() {
+    return mYMin;
+  }
+
+  @Override
+  public float getYMax() {
+    return mYMax;
+  }
+
+  @Override
+  public float getYValueSum() {
+    return (float) mYValueSum;
+  }
+
+  @Override
+  public boolean isSorted() {
+    return mSorted;
+  }
+
+  /**
+   * decoded blocks are cached per thread, reading does not change the store
+   */
+  @Override
+  public boolean isConcurrentReadSafe() {
+    return true;
+  }
+
+  /**
+   * returns the number of entries per block
+   *
+   * @return
+   */
+  public int getBlockSize() {
+    return mBlockSize;
+  }
+
+  /**
+   * returns the number of blocks
+   *
+   * @return
+   */
+  public int getBlockCount() {
+    return mBlockCount;
+  }
+
+  public int getBlockFirstXIndex(int block) {
+    return mBlockFirstX[block];
+  }
+
+  public int getBlockLastXIndex(int block) {
+    return mBlockLastX[block];
+  }
+
+  public float getBlockMin(int block) {
+    return mBlockMin[block];
+  }
+
+  public float getBlockMax(int block) {
+    return mBlockMax[block];
+  }
+
+  /**
+   * Returns the minimum y-value of all entries between the positions from
+   * (inclusive) and to (exclusive). Only the partially covered blocks at the
+   * start and end of the range are decoded.
+   *
+   * @param from
+   * @param to
+   * @return
+   */
+  public float getYMin(int from, int to) {
+    return rangeExtreme(from, to, false);
+  }
+
+  /**
+   * Returns the maximum y-value of all entries between the positions from
+   * (inclusive) and to (exclusive). Only the partially covered blocks at the
+   * start and end of the range are decoded.
+   *
+   * @param from
+   * @param to
+   * @return
+   */
+  public float getYMax(int from, int to) {
+    return rangeExtreme(from, to, true);
+  }
+
+  private float rangeExtreme(int from, int to, boolean max) {
+
+    float result = max ? -Float.MAX_VALUE : Float.MAX_VALUE;
+
+    int i = from;
+
+    while (i < to) {
+
+      int b = i / mBlockSize;
+      int blockStart = b * mBlockSize;
+      int blockEnd = Math.min(blockStart + mBlockSize, mCount);
+
+      if (i == blockStart && to >= blockEnd) {
+        // block fully covered
+        result = max ? Math.max(result, mBlockMax[b]) : Math.min(result, mBlockMin[b]);
+        i = blockEnd;
+      } else {
+        float val = getVal(i);
+        result = max ? Math.max(result, val) : Math.min(result, val);
+        i++;
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * returns the approximate number of bytes the compressed entries occupy
+   *
+   * @return
+   */
+  public long getSizeInBytes() {
+    return (mBitCount + 7) / 8 + mBlockCount * 24L;
+  }
+
+  /**
+   * the decoded entries of one block
+   */
+  private static final class DecodedBlock {
+
+    int block = -1;
+    int count = 0;
+    final int[] xIndices;
+    final float[] vals;
+
+    DecodedBlock(int blockSize) {
+      xIndices = new int[blockSize];
+      vals = new float[blockSize];
+    }
+  }
+
+  private static long[] copyOf(long[] array, int size) {
+    long[] copy = new long[size];
+    System.arraycopy(array, 0, copy, 0, Math.min(size, array.length));
+    return copy;
+  }
+
+  private static int[] copyOf(int[] array, int size) {
+    int[] copy = new int[size];
+    System.arraycopy(array, 0, copy, 0, Math.min(size, array.length));
+    return copy;
+  }
+
+  private static float[] copyOf(float[] array, int size) {
+    float[] copy = new float[size];
+    System.arraycopy(array, 0, copy, 0, Math.min(size, array.length));
+    return copy;
+  }
+}
@@ -12,13 +12,33 @@ import java.util.ArrayList;
  *
  * @author Philipp Jahoda
  */
-public abstract class DataSet {
+public abstract class DataSet implements Cloneable {
 
   /**
-   * the entries that this dataset represents / holds together
+   * the entries that this dataset represents / holds together, null once
+   * they are held in chunks
    */
   private ArrayList<Entry> mYVals = null;
 
+  /**
+   * the entries in copy-on-write chunks, null until the first snapshot is
+   * taken; from then on the entries array is not used anymore
+   */
+  private EntryChunks mChunks = null;
+
+  /**
+   * the store that holds the entries if they are not held in the entries
+   * array, null otherwise
+   */
+  private EntryStore mStore = null;
+
+  /**
+   * the number of entries of the store a snapshot was created with, reads
+   * are limited to it for stores that cannot create a snapshot themselves,
+   * -1 otherwise
+   */
+  private int mStoreCount = -1;
+
   /**
    * maximum y-value in the y-value array
    */
@@ -41,6 +61,57 @@ public abstract class DataSet {
 
   protected DrawingSpec mDrawingSpec;
 
+  /**
+   * true if this DataSet is an immutable snapshot created by snapshot()
+   */
+  private boolean mFrozen = false;
+
+  /**
+   * number of entries (from the start of the entries array) whose Entry
+   * objects are referenced by a snapshot and must not be modified in place
+   */
+  private int mSharedEntryCount = 0;
+
+  /**
+   * true if the xIndices of the entries are in ascending order
+   */
+  private boolean mSorted = true;
+
+  /**
+   * true if minimum, maximum and sum of the y-values have to be
+   * (re)calculated before they are accessed
+   */
+  private boolean mStatsDirty = true;
+
+  /**
+   * if true, a pyramid of aggregated y-values is maintained for the entries
+   */
+  private boolean mPyramidEnabled = false;
+
+  /**
+   * the pyramid of aggregated y-values, null if not (yet) built; volatile
+   * because snapshots may build it lazily while they may be read by several
+   * threads
+   */
+  private volatile MinMaxPyramid mPyramid = null;
+
+  /**
+   * true if the pyramid is shared with a snapshot
+   */
+  private boolean mPyramidShared = false;
+
+  /**
+   * maps xIndices to entry positions if the entries are not sorted, null if
+   * not (yet) built; volatile because snapshots build it lazily while they
+   * may be read by several threads
+   */
+  private volatile XIndexLookup mXIndexLookup = null;
+
+  /**
+   * true if the xIndex lookup is shared with a snapshot
+   */
+  private boolean mXIndexLookupShared = false;
+
   /**
    * Creates a new DataSet object with the given values it represents. Also, a
    * label that describes the DataSet can be specified. The label can also be
@@ -58,8 +129,24 @@ public abstract class DataSet {
       return;
     }
 
-    calcMinMax();
-    calcYValueSum();
+    // minimum, maximum and sum are calculated lazily, possibly in parallel
+    // for many DataSets by the ChartData
+    initDrawingSpec();
+  }
+
+  /**
+   * Creates a new DataSet whose entries are held by the given EntryStore
+   * (e.g. a memory-mapped file) instead of an array of Entry objects. Such
+   * DataSets are read-only and do not support getYVals().
+   *
+   * @param store
+   * @param label
+   */
+  public DataSet(EntryStore store, String label) {
+
+    this.mLabel = label;
+    this.mStore = store;
+
     initDrawingSpec();
   }
 
@@ -71,26 +158,58 @@ public abstract class DataSet {
    * Use this method to tell the data set that the underlying data has changed
    */
   public void notifyDataSetChanged() {
+    mStatsDirty = true;
+    mPyramid = null;
+    mXIndexLookup = null;
+  }
+
+  /**
+   * Calculates minimum, maximum and sum of the y-values if they are not up to
+   * date. Called by the ChartData (possibly from a worker thread, before the
+   * DataSet is accessed by any other thread) and lazily by the getters.
+   */
+  void calcStatistics() {
+
+    if (!mStatsDirty)
+      return;
+
     calcMinMax();
     calcYValueSum();
+    mStatsDirty = false;
   }
 
   /**
    * calc minimum and maximum y value
    */
   private void calcMinMax() {
-    if (mYVals.size() == 0) {
+
+    if (mStore != null) {
+      mYMin = mStore.getYMin();
+      mYMax = mStore.getYMax();
+      mSorted = mStore.isSorted();
       return;
     }
-    mYMin = mYVals.get(0).getVal();
-    mYMax = mYVals.get(0).getVal();
 
-    for (int i = 0; i < mYVals.size(); i++) {
-      if (mYVals.get(i).getVal() < mYMin)
-        mYMin = mYVals.get(i).getVal();
+    int count = getEntryCount();
 
-      if (mYVals.get(i).getVal() > mYMax)
-        mYMax = mYVals.get(i).getVal();
+    if (count == 0) {
+      return;
+    }
+    mYMin = entry(0).getVal();
+    mYMax = entry(0).getVal();
+    mSorted = true;
+
+    for (int i = 0; i < count; i++) {
+      Entry e = entry(i);
+
+      if (e.getVal() < mYMin)
+        mYMin = e.getVal();
+
+      if (e.getVal() > mYMax)
+        mYMax = e.getVal();
+
+      if (i > 0 && e.getXIndex() < entry(i - 1).getXIndex())
+        mSorted = false;
     }
   }
 
@@ -99,11 +218,408 @@ public abstract class DataSet {
    */
   private void calcYValueSum() {
 
+    if (mStore != null) {
+      mYValueSum = mStore.getYValueSum();
+      return;
+    }
+
     mYValueSum = 0;
 
-    for (int i = 0; i < mYVals.size(); i++) {
-      mYValueSum += Math.abs(mYVals.get(i).getVal());
+    int count = getEntryCount();
+
+    for (int i = 0; i < count; i++) {
+      mYValueSum += Math.abs(entry(i).getVal());
+    }
+  }
+
+  /**
+   * Returns an immutable snapshot of this DataSet. The first snapshot moves
+   * the entries from the entries array into chunks of EntryChunks.CHUNK_SIZE
+   * entries, afterwards snapshots share all chunks with this DataSet and
+   * take constant time. Modifications made through addEntry(...) and
+   * setEntryValue(...) afterwards copy the chunk index and the chunk they
+   * modify first (copy-on-write), so the snapshot never changes and can be
+   * read from any thread. Call this on the thread that modifies the DataSet.
+   * IMPORTANT: the Entry objects are shared as well, do not modify them in
+   * place. Once the entries are held in chunks, the array handed to the
+   * constructor is not used anymore and getYVals() throws, use copyYVals()
+   * instead. A snapshot of a DataSet backed by a MutableEntryStore gets a
+   * snapshot of the store, other stores are shared and limited to their
+   * current number of entries, they must not change existing entries.
+   *
+   * @return
+   */
+  public DataSet snapshot() {
+
+    if (mFrozen)
+      return this;
+
+    // snapshots must not calculate lazily, they may be read concurrently
+    calcStatistics();
+    getPyramid();
+
+    if (mStore == null && mChunks == null) {
+      mChunks = new EntryChunks(mYVals);
+      mYVals = null;
+    }
+
+    DataSet s;
+
+    try {
+      s = (DataSet) super.clone();
+    } catch (CloneNotSupportedException e) {
+      throw new AssertionError(e);
+    }
+
+    s.mFrozen = true;
+
+    if (mChunks != null)
+      s.mChunks = mChunks.share();
+
+    // the store keeps changing, the snapshot needs an immutable one
+    if (mStore instanceof MutableEntryStore)
+      s.mStore = ((MutableEntryStore) mStore).snapshot();
+    else if (mStore != null)
+      s.mStoreCount = mStore.size();
+
+    mSharedEntryCount = getEntryCount();
+    mPyramidShared = mPyramid != null;
+    mXIndexLookupShared = mXIndexLookup != null;
+
+    return s;
+  }
+
+  /**
+   * Returns a DataSet that can be modified and shares its entries with this
+   * one until it is modified (copy-on-write), like the DataSet a snapshot
+   * was taken from.
+   *
+   * @return
+   */
+  public DataSet mutableCopy() {
+
+    DataSet c;
+
+    DataSet s = snapshot();
+
+    try {
+      c = (DataSet) s.clone();
+    } catch (CloneNotSupportedException e) {
+      throw new AssertionError(e);
+    }
+
+    // the snapshot is never modified, its chunks are shared without
+    // modifying it
+    if (s.mChunks != null)
+      c.mChunks = s.mChunks.copy();
+
+    c.mFrozen = false;
+    c.mSharedEntryCount = c.getEntryCount();
+
+    // a pyramid the snapshot built for filtering only is not maintained
+    if (!c.mPyramidEnabled)
+      c.mPyramid = null;
+
+    c.mPyramidShared = c.mPyramid != null;
+    c.mXIndexLookupShared = c.mXIndexLookup != null;
+
+    return c;
+  }
+
+  /**
+   * returns true if this DataSet is an immutable snapshot
+   *
+   * @return
+   */
+  public boolean isFrozen() {
+    return mFrozen;
+  }
+
+  /**
+   * Adds the given Entry to the end of the DataSet and updates minimum,
+   * maximum and sum of the y-values accordingly.
+   *
+   * @param e
+   */
+  public void addEntry(Entry e) {
+    addEntry(getEntryCount(), e);
+  }
+
+  /**
+   * Inserts the given Entry at the given position of the entries array and
+   * updates minimum, maximum and sum of the y-values accordingly.
+   *
+   * @param position
+   * @param e
+   */
+  public void addEntry(int position, Entry e) {
+
+    prepareForModification();
+    calcStatistics();
+
+    if (position < mSharedEntryCount)
+      mSharedEntryCount++;
+
+    int size = getEntryCount();
+
+    if (size > 0) {
+      if (position > 0 && e.getXIndex() < entry(position - 1).getXIndex())
+        mSorted = false;
+      if (position < size && e.getXIndex() > entry(position).getXIndex())
+        mSorted = false;
+    }
+
+    if (mChunks != null)
+      mChunks.add(position, e);
+    else
+      mYVals.add(position, e);
+
+    float val = e.getVal();
+
+    if (mPyramid != null) {
+      if (position == size) {
+        if (mPyramidShared) {
+          mPyramid = mPyramid.copy();
+          mPyramidShared = false;
+        }
+        mPyramid.add(val);
+      } else {
+        mPyramid = null;
+      }
+    }
+
+    if (mXIndexLookup != null) {
+      if (position == size) {
+        if (mXIndexLookupShared) {
+          mXIndexLookup = mXIndexLookup.copy();
+          mXIndexLookupShared = false;
+        }
+        mXIndexLookup.append(e.getXIndex());
+      } else {
+        mXIndexLookup = null;
+      }
+    }
+
+    if (size == 0) {
+      mYMin = val;
+      mYMax = val;
+    } else {
+      if (val < mYMin)
+        mYMin = val;
+      if (val > mYMax)
+        mYMax = val;
+    }
+
+    mYValueSum += Math.abs(val);
+  }
+
+  /**
+   * Changes the value of the Entry at the given position of the entries
+   * array. If the Entry is shared with a snapshot, it is replaced by a copy.
+   * Returns the Entry that now holds the value.
+   *
+   * @param position
+   * @param val
+   * @return
+   */
+  public Entry setEntryValue(int position, float val) {
+
+    prepareForModification();
+
+    Entry e = entry(position);
+
+    if (position < mSharedEntryCount) {
+      e = new Entry(val, e.getXIndex());
+
+      if (mChunks != null)
+        mChunks.set(position, e);
+      else
+        mYVals.set(position, e);
+    } else {
+      e.setVal(val);
     }
+
+    mStatsDirty = true;
+
+    if (mPyramid != null) {
+      if (mPyramidShared) {
+        mPyramid = mPyramid.copy();
+        mPyramidShared = false;
+      }
+      mPyramid.update(this, position);
+    }
+
+    return e;
+  }
+
+  /**
+   * checks that the entries can be modified, the chunks take care of not
+   * affecting a snapshot themselves
+   */
+  private void prepareForModification() {
+
+    if (mFrozen)
+      throw new IllegalStateException("DataSet snapshots cannot be modified.");
+
+    if (mStore != null)
+      throw new UnsupportedOperationException("DataSets backed by an EntryStore are read-only.");
+  }
+
+  /**
+   * returns the Entry at the given position of the entries array or chunks,
+   * only for DataSets that are not backed by an EntryStore
+   */
+  private Entry entry(int position) {
+    return mChunks != null ? mChunks.get(position) : mYVals.get(position);
+  }
+
+  /**
+   * Enables / disables maintaining a pyramid of aggregated y-values (minimum,
+   * maximum, first and last value of buckets of 2^n entries) for this
+   * DataSet. Charts use it to draw large DataSets in constant time per frame
+   * when zoomed out. The pyramid costs about 3 bytes per entry.
+   * Snapshots take over the setting and cannot change it.
+   *
+   * @param enabled
+   */
+  public void setPyramidEnabled(boolean enabled) {
+
+    if (mFrozen)
+      throw new IllegalStateException("DataSet snapshots cannot be modified.");
+
+    mPyramidEnabled = enabled;
+
+    if (!enabled)
+      mPyramid = null;
+  }
+
+  /**
+   * returns true if maintaining the pyramid of aggregated y-values is enabled
+   *
+   * @return
+   */
+  public boolean isPyramidEnabled() {
+    return mPyramidEnabled;
+  }
+
+  /**
+   * Returns the pyramid of aggregated y-values, builds it if necessary.
+   * Returns null if the pyramid is not enabled for this DataSet.
+   *
+   * @return
+   */
+  public MinMaxPyramid getPyramid() {
+
+    if (!mPyramidEnabled)
+      return null;
+
+    MinMaxPyramid pyramid = mPyramid;
+
+    if (pyramid == null) {
+      pyramid = MinMaxPyramid.build(this);
+
+      // like the xIndex lookup, a snapshot only writes the pyramid itself
+      mPyramid = pyramid;
+
+      if (!mFrozen)
+        mPyramidShared = false;
+    }
+
+    return pyramid;
+  }
+
+  /**
+   * Returns the pyramid of aggregated y-values of this snapshot, builds it if
+   * necessary, also if the pyramid was not enabled when the snapshot was
+   * taken. The pyramid is kept with the snapshot, so it is built only once
+   * per snapshot. DataSets that can be modified need to enable the pyramid
+   * instead.
+   *
+   * @return
+   */
+  public MinMaxPyramid getSnapshotPyramid() {
+
+    if (!mFrozen)
+      throw new IllegalStateException("Only snapshots build their pyramid on demand.");
+
+    MinMaxPyramid pyramid = mPyramid;
+
+    if (pyramid == null) {
+      pyramid = MinMaxPyramid.build(this);
+      mPyramid = pyramid;
+    }
+
+    return pyramid;
+  }
+
+  /**
+   * Sets a previously built (e.g. deserialized) pyramid for this DataSet and
+   * enables it. The pyramid must aggregate exactly the entries of this
+   * DataSet.
+   *
+   * @param pyramid
+   */
+  public void setPyramid(MinMaxPyramid pyramid) {
+
+    if (mFrozen)
+      throw new IllegalStateException("DataSet snapshots cannot be modified.");
+
+    if (pyramid.getCount() != getEntryCount())
+      throw new IllegalArgumentException(
+          "The pyramid does not match the number of entries of the DataSet.");
+
+    mPyramidEnabled = true;
+    mPyramid = pyramid;
+    mPyramidShared = false;
+  }
+
+  /**
+   * returns true if the xIndices of the entries are in ascending order
+   *
+   * @return
+   */
+  public boolean isSorted() {
+    calcStatistics();
+    return mSorted;
+  }
+
+  /**
+   * Returns the index in the entries array of the first Entry whose xIndex is
+   * equal to or greater than the given xIndex. Returns the number of entries
+   * if there is no such Entry. Uses binary search if the entries are sorted
+   * by their xIndex.
+   *
+   * @param xIndex
+   * @return
+   */
+  public int getEntryIndexAtOrAfter(int xIndex) {
+
+    int count = getEntryCount();
+
+    if (!isSorted()) {
+      for (int i = 0; i < count; i++) {
+        if (getXIndexAt(i) >= xIndex)
+          return i;
+      }
+      return count;
+    }
+
+    if (mStore != null)
+      return Math.min(count, mStore.getEntryIndexAtOrAfter(xIndex));
+
+    int low = 0;
+    int high = count;
+
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+
+      if (getXIndexAt(mid) < xIndex)
+        low = mid + 1;
+      else
+        high = mid;
+    }
+
+    return low;
   }
 
   /**
@@ -112,7 +628,64 @@ public abstract class DataSet {
    * @return
    */
   public int getEntryCount() {
-    return mYVals.size();
+
+    if (mStore != null)
+      return mStoreCount >= 0 ? mStoreCount : mStore.size();
+
+    return mChunks != null ? mChunks.size() : mYVals.size();
+  }
+
+  /**
+   * returns the xIndex of the Entry at the given position of the entries
+   *
+   * @param position
+   * @return
+   */
+  public int getXIndexAt(int position) {
+    return mStore != null ? mStore.getXIndex(position) : entry(position).getXIndex();
+  }
+
+  /**
+   * returns the y-value of the Entry at the given position of the entries
+   *
+   * @param position
+   * @return
+   */
+  public float getValAt(int position) {
+    return mStore != null ? mStore.getVal(position) : entry(position).getVal();
+  }
+
+  /**
+   * Returns the Entry at the given position of the entries. For DataSets
+   * backed by an EntryStore, a new Entry object is created.
+   *
+   * @param position
+   * @return
+   */
+  public Entry getEntryAt(int position) {
+    return mStore != null ? new Entry(mStore.getVal(position), mStore.getXIndex(position))
+        : entry(position);
+  }
+
+  /**
+   * Returns true if the entries can be read from several threads at the same
+   * time. This is the case for entries held in the entries array or chunks,
+   * an EntryStore decides itself (see EntryStore.isConcurrentReadSafe()).
+   *
+   * @return
+   */
+  public boolean isConcurrentReadSafe() {
+    return mStore == null || mStore.isConcurrentReadSafe();
+  }
+
+  /**
+   * returns the EntryStore that holds the entries, null if the entries are
+   * held in the entries array
+   *
+   * @return
+   */
+  public EntryStore getEntryStore() {
+    return mStore;
   }
 
   /**
@@ -144,12 +717,12 @@ public abstract class DataSet {
    */
   public Entry getEntryForXIndex(int xIndex) {
 
-    for (int i = 0; i < mYVals.size(); i++) {
-      if (xIndex == mYVals.get(i).getXIndex())
-        return mYVals.get(i);
-    }
+    int index = getIndexInEntries(xIndex);
+
+    if (index < 0)
+      return null;
 
-    return null;
+    return getEntryAt(index);
   }
 
   /**
@@ -164,29 +737,80 @@ public abstract class DataSet {
 
     ArrayList<Entry> entries = new ArrayList<Entry>();
 
-    for (int i = 0; i < mYVals.size(); i++) {
-      if (xIndex == mYVals.get(i).getXIndex())
-        entries.add(mYVals.get(i));
+    int count = getEntryCount();
+    boolean sorted = isSorted();
+    int i = sorted ? getEntryIndexAtOrAfter(xIndex) : 0;
+
+    for (; i < count; i++) {
+      int x = getXIndexAt(i);
+
+      if (xIndex == x)
+        entries.add(getEntryAt(i));
+      else if (sorted)
+        break;
     }
 
     return entries;
   }
 
   /**
-   * returns the DataSets Entry array
+   * returns the DataSets Entry array, not supported for DataSets backed by an
+   * EntryStore (use getEntryCount(), getXIndexAt(...) and getValAt(...)
+   * instead) and not supported anymore once a snapshot was taken and the
+   * entries are held in chunks (use copyYVals() instead), see hasYVals().
    *
    * @return
    */
   public ArrayList<Entry> getYVals() {
+
+    if (mStore != null)
+      throw new UnsupportedOperationException(
+          "The entries of this DataSet are held by an EntryStore.");
+
+    if (mChunks != null)
+      throw new UnsupportedOperationException(
+          "The entries of this DataSet are held in chunks since a snapshot was taken, "
+              + "use copyYVals() or addEntry(...) and setEntryValue(...) instead.");
+
     return mYVals;
   }
 
+  /**
+   * returns true if the Entry array of this DataSet can be accessed with
+   * getYVals(), false if the entries are held by an EntryStore or in chunks
+   *
+   * @return
+   */
+  public boolean hasYVals() {
+    return mStore == null && mChunks == null;
+  }
+
+  /**
+   * Returns a new list of the entries of this DataSet, not supported for
+   * DataSets backed by an EntryStore. Modifying the list has no effect on
+   * the DataSet.
+   *
+   * @return
+   */
+  public ArrayList<Entry> copyYVals() {
+
+    if (mStore != null)
+      throw new UnsupportedOperationException(
+          "The entries of this DataSet are held by an EntryStore.");
+
+    if (mChunks == null)
+      return new ArrayList<Entry>(mYVals);
+
+    return mChunks.toList();
+  }
+
   /**
    * gets the sum of all y-values
    *
    * @return
    */
   public float getYValueSum() {
+    calcStatistics();
     return mYValueSum;
   }
 
@@ -196,6 +820,7 @@ public abstract class DataSet {
    * @return
    */
   public float getYMin() {
+    calcStatistics();
     return mYMin;
   }
 
@@ -205,6 +830,7 @@ public abstract class DataSet {
    * @return
    */
   public float getYMax() {
+    calcStatistics();
     return mYMax;
   }
 
@@ -219,29 +845,63 @@ public abstract class DataSet {
 
   /**
    * The xIndex of an Entry object is provided. This method returns the actual
-   * index in the Entry array of the DataSet. IMPORTANT: This method does
-   * calculations at runtime, do not over-use in performance critical
-   * situations.
+   * index in the Entry array of the DataSet (of the first Entry if there are
+   * several), -1 if there is no Entry at the xIndex. If the entries are
+   * sorted by their xIndex, the position of aligned entries (the entry at
+   * position i has the xIndex of the first one + i, the common case of one
+   * entry per x-value) is calculated in constant time, other positions are
+   * searched binary. Unsorted entries use a hash lookup that is built on
+   * first use and updated when entries are appended.
    *
    * @param xIndex
    * @return
    */
   public int getIndexInEntries(int xIndex) {
 
-    for (int i = 0; i < mYVals.size(); i++) {
-      if (xIndex == mYVals.get(i).getXIndex())
-        return i;
+    if (isSorted()) {
+
+      int count = getEntryCount();
+
+      if (count == 0)
+        return -1;
+
+      long aligned = (long) xIndex - getXIndexAt(0);
+
+      if (aligned < 0)
+        return -1;
+
+      // the entry before must have a smaller xIndex, otherwise it is not the
+      // first one at the xIndex
+      if (aligned < count && getXIndexAt((int) aligned) == xIndex
+          && (aligned == 0 || getXIndexAt((int) aligned - 1) != xIndex))
+        return (int) aligned;
+
+      int index = getEntryIndexAtOrAfter(xIndex);
+      return index < count && getXIndexAt(index) == xIndex ? index : -1;
+    }
+
+    XIndexLookup lookup = mXIndexLookup;
+
+    if (lookup == null) {
+      lookup = XIndexLookup.build(this);
+
+      // a snapshot may build its lookup on several threads at once, every
+      // result is the same and is published through the volatile field
+      mXIndexLookup = lookup;
+
+      if (!mFrozen)
+        mXIndexLookupShared = false;
     }
 
-    return -1;
+    return lookup.get(xIndex);
   }
 
   @Override
   public String toString() {
     StringBuffer buffer = new StringBuffer();
     buffer.append(toSimpleString());
-    for (int i = 0; i < mYVals.size(); i++) {
-      buffer.append(mYVals.get(i).toString() + " ");
+    for (int i = 0; i < getEntryCount(); i++) {
+      buffer.append(getEntryAt(i).toString() + " ");
     }
     return buffer.toString();
   }
@@ -254,7 +914,7 @@ public abstract class DataSet {
    */
   public String toSimpleString() {
     StringBuffer buffer = new StringBuffer();
-    buffer.append("DataSet, label: " + mLabel + ", entries: " + mYVals.size() + "\n");
+    buffer.append("DataSet, label: " + mLabel + ", entries: " + getEntryCount() + "\n");
     return buffer.toString();
   }
 
@@ -12,7 +12,7 @@ public class DrawingContext {
 
   private boolean mAutoFinishDrawing = false;
 
-  private ArrayList<Entry> mCurrentDrawingEntries;
+  private DataSet mMovingDataSet;
   private Entry mMovingEntry;
 
   private OnDrawListener mListener;
@@ -23,14 +23,13 @@ public class DrawingContext {
    * @param chartData the type of the new DataSet
    */
   public void createNewDrawingDataSet(ChartData<LineDataSet> chartData) {
-    if (mCurrentDrawingDataSet != null && mCurrentDrawingEntries != null) {
+    if (mCurrentDrawingDataSet != null) {
       // if an old one exist, finish the other one first
       finishNewDrawingEntry(chartData);
     }
 
-    mCurrentDrawingEntries = new ArrayList<Entry>();
-    this.mCurrentDrawingDataSet = new LineDataSet(mCurrentDrawingEntries, "DS " + mLastDrawnDataSetIndex);
-    chartData.getDataSets().add(mCurrentDrawingDataSet);
+    this.mCurrentDrawingDataSet = new LineDataSet(new ArrayList<Entry>(), "DS " + mLastDrawnDataSetIndex);
+    chartData.addDataSet(mCurrentDrawingDataSet);
   }
 
   /**
@@ -40,17 +39,16 @@ public class DrawingContext {
    * @return true if entry added, false if an entry on this x index already existed
    */
   public boolean addNewDrawingEntry(Entry entry, ChartData data) {
-    if (mCurrentDrawingDataSet != null && mCurrentDrawingEntries != null) {
-      if (mCurrentDrawingEntries.size() > 0
-          && mCurrentDrawingEntries.get(mCurrentDrawingEntries.size() - 1).getXIndex() == entry.getXIndex()) {
+    if (mCurrentDrawingDataSet != null) {
+      Entry prevEntry = getLastDrawingEntry();
+      if (prevEntry != null && prevEntry.getXIndex() == entry.getXIndex()) {
         return false;
       }
-      if (mCurrentDrawingEntries.size() > 0) {
-        Entry prevEntry = mCurrentDrawingEntries.get(mCurrentDrawingEntries.size() - 1);
+      if (prevEntry != null) {
         fillData(prevEntry, entry);
       }
       // add new entry last to have correct order
-      mCurrentDrawingEntries.add(entry);
+      addEntry(entry);
       data.notifyDataForNewEntry(entry);
       if (mListener != null) {
         mListener.onEntryAdded(entry);
@@ -64,6 +62,59 @@ public class DrawingContext {
     }
   }
 
+  /**
+   * returns true if the last entry of the current drawing DataSet has the
+   * given x index, addNewDrawingEntry(...) would not add an entry there
+   *
+   * @param xIndex
+   * @return
+   */
+  public boolean isLastDrawingXIndex(int xIndex) {
+    if (mCurrentDrawingDataSet == null)
+      return false;
+
+    Entry last = getLastDrawingEntry();
+    return last != null && last.getXIndex() == xIndex;
+  }
+
+  /**
+   * returns the last entry of the current drawing DataSet, null if it has
+   * none
+   */
+  private Entry getLastDrawingEntry() {
+    int count = mCurrentDrawingDataSet.getEntryCount();
+    return count > 0 ? mCurrentDrawingDataSet.getEntryAt(count - 1) : null;
+  }
+
+  /**
+   * Adds the entry through the DataSet so that snapshots of it stay
+   * untouched.
+   */
+  private void addEntry(Entry entry) {
+    addEntry(mCurrentDrawingDataSet.getEntryCount(), entry);
+  }
+
+  private void addEntry(int position, Entry entry) {
+    mCurrentDrawingDataSet.addEntry(position, entry);
+  }
+
+  /**
+   * Moves the entry set via setMovingEntry() to the given value and notifies
+   * the drawing context about it.
+   *
+   * @param val
+   * @param data
+   */
+  public void moveEntry(float val, ChartData<?> data) {
+    if (mMovingDataSet != null) {
+      int index = mMovingDataSet.getIndexInEntries(mMovingEntry.getXIndex());
+      mMovingEntry = mMovingDataSet.setEntryValue(index, val);
+    } else {
+      mMovingEntry.setVal(val);
+    }
+    notifyEntryMoved(data);
+  }
+
   /**
    * Call this method to notify the drawing context about the entry being moved
    *
@@ -91,7 +142,7 @@ public class DrawingContext {
       for (int i = 1; i < skippedIndexes; i++) {
         // we do not need to correct data because same as new entry
         Entry entry = new Entry(newEntry.getVal(), startIndex - i);
-        mCurrentDrawingEntries.add(entry);
+        addEntry(entry);
         if (mListener != null) {
           mListener.onEntryAdded(entry);
         }
@@ -100,7 +151,7 @@ public class DrawingContext {
       // new entry after prev entry
       for (int i = 1; i <= skippedIndexes; i++) {
         Entry entry = new Entry(newEntry.getVal(), startIndex + i);
-        mCurrentDrawingEntries.add(entry);
+        addEntry(entry);
         if (mListener != null) {
           mListener.onEntryAdded(entry);
         }
@@ -112,24 +163,24 @@ public class DrawingContext {
    * Finishes a drawing entry and adds values at the beginning and the end to fill up the line
    */
   public void finishNewDrawingEntry(ChartData data) {
-    if (mAutoFinishDrawing && mCurrentDrawingEntries.size() > 0) {
-      Entry firstEntry = mCurrentDrawingEntries.get(0);
+    if (mAutoFinishDrawing && mCurrentDrawingDataSet.getEntryCount() > 0) {
+      Entry firstEntry = mCurrentDrawingDataSet.getEntryAt(0);
       int xIndex = 0;
       while (xIndex < firstEntry.getXIndex()) {
         Entry entry = new Entry(firstEntry.getVal(), xIndex);
-        mCurrentDrawingEntries.add(xIndex, entry);
+        addEntry(xIndex, entry);
         data.notifyDataForNewEntry(entry);
         xIndex++;
       }
-      Entry lastEntry = mCurrentDrawingEntries.get(mCurrentDrawingEntries.size() - 1);
+      Entry lastEntry = getLastDrawingEntry();
       xIndex = lastEntry.getXIndex();
       while (xIndex < data.getXValCount()) {
         Entry entry = new Entry(lastEntry.getVal(), xIndex);
-        mCurrentDrawingEntries.add(entry);
+        addEntry(entry);
         data.notifyDataForNewEntry(entry);
         xIndex++;
       }
-    } else if (mCurrentDrawingEntries.size() == 0) {
+    } else if (mCurrentDrawingDataSet.getEntryCount() == 0) {
       // do not save a dataset with no entries
       deleteLastDrawingEntry(data);
       return;
@@ -140,13 +191,11 @@ public class DrawingContext {
       mListener.onDrawFinished(mCurrentDrawingDataSet);
     }
     mCurrentDrawingDataSet = null;
-    mCurrentDrawingEntries = null;
   }
 
   public void deleteLastDrawingEntry(ChartData data) {
     data.getDataSets().remove(mCurrentDrawingDataSet);
     mCurrentDrawingDataSet = null;
-    mCurrentDrawingEntries = null;
   }
 
   public void init(OnDrawListener mListener, boolean autoFinish) {
@@ -160,6 +209,18 @@ public class DrawingContext {
    * @param entry
    */
   public void setMovingEntry(Entry entry) {
+    setMovingEntry(null, entry);
+  }
+
+  /**
+   * Sets an entry of the given DataSet that can be moved later by calling
+   * moveEntry()
+   *
+   * @param set
+   * @param entry
+   */
+  public void setMovingEntry(DataSet set, Entry entry) {
+    mMovingDataSet = set;
     mMovingEntry = entry;
   }
 
@@ -0,0 +1,219 @@
+package com.github.mikephil.charting.data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Holds the entries of a DataSet in chunks of CHUNK_SIZE entries with
+ * copy-on-write sharing. share() returns a copy in constant time that shares
+ * the chunk index and all chunks. Afterwards, modifying either of them first
+ * copies the chunk index and the chunk that is modified, the other chunks
+ * stay shared. Appending an entry to a shared DataSet (the snapshot-then-
+ * append pattern) therefore copies O(n / CHUNK_SIZE + CHUNK_SIZE) references
+ * instead of all entries. Instances that are only read can be read from
+ * several threads.
+ */
+final class EntryChunks {
+
+  static final int CHUNK_SHIFT = 8;
+
+  /**
+   * the number of entries per chunk
+   */
+  static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+
+  private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+  /**
+   * the chunk index, all chunks except the last one are full
+   */
+  private Entry[][] mChunks;
+
+  /**
+   * the number of entries
+   */
+  private int mSize;
+
+  /**
+   * Ownership of the chunk index and of each chunk. A chunk (or the index)
+   * may be modified in place only if its generation equals the current one.
+   * share() increments the generation, so that everything is copied before
+   * it is modified again. Only this instance reads and writes these fields.
+   */
+  private int mGeneration = 0;
+  private int mIndexGeneration = 0;
+  private int[] mChunkGenerations;
+
+  /**
+   * Creates the chunks for the given entries, the entries are copied.
+   *
+   * @param entries
+   */
+  EntryChunks(List<Entry> entries) {
+
+    mSize = entries.size();
+
+    int chunks = Math.max(1, (mSize + CHUNK_MASK) >> CHUNK_SHIFT);
+    mChunks = new Entry[chunks][];
+    mChunkGenerations = new int[chunks];
+
+    for (int c = 0; c < chunks; c++) {
+
+      int from = c << CHUNK_SHIFT;
+      int to = Math.min(mSize, from + CHUNK_SIZE);
+
+      Entry[] chunk = new Entry[CHUNK_SIZE];
+
+      for (int i = from; i < to; i++)
+        chunk[i - from] = entries.get(i);
+
+      mChunks[c] = chunk;
+    }
+  }
+
+  private EntryChunks(Entry[][] chunks, int size) {
+    mChunks = chunks;
+    mSize = size;
+    mGeneration = 1;
+    mChunkGenerations = new int[chunks.length];
+  }
+
+  /**
+   * Returns a copy that shares all chunks with this one. Both copy the
+   * chunks they modify afterwards.
+   *
+   * @return
+   */
+  EntryChunks share() {
+    mGeneration++;
+    return copy();
+  }
+
+  /**
+   * Returns a copy that shares all chunks with this one without changing
+   * this one, for instances that are not modified anymore (snapshots).
+   *
+   * @return
+   */
+  EntryChunks copy() {
+    return new EntryChunks(mChunks, mSize);
+  }
+
+  int size() {
+    return mSize;
+  }
+
+  Entry get(int position) {
+
+    if (position >= mSize)
+      throw new IndexOutOfBoundsException("Position " + position + ", size " + mSize);
+
+    return mChunks[position >> CHUNK_SHIFT][position & CHUNK_MASK];
+  }
+
+  /**
+   * replaces the entry at the given position
+   *
+   * @param position
+   * @param e
+   */
+  void set(int position, Entry e) {
+
+    if (position >= mSize)
+      throw new IndexOutOfBoundsException("Position " + position + ", size " + mSize);
+
+    writableChunk(position >> CHUNK_SHIFT)[position & CHUNK_MASK] = e;
+  }
+
+  /**
+   * Inserts the entry at the given position. Appending copies at most the
+   * chunk index and the last chunk, inserting before the end rebuilds all
+   * chunks.
+   *
+   * @param position
+   * @param e
+   */
+  void add(int position, Entry e) {
+
+    if (position < 0 || position > mSize)
+      throw new IndexOutOfBoundsException("Position " + position + ", size " + mSize);
+
+    if (position < mSize) {
+
+      ArrayList<Entry> entries = toList();
+      entries.add(position, e);
+
+      EntryChunks rebuilt = new EntryChunks(entries);
+      mChunks = rebuilt.mChunks;
+      mSize = rebuilt.mSize;
+      mChunkGenerations = rebuilt.mChunkGenerations;
+      mGeneration = 0;
+      mIndexGeneration = 0;
+      return;
+    }
+
+    int c = mSize >> CHUNK_SHIFT;
+
+    if (c == mChunks.length) {
+
+      // a new chunk, the index grows and is owned afterwards
+      Entry[][] chunks = new Entry[c * 2][];
+      System.arraycopy(mChunks, 0, chunks, 0, c);
+      mChunks = chunks;
+      mIndexGeneration = mGeneration;
+
+      int[] generations = new int[c * 2];
+      System.arraycopy(mChunkGenerations, 0, generations, 0, c);
+      mChunkGenerations = generations;
+    }
+
+    if (mChunks[c] == null) {
+      writableIndex()[c] = new Entry[CHUNK_SIZE];
+      mChunkGenerations[c] = mGeneration;
+    }
+
+    writableChunk(c)[mSize & CHUNK_MASK] = e;
+    mSize++;
+  }
+
+  /**
+   * returns the entries in a new list
+   *
+   * @return
+   */
+  ArrayList<Entry> toList() {
+
+    ArrayList<Entry> entries = new ArrayList<Entry>(mSize);
+
+    for (int i = 0; i < mSize; i++)
+      entries.add(mChunks[i >> CHUNK_SHIFT][i & CHUNK_MASK]);
+
+    return entries;
+  }
+
+  /**
+   * returns the chunk index, copied first if it is shared
+   */
+  private Entry[][] writableIndex() {
+
+    if (mIndexGeneration != mGeneration) {
+      mChunks = mChunks.clone();
+      mIndexGeneration = mGeneration;
+    }
+
+    return mChunks;
+  }
+
+  /**
+   * returns the given chunk, copied first if it is shared
+   */
+  private Entry[] writableChunk(int c) {
+
+    if (mChunkGenerations[c] != mGeneration) {
+      writableIndex()[c] = mChunks[c].clone();
+      mChunkGenerations[c] = mGeneration;
+    }
+
+    return mChunks[c];
+  }
+}
@@ -0,0 +1,79 @@
+package com.github.mikephil.charting.data;
+
+/**
+ * Read-only storage for the entries of a DataSet that are not held as Entry
+ * objects in memory (e.g. memory-mapped files). Entries are accessed by their
+ * position, positions are in the order the entries are drawn.
+ */
+public interface EntryStore {
+
+  /**
+   * returns the number of entries in the store
+   *
+   * @return
+   */
+  int size();
+
+  /**
+   * returns the xIndex of the entry at the given position
+   *
+   * @param position
+   * @return
+   */
+  int getXIndex(int position);
+
+  /**
+   * returns the y-value of the entry at the given position
+   *
+   * @param position
+   * @return
+   */
+  float getVal(int position);
+
+  /**
+   * Returns the position of the first entry whose xIndex is equal to or
+   * greater than the given xIndex, size() if there is none. Only called if
+   * the entries are sorted.
+   *
+   * @param xIndex
+   * @return
+   */
+  int getEntryIndexAtOrAfter(int xIndex);
+
+  /**
+   * returns the minimum y-value of all entries
+   *
+   * @return
+   */
+  float getYMin();
+
+  /**
+   * returns the maximum y-value of all entries
+   *
+   * @return
+   */
+  float getYMax();
+
+  /**
+   * returns the sum of the absolute y-values of all entries
+   *
+   * @return
+   */
+  float getYValueSum();
+
+  /**
+   * returns true if the xIndices of the entries are in ascending order
+   *
+   * @return
+   */
+  boolean isSorted();
+
+  /**
+   * Returns true if the entries can be read from several threads at the same
+   * time, which allows e.g. DensityGrid to count them in parallel. Stores
+   * that keep mutable read state (like a cursor) must return false.
+   *
+   * @return
+   */
+  boolean isConcurrentReadSafe();
+}
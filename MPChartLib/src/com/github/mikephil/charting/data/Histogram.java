@@ -0,0 +1,483 @@
+package com.github.mikephil.charting.data;
+
+import com.github.mikephil.charting.data.ChartData.LabelFormatter;
+import com.github.mikephil.charting.utils.Utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Streaming histogram of double samples that is its own EntryStore, so its
+ * bins can be drawn by a BarChart or VerticalBarChart without copying them
+ * into Entry objects. Bin i is the entry with xIndex i, its count is the
+ * y-value. Bins are either of equal width (linear(...)), of equal width on a
+ * logarithmic scale (logarithmic(...)), or adapted to the distribution of a
+ * sample of the data (quantiles(...)). Adding a sample costs O(1) for
+ * linear and logarithmic bins and O(log bins) for quantile bins. Samples
+ * outside of the bins are counted as underflow or overflow. Histograms with
+ * the same bins can be filled on different threads and merged. Not
+ * thread-safe, call notifyDataSetChanged() on the DataSet after adding
+ * samples.
+ */
+public class Histogram implements MutableEntryStore {
+
+  private static final int LINEAR = 0;
+  private static final int LOGARITHMIC = 1;
+  private static final int EDGES = 2;
+
+  /**
+   * how the bin of a sample is found
+   */
+  private final int mMode;
+
+  /**
+   * the bounds of the bins, bin i spans [edges[i], edges[i + 1])
+   */
+  private final double[] mEdges;
+
+  /**
+   * lower bound and bins per unit of the (logarithmic) scale, for linear and
+   * logarithmic bins
+   */
+  private final double mOrigin;
+  private final double mScale;
+
+  private final long[] mCounts;
+
+  private long mUnderflow = 0;
+  private long mOverflow = 0;
+
+  /**
+   * number of samples in the bins and the largest count of a bin
+   */
+  private long mTotal = 0;
+  private long mMaxCount = 0;
+
+  private Histogram(int mode, double[] edges, double origin, double scale) {
+    mMode = mode;
+    mEdges = edges;
+    mOrigin = origin;
+    mScale = scale;
+    mCounts = new long[edges.length - 1];
+  }
+
+  /**
+   * Creates a histogram with the given number of bins of equal width
+   * between min (inclusive) and max (exclusive).
+   *
+   * @param min
+   * @param max
+   * @param bins
+   * @return
+   */
+  public static Histogram linear(double min, double max, int bins) {
+
+    checkRange(min, max, bins);
+
+    double[] edges = new double[bins + 1];
+
+    for (int i = 0; i <= bins; i++)
+      edges[i] = min + (max - min) * i / bins;
+
+    return new Histogram(LINEAR, edges, min, bins / (max - min));
+  }
+
+  /**
+   * Creates a histogram with the given number of bins between min
+   * (inclusive) and max (exclusive) whose bounds grow by a constant factor,
+   * for samples that span several orders of magnitude. min must be positive.
+   *
+   * @param min
+   * @param max
+   * @param bins
+   * @return
+   */
+  public static Histogram logarithmic(double min, double max, int bins) {
+
+    checkRange(min, max, bins);
+
+    if (min <= 0)
+      throw new IllegalArgumentException("The minimum of logarithmic bins must be positive.");
+
+    double logMin = Math.log(min);
+    double logMax = Math.log(max);
+
+    double[] edges = new double[bins + 1];
+
+    for (int i = 0; i <= bins; i++)
+      edges[i] = Math.exp(logMin + (logMax - logMin) * i / bins);
+
+    // avoid rounding errors at the bounds
+    edges[0] = min;
+    edges[bins] = max;
+
+    return new Histogram(LOGARITHMIC, edges, logMin, bins / (logMax - logMin));
+  }
+
+  /**
+   * Creates a histogram whose bins each hold about the same number of the
+   * given samples, e.g. the first chunk of a stream. The samples are not
+   * added to the histogram. Bins that would be empty because of repeated
+   * values are merged, so the histogram may have less bins than requested.
+   *
+   * @param samples
+   * @param offset
+   * @param count
+   * @param bins
+   * @return
+   */
+  public static Histogram quantiles(double[] samples, int offset, int count, int bins) {
+
+    if (bins < 1)
+      throw new IllegalArgumentException("A histogram needs at least one bin.");
+
+    if (count < 2)
+      throw new IllegalArgumentException("At least two samples are needed for quantile bins.");
+
+    double[] sorted = new double[count];
+    System.arraycopy(samples, offset, sorted, 0, count);
+    Arrays.sort(sorted);
+
+    double[] edges = new double[bins + 1];
+    int edgeCount = 0;
+
+    for (int i = 0; i <= bins; i++) {
+
+      // the last edge lies just above the largest sample
+      double edge = i == bins
+          ? sorted[count - 1] + Math.ulp(sorted[count - 1])
+          : sorted[(int) ((long) i * (count - 1) / bins)];
+
+      if (edgeCount == 0 || edge > edges[edgeCount - 1])
+        edges[edgeCount++] = edge;
+    }
+
+    if (edgeCount < 2)
+      throw new IllegalArgumentException("The samples do not span a range.");
+
+    double[] used = new double[edgeCount];
+    System.arraycopy(edges, 0, used, 0, edgeCount);
+
+    return new Histogram(EDGES, used, 0, 0);
+  }
+
+  private static void checkRange(double min, double max, int bins) {
+
+    if (bins < 1)
+      throw new IllegalArgumentException("A histogram needs at least one bin.");
+
+    if (!(min < max))
+      throw new IllegalArgumentException("The minimum must be smaller than the maximum.");
+  }
+
+  /**
+   * returns an empty histogram with the same bins, e.g. for filling it on
+   * another thread and merging it afterwards
+   *
+   * @return
+   */
+  public Histogram emptyCopy() {
+    return new Histogram(mMode, mEdges, mOrigin, mScale);
+  }
+
+  /**
+   * Returns the bin the given sample falls into, -1 if it is smaller than
+   * the lower bound of the first bin and getBinCount() if it is not smaller
+   * than the upper bound of the last bin (or NaN).
+   *
+   * @param sample
+   * @return
+   */
+  public int getBin(double sample) {
+
+    int bins = mCounts.length;
+
+    if (sample < mEdges[0])
+      return -1;
+
+    if (!(sample < mEdges[bins]))
+      return bins;
+
+    int bin;
+
+    switch (mMode) {
+      case LINEAR:
+        bin = (int) ((sample - mOrigin) * mScale);
+        break;
+      case LOGARITHMIC:
+        bin = (int) ((Math.log(sample) - mOrigin) * mScale);
+        break;
+      default:
+        bin = Arrays.binarySearch(mEdges, sample);
+        // not found: insertion point - 1 is the bin
+        if (bin < 0)
+          bin = -bin - 2;
+        return bin;
+    }
+
+    // correct rounding errors of the calculated bin
+    if (bin >= bins)
+      bin = bins - 1;
+    while (bin > 0 && sample < mEdges[bin])
+      bin--;
+    while (bin < bins - 1 && sample >= mEdges[bin + 1])
+      bin++;
+
+    return bin;
+  }
+
+  /**
+   * adds a sample
+   *
+   * @param sample
+   */
+  public void add(double sample) {
+
+    int bin = getBin(sample);
+
+    if (bin < 0) {
+      mUnderflow++;
+    } else if (bin >= mCounts.length) {
+      mOverflow++;
+    } else {
+      long count = ++mCounts[bin];
+      mTotal++;
+
+      if (count > mMaxCount)
+        mMaxCount = count;
+    }
+  }
+
+  /**
+   * adds the given number of samples of the given array starting at offset
+   *
+   * @param samples
+   * @param offset
+   * @param count
+   */
+  public void add(double[] samples, int offset, int count) {
+    for (int i = offset; i < offset + count; i++)
+      add(samples[i]);
+  }
+
+  /**
+   * adds the given number of samples of the given array starting at offset
+   *
+   * @param samples
+   * @param offset
+   * @param count
+   */
+  public void add(float[] samples, int offset, int count) {
+    for (int i = offset; i < offset + count; i++)
+      add(samples[i]);
+  }
+
+  /**
+   * Adds the counts of the given histogram, which must have the same bins
+   * (e.g. created with emptyCopy()).
+   *
+   * @param other
+   */
+  public void merge(Histogram other) {
+
+    if (other.mMode != mMode || !Arrays.equals(other.mEdges, mEdges))
+      throw new IllegalArgumentException("Only histograms with the same bins can be merged.");
+
+    for (int i = 0; i < mCounts.length; i++) {
+
+      long count = mCounts[i] += other.mCounts[i];
+
+      if (count > mMaxCount)
+        mMaxCount = count;
+    }
+
+    mUnderflow += other.mUnderflow;
+    mOverflow += other.mOverflow;
+    mTotal += other.mTotal;
+  }
+
+  /**
+   * returns a copy of this histogram with the current counts
+   *
+   * @return
+   */
+  @Override
+  public Histogram snapshot() {
+
+    Histogram h = emptyCopy();
+    h.merge(this);
+
+    return h;
+  }
+
+  /**
+   * removes all samples
+   */
+  public void clear() {
+    Arrays.fill(mCounts, 0L);
+    mUnderflow = 0;
+    mOverflow = 0;
+    mTotal = 0;
+    mMaxCount = 0;
+  }
+
+  /**
+   * returns the number of bins
+   *
+   * @return
+   */
+  public int getBinCount() {
+    return mCounts.length;
+  }
+
+  /**
+   * returns the number of samples in the given bin
+   *
+   * @param bin
+   * @return
+   */
+  public long getCount(int bin) {
+    return mCounts[bin];
+  }
+
+  /**
+   * returns the lower bound (inclusive) of the given bin
+   *
+   * @param bin
+   * @return
+   */
+  public double getLowerBound(int bin) {
+    return mEdges[bin];
+  }
+
+  /**
+   * returns the upper bound (exclusive) of the given bin
+   *
+   * @param bin
+   * @return
+   */
+  public double getUpperBound(int bin) {
+    return mEdges[bin + 1];
+  }
+
+  /**
+   * returns the number of samples smaller than the lower bound of the first
+   * bin
+   *
+   * @return
+   */
+  public long getUnderflow() {
+    return mUnderflow;
+  }
+
+  /**
+   * returns the number of samples not smaller than the upper bound of the
+   * last bin
+   *
+   * @return
+   */
+  public long getOverflow() {
+    return mOverflow;
+  }
+
+  /**
+   * returns the number of samples in the bins
+   *
+   * @return
+   */
+  public long getTotal() {
+    return mTotal;
+  }
+
+  /**
+   * returns a DataSet that draws the bins of this histogram as bars, without
+   * copying them
+   *
+   * @param label
+   * @return
+   */
+  public BarDataSet createDataSet(String label) {
+    return new BarDataSet(this, label);
+  }
+
+  /**
+   * Returns ChartData with one x-value per bin and the given DataSet of this
+   * histogram. The x-labels show the lower bound of each bin with the given
+   * number of digits.
+   *
+   * @param dataSet
+   * @param digits
+   * @return
+   */
+  public ChartData<BarDataSet> createChartData(BarDataSet dataSet, final int digits) {
+
+    long[] xVals = new long[mCounts.length];
+
+    for (int i = 0; i < xVals.length; i++)
+      xVals[i] = i;
+
+    ArrayList<BarDataSet> dataSets = new ArrayList<BarDataSet>();
+    dataSets.add(dataSet);
+
+    return new ChartData<BarDataSet>(xVals, dataSets, new LabelFormatter() {
+      @Override
+      public String formatValue(long value) {
+        return Utils.formatNumber((float) mEdges[(int) value], digits, true);
+      }
+    });
+  }
+
+  @Override
+  public int size() {
+    return mCounts.length;
+  }
+
+  @Override
+  public int getXIndex(int position) {
+    return position;
+  }
+
+  @Override
+  public float getVal(int position) {
+    return mCounts[position];
+  }
+
+  @Override
+  public int getEntryIndexAtOrAfter(int xIndex) {
+    return Math.max(0, Math.min(mCounts.length, xIndex));
+  }
+
+  @Override
+  public float getYMin() {
+
+    long min = mCounts[0];
+
+    for (int i = 1; i < mCounts.length; i++)
+      min = Math.min(min, mCounts[i]);
+
+    return min;
+  }
+
+  @Override
+  public float getYMax() {
+    return mMaxCount;
+  }
+
+  @Override
+  public float getYValueSum() {
+    return mTotal;
+  }
+
+  @Override
+  public boolean isSorted() {
+    return true;
+  }
+
+  /**
+   * the counts are plain array reads, a snapshot never changes them
+   */
+  @Override
+  public boolean isConcurrentReadSafe() {
+    return true;
+  }
+}
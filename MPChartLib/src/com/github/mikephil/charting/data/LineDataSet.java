@@ -9,6 +9,10 @@ public class LineDataSet extends DataSet {
     super(yVals, label);
   }
 
+  public LineDataSet(EntryStore store, String label) {
+    super(store, label);
+  }
+
   @Override
   protected void initDrawingSpec() {
     mDrawingSpec = new LineDrawingSpec();
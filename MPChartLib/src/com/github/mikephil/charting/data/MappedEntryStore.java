@@ -0,0 +1,351 @@
+package com.github.mikephil.charting.data;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * EntryStore backed by a memory-mapped file, for DataSets that do not fit
+ * into the heap. Reads are zero-copy, only the pages that are actually
+ * accessed (e.g. the visible range of the chart) are loaded by the operating
+ * system. The file has a simple columnar layout: a header of HEADER_SIZE
+ * bytes (magic, version, entry count, flags, minimum, maximum and sum of the
+ * y-values), followed by the column of y-values (floats) and the column of
+ * xIndices (ints). Use the Writer class to create such files. The file is
+ * mapped as a single MappedByteBuffer, which can not be larger than
+ * Integer.MAX_VALUE bytes (2 GB), so a file holds at most MAX_ENTRIES
+ * entries.
+ */
+public class MappedEntryStore implements EntryStore {
+
+  /**
+   * identifies the file format, "MPCD"
+   */
+  public static final int MAGIC = 0x4D504344;
+
+  public static final int VERSION = 1;
+
+  /**
+   * size of the file header in bytes
+   */
+  public static final int HEADER_SIZE = 32;
+
+  /**
+   * the maximum number of entries of a file, limited by the maximum size of
+   * a MappedByteBuffer
+   */
+  public static final int MAX_ENTRIES = (int) ((Integer.MAX_VALUE - HEADER_SIZE) / 8L);
+
+  /**
+   * flag that is set if the xIndices are in ascending order
+   */
+  private static final int FLAG_SORTED = 1;
+
+  private final int mCount;
+  private final boolean mSorted;
+
+  private final float mYMin;
+  private final float mYMax;
+  private final float mYValueSum;
+
+  /**
+   * the column of y-values
+   */
+  private final FloatBuffer mValues;
+
+  /**
+   * the column of xIndices
+   */
+  private final IntBuffer mXIndices;
+
+  private MappedEntryStore(MappedByteBuffer buffer) throws IOException {
+
+    if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC)
+      throw new IOException("Not a file of mapped chart entries.");
+
+    if (buffer.getInt(4) != VERSION)
+      throw new IOException("Unsupported version " + buffer.getInt(4) + ".");
+
+    mCount = buffer.getInt(8);
+    mSorted = (buffer.getInt(12) & FLAG_SORTED) != 0;
+    mYMin = buffer.getFloat(16);
+    mYMax = buffer.getFloat(20);
+    mYValueSum = buffer.getFloat(24);
+
+    if (mCount < 0 || mCount > MAX_ENTRIES)
+      throw new IOException("Invalid number of entries " + mCount + ".");
+
+    if (buffer.capacity() < fileSize(mCount))
+      throw new IOException("The file is shorter than the header says.");
+
+    // fits into an int, checked against MAX_ENTRIES above
+    long columnSize = (long) mCount * 4;
+
+    buffer.position(HEADER_SIZE);
+    ByteBuffer values = buffer.slice();
+    values.limit((int) columnSize);
+    mValues = values.asFloatBuffer();
+
+    buffer.position((int) (HEADER_SIZE + columnSize));
+    ByteBuffer xIndices = buffer.slice();
+    xIndices.limit((int) columnSize);
+    mXIndices = xIndices.asIntBuffer();
+  }
+
+  /**
+   * Maps the given file (created by the Writer) read-only into memory.
+   *
+   * @param file
+   * @return
+   * @throws IOException
+   */
+  public static MappedEntryStore open(File file) throws IOException {
+
+    RandomAccessFile raf = new RandomAccessFile(file, "r");
+
+    try {
+      FileChannel channel = raf.getChannel();
+
+      if (channel.size() > Integer.MAX_VALUE)
+        throw new IOException("The file is larger than a MappedByteBuffer can map (2 GB).");
+
+      // the mapping stays valid after the channel is closed
+      return new MappedEntryStore(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+    } finally {
+      raf.close();
+    }
+  }
+
+  /**
+   * Returns the size in bytes of a file holding the given number of
+   * entries. Files of more than MAX_ENTRIES entries can not be mapped.
+   *
+   * @param count
+   * @return
+   */
+  public static long fileSize(int count) {
+    return HEADER_SIZE + (long) count * 8;
+  }
+
+  @Override
+  public int size() {
+    return mCount;
+  }
+
+  @Override
+  public int getXIndex(int position) {
+    return mXIndices.get(position);
+  }
+
+  @Override
+  public float getVal(int position) {
+    return mValues.get(position);
+  }
+
+  @Override
+  public int getEntryIndexAtOrAfter(int xIndex) {
+
+    int low = 0;
+    int high = mCount;
+
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+
+      if (mXIndices.get(mid) < xIndex)
+        low = mid + 1;
+      else
+        high = mid;
+    }
+
+    return low;
+  }
+
+  @Override
+  public float getYMin() {
+    return mYMin;
+  }
+
+  @Override
+  public float getYMax() {
+    return mYMax;
+  }
+
+  @Override
+  public float getYValueSum() {
+    return mYValueSum;
+  }
+
+  @Override
+  public boolean isSorted() {
+    return mSorted;
+  }
+
+  /**
+   * the columns are only read with absolute gets, which do not change the
+   * position of the buffers
+   */
+  @Override
+  public boolean isConcurrentReadSafe() {
+    return true;
+  }
+
+  /**
+   * Writes entries into a file that can be opened with
+   * MappedEntryStore.open(...). The file is mapped as well, so files larger
+   * than the heap can be written entry by entry. The number of entries has
+   * to be known in advance.
+   */
+  public static class Writer {
+
+    private final File mPath;
+    private RandomAccessFile mFile;
+    private MappedByteBuffer mBuffer;
+
+    private final int mCount;
+    private int mPosition = 0;
+
+    private boolean mSorted = true;
+    private int mLastXIndex = Integer.MIN_VALUE;
+
+    private float mYMin = 0f;
+    private float mYMax = 0f;
+    private double mYValueSum = 0;
+
+    /**
+     * Creates (or overwrites) the given file with room for the given number
+     * of entries, at most MAX_ENTRIES. The file is deleted again if it can
+     * not be created completely.
+     *
+     * @param file
+     * @param count
+     * @throws IOException
+     */
+    public Writer(File file, int count) throws IOException {
+
+      if (count < 0)
+        throw new IllegalArgumentException("The number of entries must not be negative.");
+
+      if (count > MAX_ENTRIES)
+        throw new IllegalArgumentException("A file can hold at most " + MAX_ENTRIES
+            + " entries, a MappedByteBuffer can not map more than 2 GB.");
+
+      mCount = count;
+      mPath = file;
+      mFile = new RandomAccessFile(file, "rw");
+
+      boolean mapped = false;
+
+      try {
+        mFile.setLength(fileSize(count));
+        mBuffer = mFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, fileSize(count));
+        mapped = true;
+      } finally {
+        if (!mapped)
+          discard();
+      }
+    }
+
+    /**
+     * appends an entry to the file
+     *
+     * @param xIndex
+     * @param val
+     */
+    public void add(int xIndex, float val) {
+
+      if (mFile == null)
+        throw new IllegalStateException("The writer is closed.");
+
+      if (mPosition >= mCount)
+        throw new IllegalStateException("More entries added than specified.");
+
+      // fit into an int, the count is checked against MAX_ENTRIES
+      long valueOffset = HEADER_SIZE + (long) mPosition * 4;
+      long xIndexOffset = valueOffset + (long) mCount * 4;
+
+      mBuffer.putFloat((int) valueOffset, val);
+      mBuffer.putInt((int) xIndexOffset, xIndex);
+
+      if (mPosition == 0) {
+        mYMin = val;
+        mYMax = val;
+      } else {
+        if (val < mYMin)
+          mYMin = val;
+        if (val > mYMax)
+          mYMax = val;
+      }
+
+      if (xIndex < mLastXIndex)
+        mSorted = false;
+
+      mLastXIndex = xIndex;
+      mYValueSum += Math.abs(val);
+      mPosition++;
+    }
+
+    /**
+     * Writes the header and closes the file. All entries specified in the
+     * constructor must have been added. If that is not the case or writing
+     * fails, the file is closed and deleted, as it would be incomplete.
+     * Calling close() again has no effect.
+     *
+     * @throws IOException
+     */
+    public void close() throws IOException {
+
+      if (mFile == null)
+        return;
+
+      boolean written = false;
+
+      try {
+
+        if (mPosition != mCount)
+          throw new IllegalStateException("Only " + mPosition + " of " + mCount
+              + " entries were added.");
+
+        mBuffer.putInt(0, MAGIC);
+        mBuffer.putInt(4, VERSION);
+        mBuffer.putInt(8, mCount);
+        mBuffer.putInt(12, mSorted ? FLAG_SORTED : 0);
+        mBuffer.putFloat(16, mYMin);
+        mBuffer.putFloat(20, mYMax);
+        mBuffer.putFloat(24, (float) mYValueSum);
+        mBuffer.putInt(28, 0);
+
+        mBuffer.force();
+        mFile.close();
+        written = true;
+      } finally {
+        if (written) {
+          mFile = null;
+          mBuffer = null;
+        } else {
+          discard();
+        }
+      }
+    }
+
+    /**
+     * closes the file without throwing and deletes it
+     */
+    private void discard() {
+
+      try {
+        mFile.close();
+      } catch (IOException e) {
+        // the file is deleted anyway
+      }
+
+      mFile = null;
+      mBuffer = null;
+      mPath.delete();
+    }
+  }
+}
@@ -0,0 +1,374 @@
+package com.github.mikephil.charting.data;
+
+import java.io.Serializable;
+
+/**
+ * Multi-resolution pyramid of aggregated y-values. Level l (starting at
+ * BASE_LEVEL) holds the minimum, maximum, first and last value and the sum
+ * of each bucket of 2^l consecutive entries. The finer levels are not
+ * stored, they would cost about as much memory as the values themselves;
+ * the pyramid takes about 3 bytes per value. The pyramid is updated
+ * incrementally when values are appended or changed, and can be serialized
+ * to avoid rebuilding it when the data is loaded. Charts use it to draw or
+ * filter O(pixels) buckets instead of all entries when many entries share
+ * one pixel.
+ */
+public class MinMaxPyramid implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * the finest level that is stored, buckets of 16 entries
+   */
+  public static final int BASE_LEVEL = 4;
+
+  /**
+   * the highest level that is supported, buckets of 2^30 entries
+   */
+  private static final int MAX_LEVEL = 30;
+
+  /**
+   * the number of values the pyramid aggregates
+   */
+  private int mCount = 0;
+
+  /**
+   * the number of levels the pyramid currently has
+   */
+  private int mLevels = 0;
+
+  /**
+   * aggregates per level, the indices below BASE_LEVEL are unused
+   */
+  private float[][] mMin = new float[MAX_LEVEL + 1][];
+  private float[][] mMax = new float[MAX_LEVEL + 1][];
+  private float[][] mFirst = new float[MAX_LEVEL + 1][];
+  private float[][] mLast = new float[MAX_LEVEL + 1][];
+  private double[][] mSum = new double[MAX_LEVEL + 1][];
+
+  public MinMaxPyramid() {
+    mLevels = BASE_LEVEL - 1;
+    addLevel();
+  }
+
+  /**
+   * Creates a pyramid for the entries of the given DataSet.
+   *
+   * @param set
+   * @return
+   */
+  public static MinMaxPyramid build(DataSet set) {
+
+    MinMaxPyramid p = new MinMaxPyramid();
+
+    for (int i = 0; i < set.getEntryCount(); i++) {
+      p.add(set.getValAt(i));
+    }
+
+    p.trim();
+
+    return p;
+  }
+
+  /**
+   * Appends a value to the pyramid. Updates one bucket per level.
+   *
+   * @param val
+   */
+  public void add(float val) {
+
+    int pos = mCount++;
+
+    for (int l = BASE_LEVEL; l <= mLevels; l++) {
+
+      int bucket = pos >> l;
+
+      ensureCapacity(l, bucket + 1);
+
+      if ((pos & ((1 << l) - 1)) == 0) {
+        mMin[l][bucket] = val;
+        mMax[l][bucket] = val;
+        mFirst[l][bucket] = val;
+        mSum[l][bucket] = val;
+      } else {
+        mSum[l][bucket] += val;
+        if (val < mMin[l][bucket])
+          mMin[l][bucket] = val;
+        if (val > mMax[l][bucket])
+          mMax[l][bucket] = val;
+      }
+
+      mLast[l][bucket] = val;
+    }
+
+    // add a new level if the top level has more than one bucket
+    if (mCount > (1 << mLevels) && mLevels < MAX_LEVEL)
+      addLevel();
+  }
+
+  /**
+   * adds a level on top of the current top level by merging its buckets
+   */
+  private void addLevel() {
+
+    int l = ++mLevels;
+
+    mMin[l] = new float[2];
+    mMax[l] = new float[2];
+    mFirst[l] = new float[2];
+    mLast[l] = new float[2];
+    mSum[l] = new double[2];
+
+    if (l == BASE_LEVEL || mCount == 0)
+      return;
+
+    for (int b = 0; b < getBucketCount(l); b++) {
+      merge(l, b);
+    }
+  }
+
+  /**
+   * calculates the given bucket from the two buckets below it
+   */
+  private void merge(int l, int b) {
+
+    int below = l - 1;
+    int left = b * 2;
+    int right = left + 1;
+
+    mMin[l][b] = mMin[below][left];
+    mMax[l][b] = mMax[below][left];
+    mFirst[l][b] = mFirst[below][left];
+    mLast[l][b] = mLast[below][left];
+    mSum[l][b] = mSum[below][left];
+
+    if (right < getBucketCount(below)) {
+      mMin[l][b] = Math.min(mMin[l][b], mMin[below][right]);
+      mMax[l][b] = Math.max(mMax[l][b], mMax[below][right]);
+      mLast[l][b] = mLast[below][right];
+      mSum[l][b] += mSum[below][right];
+    }
+  }
+
+  /**
+   * Updates the buckets that contain the value at the given position after
+   * that value was changed in the given DataSet. The bucket of BASE_LEVEL is
+   * recalculated from the values of the DataSet, the buckets above it are
+   * merged from the buckets below, O(2^BASE_LEVEL + levels).
+   *
+   * @param set the DataSet the pyramid aggregates, with the changed value
+   * @param position
+   */
+  public void update(DataSet set, int position) {
+
+    if (position < 0 || position >= mCount)
+      throw new IndexOutOfBoundsException("Position " + position + ", count " + mCount);
+
+    int bucket = position >> BASE_LEVEL;
+    int from = bucket << BASE_LEVEL;
+    int to = Math.min(from + (1 << BASE_LEVEL), mCount);
+
+    float val = set.getValAt(from);
+
+    float min = val;
+    float max = val;
+    double sum = val;
+
+    for (int i = from + 1; i < to; i++) {
+
+      val = set.getValAt(i);
+
+      sum += val;
+      if (val < min)
+        min = val;
+      if (val > max)
+        max = val;
+    }
+
+    mMin[BASE_LEVEL][bucket] = min;
+    mMax[BASE_LEVEL][bucket] = max;
+    mFirst[BASE_LEVEL][bucket] = set.getValAt(from);
+    mLast[BASE_LEVEL][bucket] = val;
+    mSum[BASE_LEVEL][bucket] = sum;
+
+    for (int l = BASE_LEVEL + 1; l <= mLevels; l++) {
+      bucket >>= 1;
+      merge(l, bucket);
+    }
+  }
+
+  private void ensureCapacity(int level, int buckets) {
+
+    if (mMin[level].length >= buckets)
+      return;
+
+    int size = Math.max(buckets, mMin[level].length * 2);
+
+    mMin[level] = copyOf(mMin[level], size);
+    mMax[level] = copyOf(mMax[level], size);
+    mFirst[level] = copyOf(mFirst[level], size);
+    mLast[level] = copyOf(mLast[level], size);
+
+    double[] sum = new double[size];
+    System.arraycopy(mSum[level], 0, sum, 0, Math.min(size, mSum[level].length));
+    mSum[level] = sum;
+  }
+
+  private static float[] copyOf(float[] array, int size) {
+    float[] copy = new float[size];
+    System.arraycopy(array, 0, copy, 0, Math.min(size, array.length));
+    return copy;
+  }
+
+  /**
+   * shrinks the arrays of all levels to the number of their buckets
+   */
+  private void trim() {
+
+    for (int l = BASE_LEVEL; l <= mLevels; l++) {
+
+      int buckets = Math.max(1, getBucketCount(l));
+
+      if (mMin[l].length == buckets)
+        continue;
+
+      mMin[l] = copyOf(mMin[l], buckets);
+      mMax[l] = copyOf(mMax[l], buckets);
+      mFirst[l] = copyOf(mFirst[l], buckets);
+      mLast[l] = copyOf(mLast[l], buckets);
+
+      double[] sum = new double[buckets];
+      System.arraycopy(mSum[l], 0, sum, 0, buckets);
+      mSum[l] = sum;
+    }
+  }
+
+  /**
+   * serializes a trimmed copy, the pyramid itself is not modified as it may
+   * be read by other threads meanwhile
+   *
+   * @return
+   */
+  private Object writeReplace() {
+    return isTrimmed() ? this : copy();
+  }
+
+  private boolean isTrimmed() {
+
+    for (int l = BASE_LEVEL; l <= mLevels; l++) {
+      if (mMin[l].length != Math.max(1, getBucketCount(l)))
+        return false;
+    }
+
+    return true;
+  }
+
+  /**
+   * returns a deep copy of the pyramid, with arrays that are trimmed to the
+   * number of buckets
+   *
+   * @return
+   */
+  public MinMaxPyramid copy() {
+
+    MinMaxPyramid p = new MinMaxPyramid();
+    p.mCount = mCount;
+    p.mLevels = mLevels;
+
+    for (int l = BASE_LEVEL; l <= mLevels; l++) {
+
+      int buckets = Math.max(1, getBucketCount(l));
+
+      p.mMin[l] = copyOf(mMin[l], buckets);
+      p.mMax[l] = copyOf(mMax[l], buckets);
+      p.mFirst[l] = copyOf(mFirst[l], buckets);
+      p.mLast[l] = copyOf(mLast[l], buckets);
+
+      p.mSum[l] = new double[buckets];
+      System.arraycopy(mSum[l], 0, p.mSum[l], 0, buckets);
+    }
+
+    return p;
+  }
+
+  /**
+   * Returns the level whose buckets are the largest ones that still span at
+   * most the given number of entries. Returns 0 if that is a level below
+   * BASE_LEVEL, which means the raw entries should be used (less than
+   * 2^BASE_LEVEL per pixel).
+   *
+   * @param entriesPerPixel
+   * @return
+   */
+  public int getLevelForEntriesPerPixel(float entriesPerPixel) {
+
+    if (entriesPerPixel < (1 << BASE_LEVEL))
+      return 0;
+
+    int level = BASE_LEVEL;
+
+    while (level < mLevels && (1 << (level + 1)) <= entriesPerPixel)
+      level++;
+
+    return level;
+  }
+
+  /**
+   * returns the number of values the pyramid aggregates
+   *
+   * @return
+   */
+  public int getCount() {
+    return mCount;
+  }
+
+  /**
+   * returns the top (coarsest) level, the stored levels range from
+   * BASE_LEVEL to this one
+   *
+   * @return
+   */
+  public int getLevelCount() {
+    return mLevels;
+  }
+
+  /**
+   * returns the number of entries one bucket of the given level spans
+   *
+   * @param level
+   * @return
+   */
+  public int getBucketSize(int level) {
+    return 1 << level;
+  }
+
+  /**
+   * returns the number of buckets on the given level
+   *
+   * @param level
+   * @return
+   */
+  public int getBucketCount(int level) {
+    return (mCount + (1 << level) - 1) >> level;
+  }
+
+  public float getMin(int level, int bucket) {
+    return mMin[level][bucket];
+  }
+
+  public float getMax(int level, int bucket) {
+    return mMax[level][bucket];
+  }
+
+  public float getFirst(int level, int bucket) {
+    return mFirst[level][bucket];
+  }
+
+  public float getLast(int level, int bucket) {
+    return mLast[level][bucket];
+  }
+
+  public double getSum(int level, int bucket) {
+    return mSum[level][bucket];
+  }
+}
@@ -0,0 +1,18 @@
+package com.github.mikephil.charting.data;
+
+/**
+ * EntryStore whose entries change after it was created (e.g. by appending).
+ * DataSet.snapshot() uses snapshot() so that snapshots of DataSets backed by
+ * such a store never change.
+ */
+public interface MutableEntryStore extends EntryStore {
+
+  /**
+   * Returns an immutable copy of the current entries that can be read from
+   * another thread while this store is modified further. The copy may share
+   * data with this store that is not modified anymore.
+   *
+   * @return
+   */
+  EntryStore snapshot();
+}
@@ -14,4 +14,8 @@ public class ScatterDataSet extends DataSet {
   public ScatterDataSet(ArrayList<Entry> yVals, String label) {
     super(yVals, label);
   }
+
+  public ScatterDataSet(EntryStore store, String label) {
+    super(store, label);
+  }
 }
@@ -0,0 +1,142 @@
+package com.github.mikephil.charting.data;
+
+/**
+ * Maps the xIndices of the entries of a DataSet to the position of the
+ * first entry with that xIndex in constant time, using an open-addressing
+ * hash table of ints. Appended entries are added incrementally. Only used
+ * for DataSets whose entries are not sorted by their xIndex, sorted ones
+ * calculate the position of aligned entries or search binary.
+ */
+final class XIndexLookup {
+
+  /**
+   * the number of entries that were added
+   */
+  private int mCount = 0;
+
+  private int[] mKeys;
+  private int[] mPositions;
+  private boolean[] mUsed;
+  private int mSize = 0;
+
+  XIndexLookup() {
+    allocate(8);
+  }
+
+  /**
+   * Creates the lookup for the entries of the given DataSet.
+   *
+   * @param set
+   * @return
+   */
+  static XIndexLookup build(DataSet set) {
+
+    XIndexLookup lookup = new XIndexLookup();
+
+    for (int i = 0; i < set.getEntryCount(); i++)
+      lookup.append(set.getXIndexAt(i));
+
+    return lookup;
+  }
+
+  /**
+   * adds the entry at the next position with the given xIndex
+   *
+   * @param xIndex
+   */
+  void append(int xIndex) {
+    put(xIndex, mCount++);
+  }
+
+  /**
+   * Returns the position of the first entry with the given xIndex, -1 if
+   * there is none.
+   *
+   * @param xIndex
+   * @return
+   */
+  int get(int xIndex) {
+
+    int mask = mKeys.length - 1;
+
+    for (int slot = hash(xIndex) & mask; mUsed[slot]; slot = (slot + 1) & mask) {
+      if (mKeys[slot] == xIndex)
+        return mPositions[slot];
+    }
+
+    return -1;
+  }
+
+  /**
+   * returns a copy that can be modified independently
+   *
+   * @return
+   */
+  XIndexLookup copy() {
+
+    XIndexLookup c = new XIndexLookup();
+    c.mCount = mCount;
+    c.mSize = mSize;
+    c.mKeys = mKeys.clone();
+    c.mPositions = mPositions.clone();
+    c.mUsed = mUsed.clone();
+
+    return c;
+  }
+
+  /**
+   * adds the given position for the given xIndex if the xIndex has no
+   * position yet
+   */
+  private void put(int xIndex, int position) {
+
+    // keep the load factor below 1/2
+    if ((mSize + 1) * 2 > mKeys.length)
+      rehash();
+
+    int mask = mKeys.length - 1;
+    int slot = hash(xIndex) & mask;
+
+    while (mUsed[slot]) {
+      if (mKeys[slot] == xIndex)
+        return;
+      slot = (slot + 1) & mask;
+    }
+
+    mUsed[slot] = true;
+    mKeys[slot] = xIndex;
+    mPositions[slot] = position;
+    mSize++;
+  }
+
+  private void allocate(int minCapacity) {
+
+    int capacity = 16;
+    while (capacity < minCapacity * 2)
+      capacity <<= 1;
+
+    mKeys = new int[capacity];
+    mPositions = new int[capacity];
+    mUsed = new boolean[capacity];
+    mSize = 0;
+  }
+
+  private void rehash() {
+
+    int[] keys = mKeys;
+    int[] positions = mPositions;
+    boolean[] used = mUsed;
+
+    allocate(mSize + 1);
+
+    for (int i = 0; i < keys.length; i++) {
+      if (used[i])
+        put(keys[i], positions[i]);
+    }
+  }
+
+  private static int hash(int key) {
+    int h = key * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+}
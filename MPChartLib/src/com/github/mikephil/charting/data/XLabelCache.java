@@ -0,0 +1,238 @@
+package com.github.mikephil.charting.data;
+
+import java.util.Arrays;
+
+/**
+ * Bounded cache of formatted x-labels by their index. If the cache is full,
+ * the least recently used label is evicted. The indices are kept in
+ * primitive arrays, so lookups do not allocate. All methods are
+ * synchronized, the cache can be used by several threads reading the same
+ * snapshot.
+ */
+final class XLabelCache {
+
+  private static final int NONE = -1;
+
+  /**
+   * the maximum number of labels that are kept
+   */
+  private final int mMaxSize;
+
+  /**
+   * per entry: the index, its label and the next entry of the same bucket
+   */
+  private int[] mIndices;
+  private String[] mLabels;
+  private int[] mChain;
+
+  /**
+   * per entry: the entry used before and after it
+   */
+  private int[] mNewer;
+  private int[] mOlder;
+
+  /**
+   * the most and the least recently used entry
+   */
+  private int mHead = NONE;
+  private int mTail = NONE;
+
+  /**
+   * the first entry of every bucket
+   */
+  private int[] mBuckets;
+
+  /**
+   * the number of entries
+   */
+  private int mSize = 0;
+
+  XLabelCache(int maxSize) {
+
+    if (maxSize < 1)
+      throw new IllegalArgumentException("The cache size must be at least 1.");
+
+    mMaxSize = maxSize;
+
+    // grows up to the maximum size when labels are added
+    allocate(Math.min(maxSize, 16));
+  }
+
+  /**
+   * returns the cached label of the given index, null if it is not cached
+   *
+   * @param index
+   * @return
+   */
+  synchronized String get(int index) {
+
+    int e = find(index);
+
+    if (e == NONE)
+      return null;
+
+    moveToHead(e);
+
+    return mLabels[e];
+  }
+
+  /**
+   * Adds the label of the given index, evicts the least recently used label
+   * if the cache is full.
+   *
+   * @param index
+   * @param label
+   */
+  synchronized void put(int index, String label) {
+
+    int e = find(index);
+
+    if (e != NONE) {
+      // formatted by another thread meanwhile
+      mLabels[e] = label;
+      moveToHead(e);
+      return;
+    }
+
+    if (mSize < mMaxSize) {
+
+      if (mSize == mIndices.length)
+        allocate((int) Math.min(mIndices.length * 2L, mMaxSize));
+
+      e = mSize++;
+
+    } else {
+
+      e = mTail;
+      unlink(e);
+      removeFromBucket(e);
+    }
+
+    mIndices[e] = index;
+    mLabels[e] = label;
+
+    int b = bucket(index);
+    mChain[e] = mBuckets[b];
+    mBuckets[b] = e;
+
+    linkHead(e);
+  }
+
+  /**
+   * removes all labels
+   */
+  synchronized void clear() {
+
+    Arrays.fill(mBuckets, NONE);
+    Arrays.fill(mLabels, null);
+
+    mSize = 0;
+    mHead = NONE;
+    mTail = NONE;
+  }
+
+  synchronized int size() {
+    return mSize;
+  }
+
+  int getMaxSize() {
+    return mMaxSize;
+  }
+
+  private int bucket(int index) {
+    int h = index * 0x9E3779B9;
+    return (h ^ (h >>> 16)) & (mBuckets.length - 1);
+  }
+
+  private int find(int index) {
+
+    for (int e = mBuckets[bucket(index)]; e != NONE; e = mChain[e]) {
+      if (mIndices[e] == index)
+        return e;
+    }
+
+    return NONE;
+  }
+
+  private void removeFromBucket(int e) {
+
+    int b = bucket(mIndices[e]);
+
+    if (mBuckets[b] == e) {
+      mBuckets[b] = mChain[e];
+      return;
+    }
+
+    int previous = mBuckets[b];
+
+    while (mChain[previous] != e)
+      previous = mChain[previous];
+
+    mChain[previous] = mChain[e];
+  }
+
+  private void moveToHead(int e) {
+
+    if (e == mHead)
+      return;
+
+    unlink(e);
+    linkHead(e);
+  }
+
+  private void unlink(int e) {
+
+    int newer = mNewer[e];
+    int older = mOlder[e];
+
+    if (newer != NONE)
+      mOlder[newer] = older;
+    else
+      mHead = older;
+
+    if (older != NONE)
+      mNewer[older] = newer;
+    else
+      mTail = newer;
+  }
+
+  private void linkHead(int e) {
+
+    mNewer[e] = NONE;
+    mOlder[e] = mHead;
+
+    if (mHead != NONE)
+      mNewer[mHead] = e;
+    else
+      mTail = e;
+
+    mHead = e;
+  }
+
+  /**
+   * resizes the entry arrays to the given capacity and distributes the
+   * entries over the buckets again
+   */
+  private void allocate(int capacity) {
+
+    mIndices = mIndices == null ? new int[capacity] : Arrays.copyOf(mIndices, capacity);
+    mLabels = mLabels == null ? new String[capacity] : Arrays.copyOf(mLabels, capacity);
+    mChain = mChain == null ? new int[capacity] : Arrays.copyOf(mChain, capacity);
+    mNewer = mNewer == null ? new int[capacity] : Arrays.copyOf(mNewer, capacity);
+    mOlder = mOlder == null ? new int[capacity] : Arrays.copyOf(mOlder, capacity);
+
+    int buckets = Integer.highestOneBit(capacity);
+
+    if (buckets < capacity && buckets < 1 << 30)
+      buckets <<= 1;
+
+    mBuckets = new int[buckets];
+    Arrays.fill(mBuckets, NONE);
+
+    for (int e = 0; e < mSize; e++) {
+      int b = bucket(mIndices[e]);
+      mChain[e] = mBuckets[b];
+      mBuckets[b] = e;
+    }
+  }
+}
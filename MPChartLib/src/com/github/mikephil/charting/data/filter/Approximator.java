@@ -1,6 +1,8 @@
 package com.github.mikephil.charting.data.filter;
 
+import com.github.mikephil.charting.data.DataSet;
 import com.github.mikephil.charting.data.Entry;
+import com.github.mikephil.charting.data.MinMaxPyramid;
 
 import java.util.ArrayList;
 
@@ -32,10 +34,12 @@ public class Approximator {
   private boolean[] keep;
 
   /**
-   * enums for the different types of filtering algorithms
+   * enums for the different types of filtering algorithms, MIN_MAX reduces
+   * the entries to minimum, maximum, first and last value per pixel using the
+   * pyramid of the DataSet (see filter(DataSet, float) for its memory cost)
    */
   public enum ApproximatorType {
-    NONE, DOUGLAS_PEUCKER
+    NONE, DOUGLAS_PEUCKER, MIN_MAX
   }
 
   /**
@@ -84,6 +88,15 @@ public class Approximator {
     this.mType = type;
   }
 
+  /**
+   * returns the filtering algorithm that is used
+   *
+   * @return
+   */
+  public ApproximatorType getType() {
+    return mType;
+  }
+
   /**
    * Sets the ratios for x- and y-axis, as well as the ratio of the scale
    * levels
@@ -123,6 +136,9 @@ public class Approximator {
     switch (mType) {
     case DOUGLAS_PEUCKER:
       return reduceWithDouglasPeuker(points, tolerance);
+    case MIN_MAX:
+      // needs the DataSet, see filter(DataSet, float)
+      return points;
     case NONE:
       return points;
     default:
@@ -130,6 +146,84 @@ public class Approximator {
     }
   }
 
+  /**
+   * Filters the entries of the given DataSet according to type. The
+   * MIN_MAX type uses the pyramid of the DataSet and does work proportional
+   * to the number of pixels instead of the number of entries if the pyramid
+   * of the DataSet is enabled (see DataSet.setPyramidEnabled(...)),
+   * otherwise a temporary pyramid is built from all entries for every call;
+   * the DataSet is not modified. Snapshots build their pyramid once and keep
+   * it; enable the pyramid on the DataSet snapshots are taken from, so that
+   * each snapshot shares its pyramid instead of building one.
+   *
+   * @param set the DataSet to filter
+   * @param entriesPerPixel the number of entries that share one pixel
+   * @return
+   */
+  public ArrayList<Entry> filter(DataSet set, float entriesPerPixel) {
+
+    if (mType == ApproximatorType.MIN_MAX)
+      return reduceWithPyramid(set, entriesPerPixel);
+
+    return filter(entries(set));
+  }
+
+  /**
+   * reduces the entries of the given DataSet to the first, minimum, maximum
+   * and last value of each bucket of the pyramid level that matches the
+   * given number of entries per pixel
+   *
+   * @param set
+   * @param entriesPerPixel
+   * @return
+   */
+  private ArrayList<Entry> reduceWithPyramid(DataSet set, float entriesPerPixel) {
+
+    if (!set.isSorted())
+      return entries(set);
+
+    MinMaxPyramid pyramid;
+
+    if (set.isPyramidEnabled())
+      pyramid = set.getPyramid();
+    else if (set.isFrozen())
+      pyramid = set.getSnapshotPyramid();
+    else
+      pyramid = MinMaxPyramid.build(set);
+
+    int level = pyramid.getLevelForEntriesPerPixel(entriesPerPixel);
+
+    if (level == 0)
+      return entries(set);
+
+    int size = pyramid.getBucketSize(level);
+    int buckets = pyramid.getBucketCount(level);
+
+    ArrayList<Entry> reducedEntries = new ArrayList<Entry>(buckets * 4);
+
+    for (int b = 0; b < buckets; b++) {
+
+      int first = set.getXIndexAt(b * size);
+      int last = set.getXIndexAt(Math.min((b + 1) * size, set.getEntryCount()) - 1);
+
+      float firstVal = pyramid.getFirst(level, b);
+      float lastVal = pyramid.getLast(level, b);
+
+      // the pyramid does not know where in the bucket minimum and maximum
+      // are, a bucket spans at most one pixel, so they are put at its first
+      // and last xIndex in the order that matches the first and last value
+      float second = firstVal <= lastVal ? pyramid.getMin(level, b) : pyramid.getMax(level, b);
+      float third = firstVal <= lastVal ? pyramid.getMax(level, b) : pyramid.getMin(level, b);
+
+      reducedEntries.add(new Entry(firstVal, first));
+      reducedEntries.add(new Entry(second, first));
+      reducedEntries.add(new Entry(third, last));
+      reducedEntries.add(new Entry(lastVal, last));
+    }
+
+    return reducedEntries;
+  }
+
   /**
    * uses the douglas peuker algorithm to reduce the given arraylist of
    * entries
@@ -251,6 +345,17 @@ public class Approximator {
     return Math.abs(angle1 - angle2);
   }
 
+  /**
+   * returns the Entry array of the given DataSet, or a copy of its entries
+   * once they are held in chunks
+   *
+   * @param set
+   * @return
+   */
+  private static ArrayList<Entry> entries(DataSet set) {
+    return set.hasYVals() ? set.getYVals() : set.copyYVals();
+  }
+
   /**
    * calculates the angle between two Entries (points) in the chart taking
    * ratios into consideration
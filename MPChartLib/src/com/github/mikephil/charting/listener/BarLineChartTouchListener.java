@@ -5,7 +5,6 @@ import com.github.mikephil.charting.data.ChartData;
 import com.github.mikephil.charting.data.DrawingContext;
 import com.github.mikephil.charting.data.Entry;
 import com.github.mikephil.charting.utils.Highlight;
-import com.github.mikephil.charting.utils.PointD;
 
 import android.graphics.Matrix;
 import android.graphics.PointF;
@@ -33,6 +32,12 @@ public class BarLineChartTouchListener extends SimpleOnGestureListener implement
    */
   private PointF mTouchPointCenter = new PointF();
 
+  /**
+   * scratch objects reused on every touch event
+   */
+  private PointF mTrans = new PointF();
+  private float[] mValues = new float[2];
+
   // states
   private static final int NONE = 0;
   private static final int DRAG = 1;
@@ -84,13 +89,23 @@ public class BarLineChartTouchListener extends SimpleOnGestureListener implement
     if (!mChart.isDragEnabled() && !mDrawingEnabled)
       return true;
 
-    mDrawingContext.init(mChart.getDrawListener(), mChart.isAutoFinishEnabled());
     ChartData data = mChart.getDataCurrent();
 
     // Handle touch events here...
     switch (event.getAction() & MotionEvent.ACTION_MASK) {
     case MotionEvent.ACTION_DOWN:
+      // the drawing settings apply to the whole gesture
+      mDrawingContext.init(mChart.getDrawListener(), mChart.isAutoFinishEnabled());
+
       if (event.getPointerCount() == 1 && mDrawingEnabled) {
+
+        // published snapshots can not be modified, drawing continues on a
+        // modifiable copy that replaces the snapshot
+        if (data.isFrozen()) {
+          data = data.mutableCopy();
+          mChart.setData(data);
+        }
+
         if (mLastHighlighted != null) {
           Entry highlightedEntry = mChart.getDataCurrent().getEntryForHighlight(
               mLastHighlighted);
@@ -98,7 +113,8 @@ public class BarLineChartTouchListener extends SimpleOnGestureListener implement
               event.getY());
           if (highlightedEntry != null && highlightedEntry == currentHoveredEntry) {
             mTouchMode = MOVE_POINT;
-            mDrawingContext.setMovingEntry(currentHoveredEntry);
+            mDrawingContext.setMovingEntry(
+                data.getDataSetByIndex(mLastHighlighted.getDataSetIndex()), currentHoveredEntry);
             break;
           }
         }
@@ -106,7 +122,8 @@ public class BarLineChartTouchListener extends SimpleOnGestureListener implement
         // TODO not always create new drawing sets
         mStartTimestamp = System.currentTimeMillis();
         mDrawingContext.createNewDrawingDataSet(data);
-        Log.i("Drawing", "New drawing data set created");
+        if (mChart.isLogEnabled())
+          Log.i("Drawing", "New drawing data set created");
       } else {
         mSavedMatrix.set(mMatrix);
       }
@@ -155,11 +172,13 @@ public class BarLineChartTouchListener extends SimpleOnGestureListener implement
         if (deltaT < 1000 && Math.abs(event.getX() - mTouchStartPoint.x) < 25f) {
           mDrawingContext.deleteLastDrawingEntry(data);
           onSingleTapConfirmed(event);
-          Log.i("Drawing", "Drawing aborted");
+          if (mChart.isLogEnabled())
+            Log.i("Drawing", "Drawing aborted");
         } else {
           mDrawingContext.finishNewDrawingEntry(data);
           mChart.notifyDataSetChanged();
-          Log.i("Drawing", "Drawing finished");
+          if (mChart.isLogEnabled())
+            Log.i("Drawing", "Drawing finished");
         }
       } else {
         mChart.enableScroll();
@@ -172,10 +191,10 @@ public class BarLineChartTouchListener extends SimpleOnGestureListener implement
       break;
     case MotionEvent.ACTION_MOVE:
       if (mTouchMode == DRAWING || mTouchMode == MOVE_POINT) {
-        PointD p = mChart.getValuesByTouchPoint(event.getX(), event.getY());
+        mChart.getValuesByTouchPoint(event.getX(), event.getY(), mValues);
 
-        int xIndex = (int) p.x;
-        float yVal = (float) p.y;
+        int xIndex = (int) mValues[0];
+        float yVal = mValues[1];
 
         if (xIndex < 0)
           xIndex = 0;
@@ -185,13 +204,12 @@ public class BarLineChartTouchListener extends SimpleOnGestureListener implement
 
         boolean added = false;
         if (mTouchMode == MOVE_POINT) {
-          mDrawingContext.getMovingEntry().setVal(yVal);
           // do not allow x index to change for the moment
-          // mDrawingContext.getMovingEntry().setXIndex(xIndex);
-          mDrawingContext.notifyEntryMoved(data);
+          mDrawingContext.moveEntry(yVal, data);
           added = true;
-        } else {
-          Entry entry = new Entry((float) yVal, xIndex);
+        } else if (!mDrawingContext.isLastDrawingXIndex(xIndex)) {
+          // only create an entry if the finger moved to another x-index
+          Entry entry = new Entry(yVal, xIndex);
           added = mDrawingContext.addNewDrawingEntry(entry, data);
         }
         if (added) {
@@ -211,8 +229,7 @@ public class BarLineChartTouchListener extends SimpleOnGestureListener implement
       } else if (mTouchMode == DRAG) {
 
         mMatrix.set(mSavedMatrix);
-        PointF dragPoint = new PointF(event.getX(), event.getY());
-        mMatrix.postTranslate(dragPoint.x - mTouchStartPoint.x, dragPoint.y
+        mMatrix.postTranslate(event.getX() - mTouchStartPoint.x, event.getY()
             - mTouchStartPoint.y);
       } else if (mTouchMode == X_ZOOM || mTouchMode == Y_ZOOM || mTouchMode == PINCH_ZOOM) {
 
@@ -222,22 +239,13 @@ public class BarLineChartTouchListener extends SimpleOnGestureListener implement
 
         if (totalDist > 10f) {
 
-          float[] values = new float[9];
-          mMatrix.getValues(values);
-
-          // get the previous scale factors
-          // float oldScaleX = values[Matrix.MSCALE_X];
-          // float oldScaleY = values[Matrix.MSCALE_Y];
-
           // get the translation
-          PointF t = getTrans(mTouchPointCenter.x, mTouchPointCenter.y);
+          PointF t = getTrans(mTouchPointCenter.x, mTouchPointCenter.y, mTrans);
 
           // take actions depending on the activated touch
           // mode
           if (mTouchMode == PINCH_ZOOM) {
 
-            Log.d("PINCH", "ACtioN MOve");
-
             float scale = totalDist / mSavedDist; // total
             // scale
 
@@ -365,11 +373,25 @@ public class BarLineChartTouchListener extends SimpleOnGestureListener implement
    * @return
    */
   public PointF getTrans(float x, float y) {
+    return getTrans(x, y, new PointF());
+  }
+
+  /**
+   * writes the correct translation depending on the provided x and y touch
+   * points into the given point and returns it
+   *
+   * @param x
+   * @param y
+   * @param trans
+   * @return
+   */
+  private PointF getTrans(float x, float y, PointF trans) {
 
     float xTrans = x - mChart.getOffsetLeft();
     float yTrans = -(mChart.getMeasuredHeight() - y - mChart.getOffsetBottom());
 
-    return new PointF(xTrans, yTrans);
+    trans.set(xTrans, yTrans);
+    return trans;
   }
 
   /**
@@ -407,7 +429,8 @@ public class BarLineChartTouchListener extends SimpleOnGestureListener implement
 
       mChart.zoomIn(trans.x, trans.y);
 
-      Log.i("BarlineChartTouch", "Double-Tap, Zooming In, x: " + trans.x + ", y: " + trans.y);
+      if (mChart.isLogEnabled())
+        Log.i("BarlineChartTouch", "Double-Tap, Zooming In, x: " + trans.x + ", y: " + trans.y);
     }
 
     return super.onDoubleTap(e);
@@ -420,7 +443,8 @@ public class BarLineChartTouchListener extends SimpleOnGestureListener implement
 
       mChart.zoomOut(trans.x, trans.y);
 
-      Log.i("BarlineChartTouch", "Longpress, Zooming Out, x: " + trans.x + ", y: " + trans.y);
+      if (mChart.isLogEnabled())
+        Log.i("BarlineChartTouch", "Longpress, Zooming Out, x: " + trans.x + ", y: " + trans.y);
     }
   }
 
@@ -12,7 +12,10 @@ public class PieChartTouchListener extends SimpleOnGestureListener {
 
   private PieChart mChart;
 
-  private Highlight mLastHighlight;
+  /**
+   * the slice that was tapped last, -1 if none
+   */
+  private int mLastSlice = -1;
 
   public PieChartTouchListener(PieChart ctx) {
     this.mChart = ctx;
@@ -31,22 +34,22 @@ public class PieChartTouchListener extends SimpleOnGestureListener {
 
       // if no slice was touched, highlight nothing
       mChart.highlightValues(null);
-      mLastHighlight = null;
+      mLastSlice = -1;
     } else {
 
       int index = mChart.getIndexForAngle(mChart.getAngleForPoint(e.getX(), e.getY()));
-      int dataSetIndex = mChart.getDataSetIndexForIndex(index);
 
-      Highlight h = new Highlight(index, dataSetIndex);
-
-      if (h.equalTo(mLastHighlight)) {
+      if (index == mLastSlice) {
 
         mChart.highlightValues(null);
-        mLastHighlight = null;
+        mLastSlice = -1;
       } else {
 
-        mChart.highlightValues(new Highlight[] { h });
-        mLastHighlight = h;
+        // the "other" slice highlights all entries it aggregates
+        Highlight[] highs = mChart.getHighlightsForSlice(index);
+
+        mChart.highlightValues(highs);
+        mLastSlice = highs == null ? -1 : index;
       }
     }
     return true;
@@ -0,0 +1,316 @@
+package com.github.mikephil.charting.utils;
+
+import com.github.mikephil.charting.data.DataSet;
+
+import android.graphics.Bitmap;
+import android.graphics.Matrix;
+
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Grid of square cells over a screen area that counts the points falling
+ * into each cell, used to draw very large scatter plots as a density map
+ * instead of one shape per point. The counts are mapped through a logarithmic
+ * color ramp into a bitmap with one pixel per cell, which is drawn scaled to
+ * the area. Points can be counted in parallel on an ExecutorService, each
+ * task counting a part of the points into its own grid. Counts, pixels and
+ * the bitmap are reused between frames and only reallocated if the grid
+ * grows. Not thread-safe.
+ */
+public class DensityGrid {
+
+  /**
+   * the number of colors of the ramp
+   */
+  private static final int RAMP_SIZE = 256;
+
+  /**
+   * the minimum number of points a parallel task counts
+   */
+  private static final int MIN_POINTS_PER_TASK = 50000;
+
+  private float mLeft;
+  private float mTop;
+  private float mCellSize;
+  private int mColumns;
+  private int mRows;
+
+  private int[] mCounts = new int[0];
+  private int[] mPixels = new int[0];
+  private int[] mRamp = new int[RAMP_SIZE];
+
+  /**
+   * the grids of the parallel tasks
+   */
+  private int[][] mPartials = new int[0][];
+
+  private Bitmap mBitmap = null;
+
+  /**
+   * the matrix values of the current transformation
+   */
+  private final float[] mMatrixValues = new float[9];
+
+  /**
+   * @param colors the colors of the ramp from low to high density, see
+   *          setColors(...)
+   */
+  public DensityGrid(int[] colors) {
+    setColors(colors);
+  }
+
+  /**
+   * Sets the colors the counts are mapped to, from the lowest to the highest
+   * density. Colors in between are interpolated (including alpha), empty
+   * cells stay transparent.
+   *
+   * @param colors
+   */
+  public void setColors(int[] colors) {
+
+    if (colors == null || colors.length == 0)
+      throw new IllegalArgumentException("The color ramp needs at least one color.");
+
+    for (int i = 0; i < RAMP_SIZE; i++) {
+
+      float pos = (float) i / (RAMP_SIZE - 1) * (colors.length - 1);
+      int index = Math.min((int) pos, colors.length - 1);
+      int next = Math.min(index + 1, colors.length - 1);
+
+      mRamp[i] = interpolate(colors[index], colors[next], pos - index);
+    }
+  }
+
+  private static int interpolate(int from, int to, float fraction) {
+
+    int color = 0;
+
+    for (int shift = 0; shift < 32; shift += 8) {
+
+      int a = (from >>> shift) & 0xFF;
+      int b = (to >>> shift) & 0xFF;
+
+      color |= Math.round(a + (b - a) * fraction) << shift;
+    }
+
+    return color;
+  }
+
+  /**
+   * Clears the counts and sets the area the grid covers and the size of its
+   * cells in pixels.
+   *
+   * @param left
+   * @param top
+   * @param right
+   * @param bottom
+   * @param cellSize
+   */
+  public void reset(float left, float top, float right, float bottom, float cellSize) {
+
+    if (cellSize <= 0)
+      throw new IllegalArgumentException("The cell size must be positive.");
+
+    mLeft = left;
+    mTop = top;
+    mCellSize = cellSize;
+    mColumns = Math.max(1, (int) Math.ceil((right - left) / cellSize));
+    mRows = Math.max(1, (int) Math.ceil((bottom - top) / cellSize));
+
+    int cells = mColumns * mRows;
+
+    if (mCounts.length < cells) {
+      mCounts = new int[cells];
+      mPixels = new int[cells];
+    } else {
+      for (int i = 0; i < cells; i++)
+        mCounts[i] = 0;
+    }
+  }
+
+  /**
+   * Counts the entries of the given DataSet from position from (inclusive)
+   * to position to (exclusive) at their positions transformed with the given
+   * matrix. Points outside of the area are ignored. If an executor is given,
+   * there are enough points and the DataSet can be read concurrently (see
+   * DataSet.isConcurrentReadSafe()), they are counted in parallel; the counts
+   * are complete when this method returns.
+   *
+   * @param set
+   * @param from
+   * @param to
+   * @param valueToPixel
+   * @param executor may be null
+   */
+  public void add(final DataSet set, int from, int to, Matrix valueToPixel,
+      ExecutorService executor) {
+
+    valueToPixel.getValues(mMatrixValues);
+
+    int tasks = Math.min(Runtime.getRuntime().availableProcessors(),
+        (to - from) / MIN_POINTS_PER_TASK);
+
+    // stores whose reads modify a cache are counted on this thread only
+    if (executor == null || tasks < 2 || !set.isConcurrentReadSafe()) {
+      count(set, from, to, mCounts);
+      return;
+    }
+
+    int cells = mColumns * mRows;
+
+    if (mPartials.length < tasks || mPartials[0].length < cells)
+      mPartials = new int[tasks][cells];
+
+    ArrayList<Future<Void>> futures = new ArrayList<Future<Void>>(tasks);
+
+    for (int t = 0; t < tasks; t++) {
+
+      final int taskFrom = from + (int) ((long) (to - from) * t / tasks);
+      final int taskTo = from + (int) ((long) (to - from) * (t + 1) / tasks);
+      final int[] counts = mPartials[t];
+
+      for (int i = 0; i < cells; i++)
+        counts[i] = 0;
+
+      futures.add(executor.submit(new Callable<Void>() {
+        @Override
+        public Void call() {
+          count(set, taskFrom, taskTo, counts);
+          return null;
+        }
+      }));
+    }
+
+    // Future.get() makes the counts of the workers visible to this thread
+    boolean interrupted = false;
+
+    for (int t = 0; t < futures.size(); t++) {
+      while (true) {
+        try {
+          futures.get(t).get();
+          break;
+        } catch (InterruptedException e) {
+          // the workers still write into the grids, keep waiting
+          interrupted = true;
+        } catch (ExecutionException e) {
+          throw new RuntimeException(e.getCause());
+        }
+      }
+    }
+
+    if (interrupted)
+      Thread.currentThread().interrupt();
+
+    for (int t = 0; t < tasks; t++) {
+
+      int[] counts = mPartials[t];
+
+      for (int i = 0; i < cells; i++)
+        mCounts[i] += counts[i];
+    }
+  }
+
+  /**
+   * counts the given entries into the given grid
+   */
+  private void count(DataSet set, int from, int to, int[] counts) {
+
+    float[] m = mMatrixValues;
+    float inv = 1f / mCellSize;
+
+    for (int j = from; j < to; j++) {
+
+      float x = set.getXIndexAt(j);
+      float y = set.getValAt(j);
+
+      float px = (m[Matrix.MSCALE_X] * x + m[Matrix.MSKEW_X] * y + m[Matrix.MTRANS_X] - mLeft) * inv;
+      float py = (m[Matrix.MSKEW_Y] * x + m[Matrix.MSCALE_Y] * y + m[Matrix.MTRANS_Y] - mTop) * inv;
+
+      // also filters NaN
+      if (!(px >= 0 && px < mColumns && py >= 0 && py < mRows))
+        continue;
+
+      counts[(int) py * mColumns + (int) px]++;
+    }
+  }
+
+  /**
+   * Maps the counts through the color ramp into the bitmap and returns it.
+   * The bitmap has one pixel per cell and has to be drawn scaled into the
+   * bounds returned by getRight() and getBottom(). It is reused by the next
+   * call.
+   *
+   * @return
+   */
+  public Bitmap render() {
+
+    int cells = mColumns * mRows;
+
+    int max = 0;
+    for (int i = 0; i < cells; i++)
+      max = Math.max(max, mCounts[i]);
+
+    // the logarithm of the counts spreads dense and sparse cells over the
+    // ramp
+    float scale = max > 1 ? (RAMP_SIZE - 1) / (float) Math.log(max) : 0f;
+
+    for (int i = 0; i < cells; i++) {
+
+      int count = mCounts[i];
+
+      mPixels[i] = count == 0 ? 0 : mRamp[(int) ((float) Math.log(count) * scale)];
+    }
+
+    if (mBitmap == null || mBitmap.getWidth() != mColumns || mBitmap.getHeight() != mRows) {
+      release();
+      mBitmap = Bitmap.createBitmap(mColumns, mRows, Bitmap.Config.ARGB_8888);
+    }
+
+    mBitmap.setPixels(mPixels, 0, mColumns, 0, 0, mColumns, mRows);
+
+    return mBitmap;
+  }
+
+  /**
+   * returns the right edge of the area the bitmap covers, in pixels
+   *
+   * @return
+   */
+  public float getRight() {
+    return mLeft + mColumns * mCellSize;
+  }
+
+  /**
+   * returns the bottom edge of the area the bitmap covers, in pixels
+   *
+   * @return
+   */
+  public float getBottom() {
+    return mTop + mRows * mCellSize;
+  }
+
+  /**
+   * returns the number of points counted into the given cell
+   *
+   * @param column
+   * @param row
+   * @return
+   */
+  public int getCount(int column, int row) {
+    return mCounts[row * mColumns + column];
+  }
+
+  /**
+   * releases the bitmap, it is recreated by the next render()
+   */
+  public void release() {
+    if (mBitmap != null) {
+      mBitmap.recycle();
+      mBitmap = null;
+    }
+  }
+}
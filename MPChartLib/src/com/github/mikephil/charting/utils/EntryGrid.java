@@ -0,0 +1,362 @@
+package com.github.mikephil.charting.utils;
+
+import com.github.mikephil.charting.data.DataSet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Uniform grid over the entries of several DataSets in value space (xIndex,
+ * y-value), used to find the entry closest to a point or all entries inside
+ * a rectangle without looking at every entry. The grid has about one cell
+ * per two entries, so a query only visits the cells that overlap its bounds.
+ * The entries are stored cell by cell in flat arrays, the grid has to be
+ * rebuilt with build(...) when the data changes. Not thread-safe.
+ */
+public class EntryGrid {
+
+  /**
+   * average number of entries per cell
+   */
+  private static final int ENTRIES_PER_CELL = 2;
+
+  private float mXMin;
+  private float mYMin;
+  private float mCellWidth;
+  private float mCellHeight;
+  private int mColumns;
+  private int mRows;
+
+  /**
+   * the entries of cell c are stored at [cellStarts[c], cellStarts[c + 1])
+   */
+  private int[] mCellStarts = new int[1];
+
+  private int[] mDataSets = new int[0];
+  private int[] mEntries = new int[0];
+  private float[] mX = new float[0];
+  private float[] mY = new float[0];
+
+  private int mSize = 0;
+
+  /**
+   * dataset and entry of the hits of the last rectangle query, dataset in
+   * the upper 32 bits
+   */
+  private long[] mHits = new long[16];
+  private int mHitCount = 0;
+
+  /**
+   * Builds the grid for the given DataSets. Entries with a NaN value are
+   * left out.
+   *
+   * @param dataSets
+   */
+  public void build(ArrayList<? extends DataSet> dataSets) {
+
+    // bounds and number of the entries
+    int size = 0;
+    float xMin = Float.MAX_VALUE, xMax = -Float.MAX_VALUE;
+    float yMin = Float.MAX_VALUE, yMax = -Float.MAX_VALUE;
+
+    for (int i = 0; i < dataSets.size(); i++) {
+
+      DataSet set = dataSets.get(i);
+
+      for (int j = 0; j < set.getEntryCount(); j++) {
+
+        float val = set.getValAt(j);
+
+        if (Float.isNaN(val))
+          continue;
+
+        float x = set.getXIndexAt(j);
+
+        xMin = Math.min(xMin, x);
+        xMax = Math.max(xMax, x);
+        yMin = Math.min(yMin, val);
+        yMax = Math.max(yMax, val);
+        size++;
+      }
+    }
+
+    mSize = size;
+
+    if (size == 0) {
+      mColumns = 0;
+      mRows = 0;
+      return;
+    }
+
+    int side = Math.max(1, (int) Math.sqrt((double) size / ENTRIES_PER_CELL));
+
+    mColumns = xMax > xMin ? side : 1;
+    mRows = yMax > yMin ? side : 1;
+    mXMin = xMin;
+    mYMin = yMin;
+    mCellWidth = xMax > xMin ? (xMax - xMin) / mColumns : 1f;
+    mCellHeight = yMax > yMin ? (yMax - yMin) / mRows : 1f;
+
+    int cells = mColumns * mRows;
+
+    if (mCellStarts.length < cells + 1)
+      mCellStarts = new int[cells + 1];
+    else
+      Arrays.fill(mCellStarts, 0, cells + 1, 0);
+
+    if (mDataSets.length < size) {
+      mDataSets = new int[size];
+      mEntries = new int[size];
+      mX = new float[size];
+      mY = new float[size];
+    }
+
+    // count the entries per cell, then turn the counts into start positions
+    for (int i = 0; i < dataSets.size(); i++) {
+
+      DataSet set = dataSets.get(i);
+
+      for (int j = 0; j < set.getEntryCount(); j++) {
+
+        float val = set.getValAt(j);
+
+        if (!Float.isNaN(val))
+          mCellStarts[cell(set.getXIndexAt(j), val) + 1]++;
+      }
+    }
+
+    for (int c = 0; c < cells; c++)
+      mCellStarts[c + 1] += mCellStarts[c];
+
+    // fill the cells, using the start positions of the following cells as
+    // write positions and shifting them back afterwards
+    for (int i = 0; i < dataSets.size(); i++) {
+
+      DataSet set = dataSets.get(i);
+
+      for (int j = 0; j < set.getEntryCount(); j++) {
+
+        float val = set.getValAt(j);
+
+        if (Float.isNaN(val))
+          continue;
+
+        float x = set.getXIndexAt(j);
+        int pos = mCellStarts[cell(x, val)]++;
+
+        mDataSets[pos] = i;
+        mEntries[pos] = j;
+        mX[pos] = x;
+        mY[pos] = val;
+      }
+    }
+
+    for (int c = cells; c > 0; c--)
+      mCellStarts[c] = mCellStarts[c - 1];
+    mCellStarts[0] = 0;
+  }
+
+  /**
+   * returns the number of entries in the grid
+   *
+   * @return
+   */
+  public int size() {
+    return mSize;
+  }
+
+  /**
+   * Returns the position of the entry closest to the given point whose
+   * distance is at most the given radius, -1 if there is none. Distances
+   * are measured after multiplying x- and y-differences with the given
+   * scales, e.g. pixels per value to measure them in pixels.
+   *
+   * @param x
+   * @param y
+   * @param scaleX
+   * @param scaleY
+   * @param radius
+   * @return
+   */
+  public int findClosest(float x, float y, float scaleX, float scaleY, float radius) {
+
+    if (mSize == 0 || scaleX <= 0 || scaleY <= 0)
+      return -1;
+
+    float rx = radius / scaleX;
+    float ry = radius / scaleY;
+
+    int c0 = column(x - rx), c1 = column(x + rx);
+    int r0 = row(y - ry), r1 = row(y + ry);
+
+    int closest = -1;
+    float best = radius * radius;
+
+    for (int r = r0; r <= r1; r++) {
+      for (int c = c0; c <= c1; c++) {
+
+        int cell = r * mColumns + c;
+
+        for (int i = mCellStarts[cell]; i < mCellStarts[cell + 1]; i++) {
+
+          float dx = (mX[i] - x) * scaleX;
+          float dy = (mY[i] - y) * scaleY;
+          float dist = dx * dx + dy * dy;
+
+          if (dist <= best) {
+            best = dist;
+            closest = i;
+          }
+        }
+      }
+    }
+
+    return closest;
+  }
+
+  /**
+   * Finds all entries inside the given bounds (inclusive) and returns their
+   * number. The hits are ordered by DataSet and entry and can be read with
+   * getHitDataSetIndex(...) and getHitEntryIndex(...) until the next query.
+   *
+   * @param xMin
+   * @param yMin
+   * @param xMax
+   * @param yMax
+   * @return
+   */
+  public int findInRect(float xMin, float yMin, float xMax, float yMax) {
+
+    mHitCount = 0;
+
+    if (mSize == 0 || xMin > xMax || yMin > yMax)
+      return 0;
+
+    int c0 = column(xMin), c1 = column(xMax);
+    int r0 = row(yMin), r1 = row(yMax);
+
+    for (int r = r0; r <= r1; r++) {
+      for (int c = c0; c <= c1; c++) {
+
+        int cell = r * mColumns + c;
+
+        for (int i = mCellStarts[cell]; i < mCellStarts[cell + 1]; i++) {
+
+          if (mX[i] < xMin || mX[i] > xMax || mY[i] < yMin || mY[i] > yMax)
+            continue;
+
+          if (mHitCount == mHits.length) {
+            long[] hits = new long[mHits.length * 2];
+            System.arraycopy(mHits, 0, hits, 0, mHitCount);
+            mHits = hits;
+          }
+
+          mHits[mHitCount++] = ((long) mDataSets[i] << 32) | mEntries[i];
+        }
+      }
+    }
+
+    sortHits();
+
+    return mHitCount;
+  }
+
+  /**
+   * returns the DataSet index of the given hit of the last findInRect(...)
+   *
+   * @param hit
+   * @return
+   */
+  public int getHitDataSetIndex(int hit) {
+    return (int) (mHits[hit] >>> 32);
+  }
+
+  /**
+   * returns the entry index of the given hit of the last findInRect(...)
+   *
+   * @param hit
+   * @return
+   */
+  public int getHitEntryIndex(int hit) {
+    return (int) mHits[hit];
+  }
+
+  /**
+   * returns the index of the DataSet of the entry at the given position
+   *
+   * @param position
+   * @return
+   */
+  public int getDataSetIndex(int position) {
+    return mDataSets[position];
+  }
+
+  /**
+   * returns the index of the entry at the given position in its DataSet
+   *
+   * @param position
+   * @return
+   */
+  public int getEntryIndex(int position) {
+    return mEntries[position];
+  }
+
+  private int cell(float x, float y) {
+    return row(y) * mColumns + column(x);
+  }
+
+  private int column(float x) {
+    return Math.max(0, Math.min(mColumns - 1, (int) ((x - mXMin) / mCellWidth)));
+  }
+
+  private int row(float y) {
+    return Math.max(0, Math.min(mRows - 1, (int) ((y - mYMin) / mCellHeight)));
+  }
+
+  /**
+   * Sorts the hits in place with heapsort. Arrays.sort(...) may allocate a
+   * work array for the partially sorted runs the cells produce, a query
+   * must not allocate.
+   */
+  private void sortHits() {
+
+    long[] hits = mHits;
+    int n = mHitCount;
+
+    for (int i = n / 2 - 1; i >= 0; i--)
+      siftDown(hits, i, n);
+
+    for (int end = n - 1; end > 0; end--) {
+
+      long max = hits[0];
+      hits[0] = hits[end];
+      hits[end] = max;
+
+      siftDown(hits, 0, end);
+    }
+  }
+
+  private static void siftDown(long[] heap, int i, int n) {
+
+    long val = heap[i];
+
+    while (true) {
+
+      int child = 2 * i + 1;
+
+      if (child >= n)
+        break;
+
+      if (child + 1 < n && heap[child + 1] > heap[child])
+        child++;
+
+      if (heap[child] <= val)
+        break;
+
+      heap[i] = heap[child];
+      i = child;
+    }
+
+    heap[i] = val;
+  }
+}
@@ -0,0 +1,169 @@
+package com.github.mikephil.charting.utils;
+
+/**
+ * The entries selected in a chart, stored per DataSet as runs of
+ * consecutive entry indices, so that selecting millions of entries needs a
+ * few ints instead of millions of Entry references. Run r of a DataSet spans
+ * the entry indices [runs[2 * r], runs[2 * r + 1]).
+ */
+public class EntrySelection {
+
+  private final int[][] mRuns;
+  private final int[] mRunCounts;
+
+  /**
+   * @param dataSetCount the number of DataSets entries can be selected in
+   */
+  public EntrySelection(int dataSetCount) {
+    mRuns = new int[dataSetCount][];
+    mRunCounts = new int[dataSetCount];
+  }
+
+  /**
+   * Adds the entry indices [start, end) of the given DataSet to the
+   * selection. Runs must be added in ascending order per DataSet, a run that
+   * starts where the last one ended extends it.
+   *
+   * @param dataSetIndex
+   * @param start
+   * @param end
+   */
+  public void addRun(int dataSetIndex, int start, int end) {
+
+    if (start >= end)
+      return;
+
+    int[] runs = mRuns[dataSetIndex];
+    int count = mRunCounts[dataSetIndex];
+
+    if (count > 0) {
+
+      if (start < runs[count * 2 - 1])
+        throw new IllegalArgumentException("Runs must be added in ascending order.");
+
+      if (start == runs[count * 2 - 1]) {
+        runs[count * 2 - 1] = end;
+        return;
+      }
+    }
+
+    if (runs == null) {
+      runs = new int[8];
+      mRuns[dataSetIndex] = runs;
+    } else if (count * 2 + 2 > runs.length) {
+      int[] grown = new int[runs.length * 2];
+      System.arraycopy(runs, 0, grown, 0, count * 2);
+      runs = grown;
+      mRuns[dataSetIndex] = runs;
+    }
+
+    runs[count * 2] = start;
+    runs[count * 2 + 1] = end;
+    mRunCounts[dataSetIndex] = count + 1;
+  }
+
+  /**
+   * returns the number of DataSets of the selection
+   *
+   * @return
+   */
+  public int getDataSetCount() {
+    return mRuns.length;
+  }
+
+  /**
+   * returns the number of runs of the given DataSet
+   *
+   * @param dataSetIndex
+   * @return
+   */
+  public int getRunCount(int dataSetIndex) {
+    return mRunCounts[dataSetIndex];
+  }
+
+  /**
+   * Returns the runs of the given DataSet as pairs of start (inclusive) and
+   * end (exclusive) entry index. The array has exactly two ints per run.
+   *
+   * @param dataSetIndex
+   * @return
+   */
+  public int[] getRuns(int dataSetIndex) {
+
+    int length = mRunCounts[dataSetIndex] * 2;
+    int[] runs = mRuns[dataSetIndex];
+
+    if (runs == null)
+      return new int[0];
+
+    if (runs.length != length) {
+      int[] trimmed = new int[length];
+      System.arraycopy(runs, 0, trimmed, 0, length);
+      mRuns[dataSetIndex] = trimmed;
+      runs = trimmed;
+    }
+
+    return runs;
+  }
+
+  /**
+   * returns the number of selected entries of the given DataSet
+   *
+   * @param dataSetIndex
+   * @return
+   */
+  public int getEntryCount(int dataSetIndex) {
+
+    int[] runs = mRuns[dataSetIndex];
+    int count = 0;
+
+    for (int r = 0; r < mRunCounts[dataSetIndex]; r++)
+      count += runs[r * 2 + 1] - runs[r * 2];
+
+    return count;
+  }
+
+  /**
+   * returns the number of selected entries of all DataSets
+   *
+   * @return
+   */
+  public int getEntryCount() {
+
+    int count = 0;
+
+    for (int i = 0; i < mRuns.length; i++)
+      count += getEntryCount(i);
+
+    return count;
+  }
+
+  /**
+   * returns true if the entry with the given index of the given DataSet is
+   * selected
+   *
+   * @param dataSetIndex
+   * @param entryIndex
+   * @return
+   */
+  public boolean contains(int dataSetIndex, int entryIndex) {
+
+    int[] runs = mRuns[dataSetIndex];
+
+    // binary search for the last run that starts at or before the entry
+    int low = 0;
+    int high = mRunCounts[dataSetIndex] - 1;
+
+    while (low <= high) {
+
+      int mid = (low + high) >>> 1;
+
+      if (runs[mid * 2] <= entryIndex)
+        low = mid + 1;
+      else
+        high = mid - 1;
+    }
+
+    return high >= 0 && entryIndex < runs[high * 2 + 1];
+  }
+}
@@ -0,0 +1,249 @@
+package com.github.mikephil.charting.utils;
+
+import com.github.mikephil.charting.charts.BarLineChartBase.CharValueFormatter;
+
+import java.text.DecimalFormatSymbols;
+
+/**
+ * Formats values into a char array without allocations, with a fixed number
+ * of decimal digits, optional thousands separators and optional
+ * abbreviation of values that are multiples of thousand (5000 becomes 5K,
+ * 3000000 becomes 3M), like the AbbreviatingNumberFormat wrapping a
+ * DecimalFormat. Values of 10^15 and more are written in scientific
+ * notation. Separators are taken from the default locale. Recently
+ * formatted values are memoized. Not thread-safe.
+ */
+public class FastValueFormatter implements CharValueFormatter {
+
+  /**
+   * the maximum number of characters a formatted value has
+   */
+  public static final int MAX_LENGTH = 32;
+
+  private static final char[] SUFFIXES = new char[] {
+      0, 'K', 'M', 'B'
+  };
+
+  private static final long[] POW_10 = new long[] {
+      1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L, 10000000L, 100000000L, 1000000000L
+  };
+
+  /**
+   * values from which on numbers are written in scientific notation, so
+   * that they fit into MAX_LENGTH characters
+   */
+  private static final double SCIENTIFIC_THRESHOLD = 1e15;
+
+  /**
+   * number of slots of the memo, must be a power of two
+   */
+  private static final int MEMO_SLOTS = 256;
+
+  private final int mDigits;
+  private final boolean mSeparateThousands;
+  private final boolean mAbbreviate;
+
+  private final char mGroupingSeparator;
+  private final char mDecimalSeparator;
+  private final char mMinus;
+
+  /**
+   * direct-mapped memo of formatted values, MAX_LENGTH chars per slot, a
+   * length of 0 marks an empty slot
+   */
+  private final long[] mMemoKeys = new long[MEMO_SLOTS];
+  private final int[] mMemoLengths = new int[MEMO_SLOTS];
+  private final char[] mMemoChars = new char[MEMO_SLOTS * MAX_LENGTH];
+
+  /**
+   * @param digits the number of decimal digits, at most 9
+   * @param separateThousands if true, thousands are separated
+   * @param abbreviate if true, multiples of thousand are abbreviated with
+   *          K, M or B
+   */
+  public FastValueFormatter(int digits, boolean separateThousands, boolean abbreviate) {
+
+    if (digits < 0)
+      throw new IllegalArgumentException("The number of digits must not be negative.");
+
+    DecimalFormatSymbols symbols = new DecimalFormatSymbols();
+
+    mDigits = Math.min(digits, POW_10.length - 1);
+    mSeparateThousands = separateThousands;
+    mAbbreviate = abbreviate;
+    mGroupingSeparator = symbols.getGroupingSeparator();
+    mDecimalSeparator = symbols.getDecimalSeparator();
+    mMinus = symbols.getMinusSign();
+  }
+
+  @Override
+  public String format(double value) {
+    char[] out = new char[MAX_LENGTH];
+    return new String(out, 0, format(value, out));
+  }
+
+  @Override
+  public int format(double value, char[] out) {
+
+    long bits = Double.doubleToLongBits(value);
+    int slot = (int) (bits ^ (bits >>> 32)) * 0x9E3779B9 >>> 24;
+
+    int length = mMemoLengths[slot];
+
+    if (length > 0 && mMemoKeys[slot] == bits) {
+      System.arraycopy(mMemoChars, slot * MAX_LENGTH, out, 0, length);
+      return length;
+    }
+
+    length = formatValue(value, out);
+
+    mMemoKeys[slot] = bits;
+    mMemoLengths[slot] = length;
+    System.arraycopy(out, 0, mMemoChars, slot * MAX_LENGTH, length);
+
+    return length;
+  }
+
+  private int formatValue(double value, char[] out) {
+
+    // only whole numbers are abbreviated, others would lose their fraction
+    if (mAbbreviate && value >= 1000 && value < SCIENTIFIC_THRESHOLD
+        && value == Math.floor(value)) {
+
+      long lval = (long) value;
+
+      // cut 0s by 3 (000)
+      int suffix = 0;
+      while (suffix < SUFFIXES.length - 1 && lval % 1000 == 0) {
+        lval /= 1000;
+        suffix++;
+      }
+
+      int length = writeNumber(lval, out);
+
+      if (suffix != 0)
+        out[length++] = SUFFIXES[suffix];
+
+      return length;
+    }
+
+    return writeNumber(value, out);
+  }
+
+  /**
+   * writes the given value with the configured number of digits, values of
+   * at least SCIENTIFIC_THRESHOLD in scientific notation
+   *
+   * @param value
+   * @param out
+   * @return
+   */
+  private int writeNumber(double value, char[] out) {
+
+    if (Double.isNaN(value)) {
+      out[0] = 'N';
+      out[1] = 'a';
+      out[2] = 'N';
+      return 3;
+    }
+
+    boolean neg = value < 0;
+    double abs = neg ? -value : value;
+
+    if (Double.isInfinite(abs)) {
+      int length = 0;
+      if (neg)
+        out[length++] = mMinus;
+      out[length++] = '\u221E';
+      return length;
+    }
+
+    if (abs < SCIENTIFIC_THRESHOLD)
+      return writeFixed(neg, abs, out);
+
+    int exponent = (int) Math.floor(Math.log10(abs));
+    double mantissa = abs / Math.pow(10, exponent);
+
+    // the mantissa may round up to 10
+    if (Math.round(mantissa * POW_10[mDigits]) >= 10 * POW_10[mDigits]) {
+      mantissa /= 10;
+      exponent++;
+    }
+
+    int length = writeFixed(neg, mantissa, out);
+
+    out[length++] = 'E';
+
+    int digits = exponent >= 100 ? 3 : 2;
+
+    for (int i = digits - 1; i >= 0; i--) {
+      out[length + i] = (char) ('0' + exponent % 10);
+      exponent /= 10;
+    }
+
+    return length + digits;
+  }
+
+  /**
+   * writes the given absolute value (smaller than SCIENTIFIC_THRESHOLD) with
+   * the configured number of digits
+   *
+   * @param neg
+   * @param abs
+   * @param out
+   * @return
+   */
+  private int writeFixed(boolean neg, double abs, char[] out) {
+
+    long pow = POW_10[mDigits];
+
+    // the integer part is split off first so that scaling by pow can not
+    // overflow
+    long integer = (long) abs;
+    long fraction = Math.round((abs - integer) * pow);
+
+    if (fraction >= pow) {
+      integer++;
+      fraction -= pow;
+    }
+
+    int length = 0;
+
+    if (neg && (integer != 0 || fraction != 0))
+      out[length++] = mMinus;
+
+    // count the integer digits and separators, then write them backwards
+    int digits = 1;
+    for (long v = integer / 10; v != 0; v /= 10)
+      digits++;
+
+    int separators = mSeparateThousands ? (digits - 1) / 3 : 0;
+    int end = length + digits + separators;
+    int pos = end - 1;
+
+    for (int i = 0; i < digits; i++) {
+
+      if (mSeparateThousands && i > 0 && i % 3 == 0)
+        out[pos--] = mGroupingSeparator;
+
+      out[pos--] = (char) ('0' + integer % 10);
+      integer /= 10;
+    }
+
+    length = end;
+
+    if (mDigits > 0) {
+
+      out[length++] = mDecimalSeparator;
+
+      for (int i = mDigits - 1; i >= 0; i--) {
+        out[length + i] = (char) ('0' + fraction % 10);
+        fraction /= 10;
+      }
+
+      length += mDigits;
+    }
+
+    return length;
+  }
+}
@@ -0,0 +1,115 @@
+package com.github.mikephil.charting.utils;
+
+/**
+ * Uniform grid over a screen area that records which cells are covered by
+ * labels, used to skip labels that would overlap labels drawn before. A
+ * label occupies every cell its bounds touch, so the test is conservative
+ * by at most one cell. The grid is reused between frames, reset(...) only
+ * allocates if the area grows.
+ */
+public class LabelOccupancyGrid {
+
+  private final float mCellSize;
+
+  private float mLeft;
+  private float mTop;
+  private int mColumns;
+  private int mRows;
+
+  /**
+   * one bit per cell, row by row
+   */
+  private long[] mCells = new long[0];
+
+  /**
+   * @param cellSize the size of a cell in pixels
+   */
+  public LabelOccupancyGrid(float cellSize) {
+
+    if (cellSize <= 0)
+      throw new IllegalArgumentException("The cell size must be positive.");
+
+    mCellSize = cellSize;
+  }
+
+  /**
+   * Clears the grid and sets the area it covers. Bounds outside of the area
+   * are clamped to it.
+   *
+   * @param left
+   * @param top
+   * @param right
+   * @param bottom
+   */
+  public void reset(float left, float top, float right, float bottom) {
+
+    mLeft = left;
+    mTop = top;
+    mColumns = Math.max(1, (int) Math.ceil((right - left) / mCellSize));
+    mRows = Math.max(1, (int) Math.ceil((bottom - top) / mCellSize));
+
+    int words = (mColumns * mRows + 63) >>> 6;
+
+    if (mCells.length < words) {
+      mCells = new long[words];
+    } else {
+      for (int i = 0; i < words; i++)
+        mCells[i] = 0L;
+    }
+  }
+
+  /**
+   * Occupies the cells of the given bounds if none of them is occupied yet.
+   * Returns true if the bounds were free.
+   *
+   * @param left
+   * @param top
+   * @param right
+   * @param bottom
+   * @return
+   */
+  public boolean tryOccupy(float left, float top, float right, float bottom) {
+
+    int c0 = column(left);
+    int c1 = column(right);
+    int r0 = row(top);
+    int r1 = row(bottom);
+
+    for (int r = r0; r <= r1; r++) {
+      for (int c = c0; c <= c1; c++) {
+        int cell = r * mColumns + c;
+        if ((mCells[cell >>> 6] & (1L << cell)) != 0)
+          return false;
+      }
+    }
+
+    for (int r = r0; r <= r1; r++) {
+      for (int c = c0; c <= c1; c++) {
+        int cell = r * mColumns + c;
+        mCells[cell >>> 6] |= 1L << cell;
+      }
+    }
+
+    return true;
+  }
+
+  /**
+   * returns true if the cell containing the given point is occupied
+   *
+   * @param x
+   * @param y
+   * @return
+   */
+  public boolean isOccupied(float x, float y) {
+    int cell = row(y) * mColumns + column(x);
+    return (mCells[cell >>> 6] & (1L << cell)) != 0;
+  }
+
+  private int column(float x) {
+    return Math.max(0, Math.min(mColumns - 1, (int) ((x - mLeft) / mCellSize)));
+  }
+
+  private int row(float y) {
+    return Math.max(0, Math.min(mRows - 1, (int) ((y - mTop) / mCellSize)));
+  }
+}
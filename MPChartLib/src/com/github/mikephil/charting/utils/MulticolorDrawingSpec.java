@@ -3,47 +3,47 @@ package com.github.mikephil.charting.utils;
 import android.content.Context;
 import android.graphics.Color;
 
-import java.util.ArrayList;
 import java.util.Collection;
 
 public class MulticolorDrawingSpec extends DrawingSpec {
-  private ArrayList<Integer> mColors = new ArrayList<Integer>();
+  private int[] mColors = new int[0];
 
-  // 3D colors
-  private ArrayList<Integer> mTopColors = new ArrayList<Integer>();
-  private ArrayList<Integer> mSideColors = new ArrayList<Integer>();
+  // 3D colors, calculated whenever the colors are set
+  private int[] mTopColors = new int[0];
+  private int[] mSideColors = new int[0];
 
   public boolean hasMultipleColors() {
-    return !mColors.isEmpty();
+    return mColors.length != 0;
   }
 
   public int getColor(int idx) {
-    return mColors.get(idx % mColors.size());
+    return mColors[idx % mColors.length];
   }
 
   public int getTopColor(int idx) {
-    return mTopColors.get(idx % mTopColors.size());
+    return mTopColors[idx % mTopColors.length];
   }
 
   public int getSideColor(int idx) {
-    return mSideColors.get(idx % mSideColors.size());
+    return mSideColors[idx % mSideColors.length];
   }
 
   public int getColorsCount() {
-    return mColors.size();
+    return mColors.length;
   }
 
   public void setColors(int... colors) {
-    mColors.clear();
-    for (int color : colors) {
-      mColors.add(color);
-    }
+    mColors = colors.clone();
     calculate3DColors();
   }
 
   public void setColors(Collection<Integer> colors) {
-    mColors.clear();
-    mColors.addAll(colors);
+    mColors = new int[colors.size()];
+    int i = 0;
+    for (Integer color : colors) {
+      mColors[i++] = color;
+    }
+    calculate3DColors();
   }
 
   public static int[] fromResources(Context ctx, int... resId) {
@@ -55,30 +55,34 @@ public class MulticolorDrawingSpec extends DrawingSpec {
   }
 
   private void calculate3DColors() {
-    mTopColors.clear();
-    mSideColors.clear();
+    mTopColors = new int[mColors.length];
+    mSideColors = new int[mColors.length];
 
     float[] hsv = new float[3];
 
-    for (int color : mColors) {
+    for (int i = 0; i < mColors.length; i++) {
       // extract the color
-      Color.colorToHSV(color, hsv); // convert to hsv
+      Color.colorToHSV(mColors[i], hsv); // convert to hsv
 
       // make brighter
-      hsv[1] = hsv[1] - 0.1f; // less saturation
-      hsv[2] = hsv[2] + 0.1f; // more brightness
+      hsv[1] = clamp(hsv[1] - 0.1f); // less saturation
+      hsv[2] = clamp(hsv[2] + 0.1f); // more brightness
 
       // assign
-      mTopColors.add(Color.HSVToColor(hsv));
+      mTopColors[i] = Color.HSVToColor(hsv);
 
       // convert
-      Color.colorToHSV(color, hsv);
+      Color.colorToHSV(mColors[i], hsv);
 
       // make darker
-      hsv[1] = hsv[1] + 0.1f; // more saturation
-      hsv[2] = hsv[2] - 0.1f; // less brightness
+      hsv[1] = clamp(hsv[1] + 0.1f); // more saturation
+      hsv[2] = clamp(hsv[2] - 0.1f); // less brightness
 
-      mSideColors.add(Color.HSVToColor(hsv));
+      mSideColors[i] = Color.HSVToColor(hsv);
     }
   }
+
+  private static float clamp(float value) {
+    return Math.max(0f, Math.min(1f, value));
+  }
 }
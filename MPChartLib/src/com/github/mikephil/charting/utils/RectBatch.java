@@ -0,0 +1,105 @@
+package com.github.mikephil.charting.utils;
+
+import android.graphics.Canvas;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+
+/**
+ * Reusable buffer of rectangles that are transformed with one call to
+ * Matrix.mapPoints(...) and drawn with the same paint, so that drawing many
+ * bars of the same color needs no allocations and no color changes. Each
+ * rectangle is stored as two opposite corners. The buffer only grows.
+ */
+public class RectBatch {
+
+  private float[] mCorners = new float[64];
+
+  private int mCount = 0;
+
+  /**
+   * removes all rectangles
+   */
+  public void reset() {
+    mCount = 0;
+  }
+
+  /**
+   * returns the number of rectangles in the batch
+   *
+   * @return
+   */
+  public int size() {
+    return mCount;
+  }
+
+  /**
+   * adds a rectangle given by its bounds
+   *
+   * @param left
+   * @param top
+   * @param right
+   * @param bottom
+   */
+  public void add(float left, float top, float right, float bottom) {
+
+    int i = mCount * 4;
+
+    if (i + 4 > mCorners.length) {
+      float[] corners = new float[mCorners.length * 2];
+      System.arraycopy(mCorners, 0, corners, 0, i);
+      mCorners = corners;
+    }
+
+    mCorners[i] = left;
+    mCorners[i + 1] = top;
+    mCorners[i + 2] = right;
+    mCorners[i + 3] = bottom;
+    mCount++;
+  }
+
+  /**
+   * Transforms all rectangles with the given matrix. The matrix must not
+   * skew or rotate by other angles than multiples of 90 degrees.
+   *
+   * @param matrix
+   */
+  public void transform(Matrix matrix) {
+    matrix.mapPoints(mCorners, 0, mCorners, 0, mCount * 2);
+  }
+
+  /**
+   * Draws all rectangles that intersect the given clip bounds with the given
+   * paint. Returns the number of drawn rectangles.
+   *
+   * @param canvas
+   * @param paint
+   * @param clipLeft
+   * @param clipTop
+   * @param clipRight
+   * @param clipBottom
+   * @return
+   */
+  public int draw(Canvas canvas, Paint paint, float clipLeft, float clipTop, float clipRight,
+      float clipBottom) {
+
+    float[] c = mCorners;
+    int drawn = 0;
+
+    for (int i = 0; i < mCount * 4; i += 4) {
+
+      // the transformation may have swapped the corners
+      float left = Math.min(c[i], c[i + 2]);
+      float right = Math.max(c[i], c[i + 2]);
+      float top = Math.min(c[i + 1], c[i + 3]);
+      float bottom = Math.max(c[i + 1], c[i + 3]);
+
+      if (right < clipLeft || left > clipRight || bottom < clipTop || top > clipBottom)
+        continue;
+
+      canvas.drawRect(left, top, right, bottom, paint);
+      drawn++;
+    }
+
+    return drawn;
+  }
+}
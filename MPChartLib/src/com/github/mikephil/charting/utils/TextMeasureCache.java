@@ -0,0 +1,159 @@
+package com.github.mikephil.charting.utils;
+
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.Typeface;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Process-wide cache of text measurements, shared by all charts. Widths and
+ * heights are cached per typeface, text size, text scale, paint flags and
+ * string, the least recently used measurements are evicted first. Lookups
+ * do not allocate, only new measurements do.
+ */
+public final class TextMeasureCache {
+
+  /**
+   * the maximum number of measured strings that are kept
+   */
+  private static int sMaxSize = 2048;
+
+  private static final LinkedHashMap<Key, Measurement> sCache =
+      new LinkedHashMap<Key, Measurement>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Measurement> eldest) {
+          return size() > sMaxSize;
+        }
+      };
+
+  /**
+   * key that is reused for lookups
+   */
+  private static final Key sLookupKey = new Key();
+
+  private static final Rect sBounds = new Rect();
+
+  private TextMeasureCache() {
+  }
+
+  /**
+   * returns the width of the given text drawn with the given paint
+   *
+   * @param paint
+   * @param text
+   * @return
+   */
+  public static synchronized float getWidth(Paint paint, String text) {
+
+    Measurement m = get(paint, text);
+
+    if (Float.isNaN(m.width))
+      m.width = paint.measureText(text);
+
+    return m.width;
+  }
+
+  /**
+   * returns the height of the bounds of the given text drawn with the given
+   * paint
+   *
+   * @param paint
+   * @param text
+   * @return
+   */
+  public static synchronized int getHeight(Paint paint, String text) {
+
+    Measurement m = get(paint, text);
+
+    if (m.height < 0) {
+      paint.getTextBounds(text, 0, text.length(), sBounds);
+      m.height = sBounds.height();
+    }
+
+    return m.height;
+  }
+
+  private static Measurement get(Paint paint, String text) {
+
+    sLookupKey.set(paint, text);
+
+    Measurement m = sCache.get(sLookupKey);
+
+    if (m == null) {
+      Key key = new Key();
+      key.set(paint, text);
+
+      m = new Measurement();
+      sCache.put(key, m);
+    }
+
+    return m;
+  }
+
+  /**
+   * sets the maximum number of measured strings that are kept, default 2048
+   *
+   * @param size
+   */
+  public static synchronized void setMaxSize(int size) {
+
+    if (size < 1)
+      throw new IllegalArgumentException("The cache size must be at least 1.");
+
+    sMaxSize = size;
+  }
+
+  /**
+   * removes all cached measurements
+   */
+  public static synchronized void clear() {
+    sCache.clear();
+  }
+
+  private static class Measurement {
+    float width = Float.NaN;
+    int height = -1;
+  }
+
+  private static class Key {
+
+    Typeface typeface;
+    float textSize;
+    float textScaleX;
+    int flags;
+    String text;
+
+    void set(Paint paint, String text) {
+      this.typeface = paint.getTypeface();
+      this.textSize = paint.getTextSize();
+      this.textScaleX = paint.getTextScaleX();
+      this.flags = paint.getFlags();
+      this.text = text;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+
+      if (!(o instanceof Key))
+        return false;
+
+      Key k = (Key) o;
+
+      return typeface == k.typeface && textSize == k.textSize
+          && textScaleX == k.textScaleX && flags == k.flags && text.equals(k.text);
+    }
+
+    @Override
+    public int hashCode() {
+
+      int hash = text.hashCode();
+      hash = 31 * hash + Float.floatToIntBits(textSize);
+      hash = 31 * hash + Float.floatToIntBits(textScaleX);
+      hash = 31 * hash + flags;
+      hash = 31 * hash + (typeface == null ? 0 : typeface.hashCode());
+      return hash;
+    }
+  }
+}
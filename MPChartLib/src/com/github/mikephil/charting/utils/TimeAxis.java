@@ -0,0 +1,392 @@
+package com.github.mikephil.charting.utils;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+/**
+ * Calculates calendar-aligned ticks (full seconds, minutes, hours, days,
+ * months or years) for an x-axis whose x-values are timestamps in
+ * milliseconds, sorted in ascending order. The position of each tick is
+ * found by binary search in the x-values, so calculating the ticks costs
+ * O(ticks * log n). Ticks are formatted into a char array without
+ * allocations. All arrays are reused between calls.
+ */
+public class TimeAxis {
+
+  private static final long SECOND = 1000L;
+  private static final long MINUTE = 60 * SECOND;
+  private static final long HOUR = 60 * MINUTE;
+  private static final long DAY = 24 * HOUR;
+
+  /**
+   * 1970-01-05 was the first monday after the epoch
+   */
+  private static final long FIRST_MONDAY = 4 * DAY;
+
+  public static final int UNIT_SECOND = 0;
+  public static final int UNIT_MINUTE = 1;
+  public static final int UNIT_HOUR = 2;
+  public static final int UNIT_DAY = 3;
+  public static final int UNIT_WEEK = 4;
+  public static final int UNIT_MONTH = 5;
+  public static final int UNIT_YEAR = 6;
+
+  /**
+   * the possible steps between two ticks in ascending order, pairs of unit
+   * and amount
+   */
+  private static final int[] STEPS = new int[] {
+      UNIT_SECOND, 1, UNIT_SECOND, 2, UNIT_SECOND, 5, UNIT_SECOND, 10,
+      UNIT_SECOND, 15, UNIT_SECOND, 30,
+      UNIT_MINUTE, 1, UNIT_MINUTE, 2, UNIT_MINUTE, 5, UNIT_MINUTE, 10,
+      UNIT_MINUTE, 15, UNIT_MINUTE, 30,
+      UNIT_HOUR, 1, UNIT_HOUR, 2, UNIT_HOUR, 3, UNIT_HOUR, 6, UNIT_HOUR, 12,
+      UNIT_DAY, 1, UNIT_DAY, 2, UNIT_WEEK, 1,
+      UNIT_MONTH, 1, UNIT_MONTH, 3, UNIT_MONTH, 6,
+      UNIT_YEAR, 1, UNIT_YEAR, 2, UNIT_YEAR, 5, UNIT_YEAR, 10, UNIT_YEAR, 20,
+      UNIT_YEAR, 50, UNIT_YEAR, 100
+  };
+
+  /**
+   * the (average) length of one unit in milliseconds
+   */
+  private static final long[] UNIT_LENGTHS = new long[] {
+      SECOND, MINUTE, HOUR, DAY, 7 * DAY, 2629746000L, 31556952000L
+  };
+
+  private static final char[][] MONTHS = new char[][] {
+      "Jan".toCharArray(), "Feb".toCharArray(), "Mar".toCharArray(),
+      "Apr".toCharArray(), "May".toCharArray(), "Jun".toCharArray(),
+      "Jul".toCharArray(), "Aug".toCharArray(), "Sep".toCharArray(),
+      "Oct".toCharArray(), "Nov".toCharArray(), "Dec".toCharArray()
+  };
+
+  private Calendar mCalendar = Calendar.getInstance();
+
+  private int mUnit = UNIT_SECOND;
+  private int mAmount = 1;
+
+  private long[] mTickTimes = new long[16];
+  private float[] mTickXIndices = new float[16];
+  private int mTickCount = 0;
+
+  /**
+   * Calculates the ticks for the part of the x-values between the given
+   * (fractional) indices. Chooses the smallest step that produces at most
+   * maxTicks ticks. Returns the number of ticks.
+   *
+   * @param xVals timestamps in milliseconds, sorted ascending
+   * @param fromIndex
+   * @param toIndex
+   * @param maxTicks
+   * @param timeZone the time zone the ticks are aligned to
+   * @return
+   */
+  public int computeTicks(long[] xVals, float fromIndex, float toIndex, int maxTicks,
+      TimeZone timeZone) {
+
+    mTickCount = 0;
+
+    if (xVals.length == 0 || maxTicks < 1)
+      return 0;
+
+    if (!timeZone.equals(mCalendar.getTimeZone()))
+      mCalendar.setTimeZone(timeZone);
+
+    int from = Math.max(0, Math.min(xVals.length - 1, (int) Math.floor(fromIndex)));
+    int to = Math.max(0, Math.min(xVals.length - 1, (int) Math.ceil(toIndex)));
+
+    long start = xVals[from];
+    long end = xVals[to];
+
+    chooseStep((end - start) / maxTicks);
+
+    long tick = firstTick(start);
+
+    while (tick <= end) {
+
+      float xIndex = findXIndex(xVals, tick);
+
+      if (xIndex >= 0)
+        addTick(tick, xIndex);
+
+      tick = nextTick(tick);
+    }
+
+    return mTickCount;
+  }
+
+  /**
+   * selects the smallest step that is at least the given length
+   *
+   * @param minLength
+   */
+  private void chooseStep(long minLength) {
+
+    for (int i = 0; i < STEPS.length; i += 2) {
+
+      mUnit = STEPS[i];
+      mAmount = STEPS[i + 1];
+
+      if (UNIT_LENGTHS[mUnit] * mAmount >= minLength)
+        return;
+    }
+
+    // more than 100 years per tick
+    mAmount = (int) Math.min(Integer.MAX_VALUE, minLength / UNIT_LENGTHS[UNIT_YEAR] + 1);
+  }
+
+  /**
+   * returns the first aligned tick at or after the given time
+   *
+   * @param time
+   * @return
+   */
+  private long firstTick(long time) {
+
+    if (mUnit <= UNIT_HOUR) {
+
+      long step = UNIT_LENGTHS[mUnit] * mAmount;
+      long offset = mCalendar.getTimeZone().getOffset(time);
+
+      long tick = floor(time + offset, step) - offset;
+      return tick < time ? tick + step : tick;
+    }
+
+    Calendar c = mCalendar;
+    c.setTimeInMillis(time);
+    c.set(Calendar.HOUR_OF_DAY, 0);
+    c.set(Calendar.MINUTE, 0);
+    c.set(Calendar.SECOND, 0);
+    c.set(Calendar.MILLISECOND, 0);
+
+    switch (mUnit) {
+      case UNIT_DAY:
+        c.set(Calendar.DAY_OF_MONTH, (c.get(Calendar.DAY_OF_MONTH) - 1) / mAmount * mAmount + 1);
+        break;
+      case UNIT_WEEK:
+        // weeks are counted from the first monday after the epoch, so the
+        // ticks do not depend on the first day of the week of the locale
+        long midnight = c.getTimeInMillis();
+        long day = floor(midnight + c.getTimeZone().getOffset(midnight) - FIRST_MONDAY, DAY) / DAY;
+        c.add(Calendar.DAY_OF_MONTH, (int) (floor(day, 7L * mAmount) - day));
+        break;
+      case UNIT_MONTH:
+        c.set(Calendar.DAY_OF_MONTH, 1);
+        c.set(Calendar.MONTH, c.get(Calendar.MONTH) / mAmount * mAmount);
+        break;
+      default:
+        c.set(Calendar.DAY_OF_MONTH, 1);
+        c.set(Calendar.MONTH, Calendar.JANUARY);
+        c.set(Calendar.YEAR, c.get(Calendar.YEAR) / mAmount * mAmount);
+        break;
+    }
+
+    long tick = c.getTimeInMillis();
+    return tick < time ? nextTick(tick) : tick;
+  }
+
+  /**
+   * returns the tick following the given (aligned) tick
+   *
+   * @param tick
+   * @return
+   */
+  private long nextTick(long tick) {
+
+    if (mUnit <= UNIT_HOUR)
+      return tick + UNIT_LENGTHS[mUnit] * mAmount;
+
+    Calendar c = mCalendar;
+    c.setTimeInMillis(tick);
+
+    switch (mUnit) {
+      case UNIT_DAY:
+        c.add(Calendar.DAY_OF_MONTH, mAmount);
+        // restart at the first day when the step crossed into a new month
+        if ((c.get(Calendar.DAY_OF_MONTH) - 1) % mAmount != 0)
+          c.set(Calendar.DAY_OF_MONTH, 1);
+        break;
+      case UNIT_WEEK:
+        c.add(Calendar.DAY_OF_MONTH, 7 * mAmount);
+        break;
+      case UNIT_MONTH:
+        c.add(Calendar.MONTH, mAmount);
+        break;
+      default:
+        c.add(Calendar.YEAR, mAmount);
+        break;
+    }
+
+    return c.getTimeInMillis();
+  }
+
+  private static long floor(long value, long step) {
+    long q = value / step;
+    if (value % step < 0)
+      q--;
+    return q * step;
+  }
+
+  /**
+   * Returns the fractional index the given time has in the x-values,
+   * interpolated between the two neighbouring x-values. Returns -1 if the
+   * time is outside of the x-values.
+   *
+   * @param xVals
+   * @param time
+   * @return
+   */
+  private static float findXIndex(long[] xVals, long time) {
+
+    int low = 0;
+    int high = xVals.length;
+
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+
+      if (xVals[mid] < time)
+        low = mid + 1;
+      else
+        high = mid;
+    }
+
+    if (low == xVals.length)
+      return -1;
+
+    if (xVals[low] == time)
+      return low;
+
+    if (low == 0)
+      return -1;
+
+    long before = xVals[low - 1];
+    return (low - 1) + (float) ((double) (time - before) / (xVals[low] - before));
+  }
+
+  private void addTick(long time, float xIndex) {
+
+    if (mTickCount == mTickTimes.length) {
+
+      long[] times = new long[mTickCount * 2];
+      float[] indices = new float[mTickCount * 2];
+      System.arraycopy(mTickTimes, 0, times, 0, mTickCount);
+      System.arraycopy(mTickXIndices, 0, indices, 0, mTickCount);
+      mTickTimes = times;
+      mTickXIndices = indices;
+    }
+
+    mTickTimes[mTickCount] = time;
+    mTickXIndices[mTickCount] = xIndex;
+    mTickCount++;
+  }
+
+  /**
+   * returns the number of ticks of the last calculation
+   *
+   * @return
+   */
+  public int getTickCount() {
+    return mTickCount;
+  }
+
+  /**
+   * returns the (fractional) xIndex of the tick with the given index
+   *
+   * @param tick
+   * @return
+   */
+  public float getTickXIndex(int tick) {
+    return mTickXIndices[tick];
+  }
+
+  /**
+   * returns the time of the tick with the given index
+   *
+   * @param tick
+   * @return
+   */
+  public long getTickTime(int tick) {
+    return mTickTimes[tick];
+  }
+
+  /**
+   * returns the unit of the current step between ticks, one of the UNIT_...
+   * constants
+   *
+   * @return
+   */
+  public int getUnit() {
+    return mUnit;
+  }
+
+  /**
+   * Formats the tick with the given index into the given array, which must
+   * hold at least 8 characters. The format depends on the step between the
+   * ticks: "HH:mm:ss", "HH:mm", "MMM dd", "MMM yyyy" or "yyyy". Month names
+   * are english. Returns the number of characters written.
+   *
+   * @param tick
+   * @param out
+   * @return
+   */
+  public int formatTick(int tick, char[] out) {
+
+    Calendar c = mCalendar;
+    c.setTimeInMillis(mTickTimes[tick]);
+
+    int length = 0;
+
+    switch (mUnit) {
+      case UNIT_SECOND:
+        length = writeDigits(out, length, c.get(Calendar.HOUR_OF_DAY), 2);
+        out[length++] = ':';
+        length = writeDigits(out, length, c.get(Calendar.MINUTE), 2);
+        out[length++] = ':';
+        length = writeDigits(out, length, c.get(Calendar.SECOND), 2);
+        break;
+      case UNIT_MINUTE:
+      case UNIT_HOUR:
+        length = writeDigits(out, length, c.get(Calendar.HOUR_OF_DAY), 2);
+        out[length++] = ':';
+        length = writeDigits(out, length, c.get(Calendar.MINUTE), 2);
+        break;
+      case UNIT_DAY:
+      case UNIT_WEEK:
+        length = writeMonth(out, length, c.get(Calendar.MONTH));
+        out[length++] = ' ';
+        length = writeDigits(out, length, c.get(Calendar.DAY_OF_MONTH), 2);
+        break;
+      case UNIT_MONTH:
+        length = writeMonth(out, length, c.get(Calendar.MONTH));
+        out[length++] = ' ';
+        length = writeDigits(out, length, c.get(Calendar.YEAR), 4);
+        break;
+      default:
+        length = writeDigits(out, length, c.get(Calendar.YEAR), 4);
+        break;
+    }
+
+    return length;
+  }
+
+  private static int writeMonth(char[] out, int offset, int month) {
+    char[] name = MONTHS[month];
+    System.arraycopy(name, 0, out, offset, name.length);
+    return offset + name.length;
+  }
+
+  /**
+   * writes the given positive number with the given number of digits,
+   * padded with zeros
+   */
+  private static int writeDigits(char[] out, int offset, int value, int digits) {
+
+    for (int i = digits - 1; i >= 0; i--) {
+      out[offset + i] = (char) ('0' + value % 10);
+      value /= 10;
+    }
+
+    return offset + digits;
+  }
+}
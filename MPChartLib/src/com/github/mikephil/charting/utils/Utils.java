@@ -2,7 +2,6 @@ package com.github.mikephil.charting.utils;
 
 import android.content.res.Resources;
 import android.graphics.Paint;
-import android.graphics.Rect;
 import android.util.DisplayMetrics;
 
 import java.text.DecimalFormat;
@@ -77,30 +76,27 @@ public abstract class Utils {
   }
 
   /**
-   * calculates the approximate width of a text, depending on a demo text
-   * avoid repeated calls (e.g. inside drawing methods)
+   * calculates the approximate width of a text, depending on a demo text,
+   * measurements are cached in the TextMeasureCache
    *
    * @param paint
    * @param demoText
    * @return
    */
   public static int calcTextWidth(Paint paint, String demoText) {
-    return (int) paint.measureText(demoText);
+    return (int) TextMeasureCache.getWidth(paint, demoText);
   }
 
   /**
-   * calculates the approximate height of a text, depending on a demo text
-   * avoid repeated calls (e.g. inside drawing methods)
+   * calculates the approximate height of a text, depending on a demo text,
+   * measurements are cached in the TextMeasureCache
    *
    * @param paint
    * @param demoText
    * @return
    */
   public static int calcTextHeight(Paint paint, String demoText) {
-
-    Rect r = new Rect();
-    paint.getTextBounds(demoText, 0, demoText.length(), r);
-    return r.height();
+    return TextMeasureCache.getHeight(paint, demoText);
   }
 
   /**
@@ -174,7 +170,8 @@ public abstract class Utils {
 
   /**
    * Formats the given number to the given number of decimals, and returns the
-   * number as a string, maximum 35 characters.
+   * number as a string, maximum 35 characters. Use formatNumber(..., char[])
+   * to avoid allocations.
    *
    * @param number
    * @param digitCount
@@ -184,10 +181,27 @@ public abstract class Utils {
   public static String formatNumber(float number, int digitCount, boolean separateThousands) {
 
     char[] out = new char[35];
+    return new String(out, 0, formatNumber(number, digitCount, separateThousands, out));
+  }
+
+  /**
+   * Formats the given number like formatNumber(...) into the start of the
+   * given array, which must hold at least 35 characters. Returns the number
+   * of characters written. Does not allocate.
+   *
+   * @param number
+   * @param digitCount
+   * @param separateThousands
+   * @param out
+   * @return
+   */
+  public static int formatNumber(float number, int digitCount, boolean separateThousands,
+      char[] out) {
 
     boolean neg = false;
     if (number == 0) {
-      return "0";
+      out[0] = '0';
+      return 1;
     }
 
     boolean zero = false;
@@ -206,7 +220,7 @@ public abstract class Utils {
 
     number *= POW_10[digitCount];
     long lval = Math.round(number);
-    int ind = out.length - 1;
+    int ind = 34;
     int charCount = 0;
     boolean decimalPointAdded = false;
 
@@ -249,7 +263,10 @@ public abstract class Utils {
     if (neg)
       out[ind--] = '-';
 
-    return new String(out);
+    // move the number to the start of the array
+    int length = 34 - ind;
+    System.arraycopy(out, ind + 1, out, 0, length);
+    return length;
   }
 
   /**
@@ -266,6 +283,97 @@ public abstract class Utils {
     return shifted / magnitude;
   }
 
+  /**
+   * Returns the k-th largest (k starting at 1) of the first count values of
+   * the given array, in O(count) expected time. Partially reorders the
+   * values. NaN is smaller than every other value, it is returned only if
+   * fewer than k values are not NaN.
+   *
+   * @param values
+   * @param count
+   * @param k
+   * @return
+   */
+  public static float selectKthLargest(float[] values, int count, int k) {
+
+    if (k < 1 || k > count)
+      throw new IllegalArgumentException("k must be between 1 and " + count + ".");
+
+    int target = k - 1;
+    int left = 0;
+    int right = count - 1;
+
+    while (left < right) {
+
+      float pivot = values[(left + right) >>> 1];
+
+      // partition in descending order
+      int i = left;
+      int j = right;
+
+      while (i <= j) {
+
+        while (isGreater(values[i], pivot))
+          i++;
+        while (isGreater(pivot, values[j]))
+          j--;
+
+        if (i <= j) {
+          float tmp = values[i];
+          values[i] = values[j];
+          values[j] = tmp;
+          i++;
+          j--;
+        }
+      }
+
+      if (target <= j)
+        right = j;
+      else if (target >= i)
+        left = i;
+      else
+        return values[target];
+    }
+
+    return values[target];
+  }
+
+  /**
+   * returns true if a is greater than b, NaN is smaller than every other
+   * value
+   */
+  private static boolean isGreater(float a, float b) {
+    return a > b || (b != b && a == a);
+  }
+
+  /**
+   * Returns true if the given point lies inside the polygon given by the
+   * first count coordinate pairs (x, y) of the given array, using the
+   * even-odd rule. The polygon is closed implicitly.
+   *
+   * @param polygon
+   * @param count the number of points of the polygon
+   * @param x
+   * @param y
+   * @return
+   */
+  public static boolean isInPolygon(float[] polygon, int count, float x, float y) {
+
+    boolean inside = false;
+
+    for (int i = 0, j = count - 1; i < count; j = i++) {
+
+      float xi = polygon[i * 2], yi = polygon[i * 2 + 1];
+      float xj = polygon[j * 2], yj = polygon[j * 2 + 1];
+
+      // toggle for every edge that crosses the horizontal ray to the right
+      if ((yi > y) != (yj > y) && x < (xj - xi) * (y - yi) / (yj - yi) + xi)
+        inside = !inside;
+    }
+
+    return inside;
+  }
+
   /**
    * Converts the provided Integer ArrayList to an int array.
    *
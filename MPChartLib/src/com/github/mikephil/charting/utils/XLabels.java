@@ -1,5 +1,7 @@
 package com.github.mikephil.charting.utils;
 
+import java.util.TimeZone;
+
 /**
  * Class representing the x-axis labels settings. Only use the setter methods
  * to modify it. Do not access public variables directly.
@@ -38,6 +40,17 @@ public class XLabels {
    */
   protected boolean mAdjustXAxisLabels = true;
 
+  /**
+   * if true, the x-values are treated as timestamps and labels are drawn at
+   * calendar-aligned ticks
+   */
+  private boolean mTimeAxis = false;
+
+  /**
+   * the time zone the ticks of the time axis are aligned to
+   */
+  private TimeZone mTimeZone = TimeZone.getDefault();
+
   /**
    * the position of the x-labels relative to the chart
    */
@@ -103,4 +116,40 @@ public class XLabels {
   public void setPosition(XLabelPosition pos) {
     mPosition = pos;
   }
+
+  /**
+   * If set to true, the x-values are treated as timestamps in milliseconds
+   * and the labels are drawn at calendar-aligned ticks (full seconds,
+   * minutes, hours, days, months or years) chosen for the visible range,
+   * instead of every n-th x-value. The x-values must be sorted in ascending
+   * order. default: false
+   *
+   * @param enabled
+   */
+  public void setTimeAxisEnabled(boolean enabled) {
+    mTimeAxis = enabled;
+  }
+
+  /**
+   * returns true if the time axis is enabled
+   *
+   * @return
+   */
+  public boolean isTimeAxisEnabled() {
+    return mTimeAxis;
+  }
+
+  /**
+   * sets the time zone the ticks of the time axis are aligned to, default:
+   * the default time zone
+   *
+   * @param timeZone
+   */
+  public void setTimeZone(TimeZone timeZone) {
+    mTimeZone = timeZone;
+  }
+
+  public TimeZone getTimeZone() {
+    return mTimeZone;
+  }
 }
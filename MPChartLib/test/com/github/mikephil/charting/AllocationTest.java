@@ -0,0 +1,237 @@
+package com.github.mikephil.charting;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import com.github.mikephil.charting.charts.LineChart;
+import com.github.mikephil.charting.data.ChartData;
+import com.github.mikephil.charting.data.Entry;
+import com.github.mikephil.charting.data.LineDataSet;
+import com.github.mikephil.charting.utils.EntryGrid;
+import com.github.mikephil.charting.utils.Highlight;
+import com.github.mikephil.charting.utils.Utils;
+
+import android.content.res.Resources;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.util.DisplayMetrics;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+
+/**
+ * Checks that the lookups on the touch and highlight path do not allocate
+ * once their buffers have grown, by counting the bytes the test thread
+ * allocates (needs a HotSpot-based JVM, skipped otherwise).
+ */
+public class AllocationTest {
+
+  private static final int CALLS = 10000;
+
+  private com.sun.management.ThreadMXBean mThreads;
+
+  private ChartData<LineDataSet> mData;
+
+  @Before
+  public void setUp() {
+
+    Object threads = ManagementFactory.getThreadMXBean();
+
+    assumeTrue(threads instanceof com.sun.management.ThreadMXBean);
+
+    mThreads = (com.sun.management.ThreadMXBean) threads;
+
+    assumeTrue(mThreads.isThreadAllocatedMemorySupported());
+    mThreads.setThreadAllocatedMemoryEnabled(true);
+
+    ArrayList<Long> xVals = new ArrayList<Long>();
+
+    for (int i = 0; i < 1000; i++)
+      xVals.add((long) i);
+
+    ArrayList<LineDataSet> dataSets = new ArrayList<LineDataSet>();
+
+    for (int d = 0; d < 3; d++) {
+
+      ArrayList<Entry> entries = new ArrayList<Entry>();
+
+      // aligned, sorted with gaps and unsorted entries take different paths
+      for (int i = 0; i < 1000; i++) {
+        if (d == 0)
+          entries.add(new Entry(i, i));
+        else if (d == 1 && i % 3 != 0)
+          entries.add(new Entry(-i, i));
+        else if (d == 2)
+          entries.add(new Entry(i % 10, (i * 7) % 1000));
+      }
+
+      dataSets.add(new LineDataSet(entries, "DataSet " + d));
+    }
+
+    mData = new ChartData<LineDataSet>(xVals, dataSets);
+  }
+
+  @Test
+  public void valuesAtXIndexDoNotAllocate() {
+
+    final float[] values = new float[mData.getDataSetCount()];
+    final int[] positions = new int[mData.getDataSetCount()];
+
+    Runnable lookup = new Runnable() {
+
+      int mXIndex = 0;
+
+      @Override
+      public void run() {
+        mData.getValuesAtXIndex(mXIndex, values);
+        mData.getEntryIndicesAtXIndex(mXIndex, positions);
+        mXIndex = (mXIndex + 37) % 1000;
+      }
+    };
+
+    assertNoAllocation(allocatedBytes(lookup));
+  }
+
+  @Test
+  public void gridQueriesDoNotAllocate() {
+
+    final EntryGrid grid = new EntryGrid();
+    grid.build(mData.getDataSets());
+
+    Runnable query = new Runnable() {
+
+      int mX = 0;
+
+      @Override
+      public void run() {
+        grid.findClosest(mX, mX % 50, 1f, 1f, 20f);
+        grid.findInRect(mX, -100f, mX + 30, 100f);
+        mX = (mX + 13) % 1000;
+      }
+    };
+
+    assertNoAllocation(allocatedBytes(query));
+  }
+
+  @Test
+  public void touchDragDoesNotAllocate() {
+
+    final TouchChart chart = new TouchChart();
+    chart.setData(mData);
+
+    final Matrix saved = new Matrix();
+    final Matrix touch = new Matrix();
+    final ArrayList<Entry> entries = new ArrayList<Entry>();
+
+    // A drag across ten x-values. MotionEvents cannot be created in local
+    // unit tests, so this replays what BarLineChartTouchListener.onTouch()
+    // does for every move of a drag, followed by a highlight lookup of the
+    // touch point. The Highlight only changes (and is allocated) when the
+    // drag reaches the next x-value.
+    Runnable drag = new Runnable() {
+
+      int mMove = 0;
+
+      @Override
+      public void run() {
+
+        // along the values of the first DataSet
+        float x = 100f + 10f * mMove / CALLS;
+        float y = x;
+
+        touch.set(saved);
+        touch.postTranslate(x - 100f, 0f);
+        chart.refreshTouch(touch);
+
+        Highlight h = chart.getHighlightByTouchPoint(x, y);
+
+        if (h != null)
+          chart.getEntriesAtIndex(h.getXIndex(), entries);
+
+        mMove = (mMove + 1) % CALLS;
+      }
+    };
+
+    assertNoAllocation(allocatedBytes(drag));
+
+    // the drag hits values, only the first and the last DataSet have an
+    // entry at 105
+    assertEquals(105, chart.getHighlightByTouchPoint(105.2f, 105.2f).getXIndex());
+    assertEquals(2, chart.getEntriesAtIndex(105, entries));
+  }
+
+  /**
+   * Fails if the code allocated on every call. A few bytes in total are
+   * tolerated, the JVM itself may allocate on the thread now and then (e.g.
+   * when it recompiles the code).
+   */
+  private static void assertNoAllocation(long bytes) {
+    assertTrue(bytes + " bytes allocated in " + CALLS + " calls", bytes < CALLS);
+  }
+
+  /**
+   * runs the given code CALLS times after warming it up (which also grows
+   * the buffers it uses) and returns the bytes allocated meanwhile
+   */
+  private long allocatedBytes(Runnable code) {
+
+    for (int i = 0; i < CALLS; i++)
+      code.run();
+
+    long id = Thread.currentThread().getId();
+
+    // the measurement itself, subtracted from the result
+    long empty = mThreads.getThreadAllocatedBytes(id);
+    empty = mThreads.getThreadAllocatedBytes(id) - empty;
+
+    long before = mThreads.getThreadAllocatedBytes(id);
+
+    for (int i = 0; i < CALLS; i++)
+      code.run();
+
+    return mThreads.getThreadAllocatedBytes(id) - before - empty;
+  }
+
+  /**
+   * LineChart without the initialization that needs a Context, which is not
+   * available in local unit tests. Only creates the paints the chart needs
+   * to take data.
+   */
+  private static class TouchChart extends LineChart {
+
+    TouchChart() {
+      super(null);
+    }
+
+    @Override
+    protected void init() {
+
+      Utils.init(new Resources(null, null, null) {
+        @Override
+        public DisplayMetrics getDisplayMetrics() {
+          return new DisplayMetrics();
+        }
+      });
+
+      mDrawPaint = new Paint();
+      mDescPaint = new Paint();
+      mInfoPaint = new Paint();
+      mValuePaint = new Paint();
+      mLegendFormPaint = new Paint();
+      mLegendLabelPaint = new Paint();
+      mXLabelPaint = new Paint();
+      mYLabelPaint = new Paint();
+      mGridPaint = new Paint();
+      mGridBackgroundPaint = new Paint();
+      mBorderPaint = new Paint();
+      mHighlightPaint = new Paint();
+
+      // without a density the matrices are identities, a pixel is a value
+      mHighlightFocusDelta = 0.5f;
+    }
+  }
+}
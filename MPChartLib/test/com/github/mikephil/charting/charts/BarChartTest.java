@@ -0,0 +1,32 @@
+package com.github.mikephil.charting.charts;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class BarChartTest {
+
+  @Test
+  public void binsHaveTheColorOfTheirFirstBar() {
+
+    // unbinned bars cycle through the colors
+    for (int b = 0; b < 10; b++)
+      assertEquals(b % 3, BarChart.getBinColorIndex(b, 0, 3));
+
+    // bins of 4 bars start at the bars 0, 4, 8, 12, ...
+    int[] expected = new int[] {
+        0, 1, 2, 0, 1, 2
+    };
+
+    for (int b = 0; b < expected.length; b++)
+      assertEquals(expected[b], BarChart.getBinColorIndex(b, 2, 3));
+
+    // bins of 8 bars with 4 colors all start with the first color
+    for (int b = 0; b < 10; b++)
+      assertEquals(0, BarChart.getBinColorIndex(b, 3, 4));
+
+    // a single color
+    for (int b = 0; b < 10; b++)
+      assertEquals(0, BarChart.getBinColorIndex(b, 5, 1));
+  }
+}
@@ -0,0 +1,246 @@
+package com.github.mikephil.charting.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+public class CompressedEntryStoreTest {
+
+  @Test
+  public void roundTripsSpecialValues() {
+
+    float[] vals = new float[] {
+        0f, -0f, Float.NaN, Float.intBitsToFloat(0x7fc00001), 1f, 1f, 1f, -1f,
+        Float.POSITIVE_INFINITY, Float.NEGATIVE_INFINITY, Float.MIN_VALUE, Float.MAX_VALUE,
+        -Float.MAX_VALUE, 0f, 0f, -0f, 3.1415927f, 3.1415927f
+    };
+
+    CompressedEntryStore store = new CompressedEntryStore(4);
+
+    for (int i = 0; i < vals.length; i++)
+      store.append(i, vals[i]);
+
+    for (int i = 0; i < vals.length; i++)
+      assertSameBits(vals[i], store.getVal(i));
+  }
+
+  @Test
+  public void roundTripsRepeatedValues() {
+
+    CompressedEntryStore store = new CompressedEntryStore();
+
+    for (int i = 0; i < 1000; i++)
+      store.append(i, 42.5f);
+
+    for (int i = 0; i < 1000; i++) {
+      assertEquals(i, store.getXIndex(i));
+      assertSameBits(42.5f, store.getVal(i));
+    }
+
+    // regular xIndices and unchanged values cost one bit each, every block
+    // adds its uncompressed first entry and 24 bytes of block bounds
+    assertTrue(store.getSizeInBytes() < 1000 / 4 + store.getBlockCount() * 40);
+  }
+
+  @Test
+  public void roundTripsIrregularXIndicesAndRandomValues() {
+
+    Random random = new Random(7);
+
+    int[] xIndices = new int[2000];
+    float[] vals = new float[2000];
+
+    int x = -100;
+
+    for (int i = 0; i < xIndices.length; i++) {
+
+      // small, medium and very large gaps exercise every delta-of-delta code
+      switch (random.nextInt(4)) {
+      case 0:
+        x += 1;
+        break;
+      case 1:
+        x += random.nextInt(300);
+        break;
+      case 2:
+        x += random.nextInt(5000);
+        break;
+      default:
+        x += random.nextInt(1 << 20);
+      }
+
+      xIndices[i] = x;
+      vals[i] = Float.intBitsToFloat(random.nextInt());
+    }
+
+    CompressedEntryStore store = new CompressedEntryStore(64);
+
+    for (int i = 0; i < xIndices.length; i++)
+      store.append(xIndices[i], vals[i]);
+
+    // random access in both directions decodes different blocks
+    for (int i = xIndices.length - 1; i >= 0; i--) {
+      assertEquals(xIndices[i], store.getXIndex(i));
+      assertSameBits(vals[i], store.getVal(i));
+    }
+  }
+
+  @Test
+  public void roundTripsAcrossBlockBoundaries() {
+
+    CompressedEntryStore store = new CompressedEntryStore(8);
+
+    // two full blocks and a partial last block
+    for (int i = 0; i < 21; i++)
+      store.append(i * 3, i);
+
+    assertEquals(21, store.size());
+    assertEquals(3, store.getBlockCount());
+
+    for (int b = 0; b < 3; b++) {
+      assertEquals(b * 8 * 3, store.getBlockFirstXIndex(b));
+      assertEquals(Math.min(b * 8 + 7, 20) * 3, store.getBlockLastXIndex(b));
+    }
+
+    for (int i = 0; i < 21; i++) {
+      assertEquals(i * 3, store.getXIndex(i));
+      assertEquals(i, store.getVal(i), 0f);
+    }
+  }
+
+  @Test
+  public void readsEntriesAppendedToTheCachedBlock() {
+
+    CompressedEntryStore store = new CompressedEntryStore(8);
+
+    for (int i = 0; i < 11; i++) {
+
+      store.append(i, i * 2f);
+
+      // the partial last block is decoded again after each append
+      assertEquals(i * 2f, store.getVal(i), 0f);
+      assertEquals(i, store.getXIndex(i));
+    }
+  }
+
+  @Test
+  public void findsEntriesByXIndex() {
+
+    CompressedEntryStore store = new CompressedEntryStore(4);
+
+    for (int i = 0; i < 10; i++)
+      store.append(i * 10, i);
+
+    assertEquals(0, store.getEntryIndexAtOrAfter(-1));
+    assertEquals(0, store.getEntryIndexAtOrAfter(0));
+    assertEquals(1, store.getEntryIndexAtOrAfter(1));
+    assertEquals(4, store.getEntryIndexAtOrAfter(40));
+    assertEquals(5, store.getEntryIndexAtOrAfter(41));
+    assertEquals(9, store.getEntryIndexAtOrAfter(90));
+    assertEquals(10, store.getEntryIndexAtOrAfter(91));
+  }
+
+  @Test
+  public void keepsTheStatistics() {
+
+    CompressedEntryStore store = new CompressedEntryStore(4);
+
+    store.append(0, 2f);
+    store.append(1, -5f);
+    store.append(3, 4f);
+    store.append(2, 1f);
+
+    assertEquals(-5f, store.getYMin(), 0f);
+    assertEquals(4f, store.getYMax(), 0f);
+    assertEquals(12f, store.getYValueSum(), 0f);
+    assertFalse(store.isSorted());
+  }
+
+  @Test
+  public void keepsTheExtremesOfEveryBlock() {
+
+    CompressedEntryStore store = new CompressedEntryStore(8);
+    Random random = new Random(5);
+
+    float[] vals = new float[100];
+
+    for (int i = 0; i < vals.length; i++) {
+      vals[i] = random.nextFloat() * 200f - 100f;
+      store.append(i, vals[i]);
+    }
+
+    assertEquals(13, store.getBlockCount());
+
+    for (int b = 0; b < store.getBlockCount(); b++) {
+      assertEquals(min(vals, b * 8, Math.min(b * 8 + 8, 100)), store.getBlockMin(b), 0f);
+      assertEquals(max(vals, b * 8, Math.min(b * 8 + 8, 100)), store.getBlockMax(b), 0f);
+    }
+
+    // ranges that cover whole blocks, parts of blocks and the last block
+    for (int round = 0; round < 500; round++) {
+
+      int from = random.nextInt(vals.length);
+      int to = from + 1 + random.nextInt(vals.length - from);
+
+      assertEquals(min(vals, from, to), store.getYMin(from, to), 0f);
+      assertEquals(max(vals, from, to), store.getYMax(from, to), 0f);
+    }
+  }
+
+  @Test
+  public void snapshotIsNotAffectedByAppending() {
+
+    CompressedEntryStore store = new CompressedEntryStore(4);
+
+    for (int i = 0; i < 6; i++)
+      store.append(i, i);
+
+    CompressedEntryStore snapshot = store.snapshot();
+
+    for (int i = 6; i < 20; i++)
+      store.append(i, -i);
+
+    assertEquals(6, snapshot.size());
+    assertEquals(5f, snapshot.getYMax(), 0f);
+    assertEquals(5, snapshot.getBlockLastXIndex(1));
+
+    for (int i = 0; i < 6; i++)
+      assertEquals(i, snapshot.getVal(i), 0f);
+
+    try {
+      snapshot.append(6, 0f);
+      fail("snapshots must not be modified");
+    } catch (IllegalStateException e) {
+      // expected
+    }
+  }
+
+  private static float min(float[] vals, int from, int to) {
+
+    float min = Float.MAX_VALUE;
+
+    for (int i = from; i < to; i++)
+      min = Math.min(min, vals[i]);
+
+    return min;
+  }
+
+  private static float max(float[] vals, int from, int to) {
+
+    float max = -Float.MAX_VALUE;
+
+    for (int i = from; i < to; i++)
+      max = Math.max(max, vals[i]);
+
+    return max;
+  }
+
+  private static void assertSameBits(float expected, float actual) {
+    assertEquals(Float.floatToRawIntBits(expected), Float.floatToRawIntBits(actual));
+  }
+}
@@ -0,0 +1,50 @@
+package com.github.mikephil.charting.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+public class DataSetTest {
+
+  @Test
+  public void returnsTheEntryArrayUntilASnapshotIsTaken() {
+
+    ArrayList<Entry> entries = new ArrayList<Entry>();
+
+    for (int i = 0; i < 5; i++)
+      entries.add(new Entry(i, i));
+
+    LineDataSet set = new LineDataSet(entries, "");
+
+    assertTrue(set.hasYVals());
+    assertSame(entries, set.getYVals());
+
+    set.snapshot();
+
+    assertFalse(set.hasYVals());
+
+    try {
+      set.getYVals();
+      fail("the entries are held in chunks, changes to a list would be lost");
+    } catch (UnsupportedOperationException e) {
+      // expected
+    }
+
+    // the copy is detached from the DataSet
+    ArrayList<Entry> copy = set.copyYVals();
+    assertEquals(5, copy.size());
+
+    copy.clear();
+    set.addEntry(new Entry(5f, 5));
+
+    assertEquals(0, copy.size());
+    assertEquals(6, set.copyYVals().size());
+    assertEquals(6, set.getEntryCount());
+  }
+}
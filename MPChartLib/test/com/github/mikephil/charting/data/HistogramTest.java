@@ -0,0 +1,203 @@
+package com.github.mikephil.charting.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+public class HistogramTest {
+
+  @Test
+  public void countsSamplesInLinearBins() {
+
+    Histogram h = Histogram.linear(0, 10, 5);
+
+    assertEquals(5, h.getBinCount());
+    assertEquals(4.0, h.getLowerBound(2), 1e-12);
+    assertEquals(6.0, h.getUpperBound(2), 1e-12);
+
+    h.add(new double[] {
+        0, 1.99, 2, 5, 9.999, -0.001, 10, Double.NaN
+    }, 0, 8);
+
+    assertEquals(2, h.getCount(0));
+    assertEquals(1, h.getCount(1));
+    assertEquals(1, h.getCount(2));
+    assertEquals(0, h.getCount(3));
+    assertEquals(1, h.getCount(4));
+
+    assertEquals(1, h.getUnderflow());
+    assertEquals(2, h.getOverflow());
+    assertEquals(5, h.getTotal());
+  }
+
+  @Test
+  public void findsTheBinOfEveryBound() {
+
+    // bounds that are not exactly representable exercise the correction of
+    // the calculated bin
+    Histogram h = Histogram.linear(0.1, 0.7, 6);
+
+    for (int bin = 0; bin < h.getBinCount(); bin++) {
+      assertEquals(bin, h.getBin(h.getLowerBound(bin)));
+      assertEquals(bin, h.getBin(Math.nextDown(h.getUpperBound(bin))));
+    }
+  }
+
+  @Test
+  public void countsSamplesInLogarithmicBins() {
+
+    Histogram h = Histogram.logarithmic(1, 1000, 3);
+
+    assertEquals(1.0, h.getLowerBound(0), 0.0);
+    assertEquals(10.0, h.getLowerBound(1), 1e-9);
+    assertEquals(100.0, h.getLowerBound(2), 1e-9);
+    assertEquals(1000.0, h.getUpperBound(2), 0.0);
+
+    h.add(new float[] {
+        1f, 9.9f, 10f, 99f, 100f, 999f, 0.5f
+    }, 0, 7);
+
+    assertEquals(2, h.getCount(0));
+    assertEquals(2, h.getCount(1));
+    assertEquals(2, h.getCount(2));
+    assertEquals(1, h.getUnderflow());
+
+    for (int bin = 0; bin < h.getBinCount(); bin++)
+      assertEquals(bin, h.getBin(h.getLowerBound(bin)));
+  }
+
+  @Test
+  public void rejectsInvalidBins() {
+
+    try {
+      Histogram.linear(1, 1, 10);
+      fail("an empty range must be rejected");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+
+    try {
+      Histogram.linear(0, 1, 0);
+      fail("zero bins must be rejected");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+
+    try {
+      Histogram.logarithmic(0, 1, 10);
+      fail("logarithmic bins must start above zero");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void adaptsQuantileBinsToTheSamples() {
+
+    double[] samples = new double[1000];
+
+    for (int i = 0; i < samples.length; i++)
+      samples[i] = (double) i * i;
+
+    Histogram h = Histogram.quantiles(samples, 0, samples.length, 10);
+    h.add(samples, 0, samples.length);
+
+    assertEquals(10, h.getBinCount());
+    assertEquals(1000, h.getTotal());
+    assertEquals(0, h.getOverflow());
+
+    // every bin holds about a tenth of the samples
+    for (int bin = 0; bin < h.getBinCount(); bin++)
+      assertTrue(Math.abs(h.getCount(bin) - 100) <= 1);
+  }
+
+  @Test
+  public void mergesQuantileBinsOfRepeatedValues() {
+
+    double[] samples = new double[] {
+        1, 1, 1, 1, 1, 1, 1, 1, 2, 3
+    };
+
+    // the quantiles of all but the last bin are 1, their bins are merged
+    Histogram h = Histogram.quantiles(samples, 0, samples.length, 5);
+
+    assertEquals(1, h.getBinCount());
+    assertEquals(1.0, h.getLowerBound(0), 0.0);
+
+    h.add(samples, 0, samples.length);
+
+    assertEquals(10, h.getCount(0));
+    assertEquals(0, h.getOverflow());
+  }
+
+  @Test
+  public void mergesHistogramsWithTheSameBins() {
+
+    Histogram a = Histogram.linear(0, 4, 4);
+    Histogram b = a.emptyCopy();
+
+    a.add(0.5);
+    a.add(5);
+    b.add(0.5);
+    b.add(3.5);
+    b.add(-1);
+
+    a.merge(b);
+
+    assertEquals(2, a.getCount(0));
+    assertEquals(1, a.getCount(3));
+    assertEquals(1, a.getUnderflow());
+    assertEquals(1, a.getOverflow());
+    assertEquals(3, a.getTotal());
+    assertEquals(2f, a.getYMax(), 0f);
+
+    try {
+      a.merge(Histogram.linear(0, 4, 2));
+      fail("histograms with different bins must not be merged");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void providesTheBinsAsEntries() {
+
+    Histogram h = Histogram.linear(0, 3, 3);
+
+    h.add(0.5);
+    h.add(1.5);
+    h.add(1.5);
+    h.add(2.5);
+    h.add(2.5);
+    h.add(2.5);
+
+    assertEquals(3, h.size());
+    assertTrue(h.isSorted());
+    assertEquals(2, h.getXIndex(2));
+    assertEquals(3f, h.getVal(2), 0f);
+    assertEquals(1f, h.getYMin(), 0f);
+    assertEquals(3f, h.getYMax(), 0f);
+    assertEquals(6f, h.getYValueSum(), 0f);
+    assertEquals(0, h.getEntryIndexAtOrAfter(-5));
+    assertEquals(3, h.getEntryIndexAtOrAfter(7));
+  }
+
+  @Test
+  public void snapshotKeepsItsCounts() {
+
+    Histogram h = Histogram.linear(0, 2, 2);
+    h.add(0.5);
+
+    Histogram snapshot = h.snapshot();
+
+    h.add(0.5);
+    h.clear();
+
+    assertEquals(1, snapshot.getCount(0));
+    assertEquals(1, snapshot.getTotal());
+    assertEquals(0, h.getTotal());
+    assertEquals(0f, h.getYMax(), 0f);
+  }
+}
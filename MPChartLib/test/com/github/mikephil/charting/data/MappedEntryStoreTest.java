@@ -0,0 +1,253 @@
+package com.github.mikephil.charting.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+public class MappedEntryStoreTest {
+
+  @Rule
+  public TemporaryFolder mFolder = new TemporaryFolder();
+
+  @Test
+  public void readsTheEntriesWritten() throws IOException {
+
+    File file = mFolder.newFile();
+
+    MappedEntryStore.Writer writer = new MappedEntryStore.Writer(file, 1000);
+
+    for (int i = 0; i < 1000; i++)
+      writer.add(i * 2, i % 7 - 3f);
+
+    writer.close();
+
+    assertEquals(MappedEntryStore.fileSize(1000), file.length());
+
+    MappedEntryStore store = MappedEntryStore.open(file);
+
+    assertEquals(1000, store.size());
+
+    for (int i = 0; i < 1000; i++) {
+      assertEquals(i * 2, store.getXIndex(i));
+      assertEquals(i % 7 - 3f, store.getVal(i), 0f);
+    }
+
+    assertTrue(store.isSorted());
+    assertEquals(-3f, store.getYMin(), 0f);
+    assertEquals(3f, store.getYMax(), 0f);
+    assertEquals(1713f, store.getYValueSum(), 0f);
+
+    assertEquals(0, store.getEntryIndexAtOrAfter(-5));
+    assertEquals(50, store.getEntryIndexAtOrAfter(99));
+    assertEquals(50, store.getEntryIndexAtOrAfter(100));
+    assertEquals(1000, store.getEntryIndexAtOrAfter(2000));
+  }
+
+  @Test
+  public void recordsUnsortedXIndices() throws IOException {
+
+    File file = mFolder.newFile();
+
+    MappedEntryStore.Writer writer = new MappedEntryStore.Writer(file, 3);
+    writer.add(0, 1f);
+    writer.add(2, 1f);
+    writer.add(1, 1f);
+    writer.close();
+
+    assertFalse(MappedEntryStore.open(file).isSorted());
+  }
+
+  @Test
+  public void writesAnEmptyFile() throws IOException {
+
+    File file = mFolder.newFile();
+
+    new MappedEntryStore.Writer(file, 0).close();
+
+    MappedEntryStore store = MappedEntryStore.open(file);
+
+    assertEquals(0, store.size());
+    assertEquals(0, store.getEntryIndexAtOrAfter(0));
+  }
+
+  @Test
+  public void rejectsAFileWithoutMagic() throws IOException {
+
+    File file = writeStore(10);
+    writeInt(file, 0, 0x12345678);
+
+    assertNotOpened(file);
+  }
+
+  @Test
+  public void rejectsAnUnsupportedVersion() throws IOException {
+
+    File file = writeStore(10);
+    writeInt(file, 4, MappedEntryStore.VERSION + 1);
+
+    assertNotOpened(file);
+  }
+
+  @Test
+  public void rejectsATruncatedFile() throws IOException {
+
+    File file = writeStore(10);
+
+    RandomAccessFile raf = new RandomAccessFile(file, "rw");
+    raf.setLength(MappedEntryStore.fileSize(10) - 4);
+    raf.close();
+
+    assertNotOpened(file);
+  }
+
+  @Test
+  public void rejectsANegativeCount() throws IOException {
+
+    File file = writeStore(10);
+    writeInt(file, 8, -1);
+
+    assertNotOpened(file);
+  }
+
+  @Test
+  public void rejectsAFileShorterThanTheHeader() throws IOException {
+
+    File file = mFolder.newFile();
+
+    RandomAccessFile raf = new RandomAccessFile(file, "rw");
+    raf.writeInt(MappedEntryStore.MAGIC);
+    raf.close();
+
+    assertNotOpened(file);
+  }
+
+  @Test
+  public void deletesTheFileIfEntriesAreMissing() throws IOException {
+
+    File file = mFolder.newFile();
+
+    MappedEntryStore.Writer writer = new MappedEntryStore.Writer(file, 10);
+    writer.add(0, 1f);
+
+    try {
+      writer.close();
+      fail("closing an incomplete file must fail");
+    } catch (IllegalStateException e) {
+      // expected
+    }
+
+    assertFalse(file.exists());
+
+    // closing again has no effect
+    writer.close();
+  }
+
+  @Test
+  public void rejectsMoreEntriesThanCanBeMapped() throws IOException {
+
+    // the largest file still fits into a single mapping
+    assertTrue(MappedEntryStore.fileSize(MappedEntryStore.MAX_ENTRIES) <= Integer.MAX_VALUE);
+    assertTrue(MappedEntryStore.fileSize(MappedEntryStore.MAX_ENTRIES + 1) > Integer.MAX_VALUE);
+
+    File file = mFolder.newFile();
+
+    try {
+      new MappedEntryStore.Writer(file, MappedEntryStore.MAX_ENTRIES + 1);
+      fail("more entries than can be mapped must be rejected");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+
+    // rejected before the file is touched
+    assertTrue(file.exists());
+    assertEquals(0, file.length());
+  }
+
+  @Test
+  public void rejectsACountLargerThanAFileCanHold() throws IOException {
+
+    File file = writeStore(10);
+    writeInt(file, 8, MappedEntryStore.MAX_ENTRIES + 1);
+
+    assertNotOpened(file);
+  }
+
+  @Test
+  public void rejectsMoreEntriesThanSpecified() throws IOException {
+
+    File file = mFolder.newFile();
+
+    MappedEntryStore.Writer writer = new MappedEntryStore.Writer(file, 1);
+    writer.add(0, 1f);
+
+    try {
+      writer.add(1, 1f);
+      fail("adding more entries than specified must fail");
+    } catch (IllegalStateException e) {
+      // expected
+    }
+
+    writer.close();
+
+    assertEquals(1, MappedEntryStore.open(file).size());
+  }
+
+  @Test
+  public void rejectsAddingAfterClosing() throws IOException {
+
+    MappedEntryStore.Writer writer = new MappedEntryStore.Writer(mFolder.newFile(), 0);
+    writer.close();
+
+    try {
+      writer.add(0, 1f);
+      fail("adding to a closed writer must fail");
+    } catch (IllegalStateException e) {
+      // expected
+    }
+  }
+
+  private File writeStore(int count) throws IOException {
+
+    File file = mFolder.newFile();
+
+    MappedEntryStore.Writer writer = new MappedEntryStore.Writer(file, count);
+
+    for (int i = 0; i < count; i++)
+      writer.add(i, i);
+
+    writer.close();
+
+    return file;
+  }
+
+  private static void writeInt(File file, long position, int value) throws IOException {
+
+    RandomAccessFile raf = new RandomAccessFile(file, "rw");
+
+    try {
+      raf.seek(position);
+      raf.writeInt(value);
+    } finally {
+      raf.close();
+    }
+  }
+
+  private static void assertNotOpened(File file) {
+
+    try {
+      MappedEntryStore.open(file);
+      fail("the file must be rejected");
+    } catch (IOException e) {
+      // expected
+    }
+  }
+}
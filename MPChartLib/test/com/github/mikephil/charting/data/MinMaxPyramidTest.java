@@ -0,0 +1,212 @@
+package com.github.mikephil.charting.data;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Random;
+
+public class MinMaxPyramidTest {
+
+  private static final int BASE = MinMaxPyramid.BASE_LEVEL;
+
+  @Test
+  public void aggregatesTheBucketsOfEachLevel() {
+
+    float[] vals = randomValues(1000, 1);
+
+    MinMaxPyramid pyramid = build(vals);
+
+    assertEquals(1000, pyramid.getCount());
+    assertMatches(vals, pyramid);
+  }
+
+  @Test
+  public void growsLevelsWhileAppending() {
+
+    MinMaxPyramid pyramid = new MinMaxPyramid();
+
+    assertEquals(BASE, pyramid.getLevelCount());
+
+    for (int i = 0; i < (1 << BASE); i++)
+      pyramid.add(i);
+
+    assertEquals(BASE, pyramid.getLevelCount());
+
+    pyramid.add(16f);
+
+    // the top level always has a single bucket
+    assertEquals(BASE + 1, pyramid.getLevelCount());
+    assertEquals(1, pyramid.getBucketCount(BASE + 1));
+    assertEquals(0f, pyramid.getMin(BASE + 1, 0), 0f);
+    assertEquals(16f, pyramid.getMax(BASE + 1, 0), 0f);
+    assertEquals(136.0, pyramid.getSum(BASE + 1, 0), 0.0);
+  }
+
+  @Test
+  public void choosesTheLevelForTheEntriesPerPixel() {
+
+    MinMaxPyramid pyramid = build(randomValues(10000, 2));
+
+    assertEquals(0, pyramid.getLevelForEntriesPerPixel(1f));
+    assertEquals(0, pyramid.getLevelForEntriesPerPixel(15.9f));
+    assertEquals(BASE, pyramid.getLevelForEntriesPerPixel(16f));
+    assertEquals(BASE, pyramid.getLevelForEntriesPerPixel(31f));
+    assertEquals(BASE + 1, pyramid.getLevelForEntriesPerPixel(32f));
+
+    // never above the top level
+    assertEquals(pyramid.getLevelCount(), pyramid.getLevelForEntriesPerPixel(1e9f));
+  }
+
+  @Test
+  public void updatesTheBucketsOfAChangedValue() {
+
+    float[] vals = randomValues(777, 3);
+
+    MinMaxPyramid pyramid = build(vals);
+    Random random = new Random(4);
+
+    for (int k = 0; k < 200; k++) {
+
+      int position = random.nextInt(vals.length);
+      vals[position] = random.nextFloat() * 400f - 200f;
+
+      pyramid.update(dataSet(vals), position);
+    }
+
+    assertMatches(vals, pyramid);
+  }
+
+  @Test
+  public void copyIsIndependent() {
+
+    float[] vals = randomValues(100, 5);
+
+    MinMaxPyramid pyramid = build(vals);
+    MinMaxPyramid copy = pyramid.copy();
+
+    for (int i = 0; i < 100; i++)
+      pyramid.add(1000f);
+
+    assertEquals(100, copy.getCount());
+    assertMatches(vals, copy);
+  }
+
+  @Test
+  public void survivesSerialization() throws IOException, ClassNotFoundException {
+
+    float[] vals = randomValues(5000, 6);
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    ObjectOutputStream out = new ObjectOutputStream(bytes);
+    out.writeObject(build(vals));
+    out.close();
+
+    ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+    MinMaxPyramid pyramid = (MinMaxPyramid) in.readObject();
+
+    assertMatches(vals, pyramid);
+
+    // appending still works after the arrays were trimmed
+    pyramid.add(-1000f);
+    assertEquals(-1000f, pyramid.getMin(pyramid.getLevelCount(), 0), 0f);
+  }
+
+  @Test
+  public void serializesAGrowingPyramidWithoutChangingIt()
+      throws IOException, ClassNotFoundException {
+
+    float[] vals = randomValues(1000, 8);
+
+    // appended values, the arrays have spare capacity
+    MinMaxPyramid pyramid = new MinMaxPyramid();
+
+    for (int i = 0; i < vals.length; i++)
+      pyramid.add(vals[i]);
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    ObjectOutputStream out = new ObjectOutputStream(bytes);
+    out.writeObject(pyramid);
+    out.close();
+
+    ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+    MinMaxPyramid read = (MinMaxPyramid) in.readObject();
+
+    assertMatches(vals, read);
+    assertMatches(vals, pyramid);
+
+    // the trimmed copy was written, not the spare capacity
+    ByteArrayOutputStream trimmed = new ByteArrayOutputStream();
+    out = new ObjectOutputStream(trimmed);
+    out.writeObject(pyramid.copy());
+    out.close();
+
+    assertEquals(trimmed.size(), bytes.size());
+  }
+
+  /**
+   * compares every bucket of the pyramid with the aggregates of the values
+   */
+  private static void assertMatches(float[] vals, MinMaxPyramid pyramid) {
+
+    for (int l = BASE; l <= pyramid.getLevelCount(); l++) {
+
+      int size = pyramid.getBucketSize(l);
+
+      assertEquals((vals.length + size - 1) / size, pyramid.getBucketCount(l));
+
+      for (int b = 0; b < pyramid.getBucketCount(l); b++) {
+
+        int from = b * size;
+        int to = Math.min(from + size, vals.length);
+
+        float min = Float.MAX_VALUE;
+        float max = -Float.MAX_VALUE;
+        double sum = 0;
+
+        for (int i = from; i < to; i++) {
+          min = Math.min(min, vals[i]);
+          max = Math.max(max, vals[i]);
+          sum += vals[i];
+        }
+
+        assertEquals(min, pyramid.getMin(l, b), 0f);
+        assertEquals(max, pyramid.getMax(l, b), 0f);
+        assertEquals(vals[from], pyramid.getFirst(l, b), 0f);
+        assertEquals(vals[to - 1], pyramid.getLast(l, b), 0f);
+        assertEquals(sum, pyramid.getSum(l, b), 1e-3);
+      }
+    }
+  }
+
+  private static MinMaxPyramid build(float[] vals) {
+    return MinMaxPyramid.build(dataSet(vals));
+  }
+
+  private static DataSet dataSet(float[] vals) {
+
+    ArrayList<Entry> entries = new ArrayList<Entry>(vals.length);
+
+    for (int i = 0; i < vals.length; i++)
+      entries.add(new Entry(vals[i], i));
+
+    return new LineDataSet(entries, "");
+  }
+
+  private static float[] randomValues(int count, long seed) {
+
+    Random random = new Random(seed);
+    float[] vals = new float[count];
+
+    for (int i = 0; i < count; i++)
+      vals[i] = random.nextFloat() * 200f - 100f;
+
+    return vals;
+  }
+}
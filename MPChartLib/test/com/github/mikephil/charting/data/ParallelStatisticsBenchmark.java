@@ -0,0 +1,137 @@
+package com.github.mikephil.charting.data;
+
+import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Compares calculating the statistics of the DataSets of a ChartData
+ * serially and in parallel (see ChartData.setParallelStatistics(...)) for
+ * every combination of the given DataSet counts and sizes, and prints the
+ * results as a table. Not a unit test, run it on the JVM with the library
+ * and the test classes on the class path:
+ *
+ * java com.github.mikephil.charting.data.ParallelStatisticsBenchmark [dataSet counts] [entries per DataSet]
+ *
+ * Both arguments are comma separated lists, e.g. "1,4,16" "10000,1000000".
+ */
+public class ParallelStatisticsBenchmark {
+
+  private static final int WARMUP_ROUNDS = 10;
+  private static final int ROUNDS = 20;
+
+  private static final int[] DEFAULT_DATASET_COUNTS = new int[] {
+      1, 2, 4, 8, 16
+  };
+
+  private static final int[] DEFAULT_ENTRY_COUNTS = new int[] {
+      1000, 10000, 100000, 500000
+  };
+
+  public static void main(String[] args) {
+
+    int[] dataSetCounts = args.length > 0 ? parseList(args[0]) : DEFAULT_DATASET_COUNTS;
+    int[] entryCounts = args.length > 1 ? parseList(args[1]) : DEFAULT_ENTRY_COUNTS;
+
+    int processors = Runtime.getRuntime().availableProcessors();
+
+    // the pool is shut down at the end, the benchmark does not depend on
+    // the daemon threads of the default pool to exit
+    ExecutorService executor = Executors.newFixedThreadPool(processors);
+
+    System.out.println(processors + " processors");
+    System.out.println(String.format("%9s %9s %12s %12s %8s", "DataSets", "entries",
+        "serial ms", "parallel ms", "speedup"));
+
+    try {
+      for (int dataSetCount : dataSetCounts) {
+        for (int entryCount : entryCounts) {
+
+          ArrayList<LineDataSet> dataSets = createDataSets(dataSetCount, entryCount);
+          ChartData<LineDataSet> data = new ChartData<LineDataSet>(createXVals(entryCount),
+              dataSets);
+
+          ChartData.setParallelStatistics(false, 0);
+          double serial = measure(data, dataSets);
+
+          // threshold 0, every recalculation is parallel
+          ChartData.setParallelStatistics(true, 0);
+          ChartData.setStatisticsExecutor(executor);
+          double parallel = measure(data, dataSets);
+
+          ChartData.setStatisticsExecutor(null);
+
+          System.out.println(String.format("%9d %9d %12.2f %12.2f %7.2fx", dataSetCount,
+              entryCount, serial, parallel, serial / parallel));
+        }
+      }
+    } finally {
+      ChartData.setStatisticsExecutor(null);
+      ChartData.setParallelStatistics(false, 200000);
+      executor.shutdown();
+    }
+  }
+
+  private static int[] parseList(String arg) {
+
+    String[] parts = arg.split(",");
+    int[] values = new int[parts.length];
+
+    for (int i = 0; i < parts.length; i++)
+      values[i] = Integer.parseInt(parts[i].trim());
+
+    return values;
+  }
+
+  private static ArrayList<Long> createXVals(int entryCount) {
+
+    ArrayList<Long> xVals = new ArrayList<Long>(entryCount);
+
+    for (int i = 0; i < entryCount; i++)
+      xVals.add((long) i);
+
+    return xVals;
+  }
+
+  private static ArrayList<LineDataSet> createDataSets(int dataSetCount, int entryCount) {
+
+    ArrayList<LineDataSet> dataSets = new ArrayList<LineDataSet>(dataSetCount);
+
+    for (int d = 0; d < dataSetCount; d++) {
+
+      ArrayList<Entry> entries = new ArrayList<Entry>(entryCount);
+
+      for (int i = 0; i < entryCount; i++)
+        entries.add(new Entry((float) Math.sin(i * 0.001 + d) * 100f, i));
+
+      dataSets.add(new LineDataSet(entries, "DataSet " + d));
+    }
+
+    return dataSets;
+  }
+
+  /**
+   * returns the average time in milliseconds to recalculate the statistics
+   * of all DataSets
+   */
+  private static double measure(ChartData<LineDataSet> data, ArrayList<LineDataSet> dataSets) {
+
+    for (int r = 0; r < WARMUP_ROUNDS; r++)
+      recalculate(data, dataSets);
+
+    long start = System.nanoTime();
+
+    for (int r = 0; r < ROUNDS; r++)
+      recalculate(data, dataSets);
+
+    return (System.nanoTime() - start) / 1e6 / ROUNDS;
+  }
+
+  private static void recalculate(ChartData<LineDataSet> data, ArrayList<LineDataSet> dataSets) {
+
+    for (int i = 0; i < dataSets.size(); i++)
+      dataSets.get(i).notifyDataSetChanged();
+
+    data.notifyDataChanged();
+  }
+}
@@ -0,0 +1,126 @@
+package com.github.mikephil.charting.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+public class XLabelCacheTest {
+
+  @Test
+  public void evictsTheLeastRecentlyUsedLabel() {
+
+    XLabelCache cache = new XLabelCache(3);
+
+    cache.put(1, "1");
+    cache.put(2, "2");
+    cache.put(3, "3");
+
+    // 1 is used again, 2 is the least recently used label now
+    assertEquals("1", cache.get(1));
+
+    cache.put(4, "4");
+
+    assertEquals(3, cache.size());
+    assertNull(cache.get(2));
+    assertEquals("1", cache.get(1));
+    assertEquals("3", cache.get(3));
+    assertEquals("4", cache.get(4));
+  }
+
+  @Test
+  public void behavesLikeAnAccessOrderedMap() {
+
+    final int maxSize = 50;
+
+    XLabelCache cache = new XLabelCache(maxSize);
+
+    Map<Integer, String> expected = new LinkedHashMap<Integer, String>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Integer, String> eldest) {
+        return size() > maxSize;
+      }
+    };
+
+    Random random = new Random(3);
+
+    for (int i = 0; i < 20000; i++) {
+
+      // indices far apart and negative ones share buckets
+      int index = random.nextInt(200) * (random.nextBoolean() ? 1024 : -7);
+
+      String label = cache.get(index);
+      assertEquals(expected.get(index), label);
+
+      if (label == null) {
+        cache.put(index, "x" + index);
+        expected.put(index, "x" + index);
+      }
+
+      assertEquals(expected.size(), cache.size());
+    }
+  }
+
+  @Test
+  public void keepsStridedLabelsThatFitIntoTheCache() {
+
+    long[] xVals = new long[100000];
+
+    for (int i = 0; i < xVals.length; i++)
+      xVals[i] = i;
+
+    ArrayList<Entry> entries = new ArrayList<Entry>();
+    entries.add(new Entry(1f, 0));
+
+    ArrayList<LineDataSet> dataSets = new ArrayList<LineDataSet>();
+    dataSets.add(new LineDataSet(entries, ""));
+
+    final int[] formatted = new int[1];
+
+    ChartData<LineDataSet> data = new ChartData<LineDataSet>(xVals, dataSets,
+        new ChartData.LabelFormatter() {
+          @Override
+          public String formatValue(long value) {
+            formatted[0]++;
+            return String.valueOf(value);
+          }
+        });
+
+    // every 64th label, as many labels as the cache holds
+    for (int round = 0; round < 3; round++) {
+      for (int i = 0; i < 1024; i++)
+        assertEquals(String.valueOf(i * 64), data.getXLabel(i * 64));
+    }
+
+    assertEquals(1024, formatted[0]);
+
+    data.populateXLabels();
+    data.getXLabel(0);
+
+    assertEquals(1025, formatted[0]);
+  }
+
+  @Test
+  public void clearsAllLabels() {
+
+    XLabelCache cache = new XLabelCache(4);
+
+    for (int i = 0; i < 10; i++)
+      cache.put(i, "" + i);
+
+    cache.clear();
+
+    assertEquals(0, cache.size());
+
+    for (int i = 0; i < 10; i++)
+      assertNull(cache.get(i));
+
+    cache.put(5, "5");
+    assertEquals("5", cache.get(5));
+  }
+}
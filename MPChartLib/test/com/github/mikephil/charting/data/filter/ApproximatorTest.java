@@ -0,0 +1,79 @@
+package com.github.mikephil.charting.data.filter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.github.mikephil.charting.data.Entry;
+import com.github.mikephil.charting.data.LineDataSet;
+import com.github.mikephil.charting.data.filter.Approximator.ApproximatorType;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+public class ApproximatorTest {
+
+  @Test
+  public void minMaxDoesNotEnableThePyramid() {
+
+    LineDataSet set = randomDataSet(4096, 1);
+
+    Approximator approximator = new Approximator(ApproximatorType.MIN_MAX, 0);
+    approximator.filter(set, 64f);
+
+    assertFalse(set.isPyramidEnabled());
+  }
+
+  @Test
+  public void minMaxKeepsTheExtremesInsideTheirBucket() {
+
+    LineDataSet set = randomDataSet(4096, 2);
+
+    Approximator approximator = new Approximator(ApproximatorType.MIN_MAX, 0);
+    ArrayList<Entry> reduced = approximator.filter(set, 64f);
+
+    assertEquals(4096 / 64 * 4, reduced.size());
+
+    for (int b = 0; b < reduced.size() / 4; b++) {
+
+      int first = b * 64;
+      int last = first + 63;
+
+      float min = Float.MAX_VALUE;
+      float max = -Float.MAX_VALUE;
+
+      for (int i = first; i <= last; i++) {
+        min = Math.min(min, set.getValAt(i));
+        max = Math.max(max, set.getValAt(i));
+      }
+
+      Entry[] bucket = new Entry[4];
+
+      for (int i = 0; i < 4; i++) {
+        bucket[i] = reduced.get(b * 4 + i);
+
+        // no xIndex outside of the bucket, in order
+        assertTrue(bucket[i].getXIndex() >= first && bucket[i].getXIndex() <= last);
+        assertTrue(i == 0 || bucket[i].getXIndex() >= bucket[i - 1].getXIndex());
+      }
+
+      assertEquals(set.getValAt(first), bucket[0].getVal(), 0f);
+      assertEquals(set.getValAt(last), bucket[3].getVal(), 0f);
+      assertEquals(min, Math.min(bucket[1].getVal(), bucket[2].getVal()), 0f);
+      assertEquals(max, Math.max(bucket[1].getVal(), bucket[2].getVal()), 0f);
+    }
+  }
+
+  private static LineDataSet randomDataSet(int count, long seed) {
+
+    Random random = new Random(seed);
+    ArrayList<Entry> entries = new ArrayList<Entry>(count);
+
+    for (int i = 0; i < count; i++)
+      entries.add(new Entry(random.nextFloat() * 100f, i));
+
+    return new LineDataSet(entries, "");
+  }
+}
@@ -0,0 +1,199 @@
+package com.github.mikephil.charting.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.github.mikephil.charting.data.DataSet;
+import com.github.mikephil.charting.data.Entry;
+import com.github.mikephil.charting.data.ScatterDataSet;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+public class EntryGridTest {
+
+  @Test
+  public void findsTheClosestEntry() {
+
+    ArrayList<DataSet> dataSets = randomDataSets(3, 500, 17);
+
+    EntryGrid grid = new EntryGrid();
+    grid.build(dataSets);
+
+    assertEquals(1500, grid.size());
+
+    Random random = new Random(18);
+
+    for (int q = 0; q < 500; q++) {
+
+      float x = random.nextFloat() * 1100f - 50f;
+      float y = random.nextFloat() * 110f - 5f;
+      float scaleX = 0.5f + random.nextFloat() * 2f;
+      float scaleY = 0.5f + random.nextFloat() * 20f;
+      float radius = random.nextFloat() * 40f;
+
+      int position = grid.findClosest(x, y, scaleX, scaleY, radius);
+
+      // compare the distance, entries at the same distance may differ
+      float expected = closestDistance(dataSets, x, y, scaleX, scaleY);
+
+      if (expected > radius * radius) {
+        assertEquals(-1, position);
+      } else {
+        assertTrue(position >= 0);
+
+        DataSet set = dataSets.get(grid.getDataSetIndex(position));
+        int entry = grid.getEntryIndex(position);
+
+        assertEquals(expected, distance(set, entry, x, y, scaleX, scaleY), expected * 1e-5f);
+      }
+    }
+  }
+
+  @Test
+  public void findsAllEntriesInARectangleInOrder() {
+
+    ArrayList<DataSet> dataSets = randomDataSets(2, 800, 19);
+
+    EntryGrid grid = new EntryGrid();
+    grid.build(dataSets);
+
+    Random random = new Random(20);
+
+    for (int q = 0; q < 200; q++) {
+
+      float xMin = random.nextFloat() * 1000f;
+      float yMin = random.nextFloat() * 100f;
+      float xMax = xMin + random.nextFloat() * 300f;
+      float yMax = yMin + random.nextFloat() * 30f;
+
+      int hits = grid.findInRect(xMin, yMin, xMax, yMax);
+      int hit = 0;
+
+      for (int d = 0; d < dataSets.size(); d++) {
+
+        DataSet set = dataSets.get(d);
+
+        for (int i = 0; i < set.getEntryCount(); i++) {
+
+          float x = set.getXIndexAt(i);
+          float y = set.getValAt(i);
+
+          if (x < xMin || x > xMax || y < yMin || y > yMax)
+            continue;
+
+          assertEquals(d, grid.getHitDataSetIndex(hit));
+          assertEquals(i, grid.getHitEntryIndex(hit));
+          hit++;
+        }
+      }
+
+      assertEquals(hit, hits);
+    }
+  }
+
+  @Test
+  public void leavesOutNaNValues() {
+
+    ArrayList<Entry> entries = new ArrayList<Entry>();
+    entries.add(new Entry(1f, 0));
+    entries.add(new Entry(Float.NaN, 1));
+    entries.add(new Entry(3f, 2));
+
+    ArrayList<DataSet> dataSets = new ArrayList<DataSet>();
+    dataSets.add(new ScatterDataSet(entries, ""));
+
+    EntryGrid grid = new EntryGrid();
+    grid.build(dataSets);
+
+    assertEquals(2, grid.size());
+    assertEquals(2, grid.findInRect(-1f, -10f, 10f, 10f));
+    assertEquals(0, grid.getHitEntryIndex(0));
+    assertEquals(2, grid.getHitEntryIndex(1));
+  }
+
+  @Test
+  public void handlesEmptyAndDegenerateData() {
+
+    EntryGrid grid = new EntryGrid();
+    ArrayList<DataSet> dataSets = new ArrayList<DataSet>();
+
+    grid.build(dataSets);
+
+    assertEquals(0, grid.size());
+    assertEquals(-1, grid.findClosest(0f, 0f, 1f, 1f, 10f));
+    assertEquals(0, grid.findInRect(-10f, -10f, 10f, 10f));
+
+    // all entries at the same point
+    ArrayList<Entry> entries = new ArrayList<Entry>();
+
+    for (int i = 0; i < 5; i++)
+      entries.add(new Entry(2f, 7));
+
+    dataSets.add(new ScatterDataSet(entries, ""));
+    grid.build(dataSets);
+
+    assertEquals(5, grid.size());
+    assertTrue(grid.findClosest(7.5f, 2f, 1f, 1f, 1f) >= 0);
+    assertEquals(5, grid.findInRect(7f, 2f, 7f, 2f));
+  }
+
+  @Test
+  public void canBeRebuiltWithLessEntries() {
+
+    EntryGrid grid = new EntryGrid();
+
+    grid.build(randomDataSets(1, 1000, 21));
+
+    ArrayList<DataSet> small = randomDataSets(1, 10, 22);
+    grid.build(small);
+
+    assertEquals(10, grid.size());
+    assertEquals(10, grid.findInRect(-1f, -1f, 1001f, 101f));
+  }
+
+  private static float closestDistance(ArrayList<DataSet> dataSets, float x, float y,
+      float scaleX, float scaleY) {
+
+    float best = Float.MAX_VALUE;
+
+    for (int d = 0; d < dataSets.size(); d++) {
+      for (int i = 0; i < dataSets.get(d).getEntryCount(); i++)
+        best = Math.min(best, distance(dataSets.get(d), i, x, y, scaleX, scaleY));
+    }
+
+    return best;
+  }
+
+  /**
+   * returns the squared distance of the entry from the point
+   */
+  private static float distance(DataSet set, int entry, float x, float y, float scaleX,
+      float scaleY) {
+
+    float dx = (set.getXIndexAt(entry) - x) * scaleX;
+    float dy = (set.getValAt(entry) - y) * scaleY;
+
+    return dx * dx + dy * dy;
+  }
+
+  private static ArrayList<DataSet> randomDataSets(int count, int entries, long seed) {
+
+    Random random = new Random(seed);
+    ArrayList<DataSet> dataSets = new ArrayList<DataSet>();
+
+    for (int d = 0; d < count; d++) {
+
+      ArrayList<Entry> yVals = new ArrayList<Entry>();
+
+      for (int i = 0; i < entries; i++)
+        yVals.add(new Entry(random.nextFloat() * 100f, random.nextInt(1000)));
+
+      dataSets.add(new ScatterDataSet(yVals, "DataSet " + d));
+    }
+
+    return dataSets;
+  }
+}
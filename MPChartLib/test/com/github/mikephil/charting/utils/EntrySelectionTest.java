@@ -0,0 +1,95 @@
+package com.github.mikephil.charting.utils;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+public class EntrySelectionTest {
+
+  @Test
+  public void storesRunsPerDataSet() {
+
+    EntrySelection selection = new EntrySelection(3);
+
+    selection.addRun(0, 0, 5);
+    selection.addRun(0, 10, 12);
+    selection.addRun(2, 3, 4);
+
+    assertEquals(3, selection.getDataSetCount());
+    assertEquals(2, selection.getRunCount(0));
+    assertEquals(0, selection.getRunCount(1));
+    assertEquals(1, selection.getRunCount(2));
+
+    assertArrayEquals(new int[] {0, 5, 10, 12}, selection.getRuns(0));
+    assertArrayEquals(new int[0], selection.getRuns(1));
+    assertArrayEquals(new int[] {3, 4}, selection.getRuns(2));
+
+    assertEquals(7, selection.getEntryCount(0));
+    assertEquals(0, selection.getEntryCount(1));
+    assertEquals(8, selection.getEntryCount());
+  }
+
+  @Test
+  public void extendsAdjacentRuns() {
+
+    EntrySelection selection = new EntrySelection(1);
+
+    selection.addRun(0, 0, 2);
+    selection.addRun(0, 2, 4);
+    selection.addRun(0, 4, 4);
+    selection.addRun(0, 4, 6);
+
+    assertArrayEquals(new int[] {0, 6}, selection.getRuns(0));
+  }
+
+  @Test
+  public void growsAfterTheRunsWereRead() {
+
+    EntrySelection selection = new EntrySelection(1);
+
+    // more runs than the initial capacity
+    for (int r = 0; r < 10; r++)
+      selection.addRun(0, r * 3, r * 3 + 2);
+
+    assertEquals(20, selection.getRuns(0).length);
+
+    selection.addRun(0, 40, 41);
+
+    assertEquals(11, selection.getRunCount(0));
+    assertEquals(21, selection.getEntryCount(0));
+    assertTrue(selection.contains(0, 40));
+  }
+
+  @Test
+  public void rejectsRunsOutOfOrder() {
+
+    EntrySelection selection = new EntrySelection(1);
+    selection.addRun(0, 5, 10);
+
+    try {
+      selection.addRun(0, 9, 12);
+      fail("overlapping runs must be rejected");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void containsTheEntriesOfItsRuns() {
+
+    EntrySelection selection = new EntrySelection(2);
+
+    for (int r = 0; r < 100; r++)
+      selection.addRun(0, r * 10, r * 10 + 3);
+
+    for (int i = 0; i < 1010; i++)
+      assertEquals("entry " + i, i % 10 < 3 && i < 1000, selection.contains(0, i));
+
+    assertFalse(selection.contains(0, -1));
+    assertFalse(selection.contains(1, 0));
+  }
+}
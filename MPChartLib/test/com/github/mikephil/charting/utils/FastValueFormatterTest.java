@@ -0,0 +1,113 @@
+package com.github.mikephil.charting.utils;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Locale;
+import java.util.Random;
+
+public class FastValueFormatterTest {
+
+  private Locale mDefaultLocale;
+
+  @Before
+  public void setUp() {
+    // the separators are taken from the default locale
+    mDefaultLocale = Locale.getDefault();
+    Locale.setDefault(Locale.US);
+  }
+
+  @After
+  public void tearDown() {
+    Locale.setDefault(mDefaultLocale);
+  }
+
+  @Test
+  public void writesTheConfiguredDigits() {
+
+    FastValueFormatter f = new FastValueFormatter(2, false, false);
+
+    assertEquals("0.00", f.format(0));
+    assertEquals("1234.57", f.format(1234.567));
+    assertEquals("-1.50", f.format(-1.5));
+    assertEquals("10.00", f.format(9.999));
+    assertEquals("0.00", f.format(-0.001));
+
+    assertEquals("1235", new FastValueFormatter(0, false, false).format(1234.5));
+    assertEquals("0.000000001", new FastValueFormatter(9, false, false).format(1e-9));
+  }
+
+  @Test
+  public void separatesThousands() {
+
+    FastValueFormatter f = new FastValueFormatter(1, true, false);
+
+    assertEquals("999.0", f.format(999));
+    assertEquals("1,000.0", f.format(1000));
+    assertEquals("-12,345,678.9", f.format(-12345678.9));
+  }
+
+  @Test
+  public void abbreviatesMultiplesOfThousand() {
+
+    FastValueFormatter f = new FastValueFormatter(0, false, true);
+
+    assertEquals("5K", f.format(5000));
+    assertEquals("3M", f.format(3000000));
+    assertEquals("7B", f.format(7e9));
+    assertEquals("7000B", f.format(7e12));
+    assertEquals("2500", f.format(2500));
+    assertEquals("999", f.format(999));
+
+    // fractions are not abbreviated
+    assertEquals("1500.5", new FastValueFormatter(1, false, true).format(1500.5));
+  }
+
+  @Test
+  public void writesSpecialValues() {
+
+    FastValueFormatter f = new FastValueFormatter(2, true, true);
+
+    assertEquals("NaN", f.format(Double.NaN));
+    assertEquals("\u221E", f.format(Double.POSITIVE_INFINITY));
+    assertEquals("-\u221E", f.format(Double.NEGATIVE_INFINITY));
+  }
+
+  @Test
+  public void writesLargeValuesInScientificNotation() {
+
+    FastValueFormatter f = new FastValueFormatter(2, true, false);
+
+    assertEquals("1.00E15", f.format(1e15));
+    assertEquals("-2.50E20", f.format(-2.5e20));
+    assertEquals("1.00E100", f.format(1e100));
+
+    // the mantissa rounds up to 10
+    assertEquals("1.00E16", f.format(9.999e15));
+
+    assertEquals("-1.80E308", f.format(-Double.MAX_VALUE));
+  }
+
+  @Test
+  public void memoizedValuesMatchFreshOnes() {
+
+    FastValueFormatter memoized = new FastValueFormatter(3, true, true);
+    Random random = new Random(11);
+
+    double[] values = new double[2000];
+
+    for (int i = 0; i < values.length; i++)
+      values[i] = random.nextInt(4) == 0 ? random.nextInt(10) * 1000 : random.nextGaussian() * 1e6;
+
+    // values are formatted repeatedly and share memo slots
+    for (int round = 0; round < 2; round++) {
+      for (int i = 0; i < values.length; i++) {
+        assertEquals(new FastValueFormatter(3, true, true).format(values[i]),
+            memoized.format(values[i]));
+      }
+    }
+  }
+}
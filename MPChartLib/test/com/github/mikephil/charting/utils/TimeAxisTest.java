@@ -0,0 +1,171 @@
+package com.github.mikephil.charting.utils;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+public class TimeAxisTest {
+
+  private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
+  private static final long SECOND = 1000L;
+  private static final long HOUR = 3600 * SECOND;
+  private static final long DAY = 24 * HOUR;
+
+  private final TimeAxis mAxis = new TimeAxis();
+  private final char[] mLabel = new char[8];
+
+  @Test
+  public void alignsTicksToFullMinutes() {
+
+    // every 10 seconds for an hour, starting 5 seconds after midnight
+    long[] xVals = series(utc(2024, Calendar.JANUARY, 1) + 5 * SECOND, 10 * SECOND, 360);
+
+    int ticks = mAxis.computeTicks(xVals, 0, xVals.length - 1, 6, UTC);
+
+    assertEquals(TimeAxis.UNIT_MINUTE, mAxis.getUnit());
+    assertEquals(5, ticks);
+
+    for (int i = 0; i < ticks; i++) {
+      assertEquals(utc(2024, Calendar.JANUARY, 1) + (i + 1) * 600 * SECOND, mAxis.getTickTime(i));
+      assertEquals(59.5f + i * 60, mAxis.getTickXIndex(i), 1e-3f);
+    }
+
+    assertEquals("00:10", format(0));
+    assertEquals("00:50", format(4));
+  }
+
+  @Test
+  public void alignsTicksToTheHoursOfTheTimeZone() {
+
+    TimeZone kolkata = TimeZone.getTimeZone("Asia/Kolkata");
+
+    // hourly values on full UTC hours, the zone is 5:30 ahead of UTC
+    long[] xVals = series(utc(2024, Calendar.MARCH, 1), HOUR, 48);
+
+    int ticks = mAxis.computeTicks(xVals, 0, xVals.length - 1, 8, kolkata);
+
+    assertEquals(TimeAxis.UNIT_HOUR, mAxis.getUnit());
+    assertEquals(8, ticks);
+
+    // every 6 hours of local time, the first one at 06:00 local time
+    assertEquals(utc(2024, Calendar.MARCH, 1) + 30 * 60 * SECOND, mAxis.getTickTime(0));
+    assertEquals(0.5f, mAxis.getTickXIndex(0), 1e-3f);
+    assertEquals("06:00", format(0));
+    assertEquals("12:00", format(1));
+  }
+
+  @Test
+  public void alignsTicksToMonths() {
+
+    long[] xVals = series(utc(2023, Calendar.JANUARY, 1), DAY, 365);
+
+    int ticks = mAxis.computeTicks(xVals, 0, xVals.length - 1, 12, UTC);
+
+    assertEquals(TimeAxis.UNIT_MONTH, mAxis.getUnit());
+    assertEquals(12, ticks);
+
+    assertEquals(0f, mAxis.getTickXIndex(0), 0f);
+    assertEquals(31f, mAxis.getTickXIndex(1), 0f);
+    assertEquals(59f, mAxis.getTickXIndex(2), 0f);
+
+    assertEquals("Jan 2023", format(0));
+    assertEquals("Dec 2023", format(11));
+  }
+
+  @Test
+  public void alignsTicksToMondays() {
+
+    // 2024-01-01 is a monday
+    long[] xVals = series(utc(2024, Calendar.JANUARY, 3), DAY, 60);
+
+    int ticks = mAxis.computeTicks(xVals, 0, xVals.length - 1, 10, UTC);
+
+    assertEquals(TimeAxis.UNIT_WEEK, mAxis.getUnit());
+    assertEquals(8, ticks);
+
+    for (int i = 0; i < ticks; i++)
+      assertEquals(utc(2024, Calendar.JANUARY, 8) + i * 7 * DAY, mAxis.getTickTime(i));
+
+    assertEquals("Jan 08", format(0));
+  }
+
+  @Test
+  public void restartsDaySteps() {
+
+    // January and the first ten days of february
+    long[] xVals = series(utc(2024, Calendar.JANUARY, 1), DAY, 41);
+
+    int ticks = mAxis.computeTicks(xVals, 0, xVals.length - 1, 20, UTC);
+
+    assertEquals(TimeAxis.UNIT_DAY, mAxis.getUnit());
+    assertEquals(21, ticks);
+
+    // every second day of the month, february starts at its first day
+    assertEquals("Jan 31", format(15));
+    assertEquals("Feb 01", format(16));
+    assertEquals("Feb 09", format(20));
+  }
+
+  @Test
+  public void formatsYears() {
+
+    long[] xVals = new long[30];
+
+    for (int i = 0; i < xVals.length; i++)
+      xVals[i] = utc(2000 + i, Calendar.JULY, 1);
+
+    int ticks = mAxis.computeTicks(xVals, 0, xVals.length - 1, 6, UTC);
+
+    assertEquals(TimeAxis.UNIT_YEAR, mAxis.getUnit());
+    assertEquals(5, ticks);
+    assertEquals("2005", format(0));
+    assertEquals("2010", format(1));
+  }
+
+  @Test
+  public void computesTicksOfTheVisibleRangeOnly() {
+
+    long[] xVals = series(utc(2024, Calendar.JANUARY, 1), HOUR, 24 * 10);
+
+    // the range is extended to the x-values around it, from 24 to 48
+    int ticks = mAxis.computeTicks(xVals, 24.5f, 47.5f, 4, UTC);
+
+    assertEquals(5, ticks);
+
+    for (int i = 0; i < ticks; i++)
+      assertEquals(24f + i * 6, mAxis.getTickXIndex(i), 0f);
+  }
+
+  @Test
+  public void computesNoTicksWithoutValues() {
+    assertEquals(0, mAxis.computeTicks(new long[0], 0, 10, 5, UTC));
+    assertEquals(0, mAxis.computeTicks(new long[] {0, 1}, 0, 1, 0, UTC));
+  }
+
+  private String format(int tick) {
+    return new String(mLabel, 0, mAxis.formatTick(tick, mLabel));
+  }
+
+  private static long[] series(long start, long step, int count) {
+
+    long[] xVals = new long[count];
+
+    for (int i = 0; i < count; i++)
+      xVals[i] = start + i * step;
+
+    return xVals;
+  }
+
+  private static long utc(int year, int month, int day) {
+
+    Calendar c = Calendar.getInstance(UTC);
+    c.clear();
+    c.set(year, month, day);
+
+    return c.getTimeInMillis();
+  }
+}
@@ -0,0 +1,112 @@
+package com.github.mikephil.charting.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class UtilsTest {
+
+  @Test
+  public void selectsTheKthLargestValue() {
+
+    Random random = new Random(13);
+
+    for (int round = 0; round < 200; round++) {
+
+      int count = 1 + random.nextInt(100);
+
+      // few distinct values produce many duplicates
+      int distinct = 1 + random.nextInt(count + 1);
+      float[] values = new float[count];
+
+      for (int i = 0; i < count; i++)
+        values[i] = random.nextInt(distinct) - distinct / 2;
+
+      float[] sorted = values.clone();
+      Arrays.sort(sorted);
+
+      for (int k = 1; k <= count; k++)
+        assertEquals(sorted[count - k], Utils.selectKthLargest(values.clone(), count, k), 0f);
+    }
+  }
+
+  @Test
+  public void ordersNaNBelowAllValues() {
+
+    Random random = new Random(14);
+
+    for (int round = 0; round < 200; round++) {
+
+      int count = 1 + random.nextInt(60);
+      float[] values = new float[count];
+      int numbers = 0;
+
+      for (int i = 0; i < count; i++) {
+        if (random.nextInt(3) == 0) {
+          values[i] = Float.NaN;
+        } else {
+          values[i] = random.nextInt(20) - 10;
+          numbers++;
+        }
+      }
+
+      // Arrays.sort() puts NaN last, the numbers are the first ones
+      float[] sorted = values.clone();
+      Arrays.sort(sorted);
+
+      for (int k = 1; k <= count; k++) {
+
+        float[] selected = values.clone();
+        float kth = Utils.selectKthLargest(selected, count, k);
+
+        if (k > numbers) {
+          assertTrue(Float.isNaN(kth));
+          continue;
+        }
+
+        assertEquals(sorted[numbers - k], kth, 0f);
+
+        // the first k values are the largest ones, as the pie chart expects
+        for (int i = 0; i < k; i++)
+          assertTrue(selected[i] >= kth);
+      }
+    }
+  }
+
+  @Test
+  public void selectsOnlyAmongTheFirstValues() {
+
+    float[] values = new float[] {
+        3f, 1f, 2f, 100f, 200f
+    };
+
+    assertEquals(3f, Utils.selectKthLargest(values, 3, 1), 0f);
+    assertEquals(1f, Utils.selectKthLargest(values, 3, 3), 0f);
+
+    // the values after count are not touched
+    assertEquals(100f, values[3], 0f);
+    assertEquals(200f, values[4], 0f);
+  }
+
+  @Test
+  public void rejectsAnInvalidK() {
+
+    float[] values = new float[] {
+        1f, 2f
+    };
+
+    for (int k : new int[] {0, 3}) {
+      try {
+        Utils.selectKthLargest(values, 2, k);
+        fail("k = " + k + " must be rejected");
+      } catch (IllegalArgumentException e) {
+        // expected
+      }
+    }
+  }
+}